@@ -0,0 +1,155 @@
+package org.janelia.saalfeldlab.n5;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects attribute insertions and removals for one or more groups, to be
+ * applied with {@link N5Writer#applyAttributes(AttributeTransaction)}.
+ * <p>
+ * Writers apply all changes of a group at once, e.g. by reading its
+ * attributes once, applying all changes in the order they were added, and
+ * writing the attributes once.
+ *
+ * <pre>
+ * {@code
+ * n5.applyAttributes(new AttributeTransaction()
+ * 		.setAttribute("dataset", "resolution", new double[]{4, 4, 40})
+ * 		.setAttribute("dataset", "unit", "nm")
+ * 		.removeAttribute("dataset", "offset"));
+ * }
+ * </pre>
+ */
+public class AttributeTransaction {
+
+	/**
+	 * An insertion or removal of an attribute.
+	 */
+	public static class Operation {
+
+		private final String normalAttributePath;
+		private final Object attribute;
+		private final boolean remove;
+
+		private Operation(final String normalAttributePath, final Object attribute, final boolean remove) {
+
+			this.normalAttributePath = normalAttributePath;
+			this.attribute = attribute;
+			this.remove = remove;
+		}
+
+		/**
+		 * @return the normalized attribute path
+		 */
+		public String getAttributePath() {
+
+			return normalAttributePath;
+		}
+
+		/**
+		 * @return the attribute to set, null for removals
+		 */
+		public Object getAttribute() {
+
+			return attribute;
+		}
+
+		/**
+		 * @return true if the attribute is removed, false if it is set
+		 */
+		public boolean isRemove() {
+
+			return remove;
+		}
+	}
+
+	private final Map<String, List<Operation>> operations = new LinkedHashMap<>();
+
+	private List<Operation> operations(final String groupPath) {
+
+		return operations.computeIfAbsent(N5URI.normalizeGroupPath(groupPath), k -> new ArrayList<>());
+	}
+
+	/**
+	 * Sets an attribute, see
+	 * {@link N5Writer#setAttribute(String, String, Object)}.
+	 *
+	 * @param groupPath
+	 *            group path
+	 * @param attributePath
+	 *            the key
+	 * @param attribute
+	 *            the attribute
+	 * @param <T>
+	 *            the attribute type
+	 * @return this transaction
+	 */
+	public <T> AttributeTransaction setAttribute(final String groupPath, final String attributePath, final T attribute) {
+
+		operations(groupPath).add(new Operation(N5URI.normalizeAttributePath(attributePath), attribute, false));
+		return this;
+	}
+
+	/**
+	 * Sets a map of attributes, see
+	 * {@link N5Writer#setAttributes(String, Map)}.
+	 *
+	 * @param groupPath
+	 *            group path
+	 * @param attributes
+	 *            the attribute map of attribute paths and values
+	 * @return this transaction
+	 */
+	public AttributeTransaction setAttributes(final String groupPath, final Map<String, ?> attributes) {
+
+		final List<Operation> groupOperations = operations(groupPath);
+		for (final Map.Entry<String, ?> entry : attributes.entrySet())
+			groupOperations.add(new Operation(N5URI.normalizeAttributePath(entry.getKey()), entry.getValue(), false));
+		return this;
+	}
+
+	/**
+	 * Removes an attribute, see
+	 * {@link N5Writer#removeAttribute(String, String)}.
+	 *
+	 * @param groupPath
+	 *            group path
+	 * @param attributePath
+	 *            of attribute to remove
+	 * @return this transaction
+	 */
+	public AttributeTransaction removeAttribute(final String groupPath, final String attributePath) {
+
+		operations(groupPath).add(new Operation(N5URI.normalizeAttributePath(attributePath), null, true));
+		return this;
+	}
+
+	/**
+	 * @return the normalized paths of all groups with changes, in the order
+	 *         they were first changed
+	 */
+	public Set<String> getGroupPaths() {
+
+		return Collections.unmodifiableSet(operations.keySet());
+	}
+
+	/**
+	 * @param normalGroupPath
+	 *            normalized group path
+	 * @return the changes of a group in the order they were added
+	 */
+	public List<Operation> getOperations(final String normalGroupPath) {
+
+		final List<Operation> groupOperations = operations.get(normalGroupPath);
+		return groupOperations == null ? Collections.emptyList() : Collections.unmodifiableList(groupOperations);
+	}
+
+	public boolean isEmpty() {
+
+		return operations.isEmpty();
+	}
+}
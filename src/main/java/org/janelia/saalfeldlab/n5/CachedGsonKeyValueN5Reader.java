@@ -1,6 +1,7 @@
 package org.janelia.saalfeldlab.n5;
 
 import java.lang.reflect.Type;
+import java.util.Map;
 
 import com.google.gson.JsonSyntaxException;
 import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
@@ -39,18 +40,14 @@ public interface CachedGsonKeyValueN5Reader extends GsonKeyValueN5Reader, N5Json
 	default DatasetAttributes getDatasetAttributes(final String pathName) {
 
 		final String normalPath = N5URI.normalizeGroupPath(pathName);
-		final JsonElement attributes;
+
+		if (cacheMeta())
+			return getCache().getDatasetAttributes(normalPath, getAttributesKey());
 
 		if (!datasetExists(pathName))
 			return null;
 
-		if (cacheMeta()) {
-			attributes = getCache().getAttributes(normalPath, getAttributesKey());
-		} else {
-			attributes = GsonKeyValueN5Reader.super.getAttributes(normalPath);
-		}
-
-		return createDatasetAttributes(attributes);
+		return createDatasetAttributes(GsonKeyValueN5Reader.super.getAttributes(normalPath));
 	}
 
 	default DatasetAttributes normalGetDatasetAttributes(final String pathName) throws N5IOException {
@@ -69,14 +66,15 @@ public interface CachedGsonKeyValueN5Reader extends GsonKeyValueN5Reader, N5Json
 		final String normalPathName = N5URI.normalizeGroupPath(pathName);
 		final String normalizedAttributePath = N5URI.normalizeAttributePath(key);
 
-		final JsonElement attributes;
+		final JsonElement attribute;
 		if (cacheMeta()) {
-			attributes = getCache().getAttributes(normalPathName, getAttributesKey());
+			attribute = GsonUtils.getAttribute(getCache().getAttributes(normalPathName, getAttributesKey()), normalizedAttributePath);
 		} else {
-			attributes = GsonKeyValueN5Reader.super.getAttributes(normalPathName);
+			// avoid parsing all attributes
+			attribute = readAttribute(normalPathName, normalizedAttributePath);
 		}
 		try {
-			return GsonUtils.readAttribute(attributes, normalizedAttributePath, clazz, getGson());
+			return GsonUtils.parseAttributeElement(attribute, getGson(), clazz);
 		} catch (JsonSyntaxException | NumberFormatException | ClassCastException e) {
 			throw new N5Exception.N5ClassCastException(e);
 		}
@@ -90,14 +88,15 @@ public interface CachedGsonKeyValueN5Reader extends GsonKeyValueN5Reader, N5Json
 
 		final String normalPathName = N5URI.normalizeGroupPath(pathName);
 		final String normalizedAttributePath = N5URI.normalizeAttributePath(key);
-		JsonElement attributes;
+		final JsonElement attribute;
 		if (cacheMeta()) {
-			attributes = getCache().getAttributes(normalPathName, getAttributesKey());
+			attribute = GsonUtils.getAttribute(getCache().getAttributes(normalPathName, getAttributesKey()), normalizedAttributePath);
 		} else {
-			attributes = GsonKeyValueN5Reader.super.getAttributes(normalPathName);
+			// avoid parsing all attributes
+			attribute = readAttribute(normalPathName, normalizedAttributePath);
 		}
 		try {
-			return GsonUtils.readAttribute(attributes, normalizedAttributePath, type, getGson());
+			return GsonUtils.parseAttributeElement(attribute, getGson(), type);
 		} catch (JsonSyntaxException | NumberFormatException | ClassCastException e) {
 			throw new N5Exception.N5ClassCastException(e);
 		}
@@ -169,6 +168,12 @@ public interface CachedGsonKeyValueN5Reader extends GsonKeyValueN5Reader, N5Json
 		return isGroupFromAttributes(normalCacheKey, attributes) && createDatasetAttributes(attributes) != null;
 	}
 
+	@Override
+	default DatasetAttributes getDatasetAttributesFromAttributes(final String normalCacheKey, final JsonElement attributes) {
+
+		return createDatasetAttributes(attributes);
+	}
+
 	/**
 	 * Reads or creates the attributes map of a group or dataset.
 	 *
@@ -208,6 +213,70 @@ public interface CachedGsonKeyValueN5Reader extends GsonKeyValueN5Reader, N5Json
 		return GsonKeyValueN5Reader.super.list(normalPathName);
 	}
 
+	/**
+	 * Populates the cache from the consolidated metadata, if present, such
+	 * that the attributes and children of all groups and datasets are
+	 * available without further requests to the backend.
+	 * <p>
+	 * Consolidated metadata are a snapshot. Changes made after they were
+	 * written are not visible until they are
+	 * {@link GsonKeyValueN5Writer#consolidateMetadata() consolidated} again.
+	 *
+	 * @return true if consolidated metadata were loaded
+	 * @throws N5IOException
+	 *             if the consolidated metadata cannot be read
+	 */
+	default boolean loadConsolidatedMetadata() throws N5IOException {
+
+		if (!cacheMeta())
+			return false;
+
+		final JsonObject metadata = readConsolidatedMetadata();
+		if (metadata == null)
+			return false;
+
+		final N5JsonCache cache = getCache();
+		for (final Map.Entry<String, JsonElement> entry : metadata.entrySet()) {
+			if (!entry.getValue().isJsonObject())
+				continue;
+
+			final JsonObject node = entry.getValue().getAsJsonObject();
+			final JsonElement attributes = node.get(CONSOLIDATED_ATTRIBUTES_KEY);
+			final JsonElement children = node.get(CONSOLIDATED_CHILDREN_KEY);
+			cache.addConsolidatedNode(
+					N5URI.normalizeGroupPath(entry.getKey()),
+					getAttributesKey(),
+					attributes == null || attributes.isJsonNull() ? null : attributes,
+					children != null && children.isJsonArray() ? getGson().fromJson(children, String[].class) : null);
+		}
+		return true;
+	}
+
+	@Override
+	default String getVersionFromContainer(final String normalPathName) {
+
+		return getVersionFromContainer(normalPathName, null);
+	}
+
+	/**
+	 * Returns the {@link KeyValueAccess#version(String, String) version} of
+	 * the attributes key, checked with one conditional request if the backend
+	 * supports it. Only if there are no attributes, the version of the group
+	 * directory tells whether the group exists. Children are not versioned,
+	 * the cache lists them again only after reloading a changed node.
+	 */
+	@Override
+	default String getVersionFromContainer(final String normalPathName, final String knownVersion) {
+
+		final KeyValueAccess kva = getKeyValueAccess();
+		final String attributesVersion = kva.version(kva.compose(getURI(), normalPathName, getAttributesKey()), knownVersion);
+		if (attributesVersion == null || !attributesVersion.isEmpty())
+			return attributesVersion;
+
+		final String groupVersion = kva.version(kva.compose(getURI(), normalPathName));
+		return groupVersion == null ? attributesVersion : groupVersion;
+	}
+
 	/**
 	 * Check for attributes that are required for a group to be a dataset.
 	 *
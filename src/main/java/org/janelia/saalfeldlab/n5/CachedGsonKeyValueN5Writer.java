@@ -1,5 +1,11 @@
 package org.janelia.saalfeldlab.n5;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
 import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
 
 import com.google.gson.Gson;
@@ -35,6 +41,7 @@ public interface CachedGsonKeyValueN5Writer extends CachedGsonKeyValueN5Reader,
 			throw new N5Exception("Can't make a group on existing dataset.");
 
 		getKeyValueAccess().createDirectories(absoluteGroupPath(normalPath));
+		invalidateConsolidatedMetadata();
 
 		if (cacheMeta()) {
 			// check all nodes that are parents of the added node, if they have
@@ -60,6 +67,45 @@ public interface CachedGsonKeyValueN5Writer extends CachedGsonKeyValueN5Reader,
 		}
 	}
 
+	/**
+	 * Creates groups and their ancestors, and adds each group to the cache
+	 * once. Like {@link #createGroup(String)}, this fails if one of the
+	 * groups is a dataset already, each group is checked once.
+	 */
+	@Override
+	default void createGroups(final Collection<String> normalGroupPaths) throws N5Exception {
+
+		for (final String normalPath : new HashSet<>(normalGroupPaths)) {
+			if (!groupExists(normalPath) && datasetExists(normalPath))
+				throw new N5Exception("Can't make a group on existing dataset.");
+		}
+
+		GsonKeyValueN5Writer.super.createGroups(normalGroupPaths);
+
+		if (cacheMeta()) {
+			final Set<String> cached = new HashSet<>();
+			for (final String normalPath : normalGroupPaths) {
+				String[] pathParts = getKeyValueAccess().components(normalPath);
+				String parent = N5URI.normalizeGroupPath("/");
+				if (pathParts.length == 0) {
+					pathParts = new String[]{""};
+				}
+				for (final String child : pathParts) {
+
+					final String childPath = parent.isEmpty() ? child : parent + "/" + child;
+					if (cached.add(childPath)) {
+						getCache().initializeNonemptyCache(childPath, getAttributesKey());
+						getCache().updateCacheInfo(childPath, getAttributesKey());
+
+						if (!child.isEmpty())
+							getCache().addChildIfPresent(parent, child);
+					}
+					parent = childPath;
+				}
+			}
+		}
+	}
+
 	@Override
 	default void writeAttributes(
 			final String normalGroupPath,
@@ -107,6 +153,7 @@ public interface CachedGsonKeyValueN5Writer extends CachedGsonKeyValueN5Reader,
 
 		if (getKeyValueAccess().isDirectory(groupPath))
 			getKeyValueAccess().delete(groupPath);
+		invalidateConsolidatedMetadata();
 
 		if (cacheMeta()) {
 			final String parentPath = getKeyValueAccess().parent(normalPath);
@@ -116,4 +163,29 @@ public interface CachedGsonKeyValueN5Writer extends CachedGsonKeyValueN5Reader,
 		/* an IOException should have occurred if anything had failed midway */
 		return true;
 	}
+
+	@Override
+	default boolean remove(
+			final String path,
+			final ExecutorService exec,
+			final boolean exclusive) throws N5Exception, InterruptedException, ExecutionException {
+
+		final String normalPath = N5URI.normalizeGroupPath(path);
+		final String groupPath = absoluteGroupPath(normalPath);
+
+		try {
+			if (getKeyValueAccess().isDirectory(groupPath))
+				getKeyValueAccess().delete(groupPath, exec, exclusive);
+		} finally {
+			/* some contents may have been deleted even if the removal failed */
+			if (cacheMeta()) {
+				final String parentPath = getKeyValueAccess().parent(normalPath);
+				getCache().removeCache(parentPath, normalPath);
+			}
+			invalidateConsolidatedMetadata();
+		}
+
+		/* an exception should have occurred if anything had failed midway */
+		return true;
+	}
 }
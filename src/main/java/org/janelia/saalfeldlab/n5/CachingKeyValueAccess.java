@@ -0,0 +1,760 @@
+package org.janelia.saalfeldlab.n5;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
+import org.janelia.saalfeldlab.n5.N5Exception.N5NoSuchKeyException;
+import org.janelia.saalfeldlab.n5.readdata.LazyRead;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.janelia.saalfeldlab.n5.readdata.VolatileReadData;
+
+/**
+ * A {@link KeyValueAccess} that caches data read from another, typically
+ * remote, {@link KeyValueAccess} in a local directory, e.g.
+ *
+ * <pre>
+ * {@code
+ * final CachingKeyValueAccess kva = new CachingKeyValueAccess(new HttpKeyValueAccess(), cacheDirectory, 10L << 30, true);
+ * final N5Reader n5 = new N5KeyValueReader(kva, "https://example.org/data.n5", new GsonBuilder(), true);
+ * ...
+ * kva.close();
+ * }
+ * </pre>
+ *
+ * Each range of a key that is materialized, e.g. a whole attributes file, or
+ * the index and blocks of a shard, is stored in its own file. Ranges are served
+ * from the local copy of the whole key if present, otherwise from a local copy
+ * of exactly the same range. The cache is limited to a budget of bytes, least
+ * recently used ranges are evicted first. The index of cached ranges is
+ * written on {@link #flush()} and {@link #close()} and loaded when the
+ * directory is opened again, such that the cache persists across sessions.
+ * <p>
+ * If {@code revalidate} is true, {@link #createReadData(String)} compares the
+ * {@link KeyValueAccess#version(String) version} of the key, e.g. its
+ * {@code ETag} or {@code Last-Modified} header, with the version it was cached
+ * with, and discards outdated ranges. Otherwise, cached ranges are served
+ * without accessing the remote at all, and {@link #exists(String)},
+ * {@link #isFile(String)} and {@link #size(String)} of cached keys are answered
+ * locally, too. Keys that were deleted on the remote by someone else therefore
+ * still exist until they are {@link #invalidate(String) invalidated} or
+ * evicted. Ranges cached without revalidation have no version, they are
+ * discarded when the cache directory is opened with revalidation. Listing is
+ * never cached.
+ * <p>
+ * Writes and deletes are passed through and discard the affected cached
+ * ranges. Only one {@code CachingKeyValueAccess} may use a cache directory at
+ * a time.
+ */
+public class CachingKeyValueAccess implements KeyValueAccess, Closeable {
+
+	private static final String INDEX_FILE = "index";
+
+	private static final String DATA_SUFFIX = ".bin";
+
+	private static final int INDEX_MAGIC = 0x4e354343; // "N5CC"
+
+	private static final int INDEX_FORMAT = 1;
+
+	/**
+	 * A range of a key, the length of ranges that extend to the end of the key
+	 * is -1.
+	 */
+	private static final class RangeKey {
+
+		final String key;
+		final long offset;
+		final long length;
+
+		RangeKey(final String key, final long offset, final long length) {
+
+			this.key = key;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		boolean isWholeKey() {
+
+			return offset == 0 && length < 0;
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+
+			if (!(other instanceof RangeKey))
+				return false;
+			final RangeKey range = (RangeKey)other;
+			return offset == range.offset && length == range.length && key.equals(range.key);
+		}
+
+		@Override
+		public int hashCode() {
+
+			return 31 * (31 * key.hashCode() + Long.hashCode(offset)) + Long.hashCode(length);
+		}
+	}
+
+	private static final class CachedRange {
+
+		final RangeKey range;
+		final long fileId;
+		final int bytes;
+
+		CachedRange(final RangeKey range, final long fileId, final int bytes) {
+
+			this.range = range;
+			this.fileId = fileId;
+			this.bytes = bytes;
+		}
+	}
+
+	private static final class CachedKey {
+
+		final String version;
+		long size = -1;
+		final Set<RangeKey> ranges = new HashSet<>();
+
+		CachedKey(final String version) {
+
+			this.version = version;
+		}
+	}
+
+	private final KeyValueAccess remote;
+
+	private final Path directory;
+
+	private final long maxBytes;
+
+	private final boolean revalidate;
+
+	/**
+	 * Cached ranges in access order, guarded by {@code this}.
+	 */
+	private final LinkedHashMap<RangeKey, CachedRange> ranges = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Cached keys, guarded by {@code this}.
+	 */
+	private final HashMap<String, CachedKey> keys = new HashMap<>();
+
+	private long usedBytes = 0;
+
+	private long nextFileId = 0;
+
+	private boolean dirty = false;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param remote
+	 *            the cached {@link KeyValueAccess}
+	 * @param directory
+	 *            the cache directory, created if it does not exist
+	 * @param maxBytes
+	 *            the maximum number of bytes cached
+	 * @param revalidate
+	 *            whether cached keys are revalidated with their remote version
+	 *            when read
+	 * @throws N5IOException
+	 *             if the cache directory cannot be created
+	 */
+	public CachingKeyValueAccess(
+			final KeyValueAccess remote,
+			final Path directory,
+			final long maxBytes,
+			final boolean revalidate) throws N5IOException {
+
+		if (maxBytes < 0)
+			throw new IllegalArgumentException("maxBytes must not be negative");
+		this.remote = remote;
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		this.revalidate = revalidate;
+		try {
+			Files.createDirectories(directory);
+		} catch (IOException | UncheckedIOException e) {
+			throw new N5IOException("Failed to create cache directory " + directory, e);
+		}
+		loadIndex();
+	}
+
+	public KeyValueAccess getRemote() {
+
+		return remote;
+	}
+
+	public Path getDirectory() {
+
+		return directory;
+	}
+
+	public long getMaxBytes() {
+
+		return maxBytes;
+	}
+
+	/**
+	 * @return the number of bytes currently cached
+	 */
+	public synchronized long getUsedBytes() {
+
+		return usedBytes;
+	}
+
+	/**
+	 * @return the number of ranges served from the cache
+	 */
+	public long getHitCount() {
+
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of ranges read from the remote
+	 */
+	public long getMissCount() {
+
+		return misses.sum();
+	}
+
+	private Path dataFile(final long fileId) {
+
+		return directory.resolve(Long.toHexString(fileId) + DATA_SUFFIX);
+	}
+
+	/**
+	 * Loads the index if it exists and is valid, and deletes data files that
+	 * are not in the index.
+	 */
+	private synchronized void loadIndex() {
+
+		final Path indexFile = directory.resolve(INDEX_FILE);
+		if (Files.exists(indexFile)) {
+			try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+				if (in.readInt() == INDEX_MAGIC && in.readInt() == INDEX_FORMAT) {
+					final int numRanges = in.readInt();
+					for (int i = 0; i < numRanges; ++i) {
+						final String key = in.readUTF();
+						final String version = in.readBoolean() ? in.readUTF() : null;
+						final long size = in.readLong();
+						final RangeKey range = new RangeKey(key, in.readLong(), in.readLong());
+						final long fileId = in.readLong();
+						final int bytes = in.readInt();
+						nextFileId = Math.max(nextFileId, fileId + 1);
+						final Path file = dataFile(fileId);
+						if (Files.exists(file) && Files.size(file) == bytes)
+							put(new CachedRange(range, fileId, bytes), version, size);
+					}
+				}
+			} catch (IOException | UncheckedIOException e) {
+				/* start over with an empty cache */
+				ranges.clear();
+				keys.clear();
+				usedBytes = 0;
+			}
+		}
+
+		final Set<Path> cachedFiles = new HashSet<>();
+		for (final CachedRange cachedRange : ranges.values())
+			cachedFiles.add(dataFile(cachedRange.fileId));
+		try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + DATA_SUFFIX)) {
+			for (final Path file : files) {
+				if (!cachedFiles.contains(file))
+					Files.deleteIfExists(file);
+			}
+		} catch (IOException | UncheckedIOException e) {
+			throw new N5IOException("Failed to clean up cache directory " + directory, e);
+		}
+		deleteFiles(evict());
+		dirty = false;
+	}
+
+	private synchronized void writeIndex() throws N5IOException {
+
+		if (!dirty)
+			return;
+
+		final Path indexFile = directory.resolve(INDEX_FILE);
+		final Path tmpFile = directory.resolve(INDEX_FILE + ".tmp");
+		try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+			out.writeInt(INDEX_MAGIC);
+			out.writeInt(INDEX_FORMAT);
+			out.writeInt(ranges.size());
+			/* least recently used first, such that loading restores the access order */
+			for (final CachedRange cachedRange : ranges.values()) {
+				final CachedKey cachedKey = keys.get(cachedRange.range.key);
+				out.writeUTF(cachedRange.range.key);
+				out.writeBoolean(cachedKey.version != null);
+				if (cachedKey.version != null)
+					out.writeUTF(cachedKey.version);
+				out.writeLong(cachedKey.size);
+				out.writeLong(cachedRange.range.offset);
+				out.writeLong(cachedRange.range.length);
+				out.writeLong(cachedRange.fileId);
+				out.writeInt(cachedRange.bytes);
+			}
+		} catch (IOException | UncheckedIOException e) {
+			throw new N5IOException("Failed to write cache index " + indexFile, e);
+		}
+		try {
+			Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | UncheckedIOException e) {
+			throw new N5IOException("Failed to write cache index " + indexFile, e);
+		}
+		dirty = false;
+	}
+
+	/**
+	 * Adds a cached range, discarding ranges of the key that were cached with
+	 * another version.
+	 *
+	 * @return the discarded ranges
+	 */
+	private synchronized List<CachedRange> put(final CachedRange cachedRange, final String version, final long size) {
+
+		final List<CachedRange> discarded = new ArrayList<>();
+		final String key = cachedRange.range.key;
+		CachedKey cachedKey = keys.get(key);
+		if (cachedKey != null && !Objects.equals(cachedKey.version, version)) {
+			discarded.addAll(remove(key));
+			cachedKey = null;
+		}
+		if (cachedKey == null) {
+			cachedKey = new CachedKey(version);
+			keys.put(key, cachedKey);
+		}
+		if (size >= 0)
+			cachedKey.size = size;
+
+		final CachedRange previous = ranges.put(cachedRange.range, cachedRange);
+		if (previous != null) {
+			usedBytes -= previous.bytes;
+			discarded.add(previous);
+		}
+		cachedKey.ranges.add(cachedRange.range);
+		usedBytes += cachedRange.bytes;
+		dirty = true;
+		return discarded;
+	}
+
+	/**
+	 * Removes the least recently used ranges until the cache fits its budget.
+	 *
+	 * @return the removed ranges
+	 */
+	private synchronized List<CachedRange> evict() {
+
+		final List<CachedRange> evicted = new ArrayList<>();
+		for (final Iterator<CachedRange> it = ranges.values().iterator(); usedBytes > maxBytes && it.hasNext();) {
+			final CachedRange cachedRange = it.next();
+			it.remove();
+			usedBytes -= cachedRange.bytes;
+			final CachedKey cachedKey = keys.get(cachedRange.range.key);
+			cachedKey.ranges.remove(cachedRange.range);
+			if (cachedKey.ranges.isEmpty())
+				keys.remove(cachedRange.range.key);
+			evicted.add(cachedRange);
+			dirty = true;
+		}
+		return evicted;
+	}
+
+	/**
+	 * Removes all ranges of a key.
+	 *
+	 * @return the removed ranges
+	 */
+	private synchronized List<CachedRange> remove(final String key) {
+
+		final List<CachedRange> removed = new ArrayList<>();
+		final CachedKey cachedKey = keys.remove(key);
+		if (cachedKey != null) {
+			for (final RangeKey range : cachedKey.ranges) {
+				final CachedRange cachedRange = ranges.remove(range);
+				usedBytes -= cachedRange.bytes;
+				removed.add(cachedRange);
+			}
+			dirty = true;
+		}
+		return removed;
+	}
+
+	private void deleteFiles(final List<CachedRange> cachedRanges) {
+
+		for (final CachedRange cachedRange : cachedRanges) {
+			try {
+				Files.deleteIfExists(dataFile(cachedRange.fileId));
+			} catch (IOException | UncheckedIOException e) {
+				/* orphaned files are deleted when the cache is opened again */
+			}
+		}
+	}
+
+	/**
+	 * Discards all cached ranges of a key.
+	 */
+	public void invalidate(final String normalPath) {
+
+		deleteFiles(remove(normalPath));
+	}
+
+	/**
+	 * Discards all cached ranges of a key and of all keys below it.
+	 */
+	private void invalidateAll(final String normalPath) {
+
+		final String prefix = normalPath.endsWith("/") ? normalPath : normalPath + "/";
+		final List<CachedRange> removed = new ArrayList<>();
+		synchronized (this) {
+			for (final String key : new ArrayList<>(keys.keySet())) {
+				if (key.equals(normalPath) || key.startsWith(prefix))
+					removed.addAll(remove(key));
+			}
+		}
+		deleteFiles(removed);
+	}
+
+	private synchronized CachedRange lookup(final RangeKey range) {
+
+		return ranges.get(range);
+	}
+
+	private synchronized CachedKey lookup(final String key) {
+
+		return keys.get(key);
+	}
+
+	/**
+	 * Without revalidation, versions are not fetched from the remote, ranges
+	 * are added with the version their key was cached with, if any, such that
+	 * they do not discard each other.
+	 */
+	private synchronized String cachedVersion(final String key) {
+
+		final CachedKey cachedKey = keys.get(key);
+		return cachedKey == null ? null : cachedKey.version;
+	}
+
+	private synchronized long nextFileId() {
+
+		return nextFileId++;
+	}
+
+	/**
+	 * Reads from a cached range, or returns null if its file was evicted.
+	 */
+	private byte[] readCached(final CachedRange cachedRange, final long offset, final int length) throws N5IOException {
+
+		final byte[] data = new byte[length];
+		final ByteBuffer buffer = ByteBuffer.wrap(data);
+		try (final FileChannel channel = FileChannel.open(dataFile(cachedRange.fileId), StandardOpenOption.READ)) {
+			long position = offset;
+			while (buffer.hasRemaining()) {
+				final int n = channel.read(buffer, position);
+				if (n < 0)
+					throw new EOFException();
+				position += n;
+			}
+			return data;
+		} catch (NoSuchFileException | EOFException e) {
+			return null;
+		} catch (IOException | UncheckedIOException e) {
+			throw new N5IOException("Failed to read from cache directory " + directory, e);
+		}
+	}
+
+	/**
+	 * Stores a range in the cache. Failures are ignored, the range is just not
+	 * cached.
+	 */
+	private void store(final RangeKey range, final String version, final long size, final byte[] data) {
+
+		if (data.length > maxBytes)
+			return;
+
+		final long fileId = nextFileId();
+		try {
+			Files.write(dataFile(fileId), data);
+		} catch (IOException | UncheckedIOException e) {
+			try {
+				Files.deleteIfExists(dataFile(fileId));
+			} catch (IOException | UncheckedIOException ignore) {}
+			return;
+		}
+		final List<CachedRange> discarded = put(new CachedRange(range, fileId, data.length), version, size);
+		discarded.addAll(evict());
+		deleteFiles(discarded);
+	}
+
+	private class CachingLazyRead implements LazyRead {
+
+		private final String key;
+
+		private final String version;
+
+		private VolatileReadData remoteData = null;
+
+		CachingLazyRead(final String key, final String version) {
+
+			this.key = key;
+			this.version = version;
+		}
+
+		private VolatileReadData remoteData() throws N5IOException {
+
+			if (remoteData == null)
+				remoteData = remote.createReadData(key);
+			return remoteData;
+		}
+
+		@Override
+		public long size() throws N5IOException {
+
+			final CachedKey cachedKey = lookup(key);
+			if (cachedKey != null && cachedKey.size >= 0)
+				return cachedKey.size;
+			return remoteData().requireLength();
+		}
+
+		@Override
+		public ReadData materialize(final long offset, final long length) throws N5IOException {
+
+			if (offset < 0)
+				throw new IndexOutOfBoundsException("Negative offset: " + offset);
+
+			final CachedRange wholeKey = lookup(new RangeKey(key, 0, -1));
+			if (wholeKey != null) {
+				if (offset > wholeKey.bytes || (length >= 0 && offset + length > wholeKey.bytes))
+					throw new IndexOutOfBoundsException(
+							"offset " + offset + " and length " + length + " out of bounds of key of size " + wholeKey.bytes);
+				final byte[] data = readCached(wholeKey, offset, (int)(length < 0 ? wholeKey.bytes - offset : length));
+				if (data != null) {
+					hits.increment();
+					return ReadData.from(data);
+				}
+			}
+
+			final RangeKey range = new RangeKey(key, offset, length);
+			if (!range.isWholeKey()) {
+				final CachedRange cachedRange = lookup(range);
+				if (cachedRange != null) {
+					final byte[] data = readCached(cachedRange, 0, cachedRange.bytes);
+					if (data != null) {
+						hits.increment();
+						return ReadData.from(data);
+					}
+				}
+			}
+
+			misses.increment();
+			final byte[] data = remoteData().slice(offset, length).allBytes();
+			store(range, revalidate ? version : cachedVersion(key), range.isWholeKey() ? data.length : -1, data);
+			return ReadData.from(data);
+		}
+
+		@Override
+		public void close() throws IOException {
+
+			if (remoteData != null)
+				remoteData.close();
+		}
+	}
+
+	@Override
+	public VolatileReadData createReadData(final String normalPath) throws N5IOException {
+
+		if (!revalidate)
+			return VolatileReadData.from(new CachingLazyRead(normalPath, null));
+
+		final String version = remote.version(normalPath);
+		final CachedKey cachedKey = lookup(normalPath);
+		if (cachedKey != null && !Objects.equals(cachedKey.version, version))
+			invalidate(normalPath);
+		return VolatileReadData.from(new CachingLazyRead(normalPath, version));
+	}
+
+	@Override
+	public boolean exists(final String normalPath) {
+
+		if (!revalidate && lookup(normalPath) != null)
+			return true;
+		return remote.exists(normalPath);
+	}
+
+	@Override
+	public boolean isFile(final String normalPath) {
+
+		if (!revalidate && lookup(normalPath) != null)
+			return true;
+		return remote.isFile(normalPath);
+	}
+
+	@Override
+	public long size(final String normalPath) throws N5NoSuchKeyException {
+
+		if (!revalidate) {
+			final CachedKey cachedKey = lookup(normalPath);
+			if (cachedKey != null && cachedKey.size >= 0)
+				return cachedKey.size;
+		}
+		return remote.size(normalPath);
+	}
+
+	@Override
+	public String version(final String normalPath) throws N5IOException {
+
+		return remote.version(normalPath);
+	}
+
+	@Override
+	public String version(final String normalPath, final String knownVersion) throws N5IOException {
+
+		return remote.version(normalPath, knownVersion);
+	}
+
+	@Override
+	public boolean isDirectory(final String normalPath) {
+
+		return remote.isDirectory(normalPath);
+	}
+
+	@Override
+	public String[] listDirectories(final String normalPath) throws N5IOException {
+
+		return remote.listDirectories(normalPath);
+	}
+
+	@Override
+	public String[] list(final String normalPath) throws N5IOException {
+
+		return remote.list(normalPath);
+	}
+
+	@Override
+	public void createDirectories(final String normalPath) throws N5IOException {
+
+		remote.createDirectories(normalPath);
+	}
+
+	@Override
+	public void write(final String normalPath, final ReadData data) throws N5IOException {
+
+		try {
+			remote.write(normalPath, data);
+		} finally {
+			invalidate(normalPath);
+		}
+	}
+
+	@Override
+	public void delete(final String normalPath) throws N5IOException {
+
+		try {
+			remote.delete(normalPath);
+		} finally {
+			invalidateAll(normalPath);
+		}
+	}
+
+	@Override
+	public void delete(
+			final String normalPath,
+			final ExecutorService exec,
+			final boolean exclusive) throws N5IOException, InterruptedException, ExecutionException {
+
+		try {
+			remote.delete(normalPath, exec, exclusive);
+		} finally {
+			invalidateAll(normalPath);
+		}
+	}
+
+	/**
+	 * Flushes the remote and writes the index of cached ranges.
+	 */
+	@Override
+	public void flush() throws N5IOException {
+
+		remote.flush();
+		writeIndex();
+	}
+
+	@Override
+	public void close() throws N5IOException {
+
+		flush();
+	}
+
+	@Override
+	public String[] components(final String path) {
+
+		return remote.components(path);
+	}
+
+	@Override
+	public String compose(final URI uri, final String... components) {
+
+		return remote.compose(uri, components);
+	}
+
+	@Deprecated
+	@Override
+	public String compose(final String... components) {
+
+		return remote.compose(components);
+	}
+
+	@Override
+	public String parent(final String path) {
+
+		return remote.parent(path);
+	}
+
+	@Override
+	public String relativize(final String path, final String base) {
+
+		return remote.relativize(path, base);
+	}
+
+	@Override
+	public String normalize(final String path) {
+
+		return remote.normalize(path);
+	}
+
+	@Override
+	public URI uri(final String normalPath) throws URISyntaxException {
+
+		return remote.uri(normalPath);
+	}
+}
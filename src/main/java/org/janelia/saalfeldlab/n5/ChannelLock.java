@@ -7,6 +7,7 @@ import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 
@@ -17,6 +18,12 @@ import java.nio.file.StandardOpenOption;
  */
 class ChannelLock implements Closeable {
 
+	/**
+	 * Upper bound of the exponential backoff between attempts to lock a file
+	 * that is locked by another process.
+	 */
+	static final long MAX_BACKOFF_MILLIS = 100;
+
 	private final FileChannel channel;
 
 	/**
@@ -57,6 +64,11 @@ class ChannelLock implements Closeable {
 	 * lock, this method will block until the existing lock is released and the
 	 * channel could be locked (by us).
 	 * <p>
+	 * Threads of this JVM are expected to coordinate through {@link
+	 * KeyLockState} before locking, such that an existing lock is usually held
+	 * by another process. Locking is reattempted with exponential backoff
+	 * up to {@link #MAX_BACKOFF_MILLIS}.
+	 * <p>
 	 * The {@code FileLock} is exclusive if the {@code path} is locked {@code
 	 * forWriting}, and shared otherwise.
 	 * <p>
@@ -73,17 +85,21 @@ class ChannelLock implements Closeable {
 			return new ChannelLock(channel, null);
 		}
 		try {
-			while (true) {
+			for (long backoffMillis = 1;; backoffMillis = Math.min(2 * backoffMillis, MAX_BACKOFF_MILLIS)) {
+				FileLock lock;
 				try {
-					final FileLock lock = channel.lock(0, Long.MAX_VALUE, !forWriting);
-					return new ChannelLock(channel, lock);
+					lock = channel.tryLock(0, Long.MAX_VALUE, !forWriting);
 				} catch (final OverlappingFileLockException e) {
-					try {
-						Thread.sleep(100);
-					} catch (final InterruptedException ie) {
-						Thread.currentThread().interrupt();
-						throw new IOException("Interrupted while waiting for file lock", ie);
-					}
+					// locked in this JVM, but not through KeyLockState
+					lock = null;
+				}
+				if (lock != null)
+					return new ChannelLock(channel, lock);
+				try {
+					Thread.sleep(backoffMillis);
+				} catch (final InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while waiting for file lock", ie);
 				}
 			}
 		} catch (Exception e) {
@@ -99,18 +115,26 @@ class ChannelLock implements Closeable {
 	/**
 	 * Opens a file channel. If the channel is opened {@code forWriting},
 	 * then this may create the file and the parent directories as needed.
+	 * <p>
+	 * The parent directories are only created if opening the channel fails
+	 * because they do not exist, such that writing into existing directories
+	 * does not require any directory metadata operations.
 	 *
 	 * @throws IOException
 	 * 		if the channel cannot be opened
 	 */
-	private static FileChannel openFileChannel(final Path path, final boolean forWriting) throws IOException {
+	static FileChannel openFileChannel(final Path path, final boolean forWriting) throws IOException {
 
 		if (forWriting) {
-			final Path parent = path.getParent();
-			if (parent != null) {
+			try {
+				return FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+			} catch (final NoSuchFileException e) {
+				final Path parent = path.getParent();
+				if (parent == null)
+					throw e;
 				Files.createDirectories(parent);
+				return FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
 			}
-			return FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
 		} else {
 			return FileChannel.open(path, StandardOpenOption.READ);
 		}
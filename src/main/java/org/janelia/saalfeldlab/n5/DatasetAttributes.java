@@ -1,5 +1,6 @@
 package org.janelia.saalfeldlab.n5;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
@@ -12,6 +13,7 @@ import com.google.gson.JsonSerializer;
 import org.janelia.saalfeldlab.n5.codec.BlockCodec;
 import org.janelia.saalfeldlab.n5.codec.BlockCodecInfo;
 import org.janelia.saalfeldlab.n5.codec.CodecInfo;
+import org.janelia.saalfeldlab.n5.codec.CodecParser;
 import org.janelia.saalfeldlab.n5.codec.N5BlockCodecInfo;
 import org.janelia.saalfeldlab.n5.shard.DatasetAccess;
 import org.janelia.saalfeldlab.n5.shard.DefaultDatasetAccess;
@@ -172,34 +174,37 @@ public class DatasetAttributes implements Serializable {
 		// NestedGrid validates block sizes, so instantiate it before creating the blockCodecs
 		// blockCodecInfo.create below could fail unexpecedly with invalid
 		// blockSizes so validate first
+		// the DatasetCodecs can be inside of shards, find them first
 		blockSizes[m - 1] = blockSize;
+		DatasetCodecInfo[] datasetCodecInfos = this.datasetCodecInfos;
 		BlockCodecInfo tmpInfo = blockCodecInfo;
 		for (int l = m - 1; l > 0; --l) {
 			final ShardCodecInfo info = (ShardCodecInfo)tmpInfo;
 			blockSizes[l - 1] = info.getInnerBlockSize();
+			if (info.getInnerDataCodecInfos() != null) {
+				if (datasetCodecInfos != null && datasetCodecInfos.length > 0) {
+					throw new N5Exception.N5JsonParseException("Found DatasetCodecs both inside and outside of shards. Not handled");
+				}
+				else
+					datasetCodecInfos = info.getInnerDatasetCodecInfos();
+			}
 			tmpInfo = info.getInnerBlockCodecInfo();
 		}
 
+		// DatasetCodecs may change the type of the blocks that reach the block codecs
+		final DataType encodedDataType = encodedDataType(dataType, datasetCodecInfos);
+
 		BlockCodecInfo currentBlockCodecInfo = blockCodecInfo;
 		DataCodecInfo[] currentDataCodecInfos = dataCodecInfos;
 
-		DatasetCodecInfo[] datasetCodecInfos = this.datasetCodecInfos;
-
 		final NestedGrid grid = new NestedGrid(blockSizes, dimensions);
 		final BlockCodec<?>[] blockCodecs = new BlockCodec[m];
 		for (int l = m - 1; l >= 0; --l) {
-			blockCodecs[l] = currentBlockCodecInfo.create(dataType, blockSizes[l], currentDataCodecInfos);
+			blockCodecs[l] = currentBlockCodecInfo.create(encodedDataType, blockSizes[l], currentDataCodecInfos);
 			if (l > 0) {
 				final ShardCodecInfo info = (ShardCodecInfo) currentBlockCodecInfo;
 				currentBlockCodecInfo = info.getInnerBlockCodecInfo();
 				currentDataCodecInfos = info.getInnerDataCodecInfos();
-				if (info.getInnerDataCodecInfos() != null) {
-					if (datasetCodecInfos != null && datasetCodecInfos.length > 0) {
-						throw new N5Exception.N5JsonParseException("Found DatasetCodecs both inside and outside of shards. Not handled");
-					}
-					else
-						datasetCodecInfos = info.getInnerDatasetCodecInfos();
-				}
 			}
 		}
 
@@ -222,6 +227,21 @@ public class DatasetAttributes implements Serializable {
 		return result;
 	}
 
+	/**
+	 * DatasetCodecs are applied in reverse order for encoding (see
+	 * {@link #blockCodecWithDatasetCodecs}), the data type is passed on
+	 * accordingly.
+	 */
+	private static DataType encodedDataType(final DataType dataType, final DatasetCodecInfo[] datasetCodecInfos) {
+
+		DataType encodedDataType = dataType;
+		if (datasetCodecInfos != null) {
+			for (int i = datasetCodecInfos.length - 1; i >= 0; --i)
+				encodedDataType = datasetCodecInfos[i].getEncodedDataType(encodedDataType);
+		}
+		return encodedDataType;
+	}
+
 	private static int nestingDepth(BlockCodecInfo info) {
 
 		if (info instanceof ShardCodecInfo) {
@@ -331,16 +351,72 @@ public class DatasetAttributes implements Serializable {
 		return Arrays.stream(position).mapToObj(Long::toString).collect(Collectors.joining("/"));
 	}
 
+	/**
+	 * Returns the dataset attributes as a map. The codecs of datasets that
+	 * require the {@link #CODEC_KEY} are {@link CodecInfo}s, which must be
+	 * serialized with the {@link NameConfigAdapter}.
+	 *
+	 * @return the attributes
+	 */
 	public HashMap<String, Object> asMap() {
 
 		final HashMap<String, Object> map = new HashMap<>();
 		map.put(DIMENSIONS_KEY, dimensions);
-		map.put(BLOCK_SIZE_KEY, chunkSize);
 		map.put(DATA_TYPE_KEY, dataType);
-		map.put(COMPRESSION_KEY, getCompression());
+		if (requiresCodecs()) {
+			map.put(BLOCK_SIZE_KEY, blockSize);
+			map.put(CODEC_KEY, codecs());
+		} else {
+			map.put(BLOCK_SIZE_KEY, chunkSize);
+			map.put(COMPRESSION_KEY, getCompression());
+		}
 		return map;
 	}
 
+	/**
+	 * Whether the codecs of this dataset can not be described by a single
+	 * {@link Compression}, i.e. by the legacy N5 format, or the dataset has
+	 * {@link DatasetCodecInfo}s, outside or inside of shards. If so, the
+	 * codecs are serialized under the {@link #CODEC_KEY} instead.
+	 */
+	private boolean requiresCodecs() {
+
+		return !(blockCodecInfo instanceof N5BlockCodecInfo)
+				|| dataCodecInfos.length > 1
+				|| (dataCodecInfos.length == 1 && !(dataCodecInfos[0] instanceof Compression))
+				|| hasDatasetCodecs();
+	}
+
+	private boolean hasDatasetCodecs() {
+
+		if (datasetCodecInfos != null && datasetCodecInfos.length > 0)
+			return true;
+
+		BlockCodecInfo info = blockCodecInfo;
+		while (info instanceof ShardCodecInfo) {
+			final DatasetCodecInfo[] innerDatasetCodecInfos = ((ShardCodecInfo)info).getInnerDatasetCodecInfos();
+			if (innerDatasetCodecInfos != null && innerDatasetCodecInfos.length > 0)
+				return true;
+			info = ((ShardCodecInfo)info).getInnerBlockCodecInfo();
+		}
+		return false;
+	}
+
+	/**
+	 * All codecs in the order expected by {@link CodecParser}: dataset codecs,
+	 * the block codec, data codecs.
+	 */
+	private CodecInfo[] codecs() {
+
+		final int numDatasetCodecs = datasetCodecInfos == null ? 0 : datasetCodecInfos.length;
+		final CodecInfo[] codecs = new CodecInfo[numDatasetCodecs + 1 + dataCodecInfos.length];
+		for (int i = 0; i < numDatasetCodecs; i++)
+			codecs[i] = datasetCodecInfos[i];
+		codecs[numDatasetCodecs] = blockCodecInfo;
+		System.arraycopy(dataCodecInfos, 0, codecs, numDatasetCodecs + 1, dataCodecInfos.length);
+		return codecs;
+	}
+
 	public static Builder builder(final long[] dimensions, final DataType dataType) {
 
 		return new Builder(dimensions, dataType);
@@ -380,6 +456,7 @@ public class DatasetAttributes implements Serializable {
 		private final DataType dataType;
 
 		private int[] blockSize;
+		private DatasetCodecInfo[] datasetCodecInfos = null;
 		private DataCodecInfo[] dataCodecInfos = new DataCodecInfo[0];
 
 		public Builder(final long[] dimensions, final DataType dataType) {
@@ -394,6 +471,7 @@ public class DatasetAttributes implements Serializable {
 			this.dimensions = attributes.getDimensions();
 			this.dataType = attributes.getDataType();
 			this.blockSize = attributes.getBlockSize();
+			this.datasetCodecInfos = attributes.getDatasetCodecInfos();
 			this.dataCodecInfos = attributes.getDataCodecInfos();
 		}
 
@@ -417,9 +495,22 @@ public class DatasetAttributes implements Serializable {
 			return this;
 		}
 
+		/**
+		 * Sets the {@link DatasetCodecInfo}s, e.g. a lossy quantization, that
+		 * are applied to blocks before they are encoded.
+		 *
+		 * @param datasetCodecInfos the dataset codecs to use
+		 * @return this builder
+		 */
+		public Builder datasetCodecs(final DatasetCodecInfo... datasetCodecInfos) {
+
+			this.datasetCodecInfos = datasetCodecInfos;
+			return this;
+		}
+
 		public DatasetAttributes build() {
 			final int[] resolvedBlockSize = blockSize != null ? blockSize : defaultBlockSize(dimensions);
-			return new DatasetAttributes(dimensions, resolvedBlockSize, dataType, new N5BlockCodecInfo(), null, dataCodecInfos);
+			return new DatasetAttributes(dimensions, resolvedBlockSize, dataType, new N5BlockCodecInfo(), datasetCodecInfos, dataCodecInfos);
 		}
 	}
 
@@ -454,27 +545,33 @@ public class DatasetAttributes implements Serializable {
 			final DataType dataType = context.deserialize(obj.get(DATA_TYPE_KEY), DataType.class);
 
 			final BlockCodecInfo blockCodecInfo;
+			final DatasetCodecInfo[] datasetCodecs;
 			final DataCodecInfo[] dataCodecs;
 			if (obj.has(CODEC_KEY)) {
 				final CodecInfo[] codecs = context.deserialize(obj.get(CODEC_KEY), CodecInfo[].class);
-				blockCodecInfo = (BlockCodecInfo)codecs[0];
-				dataCodecs = new DataCodecInfo[codecs.length - 1];
-				for (int i = 1; i < codecs.length; i++) {
-					dataCodecs[i - 1] = (DataCodecInfo)codecs[i];
+				for (int i = 0; i < codecs.length; i++) {
+					if (codecs[i] == null)
+						throw new N5Exception.N5JsonParseException("Could not parse codec at index " + i + ": " + obj.get(CODEC_KEY).getAsJsonArray().get(i));
 				}
+				final CodecParser parser = new CodecParser(codecs);
+				blockCodecInfo = parser.blockCodecInfo;
+				datasetCodecs = parser.datasetCodecInfos;
+				dataCodecs = parser.dataCodecInfos;
 			} else if (obj.has(COMPRESSION_KEY)) {
 				final Compression compression = CompressionAdapter.getJsonAdapter().deserialize(obj.get(COMPRESSION_KEY), Compression.class, context);
 				dataCodecs = new DataCodecInfo[]{compression};
+				datasetCodecs = null;
 				blockCodecInfo = new N5BlockCodecInfo();
 			} else if (obj.has(compressionTypeKey)) {
 				final Compression compression = getCompressionVersion0(obj.get(compressionTypeKey).getAsString());
 				dataCodecs = new DataCodecInfo[]{compression};
+				datasetCodecs = null;
 				blockCodecInfo = new N5BlockCodecInfo();
 			} else {
 				return null;
 			}
 
-			return new DatasetAttributes(dimensions, blockSize, dataType, blockCodecInfo, dataCodecs);
+			return new DatasetAttributes(dimensions, blockSize, dataType, blockCodecInfo, datasetCodecs, dataCodecs);
 		}
 
 		//FIXME
@@ -483,9 +580,21 @@ public class DatasetAttributes implements Serializable {
 
 			final JsonObject obj = new JsonObject();
 			obj.add(DIMENSIONS_KEY, context.serialize(src.dimensions));
-			obj.add(BLOCK_SIZE_KEY, context.serialize(src.chunkSize));
 			obj.add(DATA_TYPE_KEY, context.serialize(src.dataType));
 
+			if (src.requiresCodecs()) {
+				// the block size of the outermost grid, e.g. the shard size
+				obj.add(BLOCK_SIZE_KEY, context.serialize(src.blockSize));
+				// by the declared type, Compressions are serialized like all other codecs
+				final JsonArray codecs = new JsonArray();
+				for (final CodecInfo codec : src.codecs())
+					codecs.add(context.serialize(codec, CodecInfo.class));
+				obj.add(CODEC_KEY, codecs);
+				return obj;
+			}
+
+			obj.add(BLOCK_SIZE_KEY, context.serialize(src.chunkSize));
+
 			final DataCodecInfo[] codecs = src.dataCodecInfos;
 			// length > 1 is actually invalid, but this is checked on construction
 			if (codecs.length == 0)
@@ -0,0 +1,237 @@
+package org.janelia.saalfeldlab.n5;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Predicate;
+
+/**
+ * Lazily lists all groups and datasets below a base group, see
+ * {@link N5Reader#deepListStream(String, Predicate, boolean, Executor, int)}.
+ * <p>
+ * Nodes are visited depth first from a stack of pending paths. Without an
+ * {@link Executor}, nodes are visited by the consuming thread as paths are
+ * requested. With an {@code Executor}, at most {@code parallelism} nodes are
+ * visited concurrently, and no new nodes are visited while more than
+ * {@code bufferSize} paths are waiting to be consumed. {@link #close()
+ * Closing} the iterator stops the traversal.
+ */
+class DeepListIterator implements Iterator<String>, AutoCloseable {
+
+	static final int DEFAULT_BUFFER_SIZE = 1024;
+
+	/**
+	 * Marks the end of a parallel traversal in the result queue.
+	 */
+	private static final Object END = new Object();
+
+	private final N5Reader n5;
+	private final String basePath;
+	private final String groupSeparator;
+	private final boolean datasetsOnly;
+	private final Predicate<String> filter;
+
+	private final Executor executor;
+	private final int parallelism;
+	private final int bufferSize;
+
+	/**
+	 * Paths to visit, guarded by {@code this}.
+	 */
+	private final Deque<String> pending = new ArrayDeque<>();
+
+	/**
+	 * Number of nodes being visited, guarded by {@code this}.
+	 */
+	private int running = 0;
+
+	private final BlockingQueue<Object> results = new LinkedBlockingQueue<>();
+
+	private volatile boolean closed = false;
+
+	private boolean done = false;
+
+	private String next = null;
+
+	DeepListIterator(
+			final N5Reader n5,
+			final String basePath,
+			final boolean datasetsOnly,
+			final Predicate<String> filter,
+			final Executor executor,
+			final int parallelism,
+			final int bufferSize) {
+
+		if (executor != null && parallelism < 1)
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+
+		this.n5 = n5;
+		this.basePath = basePath;
+		this.groupSeparator = n5.getGroupSeparator();
+		this.datasetsOnly = datasetsOnly;
+		this.filter = filter;
+		this.executor = executor;
+		this.parallelism = parallelism;
+		this.bufferSize = bufferSize;
+
+		pending.push(basePath);
+		if (executor != null)
+			schedule();
+	}
+
+	@Override
+	public boolean hasNext() {
+
+		if (next != null)
+			return true;
+		if (done)
+			return false;
+
+		if (executor == null)
+			return hasNextSequential();
+
+		final Object result;
+		try {
+			result = results.take();
+		} catch (final InterruptedException e) {
+			close();
+			Thread.currentThread().interrupt();
+			throw new N5Exception("Interrupted while listing " + basePath, e);
+		}
+		schedule();
+
+		if (result == END) {
+			done = true;
+			return false;
+		}
+		if (result instanceof Throwable) {
+			close();
+			if (result instanceof RuntimeException)
+				throw (RuntimeException)result;
+			if (result instanceof Error)
+				throw (Error)result;
+			throw new N5Exception("Failed to list " + basePath, (Throwable)result);
+		}
+		next = (String)result;
+		return true;
+	}
+
+	private boolean hasNextSequential() {
+
+		while (!closed && !pending.isEmpty()) {
+			final String path = pending.pop();
+			final String result = visit(path);
+			if (result != null) {
+				next = result;
+				return true;
+			}
+		}
+		done = true;
+		return false;
+	}
+
+	@Override
+	public String next() {
+
+		if (!hasNext())
+			throw new NoSuchElementException();
+
+		final String result = next;
+		next = null;
+		return result;
+	}
+
+	/**
+	 * Stops the traversal. Nodes that are being visited complete, but no new
+	 * nodes are visited.
+	 */
+	@Override
+	public void close() {
+
+		closed = true;
+		synchronized (this) {
+			pending.clear();
+		}
+		results.clear();
+		done = true;
+		next = null;
+	}
+
+	/**
+	 * Visits pending nodes on the executor, as long as the number of running
+	 * visits and of buffered results permits.
+	 */
+	private synchronized void schedule() {
+
+		while (!closed && running < parallelism && !pending.isEmpty() && results.size() < bufferSize) {
+			final String path = pending.pop();
+			++running;
+			executor.execute(() -> visitAndSchedule(path));
+		}
+	}
+
+	private void visitAndSchedule(final String path) {
+
+		try {
+			if (!closed) {
+				final String result = visit(path);
+				if (result != null && !closed)
+					results.add(result);
+			}
+		} catch (final Throwable e) {
+			results.add(e);
+		} finally {
+			synchronized (this) {
+				--running;
+				if (running == 0 && pending.isEmpty())
+					results.add(END);
+				else
+					schedule();
+			}
+		}
+	}
+
+	/**
+	 * Visits a node, pushes its children if it is not a dataset.
+	 *
+	 * @return the path relative to the base path if it is to be listed,
+	 *         otherwise null
+	 */
+	private String visit(final String path) {
+
+		// failures are propagated for the base path, like deepList, and skipped below it
+		final boolean isBasePath = path.equals(basePath);
+		boolean isDataset = false;
+		try {
+			isDataset = n5.datasetExists(path);
+		} catch (final N5Exception e) {
+			if (isBasePath)
+				throw e;
+		}
+
+		if (!isDataset) {
+			try {
+				final String[] children = n5.list(path);
+				synchronized (this) {
+					if (!closed) {
+						// reverse order, such that the children are visited in listing order
+						for (int i = children.length - 1; i >= 0; --i)
+							pending.push(path + groupSeparator + children[i]);
+					}
+				}
+			} catch (final N5Exception e) {
+				if (isBasePath)
+					throw e;
+			}
+		}
+
+		if (isBasePath || (datasetsOnly && !isDataset) || !filter.test(path))
+			return null;
+
+		return path.substring(basePath.length() + groupSeparator.length());
+	}
+}
@@ -5,7 +5,6 @@ import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.nio.channels.FileLock;
 import java.nio.file.Path;
-import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -18,10 +17,18 @@ import static org.janelia.saalfeldlab.n5.LockingPolicy.STRICT;
  */
 class FileKeyLockManager {
 
-	private static final Map<LockingPolicy, FileKeyLockManager> managers = Collections.synchronizedMap(new EnumMap<>(LockingPolicy.class));
+	private static final Map<LockFairness, Map<LockingPolicy, FileKeyLockManager>> managers = new EnumMap<>(LockFairness.class);
 
 	static FileKeyLockManager forPolicy(final LockingPolicy policy) {
-		return managers.computeIfAbsent(policy, FileKeyLockManager::new);
+		return forPolicy(policy, LockFairness.READER_PREFERRING);
+	}
+
+	static FileKeyLockManager forPolicy(final LockingPolicy policy, final LockFairness fairness) {
+		synchronized (managers) {
+			return managers
+					.computeIfAbsent(fairness, f -> new EnumMap<>(LockingPolicy.class))
+					.computeIfAbsent(policy, p -> new FileKeyLockManager(p, fairness));
+		}
 	}
 
 	/**
@@ -32,6 +39,8 @@ class FileKeyLockManager {
 
 	private final LockingPolicy policy;
 
+	private final LockFairness fairness;
+
 	/**
 	 * Create a new {@link FileKeyLockManager} with the specified locking policy.
 	 * <p>
@@ -41,19 +50,30 @@ class FileKeyLockManager {
 	 * IOException}. {@code PERMISSIVE} will proceed without locking. {@code
 	 * UNSAFE} will not attempt OS-level locking, however will still manage
 	 * mutual exclusion of readers and writers in the same JVM. Trying to lock
-	 * the same path with different locking policies will throw an {@code
-	 * IOException}.
+	 * the same path with different locking policies in this JVM is
+	 * coordinated like locking with the same policy, only the OS-level
+	 * locking differs.
+	 * <p>
+	 * The given {@link LockFairness fairness} applies to readers acquiring a
+	 * lock through this manager.
 	 *
 	 * @param policy
 	 * 		the locking policy
+	 * @param fairness
+	 * 		the lock fairness
 	 */
-	private FileKeyLockManager(final LockingPolicy policy) {
+	private FileKeyLockManager(final LockingPolicy policy, final LockFairness fairness) {
 		this.policy = policy;
+		this.fairness = fairness;
 	}
 
-	private final ConcurrentHashMap<String, WeakValue> locks = new ConcurrentHashMap<>();
+	/**
+	 * Lock states of all managers, such that locks of the same path with
+	 * different policies exclude each other in this JVM.
+	 */
+	private static final ConcurrentHashMap<String, WeakValue> locks = new ConcurrentHashMap<>();
 
-	private final ReferenceQueue<KeyLockState> refQueue = new ReferenceQueue<>();
+	private static final ReferenceQueue<KeyLockState> refQueue = new ReferenceQueue<>();
 
 	private static class WeakValue extends WeakReference<KeyLockState> {
 
@@ -73,7 +93,7 @@ class FileKeyLockManager {
 	 * Remove entries from the cache whose references have been
 	 * garbage-collected.
 	 */
-	private void cleanUp()
+	private static void cleanUp()
 	{
 		while (true) {
 			final WeakValue ref = (WeakValue) refQueue.poll();
@@ -83,7 +103,7 @@ class FileKeyLockManager {
 		}
 	}
 
-	private KeyLockState keyLockState(final Path path, final LockingPolicy policy) throws IOException {
+	private static KeyLockState keyLockState(final Path path) {
 
 		final String key = path.toAbsolutePath().toString();
 
@@ -95,7 +115,7 @@ class FileKeyLockManager {
 			return state;
 		}
 
-		final KeyLockState newState = new KeyLockState(path, policy);
+		final KeyLockState newState = new KeyLockState(path);
 		while (state == null) {
 			final WeakValue ref = locks.compute(key,
 					(k, v) -> (v != null && v.get() != null)
@@ -123,7 +143,7 @@ class FileKeyLockManager {
 	 */
 	public LockedFileChannel lockForReading(final Path path) throws IOException {
 
-		return keyLockState(path, policy).acquireRead();
+		return keyLockState(path).acquireRead(policy, fairness);
 	}
 
 	/**
@@ -140,11 +160,11 @@ class FileKeyLockManager {
 	 */
 	public LockedFileChannel lockForWriting(final Path path) throws IOException {
 
-		return keyLockState(path, policy).acquireWrite();
+		return keyLockState(path).acquireWrite(policy);
 	}
 
 	/**
-	 * Returns the number of keys currently being tracked.
+	 * Returns the number of keys currently being tracked by all managers.
 	 *
 	 * @return the number of keys with associated locks
 	 */
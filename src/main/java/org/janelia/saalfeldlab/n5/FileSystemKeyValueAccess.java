@@ -2,21 +2,41 @@ package org.janelia.saalfeldlab.n5;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
 import org.janelia.saalfeldlab.n5.N5Exception.N5NoSuchKeyException;
@@ -33,17 +53,192 @@ import org.janelia.saalfeldlab.n5.readdata.VolatileReadData;
  */
 public class FileSystemKeyValueAccess implements KeyValueAccess {
 
+	/**
+	 * How files are written, and consequently, how they are read.
+	 */
+	public enum WriteMode {
+
+		/**
+		 * Write into the target file while holding an exclusive lock, readers
+		 * hold shared locks. The locking policy is configured with the
+		 * {@code n5.ioPolicy} property, see {@link LockingPolicy}.
+		 * This is the default.
+		 */
+		LOCKED,
+
+		/**
+		 * Write into a temporary sibling file, and atomically rename it to
+		 * the target file. Readers and writers do not lock, readers see
+		 * either the previous or the new complete file.
+		 * <p>
+		 * All readers and writers of a container must use this mode. This
+		 * requires a file system that can atomically replace a file by
+		 * renaming, such as POSIX file systems, and that keeps replaced
+		 * files readable while they are open.
+		 * <p>
+		 * Temporary files are named {@code .<name>.<random hex>.tmp} and
+		 * deleted if writing fails. If the process crashes while writing,
+		 * they remain, and can be deleted while no writer is active.
+		 */
+		RENAME;
+
+		static WriteMode fromString(final String s) {
+
+			if ("rename".equalsIgnoreCase(s))
+				return RENAME;
+			else
+				return LOCKED;
+		}
+	}
+
+	/**
+	 * When written files, and the directory entries of written and deleted
+	 * files, are forced to storage.
+	 */
+	public enum Durability {
+
+		/**
+		 * Leave it to the operating system. This is the default.
+		 */
+		NONE,
+
+		/**
+		 * Force every written file and its parent directory, and all
+		 * directories created for it together with their parents, to storage
+		 * before {@link FileSystemKeyValueAccess#write(String, ReadData)
+		 * write} returns, and the parent directory of deleted files before
+		 * {@link FileSystemKeyValueAccess#delete(String) delete} returns.
+		 */
+		WRITE,
+
+		/**
+		 * Remember written files, created directories, and the parent
+		 * directories of written, created, and deleted files and directories,
+		 * and force them to storage on
+		 * {@link FileSystemKeyValueAccess#flush() flush}. Changes since the
+		 * last flush may be lost or incomplete after a crash.
+		 */
+		BATCH;
+
+		static Durability fromString(final String s) {
+
+			if ("write".equalsIgnoreCase(s))
+				return WRITE;
+			else if ("batch".equalsIgnoreCase(s))
+				return BATCH;
+			else
+				return NONE;
+		}
+	}
+
 	private final FileKeyLockManager fileKeyLockManager;
 
+	private final WriteMode writeMode;
+
+	private final Durability durability;
+
+	/**
+	 * Files written since the last {@link #flush()} in
+	 * {@link Durability#BATCH} mode.
+	 */
+	private final Set<Path> unsyncedFiles = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Directories with entries changed since the last {@link #flush()} in
+	 * {@link Durability#BATCH} mode.
+	 */
+	private final Set<Path> unsyncedDirectories = ConcurrentHashMap.newKeySet();
+
+	private final LongAdder lockWaitNanos = new LongAdder();
+
+	private final LongAdder lockCount = new LongAdder();
+
+	/**
+	 * Creates a {@link FileSystemKeyValueAccess} with the write mode
+	 * configured by the {@code n5.writeMode} property ({@code "locked"} or
+	 * {@code "rename"}), and the durability configured by the
+	 * {@code n5.durability} property ({@code "none"}, {@code "write"}, or
+	 * {@code "batch"}).
+	 */
 	public FileSystemKeyValueAccess() {
+
+		this(
+				WriteMode.fromString(System.getProperty("n5.writeMode", "locked")),
+				Durability.fromString(System.getProperty("n5.durability", "none")));
+	}
+
+	/**
+	 * Creates a {@link FileSystemKeyValueAccess} with the lock fairness
+	 * configured by the {@code n5.lockFairness} property ({@code "reader"}
+	 * or {@code "writer"}).
+	 *
+	 * @param writeMode
+	 *            how files are written
+	 * @param durability
+	 *            when changes are forced to storage
+	 */
+	public FileSystemKeyValueAccess(final WriteMode writeMode, final Durability durability) {
+
+		this(writeMode, durability, LockFairness.fromString(System.getProperty("n5.lockFairness", "reader")));
+	}
+
+	/**
+	 * @param writeMode
+	 *            how files are written
+	 * @param durability
+	 *            when changes are forced to storage
+	 * @param fairness
+	 *            the order in which readers and writers acquire locks in
+	 *            {@link WriteMode#LOCKED} mode
+	 */
+	public FileSystemKeyValueAccess(final WriteMode writeMode, final Durability durability, final LockFairness fairness) {
+
 		final LockingPolicy policy = LockingPolicy.fromString(System.getProperty("n5.ioPolicy", "permissive"));
-		this.fileKeyLockManager = FileKeyLockManager.forPolicy(policy);
+		this.fileKeyLockManager = FileKeyLockManager.forPolicy(policy, fairness);
+		this.writeMode = writeMode;
+		this.durability = durability;
+	}
+
+	public WriteMode getWriteMode() {
+
+		return writeMode;
+	}
+
+	public Durability getDurability() {
+
+		return durability;
+	}
+
+	/**
+	 * @return the total time spent acquiring file locks in nanoseconds,
+	 *         including waiting for other threads and processes
+	 */
+	public long getLockWaitNanos() {
+
+		return lockWaitNanos.sum();
+	}
+
+	/**
+	 * @return the number of acquired file locks
+	 */
+	public long getLockCount() {
+
+		return lockCount.sum();
+	}
+
+	private void lockAcquired(final long startNanos) {
+
+		lockWaitNanos.add(System.nanoTime() - startNanos);
+		lockCount.increment();
 	}
 
 	private LockedFileChannel lockForReading(final Path path) throws N5IOException {
 
+		final long start = System.nanoTime();
 		try {
-			return fileKeyLockManager.lockForReading(path);
+			final LockedFileChannel channel = fileKeyLockManager.lockForReading(path);
+			lockAcquired(start);
+			return channel;
 		} catch (final NoSuchFileException e) {
 			throw new N5NoSuchKeyException("No such file", e);
 		} catch (IOException | UncheckedIOException e) {
@@ -53,8 +248,11 @@ public class FileSystemKeyValueAccess implements KeyValueAccess {
 
 	private LockedFileChannel lockForWriting(final Path path) throws N5IOException {
 
+		final long start = System.nanoTime();
 		try {
-			return fileKeyLockManager.lockForWriting(path);
+			final LockedFileChannel channel = fileKeyLockManager.lockForWriting(path);
+			lockAcquired(start);
+			return channel;
 		} catch (final NoSuchFileException e) {
 			throw new N5NoSuchKeyException("No such file", e);
 		} catch (IOException | UncheckedIOException e) {
@@ -62,6 +260,22 @@ public class FileSystemKeyValueAccess implements KeyValueAccess {
 		}
 	}
 
+	/**
+	 * Opens a channel for reading without locking, the channel is closed
+	 * when the returned {@link LockedFileChannel} is closed.
+	 */
+	private static LockedFileChannel openForReading(final Path path) throws N5IOException {
+
+		try {
+			final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+			return new LockedFileChannel(channel, channel::close);
+		} catch (final NoSuchFileException e) {
+			throw new N5NoSuchKeyException("No such file", e);
+		} catch (IOException | UncheckedIOException e) {
+			throw new N5IOException("Failed to open file for reading: " + path, e);
+		}
+	}
+
 	@Override
 	public VolatileReadData createReadData(final String normalPath) {
 		return VolatileReadData.from(new FileLazyRead(Paths.get(normalPath)));
@@ -70,13 +284,171 @@ public class FileSystemKeyValueAccess implements KeyValueAccess {
 	@Override
 	public void write(final String normalPath, final ReadData data) throws N5IOException {
 		final Path path = Paths.get(normalPath);
-		try (final LockedFileChannel channel = lockForWriting(path)) {
-			data.writeTo(channel.asOutputStream());
+		if (writeMode == WriteMode.RENAME) {
+			writeAndRename(path, data);
+			return;
+		}
+		try {
+			// overwriting an existing file does not change its directory
+			final boolean isNew = durability != Durability.NONE && !Files.exists(path);
+			if (isNew)
+				createParentDirectories(path);
+			try (final LockedFileChannel channel = lockForWriting(path)) {
+				data.writeTo(channel.asOutputStream());
+				if (durability == Durability.WRITE)
+					channel.force(true);
+			}
+			written(path, isNew);
 		} catch (IOException e) {
 			throw new N5IOException(e);
 		}
 	}
 
+	/**
+	 * Writes {@code data} into a temporary sibling of {@code path}, and
+	 * atomically renames it to {@code path}.
+	 */
+	private void writeAndRename(final Path path, final ReadData data) throws N5IOException {
+
+		final Path tmpPath = path.resolveSibling(
+				"." + path.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+		try {
+			createParentDirectories(path);
+			try (final FileChannel channel = ChannelLock.openFileChannel(tmpPath, true)) {
+				data.writeTo(Channels.newOutputStream(channel));
+				if (durability == Durability.WRITE)
+					channel.force(true);
+			}
+			Files.move(tmpPath, path, StandardCopyOption.ATOMIC_MOVE);
+			written(path, true);
+		} catch (IOException | RuntimeException e) {
+			try {
+				Files.deleteIfExists(tmpPath);
+			} catch (final IOException ignore) {}
+			if (e instanceof N5IOException)
+				throw (N5IOException)e;
+			if (e instanceof RuntimeException && !(e instanceof UncheckedIOException))
+				throw (RuntimeException)e;
+			throw new N5IOException("Failed to write file at " + path, e);
+		}
+	}
+
+	/**
+	 * Creates the missing parent directories of a file that is about to be
+	 * written, if the {@link Durability} is not {@link Durability#NONE}, and
+	 * forces or remembers each created directory like a written file.
+	 * Otherwise, parent directories are created only when opening the file
+	 * fails, but then it is unknown which directories were created.
+	 */
+	private void createParentDirectories(final Path path) throws IOException {
+
+		final Path parent = path.getParent();
+		if (durability != Durability.NONE && parent != null)
+			created(createDirectories(parent, new ArrayList<>()));
+	}
+
+	/**
+	 * Forces the entries of created directories in their parents to storage,
+	 * or remembers the directories and their parents for the next
+	 * {@link #flush()}, depending on the {@link Durability}. The entries of
+	 * the deepest directory are forced when a file is written into it.
+	 */
+	private void created(final List<Path> directories) throws IOException {
+
+		for (final Path directory : directories) {
+			if (durability == Durability.WRITE)
+				forceDirectory(directory.getParent());
+			else if (durability == Durability.BATCH) {
+				unsyncedDirectories.add(directory);
+				unsyncedDirectories.add(directory.getParent());
+			}
+		}
+	}
+
+	/**
+	 * Forces the directory entry of a written file to storage, or remembers
+	 * the file and its directory for the next {@link #flush()}, depending on
+	 * the {@link Durability}. The file itself is forced by the writer. The
+	 * directory is only forced if the entry changed, i.e. the file was
+	 * created or replaced.
+	 */
+	private void written(final Path path, final boolean entryChanged) throws IOException {
+
+		if (durability == Durability.WRITE) {
+			if (entryChanged)
+				forceDirectory(path.getParent());
+		} else if (durability == Durability.BATCH) {
+			unsyncedFiles.add(path);
+			if (entryChanged)
+				unsyncedDirectories.add(path.getParent());
+		}
+	}
+
+	private void deleted(final Path path) throws IOException {
+
+		if (durability == Durability.WRITE)
+			forceDirectory(path.getParent());
+		else if (durability == Durability.BATCH) {
+			unsyncedFiles.remove(path);
+			unsyncedDirectories.add(path.getParent());
+		}
+	}
+
+	/**
+	 * Forces all files written and directories changed since the last flush
+	 * to storage if the {@link Durability} is {@link Durability#BATCH}, does
+	 * nothing otherwise.
+	 * <p>
+	 * Paths stay remembered until they were forced, such that paths that
+	 * failed or were not reached are forced by the next flush.
+	 */
+	@Override
+	public void flush() throws N5IOException {
+
+		for (final Iterator<Path> i = unsyncedFiles.iterator(); i.hasNext();) {
+			final Path path = i.next();
+			// removed before forcing, such that writes during forcing are remembered again
+			i.remove();
+			try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				channel.force(true);
+			} catch (final NoSuchFileException ignore) {
+				/* deleted since it was written */
+			} catch (IOException | UncheckedIOException e) {
+				unsyncedFiles.add(path);
+				throw new N5IOException("Failed to flush " + path, e);
+			}
+		}
+		for (final Iterator<Path> i = unsyncedDirectories.iterator(); i.hasNext();) {
+			final Path path = i.next();
+			i.remove();
+			try {
+				forceDirectory(path);
+			} catch (IOException | UncheckedIOException e) {
+				unsyncedDirectories.add(path);
+				throw new N5IOException("Failed to flush " + path, e);
+			}
+		}
+	}
+
+	/**
+	 * Forces the entries of a directory to storage. Not all platforms can
+	 * open directories (e.g. Windows), failures to do so are ignored.
+	 */
+	private static void forceDirectory(final Path path) throws IOException {
+
+		final FileChannel channel;
+		try {
+			channel = FileChannel.open(path, StandardOpenOption.READ);
+		} catch (IOException | UncheckedIOException e) {
+			return;
+		}
+		try {
+			channel.force(true);
+		} finally {
+			channel.close();
+		}
+	}
+
 	@Override
 	public boolean isDirectory(final String normalPath) {
 
@@ -115,6 +487,25 @@ public class FileSystemKeyValueAccess implements KeyValueAccess {
 		}
 	}
 
+	/**
+	 * Returns the modification time and size of the file or directory. The
+	 * modification time of a directory changes when entries are added or
+	 * removed. Changes that do not alter the size within the resolution of
+	 * the file system's timestamps are not detected.
+	 */
+	@Override
+	public String version(final String normalPath) throws N5IOException {
+
+		try {
+			final BasicFileAttributes attributes = Files.readAttributes(Paths.get(normalPath), BasicFileAttributes.class);
+			return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS) + ":" + attributes.size();
+		} catch (NoSuchFileException e) {
+			return "";
+		} catch (IOException | UncheckedIOException e) {
+			throw new N5IOException(e);
+		}
+	}
+
 	@Override
 	public String[] listDirectories(final String normalPath) throws N5IOException {
 
@@ -252,7 +643,14 @@ public class FileSystemKeyValueAccess implements KeyValueAccess {
 	public void createDirectories(final String normalPath) throws N5IOException {
 
 		try {
-			createDirectories(Paths.get(normalPath));
+			if (durability == Durability.NONE)
+				createDirectories(Paths.get(normalPath));
+			else {
+				final List<Path> created = createDirectories(Paths.get(normalPath), new ArrayList<>());
+				created(created);
+				if (durability == Durability.WRITE && !created.isEmpty())
+					forceDirectory(created.get(created.size() - 1));
+			}
 		} catch (NoSuchFileException e) {
 			throw new N5NoSuchKeyException("No such file", e);
 		} catch (IOException | UncheckedIOException e) {
@@ -267,21 +665,49 @@ public class FileSystemKeyValueAccess implements KeyValueAccess {
 			final Path path = Paths.get(normalPath);
 
 			if (Files.isRegularFile(path))
-				try (final LockedFileChannel channel = lockForWriting(path)) {
-					Files.delete(path);
-				}
+				deleteFile(path);
 			else {
-				try (final Stream<Path> pathStream = Files.walk(path)) {
-					for (final Iterator<Path> i = pathStream.sorted(Comparator.reverseOrder()).iterator(); i.hasNext();) {
-						final Path childPath = i.next();
-						if (Files.isRegularFile(childPath))
-							try (final LockedFileChannel channel = lockForWriting(childPath)) {
-								Files.delete(childPath);
+				Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+
+					@Override
+					public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+
+						if (attrs.isRegularFile())
+							deleteFile(file);
+						else {
+							try {
+								Files.delete(file);
+							} catch (final NoSuchFileException ignore) {
+								/* deleted concurrently */
 							}
-						else
-							tryDelete(childPath);
+							deleted(file);
+						}
+						return FileVisitResult.CONTINUE;
 					}
-				}
+
+					@Override
+					public FileVisitResult visitFileFailed(final Path file, final IOException e) throws IOException {
+
+						/* deleted concurrently, continue with the rest of the tree */
+						if (e instanceof NoSuchFileException)
+							return FileVisitResult.CONTINUE;
+						throw e;
+					}
+
+					@Override
+					public FileVisitResult postVisitDirectory(final Path dir, final IOException e) throws IOException {
+
+						if (e != null && !(e instanceof NoSuchFileException))
+							throw e;
+						try {
+							tryDelete(dir);
+						} catch (final NoSuchFileException ignore) {
+							/* deleted concurrently */
+						}
+						deleted(dir);
+						return FileVisitResult.CONTINUE;
+					}
+				});
 			}
 		} catch (NoSuchFileException ignore) {
 			/* It doesn't exist; that's sufficient for us to not complain on a `delete` call */
@@ -290,6 +716,223 @@ public class FileSystemKeyValueAccess implements KeyValueAccess {
 		}
 	}
 
+	/**
+	 * Deletes a path like {@link #delete(String)}. The directory tree is
+	 * traversed by the calling thread, files are deleted in batches of
+	 * {@link #DELETE_BATCH_SIZE} on {@code exec}, and each directory is
+	 * deleted by the thread that deletes its last file or subdirectory. At
+	 * most {@link #MAX_PENDING_DELETE_BATCHES} batches are pending at any
+	 * time, such that memory use does not depend on the number of files.
+	 * <p>
+	 * If {@code exclusive}, files are deleted without locking them.
+	 */
+	@Override
+	public void delete(
+			final String normalPath,
+			final ExecutorService exec,
+			final boolean exclusive) throws N5IOException, InterruptedException, ExecutionException {
+
+		final Path path = Paths.get(normalPath);
+		if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS))
+			delete(normalPath);
+		else
+			new ParallelDelete(exec, exclusive).delete(path);
+	}
+
+	static final int DELETE_BATCH_SIZE = 256;
+
+	static final int MAX_PENDING_DELETE_BATCHES = 64;
+
+	private class ParallelDelete extends SimpleFileVisitor<Path> {
+
+		private final ExecutorService exec;
+
+		private final boolean exclusive;
+
+		private final Semaphore pendingBatches = new Semaphore(MAX_PENDING_DELETE_BATCHES);
+
+		/**
+		 * The first failure to delete a file or directory.
+		 */
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		private DirectoryNode current = null;
+
+		private List<Path> batch = new ArrayList<>();
+
+		/**
+		 * A directory that is deleted when its contents have been listed and
+		 * deleted.
+		 */
+		private class DirectoryNode {
+
+			private final DirectoryNode parent;
+
+			private final Path dir;
+
+			/**
+			 * Pending batches and subdirectories, plus one while the
+			 * directory is being listed.
+			 */
+			private final AtomicInteger pending = new AtomicInteger(1);
+
+			private DirectoryNode(final DirectoryNode parent, final Path dir) {
+
+				this.parent = parent;
+				this.dir = dir;
+				if (parent != null)
+					parent.pending.incrementAndGet();
+			}
+
+			private void release() {
+
+				if (pending.decrementAndGet() > 0)
+					return;
+				if (failure.get() == null) {
+					try {
+						tryDelete(dir);
+						deleted(dir);
+					} catch (IOException | RuntimeException e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+				if (parent != null)
+					parent.release();
+			}
+		}
+
+		private ParallelDelete(final ExecutorService exec, final boolean exclusive) {
+
+			this.exec = exec;
+			this.exclusive = exclusive;
+		}
+
+		private void delete(final Path path) throws N5IOException, InterruptedException, ExecutionException {
+
+			try {
+				Files.walkFileTree(path, this);
+			} catch (final InterruptedIOException e) {
+				throw new InterruptedException("Interrupted while deleting " + path);
+			} catch (final NoSuchFileException ignore) {
+				/* It doesn't exist; that's sufficient for us to not complain on a `delete` call */
+			} catch (IOException | UncheckedIOException e) {
+				throw new N5IOException("Failed to delete file at " + path, e);
+			} finally {
+				// wait for all pending batches, also if interrupted, such
+				// that no deletions are in flight when this returns
+				pendingBatches.acquireUninterruptibly(MAX_PENDING_DELETE_BATCHES);
+				pendingBatches.release(MAX_PENDING_DELETE_BATCHES);
+			}
+
+			final Throwable e = failure.get();
+			if (e != null)
+				throw new ExecutionException("Failed to delete file in " + path, e);
+		}
+
+		@Override
+		public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+
+			if (failure.get() != null)
+				return FileVisitResult.TERMINATE;
+			submitBatch();
+			current = new DirectoryNode(current, dir);
+			return FileVisitResult.CONTINUE;
+		}
+
+		@Override
+		public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+
+			if (!attrs.isRegularFile()) {
+				Files.delete(file);
+				deleted(file);
+			} else {
+				batch.add(file);
+				if (batch.size() >= DELETE_BATCH_SIZE)
+					submitBatch();
+			}
+			return failure.get() == null ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+		}
+
+		@Override
+		public FileVisitResult visitFileFailed(final Path file, final IOException e) throws IOException {
+
+			if (e instanceof NoSuchFileException)
+				return FileVisitResult.CONTINUE;
+			throw e;
+		}
+
+		@Override
+		public FileVisitResult postVisitDirectory(final Path dir, final IOException e) throws IOException {
+
+			if (e != null)
+				throw e;
+			submitBatch();
+			final DirectoryNode node = current;
+			current = node.parent;
+			node.release();
+			return FileVisitResult.CONTINUE;
+		}
+
+		private void submitBatch() throws InterruptedIOException {
+
+			if (batch.isEmpty())
+				return;
+
+			final List<Path> files = batch;
+			final DirectoryNode node = current;
+			batch = new ArrayList<>();
+			node.pending.incrementAndGet();
+			try {
+				pendingBatches.acquire();
+			} catch (final InterruptedException e) {
+				node.pending.decrementAndGet();
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+
+			try {
+				exec.execute(() -> {
+					try {
+						for (final Path file : files) {
+							if (failure.get() != null)
+								break;
+							deleteFile(file, !exclusive);
+						}
+					} catch (IOException | RuntimeException e) {
+						failure.compareAndSet(null, e);
+					} finally {
+						node.release();
+						pendingBatches.release();
+					}
+				});
+			} catch (final RuntimeException e) {
+				failure.compareAndSet(null, e);
+				node.pending.decrementAndGet();
+				pendingBatches.release();
+			}
+		}
+	}
+
+	private void deleteFile(final Path path) throws IOException {
+
+		deleteFile(path, true);
+	}
+
+	private void deleteFile(final Path path, final boolean lock) throws IOException {
+
+		try {
+			if (!lock || writeMode == WriteMode.RENAME)
+				Files.delete(path);
+			else
+				try (final LockedFileChannel channel = lockForWriting(path)) {
+					Files.delete(path);
+				}
+		} catch (final NoSuchFileException ignore) {
+			/* deleted concurrently */
+		}
+		deleted(path);
+	}
+
 	protected static void tryDelete(final Path path) throws IOException {
 
 		try {
@@ -299,14 +942,22 @@ public class FileSystemKeyValueAccess implements KeyValueAccess {
 			 * Even though path is expected to be an empty directory, sometimes
 			 * deletion fails on network filesystems when lock files are not
 			 * cleared immediately after the leaves have been removed.
+			 * Reattempt with exponential backoff, for up to 127ms in total.
 			 */
-			try {
-				/* wait and reattempt */
-				Thread.sleep(100);
-				Files.delete(path);
-			} catch (final InterruptedException ex) {
-				e.printStackTrace();
-				Thread.currentThread().interrupt();
+			for (long backoffMillis = 1;; backoffMillis *= 2) {
+				try {
+					Thread.sleep(backoffMillis);
+				} catch (final InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw e;
+				}
+				try {
+					Files.delete(path);
+					return;
+				} catch (final DirectoryNotEmptyException ex) {
+					if (backoffMillis >= 64)
+						throw ex;
+				}
 			}
 		}
 	}
@@ -421,6 +1072,39 @@ public class FileSystemKeyValueAccess implements KeyValueAccess {
 		return dir;
 	}
 
+	/**
+	 * Creates a directory and its nonexistent parents like
+	 * {@link #createDirectories(Path, FileAttribute...)}, and adds the
+	 * directories that were created to {@code created}, parents first.
+	 * Directories created concurrently by others are not added.
+	 *
+	 * @param dir
+	 *            the directory to create
+	 * @param created
+	 *            the list the created directories are added to
+	 * @return {@code created}
+	 * @throws IOException
+	 *             if an I/O error occurs, or {@code dir} exists but is not a
+	 *             directory
+	 */
+	private static List<Path> createDirectories(final Path dir, final List<Path> created) throws IOException {
+
+		if (Files.isDirectory(dir))
+			return created;
+
+		final Path parent = dir.getParent();
+		if (parent != null)
+			createDirectories(parent, created);
+		try {
+			Files.createDirectory(dir);
+			created.add(dir);
+		} catch (final FileAlreadyExistsException x) {
+			if (!Files.isDirectory(dir))
+				throw x;
+		}
+		return created;
+	}
+
 	/**
 	 * This is a copy of a previous Files#createAndCheckIsDirectory(Path,
 	 * FileAttribute...) method that follows symlinks.
@@ -469,7 +1153,7 @@ public class FileSystemKeyValueAccess implements KeyValueAccess {
 
 		FileLazyRead(final Path path) {
 			this.path = path;
-			lock = lockForReading(path);
+			lock = writeMode == WriteMode.RENAME ? openForReading(path) : lockForReading(path);
 		}
 
 		@Override
@@ -480,9 +1164,8 @@ public class FileSystemKeyValueAccess implements KeyValueAccess {
 			}
 
 			try {
-				return Files.size(path);
-			} catch (NoSuchFileException e) {
-				throw new N5NoSuchKeyException("No such file", e);
+				// size of the opened file, which may have been replaced in RENAME mode
+				return lock.size();
 			} catch (IOException | UncheckedIOException e) {
 				throw new N5IOException(e);
 			}
@@ -40,16 +40,7 @@ public class FsIoPolicy {
      */
     static FileChannel openFileChannel(final Path path, final boolean forWriting) throws IOException {
 
-        if (forWriting) {
-            final Path parent = path.getParent();
-            /* if not null and not directory, it will call `createDirectories` but we expect it to throw an IOException */
-            if (parent != null && !parent.toFile().isDirectory()) {
-                Files.createDirectories(parent);
-            }
-            return FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
-        } else {
-            return FileChannel.open(path, StandardOpenOption.READ);
-        }
+        return ChannelLock.openFileChannel(path, forWriting);
     }
 
 
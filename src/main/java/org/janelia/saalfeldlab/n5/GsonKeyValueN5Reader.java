@@ -1,7 +1,9 @@
 package org.janelia.saalfeldlab.n5;
 
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
@@ -10,6 +12,7 @@ import org.janelia.saalfeldlab.n5.shard.PositionValueAccess;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 
 /**
  * {@link N5Reader} implementation through {@link KeyValueAccess} with JSON
@@ -18,8 +21,69 @@ import com.google.gson.JsonElement;
  */
 public interface GsonKeyValueN5Reader extends GsonN5Reader {
 
+	String CONSOLIDATED_METADATA_KEY = "metadata";
+	String CONSOLIDATED_ATTRIBUTES_KEY = "attributes";
+	String CONSOLIDATED_CHILDREN_KEY = "children";
+
 	KeyValueAccess getKeyValueAccess();
 
+	/**
+	 * Returns the key, relative to the container root, of the consolidated
+	 * metadata that hold the attributes and children of all groups and
+	 * datasets in one file, or null if consolidated metadata are not
+	 * supported.
+	 * <p>
+	 * The consolidated metadata map normalized group paths to their
+	 * attributes and children:
+	 * <pre>
+	 * {"metadata": {
+	 *   "": {"attributes": {"n5": "4.0.0"}, "children": ["a"]},
+	 *   "a": {"attributes": {...}}
+	 * }}
+	 * </pre>
+	 * Children of datasets are not listed.
+	 *
+	 * @return the key, or null
+	 */
+	default String getConsolidatedMetadataKey() {
+
+		return null;
+	}
+
+	/**
+	 * Reads the consolidated metadata.
+	 *
+	 * @return the map from normalized group paths to attributes and children,
+	 *         or null if there are no consolidated metadata
+	 * @throws N5Exception
+	 *             if the consolidated metadata cannot be read
+	 * @see #getConsolidatedMetadataKey()
+	 */
+	default JsonObject readConsolidatedMetadata() throws N5Exception {
+
+		final String key = getConsolidatedMetadataKey();
+		if (key == null)
+			return null;
+
+		final String path = getKeyValueAccess().compose(getURI(), key);
+		final JsonElement consolidated;
+		try (final VolatileReadData readData = getKeyValueAccess().createReadData(path)) {
+			if (readData == null)
+				return null;
+			consolidated = GsonUtils.readAttributes(new InputStreamReader(readData.inputStream(), StandardCharsets.UTF_8), getGson());
+		} catch (final N5Exception.N5NoSuchKeyException e) {
+			return null;
+		} catch (final UncheckedIOException | N5IOException e) {
+			throw new N5IOException("Failed to read consolidated metadata from " + path, e);
+		}
+
+		if (consolidated == null || !consolidated.isJsonObject())
+			return null;
+
+		final JsonElement metadata = consolidated.getAsJsonObject().get(CONSOLIDATED_METADATA_KEY);
+		return metadata != null && metadata.isJsonObject() ? metadata.getAsJsonObject() : null;
+	}
+
 	default boolean groupExists(final String normalPath) {
 
 		return getKeyValueAccess().isDirectory(absoluteGroupPath(normalPath));
@@ -57,7 +121,7 @@ public interface GsonKeyValueN5Reader extends GsonN5Reader {
 			if (readData == null) {
 				return null;
 			}
-			return GsonUtils.readAttributes(new InputStreamReader(readData.inputStream()), getGson());
+			return GsonUtils.readAttributes(new InputStreamReader(readData.inputStream(), StandardCharsets.UTF_8), getGson());
 		} catch (final N5Exception.N5NoSuchKeyException e) {
 			return null;
 		} catch (final UncheckedIOException | N5IOException e) {
@@ -65,6 +129,33 @@ public interface GsonKeyValueN5Reader extends GsonN5Reader {
 		}
 	}
 
+	/**
+	 * Reads a single attribute of a group or dataset from the backend without
+	 * parsing all attributes, see
+	 * {@link GsonUtils#readAttribute(java.io.Reader, String, Gson)}.
+	 *
+	 * @param normalPath
+	 *            normalized group path
+	 * @param normalizedAttributePath
+	 *            normalized attribute path
+	 * @return the attribute, or null if it does not exist
+	 * @throws N5Exception if the attributes cannot be read
+	 */
+	default JsonElement readAttribute(final String normalPath, final String normalizedAttributePath) throws N5Exception {
+
+		final String attributesPath = absoluteAttributesPath(normalPath);
+		try (final VolatileReadData readData = getKeyValueAccess().createReadData(attributesPath);) {
+			if (readData == null) {
+				return null;
+			}
+			return GsonUtils.readAttribute(new InputStreamReader(readData.inputStream(), StandardCharsets.UTF_8), normalizedAttributePath, getGson());
+		} catch (final N5Exception.N5NoSuchKeyException e) {
+			return null;
+		} catch (final IOException | UncheckedIOException | N5IOException e) {
+			throw new N5IOException("Failed to read attribute " + normalizedAttributePath + " from " + normalPath, e);
+		}
+	}
+
 	@Override
 	default <T> DataBlock<T> readChunk(
 			final String pathName,
@@ -4,12 +4,18 @@ import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.google.gson.JsonSyntaxException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
 import org.janelia.saalfeldlab.n5.readdata.ReadData;
 import org.janelia.saalfeldlab.n5.shard.PositionValueAccess;
@@ -52,6 +58,141 @@ public interface GsonKeyValueN5Writer extends GsonN5Writer, GsonKeyValueN5Reader
 
 		final String normalPath = N5URI.normalizeGroupPath(path);
 		getKeyValueAccess().createDirectories(absoluteGroupPath(normalPath));
+		invalidateConsolidatedMetadata();
+	}
+
+	/**
+	 * Creates groups and their ancestors. Directories are only created for
+	 * groups that are not ancestors of other groups in
+	 * {@code normalGroupPaths}, such that each ancestor is created only once.
+	 *
+	 * @param normalGroupPaths
+	 *            normalized group paths
+	 * @throws N5Exception
+	 *             if a group cannot be created
+	 */
+	default void createGroups(final Collection<String> normalGroupPaths) throws N5Exception {
+
+		final Set<String> ancestors = new HashSet<>();
+		for (final String normalPath : normalGroupPaths) {
+			int i = normalPath.lastIndexOf('/');
+			while (i > 0 && ancestors.add(normalPath.substring(0, i)))
+				i = normalPath.lastIndexOf('/', i - 1);
+			if (!normalPath.isEmpty())
+				ancestors.add("");
+		}
+
+		for (final String normalPath : new LinkedHashSet<>(normalGroupPaths)) {
+			if (!ancestors.contains(normalPath))
+				getKeyValueAccess().createDirectories(absoluteGroupPath(normalPath));
+		}
+		invalidateConsolidatedMetadata();
+	}
+
+	/**
+	 * Helper method that normalizes dataset paths and creates their groups
+	 * with {@link #createGroups(Collection)}.
+	 * <p>
+	 * TODO This method is not part of the public API and should be protected
+	 * in Java versions greater than 8
+	 *
+	 * @param datasetPaths
+	 *            the dataset paths
+	 * @return the normalized paths by dataset path
+	 * @throws N5Exception
+	 *             if a group cannot be created
+	 */
+	default Map<String, String> createDatasetGroups(final Collection<String> datasetPaths) throws N5Exception {
+
+		final Map<String, String> normalPaths = new LinkedHashMap<>();
+		for (final String datasetPath : datasetPaths)
+			normalPaths.put(datasetPath, N5URI.normalizeGroupPath(datasetPath));
+		createGroups(normalPaths.values());
+		return normalPaths;
+	}
+
+	@Override
+	default void setDatasetAttributes(
+			final String datasetPath,
+			final DatasetAttributes datasetAttributes) throws N5Exception {
+
+		final String normalPath = N5URI.normalizeGroupPath(datasetPath);
+		if (!exists(normalPath))
+			throw new N5IOException("" + normalPath + " is not a group or dataset.");
+
+		writeDatasetAttributes(normalPath, getConvertedDatasetAttributes(datasetAttributes));
+	}
+
+	/**
+	 * Helper method that serializes dataset attributes with {@link #getGson()},
+	 * such that their codecs are serialized with its adapters, and inserts
+	 * them into the attributes of a dataset.
+	 *
+	 * TODO This method is not part of the public API and should be protected
+	 * in Java greater than 8
+	 *
+	 * @param normalPath
+	 *            the normalized dataset path
+	 * @param datasetAttributes
+	 *            the dataset attributes
+	 * @throws N5Exception
+	 *             if the attributes cannot be written
+	 */
+	default void writeDatasetAttributes(
+			final String normalPath,
+			final DatasetAttributes datasetAttributes) throws N5Exception {
+
+		final Map<String, JsonElement> attributes = new LinkedHashMap<>();
+		for (final Map.Entry<String, JsonElement> entry : getGson().toJsonTree(datasetAttributes).getAsJsonObject().entrySet())
+			attributes.put(entry.getKey(), entry.getValue());
+		writeAttributes(normalPath, attributes);
+	}
+
+	/**
+	 * Creates all groups with {@link #createGroups(Collection)}, then reads,
+	 * updates and writes the attributes of each dataset once.
+	 */
+	@Override
+	default Map<String, DatasetAttributes> createDatasets(
+			final Map<String, DatasetAttributes> datasets) throws N5Exception {
+
+		final Map<String, String> normalPaths = createDatasetGroups(datasets.keySet());
+
+		final Map<String, DatasetAttributes> convertedDatasets = new LinkedHashMap<>();
+		for (final Map.Entry<String, DatasetAttributes> entry : datasets.entrySet()) {
+			final DatasetAttributes convertedDatasetAttributes = getConvertedDatasetAttributes(entry.getValue());
+			writeDatasetAttributes(normalPaths.get(entry.getKey()), convertedDatasetAttributes);
+			convertedDatasets.put(entry.getKey(), convertedDatasetAttributes);
+		}
+		return convertedDatasets;
+	}
+
+	/**
+	 * Creates all groups with {@link #createGroups(Collection)}, then reads,
+	 * updates and writes the attributes of each dataset once, in parallel on
+	 * {@code exec}.
+	 */
+	@Override
+	default Map<String, DatasetAttributes> createDatasets(
+			final Map<String, DatasetAttributes> datasets,
+			final ExecutorService exec) throws N5Exception, InterruptedException, ExecutionException {
+
+		final Map<String, String> normalPaths = createDatasetGroups(datasets.keySet());
+
+		final Map<String, Future<DatasetAttributes>> futures = new LinkedHashMap<>();
+		for (final Map.Entry<String, DatasetAttributes> entry : datasets.entrySet()) {
+			final String normalPath = normalPaths.get(entry.getKey());
+			futures.put(entry.getKey(), exec.submit(() -> {
+				final DatasetAttributes convertedDatasetAttributes = getConvertedDatasetAttributes(entry.getValue());
+				writeDatasetAttributes(normalPath, convertedDatasetAttributes);
+				return convertedDatasetAttributes;
+			}));
+		}
+
+		final Map<String, DatasetAttributes> convertedDatasets = new LinkedHashMap<>();
+		for (final Map.Entry<String, Future<DatasetAttributes>> entry : futures.entrySet())
+			convertedDatasets.put(entry.getKey(), entry.getValue().get());
+		return convertedDatasets;
 	}
 
 	/**
@@ -81,6 +222,93 @@ public interface GsonKeyValueN5Writer extends GsonN5Writer, GsonKeyValueN5Reader
 		} catch (UncheckedIOException | N5IOException e) {
 			throw new N5Exception.N5IOException("Failed to write attributes into " + normalGroupPath, e);
 		}
+		invalidateConsolidatedMetadata();
+	}
+
+	/**
+	 * Writes the attributes and children of all groups and datasets in this
+	 * container into the consolidated metadata at the container root, such
+	 * that readers can load the whole hierarchy with a single request.
+	 * Existing consolidated metadata are replaced.
+	 * <p>
+	 * Methods that change the hierarchy or attributes delete consolidated
+	 * metadata, call this again after such changes.
+	 *
+	 * @throws N5Exception
+	 *             if consolidated metadata are not supported, or the container
+	 *             cannot be read or the metadata cannot be written
+	 * @see #getConsolidatedMetadataKey()
+	 */
+	default void consolidateMetadata() throws N5Exception {
+
+		final String key = getConsolidatedMetadataKey();
+		if (key == null)
+			throw new N5Exception("Consolidated metadata are not supported by " + getClass().getSimpleName());
+
+		final JsonObject metadata = new JsonObject();
+		consolidateMetadata(N5URI.normalizeGroupPath("/"), metadata);
+
+		final JsonObject consolidated = new JsonObject();
+		consolidated.add(CONSOLIDATED_METADATA_KEY, metadata);
+		final ReadData readData = ReadData.from(os -> {
+			final OutputStreamWriter writer = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+			GsonUtils.writeAttributes(writer, consolidated, getGson());
+		});
+
+		try {
+			getKeyValueAccess().write(getKeyValueAccess().compose(getURI(), key), readData);
+		} catch (UncheckedIOException | N5IOException e) {
+			throw new N5Exception.N5IOException("Failed to write consolidated metadata", e);
+		}
+	}
+
+	/**
+	 * Deletes the consolidated metadata of this container, if any, because
+	 * they are outdated after the hierarchy or attributes changed. Called by
+	 * all methods that create or remove groups or write attributes.
+	 * <p>
+	 * Consolidated metadata may be written by other writers at any time, so
+	 * their existence is checked on every call, and they are only deleted if
+	 * they exist.
+	 * <p>
+	 * TODO This method is not part of the public API and should be protected
+	 * in Java versions greater than 8
+	 *
+	 * @throws N5Exception
+	 *             if the consolidated metadata cannot be deleted
+	 */
+	default void invalidateConsolidatedMetadata() throws N5Exception {
+
+		final String key = getConsolidatedMetadataKey();
+		if (key == null)
+			return;
+
+		final KeyValueAccess kva = getKeyValueAccess();
+		final String path = kva.compose(getURI(), key);
+		if (kva.isFile(path))
+			kva.delete(path);
+	}
+
+	/**
+	 * Adds the attributes and children of a group, and recursively of its
+	 * children, to consolidated metadata. Datasets are not descended into.
+	 */
+	default void consolidateMetadata(final String normalPath, final JsonObject metadata) throws N5Exception {
+
+		final JsonObject node = new JsonObject();
+		final JsonElement attributes = getAttributes(normalPath);
+		if (attributes != null)
+			node.add(CONSOLIDATED_ATTRIBUTES_KEY, attributes);
+		metadata.add(normalPath, node);
+
+		if (datasetExists(normalPath))
+			return;
+
+		final String[] children = list(normalPath);
+		Arrays.sort(children);
+		node.add(CONSOLIDATED_CHILDREN_KEY, getGson().toJsonTree(children));
+		for (final String child : children)
+			consolidateMetadata(normalPath.isEmpty() ? child : normalPath + "/" + child, metadata);
 	}
 
 	@Override
@@ -137,6 +365,45 @@ public interface GsonKeyValueN5Writer extends GsonN5Writer, GsonKeyValueN5Reader
 		writeAttributes(normalPath, attributes);
 	}
 
+	/**
+	 * Applies the changes of each group with one read and one write of its
+	 * attributes.
+	 */
+	@Override
+	default void applyAttributes(final AttributeTransaction transaction) throws N5Exception {
+
+		for (final String normalPath : transaction.getGroupPaths()) {
+
+			final List<AttributeTransaction.Operation> operations = transaction.getOperations(normalPath);
+			final boolean removeOnly = operations.stream().allMatch(AttributeTransaction.Operation::isRemove);
+			if (!exists(normalPath)) {
+				if (removeOnly)
+					continue;
+				throw new N5IOException("" + normalPath + " is not a group or dataset.");
+			}
+
+			JsonElement root = getAttributes(normalPath);
+			boolean changed = false;
+			for (final AttributeTransaction.Operation operation : operations) {
+				if (operation.isRemove()) {
+					if (operation.getAttributePath().equals("/")) {
+						root = JsonNull.INSTANCE;
+						changed = true;
+					} else if (root != null && GsonUtils.removeAttribute(root, operation.getAttributePath()) != null)
+						changed = true;
+				} else {
+					if (root == null || !root.isJsonObject())
+						root = new JsonObject();
+					root = GsonUtils.insertAttribute(root, operation.getAttributePath(), operation.getAttribute(), getGson());
+					changed = true;
+				}
+			}
+
+			if (changed)
+				writeAttributes(normalPath, root);
+		}
+	}
+
 	@Override
 	default boolean removeAttribute(final String groupPath, final String attributePath) throws N5Exception {
 
@@ -286,11 +553,43 @@ public interface GsonKeyValueN5Writer extends GsonN5Writer, GsonKeyValueN5Reader
 		final String groupPath = absoluteGroupPath(normalPath);
 		if (getKeyValueAccess().isDirectory(groupPath))
 			getKeyValueAccess().delete(groupPath);
+		invalidateConsolidatedMetadata();
 
 		/* an IOException should have occurred if anything had failed midway */
 		return true;
 	}
 
+	@Override
+	default boolean remove(
+			final String path,
+			final ExecutorService exec,
+			final boolean exclusive) throws N5Exception, InterruptedException, ExecutionException {
+
+		final String normalPath = N5URI.normalizeGroupPath(path);
+		final String groupPath = absoluteGroupPath(normalPath);
+		if (getKeyValueAccess().isDirectory(groupPath))
+			getKeyValueAccess().delete(groupPath, exec, exclusive);
+		invalidateConsolidatedMetadata();
+
+		/* an exception should have occurred if anything had failed midway */
+		return true;
+	}
+
+	@Override
+	default void flush() throws N5Exception {
+
+		getKeyValueAccess().flush();
+	}
+
+	/**
+	 * Flushes deferred changes.
+	 */
+	@Override
+	default void close() {
+
+		flush();
+	}
+
 	@Override
 	default boolean deleteBlock(
 			final String path,
@@ -1,5 +1,6 @@
 package org.janelia.saalfeldlab.n5;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
@@ -15,7 +16,11 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 import org.janelia.saalfeldlab.n5.N5Exception.N5JsonParseException;
 
 /**
@@ -39,6 +44,89 @@ public interface GsonUtils {
 		return gson.fromJson(reader, JsonElement.class);
 	}
 
+	/**
+	 * Reads the attribute at {@code normalizedAttributePath} from the
+	 * attributes json of a given {@link Reader} as a {@link JsonElement},
+	 * without parsing the entire attributes.
+	 * <p>
+	 * The json is streamed until the attribute is found, siblings of the
+	 * attribute and of its parents are skipped without being parsed. Returns
+	 * the same as {@link #getAttribute(JsonElement, String)} for the
+	 * {@link #readAttributes(Reader, Gson) parsed attributes}, except for
+	 * duplicate keys, where the first rather than the last value is found.
+	 *
+	 * @param reader
+	 *            the reader
+	 * @param normalizedAttributePath
+	 *            to the attribute
+	 * @param gson
+	 *            to parse Json from the {@code reader}
+	 * @return the attribute as a {@link JsonElement}, or null if it does not
+	 *         exist
+	 * @throws IOException
+	 *             if the json cannot be read
+	 * @throws JsonSyntaxException
+	 *             if the json is malformed
+	 */
+	static JsonElement readAttribute(
+			final Reader reader,
+			final String normalizedAttributePath,
+			final Gson gson) throws IOException {
+
+		final JsonReader jsonReader = gson.newJsonReader(reader);
+		// like Gson#fromJson
+		jsonReader.setStrictness(Strictness.LENIENT);
+		// malformed json is a syntax error as for readAttributes
+		try {
+			try {
+				jsonReader.peek();
+			} catch (final EOFException e) {
+				// empty document
+				return null;
+			}
+
+			for (LinkedAttributePathToken<?> token = N5URI.getAttributePathTokens(normalizedAttributePath); token != null; token = token.next()) {
+				final JsonToken next = jsonReader.peek();
+				if (next == JsonToken.BEGIN_OBJECT) {
+					final String key = token instanceof LinkedAttributePathToken.ObjectAttributeToken
+							? ((LinkedAttributePathToken.ObjectAttributeToken)token).getKey()
+							: token.toString();
+					if (!skipToKey(jsonReader, key))
+						return null;
+				} else if (next == JsonToken.BEGIN_ARRAY && token instanceof LinkedAttributePathToken.ArrayAttributeToken) {
+					if (!skipToIndex(jsonReader, ((LinkedAttributePathToken.ArrayAttributeToken)token).getIndex()))
+						return null;
+				} else
+					return null;
+			}
+			return gson.getAdapter(JsonElement.class).read(jsonReader);
+		} catch (final MalformedJsonException | EOFException | IllegalStateException e) {
+			throw new JsonSyntaxException(e);
+		}
+	}
+
+	static boolean skipToKey(final JsonReader jsonReader, final String key) throws IOException {
+
+		jsonReader.beginObject();
+		while (jsonReader.hasNext()) {
+			if (jsonReader.nextName().equals(key))
+				return true;
+			jsonReader.skipValue();
+		}
+		return false;
+	}
+
+	static boolean skipToIndex(final JsonReader jsonReader, final int index) throws IOException {
+
+		jsonReader.beginArray();
+		for (int i = 0; i < index; ++i) {
+			if (!jsonReader.hasNext())
+				return false;
+			jsonReader.skipValue();
+		}
+		return jsonReader.hasNext();
+	}
+
 	static <T> T readAttribute(
 			final JsonElement root,
 			final String normalizedAttributePath,
@@ -5,11 +5,10 @@ import java.io.InputStream;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.InflaterInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
-import org.apache.commons.compress.compressors.gzip.GzipParameters;
 import org.janelia.saalfeldlab.n5.Compression.CompressionType;
 import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
+import org.janelia.saalfeldlab.n5.codec.engine.CodecEngines;
+import org.janelia.saalfeldlab.n5.codec.engine.GzipEngine;
 import org.janelia.saalfeldlab.n5.readdata.ReadData;
 import org.janelia.saalfeldlab.n5.serialization.NameConfig;
 
@@ -39,7 +38,6 @@ public class GzipCompression implements Compression {
 	@CompressionParameter
 	private final boolean useZlib;
 
-	private final transient GzipParameters parameters = new GzipParameters();
 
 	public GzipCompression() {
 
@@ -72,10 +70,7 @@ public class GzipCompression implements Compression {
 		if (useZlib) {
 			return new InflaterInputStream(in);
 		} else {
-			return GzipCompressorInputStream.builder()
-					.setInputStream(in)
-					.setDecompressConcatenated(true)
-					.get();
+			return CodecEngines.get(GzipEngine.CODEC_NAME, GzipEngine.class).decompress(in);
 		}
 	}
 
@@ -94,10 +89,8 @@ public class GzipCompression implements Compression {
 		if (useZlib) {
 			return readData.encode(out -> new DeflaterOutputStream(out, new Deflater(level)));
 		} else {
-			return readData.encode(out -> {
-				parameters.setCompressionLevel(level);
-				return new GzipCompressorOutputStream(out, parameters);
-			});
+			final GzipEngine engine = CodecEngines.get(GzipEngine.CODEC_NAME, GzipEngine.class);
+			return readData.encode(out -> engine.compress(out, level));
 		}
 	}
 }
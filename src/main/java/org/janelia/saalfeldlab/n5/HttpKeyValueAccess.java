@@ -40,6 +40,10 @@ public class HttpKeyValueAccess implements KeyValueAccess {
 	public static final String RANGE = "Range";
 	public static final String ACCEPT_RANGE = "Accept-Range";
 	public static final String BYTES = "bytes";
+	public static final String ETAG = "ETag";
+	public static final String LAST_MODIFIED = "Last-Modified";
+	public static final String IF_NONE_MATCH = "If-None-Match";
+	public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
 
 	private int readTimeoutMilliseconds;
 	private int connectionTimeoutMilliseconds;
@@ -117,6 +121,79 @@ public class HttpKeyValueAccess implements KeyValueAccess {
 		return head.getContentLengthLong();
 	}
 
+	/**
+	 * Returns the {@code ETag} of the key, or its {@code Last-Modified} date
+	 * if the server does not send an {@code ETag}, from a {@code HEAD}
+	 * request.
+	 *
+	 * @param normalPath is expected to be in normalized form, no further efforts are
+	 *                   made to normalize it.
+	 * @return the version, an empty String if the key does not exist, or null
+	 *         if the server sends neither header
+	 */
+	@Override
+	public String version(final String normalPath) throws N5IOException {
+
+		final HttpURLConnection head;
+		try {
+			head = requireValidHttpResponse(normalPath, HEAD, "Error checking version: " + normalPath, true);
+		} catch (N5Exception.N5NoSuchKeyException e) {
+			return "";
+		}
+		return version(head);
+	}
+
+	/**
+	 * Sends a {@code HEAD} request with {@code If-None-Match}, or
+	 * {@code If-Modified-Since} if the known version is not an {@code ETag},
+	 * and returns the known version if the server responds with
+	 * {@code 304 Not Modified}.
+	 */
+	@Override
+	public String version(final String normalPath, final String knownVersion) throws N5IOException {
+
+		if (knownVersion == null || knownVersion.isEmpty())
+			return version(normalPath);
+
+		final String message = "Error checking version: " + normalPath;
+		final int code;
+		final HttpURLConnection head;
+		try {
+			head = httpRequest(normalPath, HEAD);
+			head.setRequestProperty(isETag(knownVersion) ? IF_NONE_MATCH : IF_MODIFIED_SINCE, knownVersion);
+			code = head.getResponseCode();
+			if (code == HttpURLConnection.HTTP_NOT_MODIFIED)
+				return knownVersion;
+
+			final N5Exception cause = validExistsResponse(code, head.getResponseMessage(), message, true);
+			if (cause instanceof N5Exception.N5NoSuchKeyException)
+				return "";
+			else if (cause != null)
+				throw cause;
+		} catch (IOException e) {
+			throw new N5IOException(message, e);
+		}
+		return version(head);
+	}
+
+	private static String version(final HttpURLConnection head) {
+
+		final String etag = head.getHeaderField(ETAG);
+		if (etag != null)
+			return etag;
+
+		return head.getHeaderField(LAST_MODIFIED);
+	}
+
+	/**
+	 * {@code ETag}s are quoted, optionally with a weak validator prefix,
+	 * {@code Last-Modified} dates are not.
+	 */
+	private static boolean isETag(final String version) {
+
+		return version.startsWith("\"") || version.startsWith("W/\"");
+	}
+
 	/**
 	 * Test whether the path is a directory.
 	 * <p>
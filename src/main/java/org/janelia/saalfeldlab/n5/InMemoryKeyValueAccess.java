@@ -0,0 +1,376 @@
+package org.janelia.saalfeldlab.n5;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
+import org.janelia.saalfeldlab.n5.N5Exception.N5NoSuchKeyException;
+import org.janelia.saalfeldlab.n5.readdata.LazyRead;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.janelia.saalfeldlab.n5.readdata.VolatileReadData;
+
+/**
+ * A {@link KeyValueAccess} that keeps all keys in memory, e.g. for scratch
+ * containers, tests and benchmarks without file system noise, or as a
+ * caching tier.
+ * <p>
+ * Keys are absolute paths, e.g. a container is opened with
+ *
+ * <pre>
+ * {@code
+ * final N5Writer n5 = new N5KeyValueWriter(new InMemoryKeyValueAccess(), "/container", new GsonBuilder(), true);
+ * }
+ * </pre>
+ *
+ * Like a file system, writing a key creates its parent directories, and
+ * directories remain when their children are deleted. Written data is copied,
+ * reads of heap stored data are not. Values are stored on the heap, or
+ * off-heap in direct {@link ByteBuffer}s, optionally limited to a budget of
+ * bytes. Writes that exceed the budget fail with an {@link N5IOException}.
+ * <p>
+ * All methods are thread-safe. A value is replaced atomically, such that
+ * readers see either the old or the new value.
+ */
+public class InMemoryKeyValueAccess implements KeyValueAccess {
+
+	/**
+	 * A stored value, directories have no data.
+	 */
+	private static final class Value {
+
+		final byte[] array;
+		final ByteBuffer buffer;
+		final int size;
+		final long version;
+
+		Value(final byte[] array, final ByteBuffer buffer, final int size, final long version) {
+
+			this.array = array;
+			this.buffer = buffer;
+			this.size = size;
+			this.version = version;
+		}
+
+		static Value directory(final long version) {
+
+			return new Value(null, null, 0, version);
+		}
+	}
+
+	/**
+	 * Values by name, i.e. the path without leading slash. Directory names end
+	 * with a slash, the root directory is implicit.
+	 */
+	private final ConcurrentSkipListMap<String, Value> values = new ConcurrentSkipListMap<>();
+
+	/**
+	 * Writes and directory creation share the read lock, deletes take the
+	 * write lock, such that deleted directories do not leave orphaned
+	 * children.
+	 */
+	private final ReadWriteLock structureLock = new ReentrantReadWriteLock();
+
+	private final boolean offHeap;
+
+	private final long maxBytes;
+
+	private final AtomicLong usedBytes = new AtomicLong();
+
+	private final AtomicLong versions = new AtomicLong();
+
+	/**
+	 * Creates an unbounded {@link InMemoryKeyValueAccess} that stores values
+	 * on the heap.
+	 */
+	public InMemoryKeyValueAccess() {
+
+		this(false, Long.MAX_VALUE);
+	}
+
+	/**
+	 * @param offHeap
+	 *            whether values are stored in direct {@link ByteBuffer}s
+	 * @param maxBytes
+	 *            the maximum number of bytes stored
+	 */
+	public InMemoryKeyValueAccess(final boolean offHeap, final long maxBytes) {
+
+		if (maxBytes < 0)
+			throw new IllegalArgumentException("maxBytes must not be negative");
+		this.offHeap = offHeap;
+		this.maxBytes = maxBytes;
+	}
+
+	public boolean isOffHeap() {
+
+		return offHeap;
+	}
+
+	public long getMaxBytes() {
+
+		return maxBytes;
+	}
+
+	/**
+	 * @return the number of bytes currently stored
+	 */
+	public long getUsedBytes() {
+
+		return usedBytes.get();
+	}
+
+	/**
+	 * Maps a normal path to a name, i.e. removes leading and trailing
+	 * slashes.
+	 */
+	private static String name(final String normalPath) {
+
+		int start = 0;
+		int end = normalPath.length();
+		while (start < end && normalPath.charAt(start) == '/')
+			++start;
+		while (end > start && normalPath.charAt(end - 1) == '/')
+			--end;
+		return normalPath.substring(start, end);
+	}
+
+	private Value requireFile(final String normalPath) throws N5NoSuchKeyException {
+
+		final String name = name(normalPath);
+		final Value value = name.isEmpty() ? null : values.get(name);
+		if (value == null)
+			throw new N5NoSuchKeyException("No such key " + normalPath);
+		return value;
+	}
+
+	@Override
+	public String normalize(final String path) {
+
+		return N5URI.normalizeGroupPath(path);
+	}
+
+	@Override
+	public boolean isDirectory(final String normalPath) {
+
+		final String name = name(normalPath);
+		return name.isEmpty() || values.containsKey(name + "/");
+	}
+
+	@Override
+	public boolean isFile(final String normalPath) {
+
+		final String name = name(normalPath);
+		return !name.isEmpty() && values.containsKey(name);
+	}
+
+	@Override
+	public boolean exists(final String normalPath) {
+
+		return isFile(normalPath) || isDirectory(normalPath);
+	}
+
+	@Override
+	public long size(final String normalPath) throws N5NoSuchKeyException {
+
+		return requireFile(normalPath).size;
+	}
+
+	/**
+	 * Returns a counter that changes whenever a key is written or a directory
+	 * is created, such that a directory that was deleted and created again
+	 * has a new version. The root directory always has version 0.
+	 */
+	@Override
+	public String version(final String normalPath) throws N5IOException {
+
+		final String name = name(normalPath);
+		if (name.isEmpty())
+			return "0";
+
+		Value value = values.get(name);
+		if (value == null)
+			value = values.get(name + "/");
+		return value == null ? "" : Long.toString(value.version);
+	}
+
+	@Override
+	public VolatileReadData createReadData(final String normalPath) throws N5IOException {
+
+		return VolatileReadData.from(new ValueLazyRead(requireFile(normalPath)));
+	}
+
+	private static class ValueLazyRead implements LazyRead {
+
+		private final Value value;
+
+		ValueLazyRead(final Value value) {
+
+			this.value = value;
+		}
+
+		@Override
+		public long size() {
+
+			return value.size;
+		}
+
+		@Override
+		public ReadData materialize(final long offset, final long length) {
+
+			if (offset < 0 || offset > value.size || (length >= 0 && offset + length > value.size))
+				throw new IndexOutOfBoundsException(
+						"offset " + offset + " and length " + length + " out of bounds of value of size " + value.size);
+
+			final int size = (int)(length < 0 ? value.size - offset : length);
+			if (value.array != null)
+				return ReadData.from(value.array, (int)offset, size);
+
+			final byte[] data = new byte[size];
+			final ByteBuffer buffer = value.buffer.duplicate();
+			buffer.position((int)offset);
+			buffer.get(data);
+			return ReadData.from(data);
+		}
+
+		@Override
+		public void close() {}
+	}
+
+	@Override
+	public String[] listDirectories(final String normalPath) throws N5IOException {
+
+		return list(normalPath, true);
+	}
+
+	@Override
+	public String[] list(final String normalPath) throws N5IOException {
+
+		return list(normalPath, false);
+	}
+
+	private String[] list(final String normalPath, final boolean directoriesOnly) throws N5IOException {
+
+		if (!isDirectory(normalPath))
+			throw new N5NoSuchKeyException("No such directory " + normalPath);
+
+		final String name = name(normalPath);
+		final String prefix = name.isEmpty() ? "" : name + "/";
+		final List<String> children = new ArrayList<>();
+		String key = values.higherKey(prefix);
+		while (key != null && key.startsWith(prefix)) {
+			final int slash = key.indexOf('/', prefix.length());
+			if (slash < 0) {
+				if (!directoriesOnly)
+					children.add(key.substring(prefix.length()));
+				key = values.higherKey(key);
+			} else {
+				children.add(key.substring(prefix.length(), slash));
+				/* skip all children of the child directory, '0' follows '/' */
+				key = values.ceilingKey(key.substring(0, slash) + '0');
+			}
+		}
+		return children.toArray(new String[0]);
+	}
+
+	@Override
+	public void createDirectories(final String normalPath) throws N5IOException {
+
+		structureLock.readLock().lock();
+		try {
+			createDirectoriesUnsafe(name(normalPath));
+		} finally {
+			structureLock.readLock().unlock();
+		}
+	}
+
+	private void createDirectoriesUnsafe(final String name) throws N5IOException {
+
+		if (name.isEmpty())
+			return;
+		for (int slash = name.indexOf('/'); ; slash = name.indexOf('/', slash + 1)) {
+			final String directory = slash < 0 ? name : name.substring(0, slash);
+			if (values.containsKey(directory))
+				throw new N5IOException("Cannot create directory /" + name + ", /" + directory + " is a key");
+			if (!values.containsKey(directory + "/"))
+				values.putIfAbsent(directory + "/", Value.directory(versions.incrementAndGet()));
+			if (slash < 0)
+				return;
+		}
+	}
+
+	@Override
+	public void write(final String normalPath, final ReadData data) throws N5IOException {
+
+		final String name = name(normalPath);
+		if (name.isEmpty())
+			throw new N5IOException("Cannot write to the root directory");
+
+		final byte[] bytes = data.allBytes();
+		reserve(bytes.length);
+		final Value value;
+		if (offHeap) {
+			final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+			buffer.put(bytes).flip();
+			value = new Value(null, buffer.asReadOnlyBuffer(), bytes.length, versions.incrementAndGet());
+		} else
+			value = new Value(bytes.clone(), null, bytes.length, versions.incrementAndGet());
+
+		structureLock.readLock().lock();
+		try {
+			if (values.containsKey(name + "/"))
+				throw new N5IOException("Cannot write to /" + name + ", it is a directory");
+			final int slash = name.lastIndexOf('/');
+			if (slash > 0)
+				createDirectoriesUnsafe(name.substring(0, slash));
+			final Value previous = values.put(name, value);
+			if (previous != null)
+				usedBytes.addAndGet(-previous.size);
+		} catch (final RuntimeException e) {
+			usedBytes.addAndGet(-bytes.length);
+			throw e;
+		} finally {
+			structureLock.readLock().unlock();
+		}
+	}
+
+	private void reserve(final long bytes) throws N5IOException {
+
+		final long used = usedBytes.addAndGet(bytes);
+		if (used > maxBytes) {
+			usedBytes.addAndGet(-bytes);
+			throw new N5IOException("Writing " + bytes + " bytes exceeds the budget of " + maxBytes + " bytes, " + (used - bytes) + " bytes are in use");
+		}
+	}
+
+	@Override
+	public void delete(final String normalPath) throws N5IOException {
+
+		final String name = name(normalPath);
+		structureLock.writeLock().lock();
+		try {
+			final Map<String, Value> deleted;
+			if (name.isEmpty())
+				deleted = values;
+			else {
+				final Value value = values.remove(name);
+				if (value != null)
+					usedBytes.addAndGet(-value.size);
+				/* the directory entry and all its children */
+				deleted = values.subMap(name + "/", name + "0");
+			}
+			for (final Iterator<Value> it = deleted.values().iterator(); it.hasNext();) {
+				usedBytes.addAndGet(-it.next().size);
+				it.remove();
+			}
+		} finally {
+			structureLock.writeLock().unlock();
+		}
+	}
+}
@@ -1,23 +1,26 @@
 package org.janelia.saalfeldlab.n5;
 
 import java.io.IOException;
-import java.nio.channels.FileChannel;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.util.concurrent.Semaphore;
 
 /**
  * Per-key state that tracks both thread locks and file locks.
+ * <p>
+ * There is at most one {@code KeyLockState} per path in the JVM, shared by
+ * all {@link FileKeyLockManager}s, such that threads wait for each other
+ * here instead of on overlapping file locks.
+ * <p>
+ * All fields are guarded by {@code this}. Threads wait on {@code this} and
+ * are notified whenever the lock is released or a waiting writer gives up.
+ * The {@link ChannelLock} is created and closed outside of the monitor,
+ * because it may have to wait for other processes.
  */
 class KeyLockState {
 
 	private final Path path;
 
-	private final LockingPolicy policy;
-
-	public KeyLockState(final Path path, LockingPolicy policy) {
+	public KeyLockState(final Path path) {
 		this.path = path;
-		this.policy = policy;
 	}
 
 	/**
@@ -26,105 +29,150 @@ class KeyLockState {
 	 * #releaseRead() Reader is released}, or the (one and only) {@link
 	 * #releaseWrite() Writer is released}.
 	 */
-	private volatile ChannelLock channelLock;
+	private ChannelLock channelLock;
 
 	/**
-	 * Multiple Readers coordinate via this mutex. {@code numReaders} may only
-	 * be modified when {@code readerMutex} is held.
+	 * Number of readers holding the lock, including a first reader that is
+	 * creating, or a last reader that is closing the {@code channelLock}.
 	 */
-	private final Semaphore readerMutex = new Semaphore(1);
 	private int numReaders = 0;
 
 	/**
-	 * This coordinates mutual exclusion between one writer and (the first of)
-	 * multiple readers. {@code channelLock} may only be created or closed when
-	 * {@code channelLockMutex} is held.
+	 * Whether a writer holds the lock, including while it is creating or
+	 * closing the {@code channelLock}.
 	 */
-	private final Semaphore channelLockMutex = new Semaphore(1);
+	private boolean writing = false;
 
-	LockedFileChannel acquireRead() throws IOException {
+	/**
+	 * Whether the {@code channelLock} of the readers is being created or
+	 * closed, other readers have to wait until this is done.
+	 */
+	private boolean busy = false;
 
-		try {
-			readerMutex.acquire();
+	private int numWaitingWriters = 0;
+
+	LockedFileChannel acquireRead(final LockingPolicy policy, final LockFairness fairness) throws IOException {
+
+		synchronized (this) {
 			try {
-				if (numReaders == 0) {
-					// We are the first Reader, and are responsible for creating the channelLock
-					// (Other concurrent Readers will still be blocked in readerMutex.)
-
-					// If a Writer is still open, this will block us until the Writer is closed.
-					channelLockMutex.acquire();
-
-					try {
-						channelLock = ChannelLock.lock(path, false, policy);
-					} catch (IOException e) {
-						// Something went wrong. Back off.
-						channelLockMutex.release();
-						throw e;
-					}
-				}
-
-				// We have a FileChannel.
-				// Create a LockedFileChannel that will releaseRead() when it is closed.
+				while (writing || busy || (fairness == LockFairness.WRITER_PREFERRING && numWaitingWriters > 0))
+					wait();
+			} catch (final InterruptedException e) {
+				throw new IOException(e);
+			}
+
+			if (numReaders > 0) {
+				// Join the other Readers.
 				++numReaders;
 				return new LockedFileChannel(channelLock.getChannel(), this::releaseRead);
-			} finally {
-				readerMutex.release();
 			}
-		} catch (InterruptedException e) {
-			throw new IOException(e);
+
+			// We are the first Reader, and are responsible for creating the channelLock
+			numReaders = 1;
+			busy = true;
+		}
+
+		final ChannelLock lock;
+		try {
+			lock = ChannelLock.lock(path, false, policy);
+		} catch (final IOException e) {
+			// Something went wrong. Back off.
+			synchronized (this) {
+				numReaders = 0;
+				busy = false;
+				notifyAll();
+			}
+			throw e;
+		}
+
+		synchronized (this) {
+			channelLock = lock;
+			busy = false;
+			notifyAll();
+			// Create a LockedFileChannel that will releaseRead() when it is closed.
+			return new LockedFileChannel(lock.getChannel(), this::releaseRead);
 		}
 	}
 
 	void releaseRead() throws IOException {
 
-		try {
-			readerMutex.acquire();
-			try {
+		final ChannelLock lock;
+		synchronized (this) {
+			if (numReaders > 1) {
 				--numReaders;
-				if (numReaders == 0) {
-					// We were the last Reader, and are responsible for releasing the channelLock
-					releaseChannelLock();
-				}
-			} finally {
-				readerMutex.release();
+				return;
 			}
-		} catch (InterruptedException e) {
-			throw new IOException(e);
+			// We are the last Reader, and are responsible for closing the channelLock
+			lock = channelLock;
+			channelLock = null;
+			busy = true;
 		}
-	}
-
-	private void releaseChannelLock() throws IOException {
 
 		try {
-			channelLock.close();
+			lock.close();
 		} finally {
-			channelLockMutex.release();
+			synchronized (this) {
+				numReaders = 0;
+				busy = false;
+				notifyAll();
+			}
 		}
 	}
 
-	LockedFileChannel acquireWrite() throws IOException {
-
-		try {
-			// If another Writer or Reader is still open, this will block until it is closed.
-			channelLockMutex.acquire();
+	LockedFileChannel acquireWrite(final LockingPolicy policy) throws IOException {
 
+		synchronized (this) {
+			++numWaitingWriters;
 			try {
-				channelLock = ChannelLock.lock(path, true, policy);
-			} catch (IOException e) {
-				// Something went wrong. Back off.
-				channelLockMutex.release();
-				throw e;
+				// If another Writer or Reader is still open, this will block until it is closed.
+				while (writing || numReaders > 0)
+					wait();
+			} catch (final InterruptedException e) {
+				throw new IOException(e);
+			} finally {
+				--numWaitingWriters;
+				// Readers may be waiting for us to either acquire the lock or give up.
+				notifyAll();
 			}
+			writing = true;
+		}
 
-			// We have a WRITE ChannelLock.
-			// Create a LockedFileChannel that will releaseWrite() when it is closed.
-			return new LockedFileChannel(channelLock.getChannel(), this::releaseWrite);
-		} catch (InterruptedException e) {
-			throw new IOException(e);
+		final ChannelLock lock;
+		try {
+			lock = ChannelLock.lock(path, true, policy);
+		} catch (final IOException e) {
+			// Something went wrong. Back off.
+			synchronized (this) {
+				writing = false;
+				notifyAll();
+			}
+			throw e;
 		}
+
+		synchronized (this) {
+			channelLock = lock;
+		}
+
+		// We have a WRITE ChannelLock.
+		// Create a LockedFileChannel that will releaseWrite() when it is closed.
+		return new LockedFileChannel(lock.getChannel(), this::releaseWrite);
 	}
 
 	void releaseWrite() throws IOException {
-		releaseChannelLock();
+
+		final ChannelLock lock;
+		synchronized (this) {
+			lock = channelLock;
+			channelLock = null;
+		}
+
+		try {
+			lock.close();
+		} finally {
+			synchronized (this) {
+				writing = false;
+				notifyAll();
+			}
+		}
 	}
 }
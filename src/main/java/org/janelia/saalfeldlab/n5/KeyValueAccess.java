@@ -6,6 +6,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.FileSystem;
 import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import org.janelia.saalfeldlab.n5.readdata.ReadData;
@@ -191,6 +193,51 @@ public interface KeyValueAccess {
 	 */
 	long size( final String normalPath ) throws N5Exception.N5NoSuchKeyException;
 
+	/**
+	 * Returns a token that changes whenever the object or directory at the
+	 * given normalPath changes, e.g. its modification time and size, or an
+	 * HTTP {@code ETag}. Tokens are only meaningful when compared for equality
+	 * with tokens of the same path from the same {@link KeyValueAccess}.
+	 * <p>
+	 * Used to revalidate cached metadata cheaply. The default implementation
+	 * does not support change detection and returns null.
+	 *
+	 * @param normalPath
+	 *            is expected to be in normalized form, no further
+	 *            efforts are made to normalize it.
+	 * @return the version token, an empty String if nothing exists at the
+	 *         path, or null if changes can not be detected
+	 * @throws N5IOException
+	 *             if an error occurs
+	 */
+	default String version( final String normalPath ) throws N5IOException {
+
+		return null;
+	}
+
+	/**
+	 * Returns the current {@link #version(String) version} of the object or
+	 * directory at the given normalPath, given a version that was returned
+	 * for it earlier. Backends that support conditional requests, e.g. HTTP
+	 * {@code If-None-Match}, check whether the known version is still
+	 * current with a single request.
+	 * <p>
+	 * The default implementation returns {@link #version(String)}.
+	 *
+	 * @param normalPath
+	 *            is expected to be in normalized form, no further
+	 *            efforts are made to normalize it.
+	 * @param knownVersion
+	 *            a version returned earlier for normalPath, or null
+	 * @return the version token, as {@link #version(String)}
+	 * @throws N5IOException
+	 *             if an error occurs
+	 */
+	default String version( final String normalPath, final String knownVersion ) throws N5IOException {
+
+		return version(normalPath);
+	}
+
 	/**
 	 * Test whether the path is a directory.
 	 *
@@ -343,4 +390,41 @@ public interface KeyValueAccess {
 	 *            if an error occurs during deletion
 	 */
 	void delete( final String normalPath ) throws N5IOException;
+
+	/**
+	 * Delete a path. If the path is a directory, delete it recursively, using
+	 * {@code exec} to delete its contents in parallel. The default
+	 * implementation calls {@link #delete(String)}.
+	 *
+	 * @param normalPath
+	 *            is expected to be in normalized form, no further
+	 *            efforts are made to normalize it.
+	 * @param exec
+	 *            used to parallelize the deletion
+	 * @param exclusive
+	 *            if true, the caller asserts that no one else accesses the
+	 *            path during the deletion, such that locking may be skipped
+	 * @throws N5IOException
+	 *            if an error occurs during deletion
+	 * @throws InterruptedException
+	 *            if interrupted while waiting for the deletion
+	 * @throws ExecutionException
+	 *            if deleting a contained path failed
+	 */
+	default void delete(
+			final String normalPath,
+			final ExecutorService exec,
+			final boolean exclusive) throws N5IOException, InterruptedException, ExecutionException {
+
+		delete(normalPath);
+	}
+
+	/**
+	 * Make all writes and deletions durable that this access deferred. The
+	 * default implementation does nothing.
+	 *
+	 * @throws N5IOException
+	 *            if an error occurs while flushing
+	 */
+	default void flush() throws N5IOException {}
 }
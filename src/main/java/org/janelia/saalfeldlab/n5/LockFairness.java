@@ -0,0 +1,34 @@
+package org.janelia.saalfeldlab.n5;
+
+/**
+ * Order in which waiting readers and writers of a key acquire its lock, for
+ * backends that lock keys (such as {@link FileSystemKeyValueAccess}).
+ */
+public enum LockFairness {
+
+	/**
+	 * New readers join as long as other readers hold the lock, writers wait
+	 * until no reader holds the lock. A steady stream of readers can starve
+	 * writers.
+	 * This is the default.
+	 */
+	READER_PREFERRING,
+
+	/**
+	 * New readers wait while a writer is waiting, such that writers only wait
+	 * for the readers that held the lock when they arrived.
+	 * <p>
+	 * A thread that holds a read lock must not acquire another read lock on
+	 * the same key, because it would wait for a writer that waits for the
+	 * thread to release its first lock.
+	 */
+	WRITER_PREFERRING;
+
+	static LockFairness fromString(final String s) {
+
+		if ("writer".equalsIgnoreCase(s) || "writer_preferring".equalsIgnoreCase(s))
+			return WRITER_PREFERRING;
+		else
+			return READER_PREFERRING;
+	}
+}
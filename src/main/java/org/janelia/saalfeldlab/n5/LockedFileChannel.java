@@ -58,6 +58,15 @@ class LockedFileChannel implements Closeable {
 		return channel.read(dst, position);
 	}
 
+	/**
+	 * Forces updates to this channel's file to storage.
+	 * <p>
+	 * See {@link FileChannel#force(boolean)}.
+	 */
+	public void force(final boolean metaData) throws IOException {
+		channel.force(metaData);
+	}
+
 	/**
 	 * Return an {@link OutputStream} that writes into this channel.
 	 * Closing the OutputStream will close this channel.
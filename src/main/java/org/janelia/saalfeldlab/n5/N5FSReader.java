@@ -40,14 +40,41 @@ public class N5FSReader extends N5KeyValueReader {
 	public N5FSReader(final String basePath, final GsonBuilder gsonBuilder, final boolean cacheMeta)
 			throws N5Exception {
 
+		this(basePath, gsonBuilder, cacheMeta, false);
+	}
+
+	/**
+	 * Opens an {@link N5FSReader} at a given base path with a custom
+	 * {@link GsonBuilder} to support custom attributes.
+	 *
+	 * @param basePath
+	 *            N5 base path
+	 * @param gsonBuilder
+	 *            the gson builder
+	 * @param cacheMeta
+	 *            cache attributes and meta data
+	 * @param trust
+	 *            if true, the container is not accessed when opening it, and
+	 *            checking that it exists and that its version is compatible
+	 *            are deferred until first access
+	 *
+	 * @throws N5Exception
+	 *             if {@code trust} is false and the base path cannot be read
+	 *             or does not exist, or the N5 version of the container is
+	 *             not compatible with this implementation.
+	 */
+	public N5FSReader(final String basePath, final GsonBuilder gsonBuilder, final boolean cacheMeta, final boolean trust)
+			throws N5Exception {
+
 		super(
+				true,
 				new FileSystemKeyValueAccess(),
 				basePath,
 				gsonBuilder,
-				cacheMeta);
-
-		if (!exists("/"))
-			throw new N5Exception.N5IOException("No container exists at " + basePath);
+				cacheMeta,
+				true,
+				trust,
+				false);
 	}
 
 	/**
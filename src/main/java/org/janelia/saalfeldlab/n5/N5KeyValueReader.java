@@ -2,9 +2,11 @@ package org.janelia.saalfeldlab.n5;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteOrder;
 
-import com.google.gson.JsonElement;
 import org.janelia.saalfeldlab.n5.cache.N5JsonCache;
+import org.janelia.saalfeldlab.n5.codec.CodecInfo;
+import org.janelia.saalfeldlab.n5.codec.RawBlockCodecInfo;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -21,12 +23,32 @@ public class N5KeyValueReader implements CachedGsonKeyValueN5Reader {
 
 	public static final String ATTRIBUTES_JSON = "attributes.json";
 
+	public static final String CONSOLIDATED_JSON = "consolidated.json";
+
 	protected final KeyValueAccess keyValueAccess;
 
 	protected final Gson gson;
 	protected final boolean cacheMeta;
 	protected URI uri;
 
+	private final boolean checkVersion;
+	private final boolean checkExists;
+	private final boolean consolidated;
+
+	/**
+	 * Whether the container was validated.
+	 */
+	private volatile boolean opened = false;
+
+	/**
+	 * The thread validating the container, guarded by {@code openLock}.
+	 * Validation accesses the container through
+	 * {@link #getKeyValueAccess()}, which must not wait for itself.
+	 */
+	private Thread openingThread = null;
+
+	private final Object openLock = new Object();
+
 	private final N5JsonCache cache;
 
 	/**
@@ -62,6 +84,84 @@ public class N5KeyValueReader implements CachedGsonKeyValueN5Reader {
 		this(true, keyValueAccess, basePath, gsonBuilder, cacheMeta, true);
 	}
 
+	/**
+	 * Opens an {@link N5KeyValueReader} at a given base path with a custom
+	 * {@link GsonBuilder} to support custom attributes.
+	 * <p>
+	 * If {@code trust} is true, the container is not accessed when opening
+	 * it. Checking that the container exists and that its version is
+	 * compatible, and loading consolidated metadata, are deferred until the
+	 * container is first accessed. This reduces the latency of opening
+	 * short-lived readers.
+	 *
+	 * @param keyValueAccess
+	 * 			  the KeyValueAccess backend used
+	 * @param basePath
+	 *            N5 base path
+	 * @param gsonBuilder
+	 * 			  the GsonBuilder
+	 * @param cacheMeta
+	 *            cache attributes and meta data
+	 * @param trust
+	 *            defer all validation until first access
+	 *
+	 * @throws N5Exception
+	 *             if {@code trust} is false and the base path cannot be read
+	 *             or does not exist, or the N5 version of the container is
+	 *             not compatible with this implementation.
+	 */
+	public N5KeyValueReader(
+			final KeyValueAccess keyValueAccess,
+			final String basePath,
+			final GsonBuilder gsonBuilder,
+			final boolean cacheMeta,
+			final boolean trust)
+			throws N5Exception {
+
+		this(keyValueAccess, basePath, gsonBuilder, cacheMeta, trust, false);
+	}
+
+	/**
+	 * Opens an {@link N5KeyValueReader} at a given base path with a custom
+	 * {@link GsonBuilder} to support custom attributes.
+	 * <p>
+	 * If {@code consolidated} is true and {@code cacheMeta} is true without
+	 * revalidation, the cache is populated from the
+	 * {@link #getConsolidatedMetadataKey() consolidated metadata} of the
+	 * container, if it has any, when the container is opened. Consolidated
+	 * metadata are a snapshot, groups and attributes changed after they were
+	 * written are not seen by this reader.
+	 *
+	 * @param keyValueAccess
+	 * 			  the KeyValueAccess backend used
+	 * @param basePath
+	 *            N5 base path
+	 * @param gsonBuilder
+	 * 			  the GsonBuilder
+	 * @param cacheMeta
+	 *            cache attributes and meta data
+	 * @param trust
+	 *            defer all validation until first access
+	 * @param consolidated
+	 *            populate the cache from consolidated metadata
+	 *
+	 * @throws N5Exception
+	 *             if {@code trust} is false and the base path cannot be read
+	 *             or does not exist, or the N5 version of the container is
+	 *             not compatible with this implementation.
+	 */
+	public N5KeyValueReader(
+			final KeyValueAccess keyValueAccess,
+			final String basePath,
+			final GsonBuilder gsonBuilder,
+			final boolean cacheMeta,
+			final boolean trust,
+			final boolean consolidated)
+			throws N5Exception {
+
+		this(true, keyValueAccess, basePath, gsonBuilder, cacheMeta, true, trust, consolidated);
+	}
+
 	/**
 	 * Opens an {@link N5KeyValueReader} at a given base path with a custom
 	 * {@link GsonBuilder} to support custom attributes.
@@ -98,9 +198,56 @@ public class N5KeyValueReader implements CachedGsonKeyValueN5Reader {
 			final boolean checkExists)
 			throws N5Exception {
 
+		this(checkVersion, keyValueAccess, basePath, gsonBuilder, cacheMeta, checkExists, false, false);
+	}
+
+	/**
+	 * Opens an {@link N5KeyValueReader} at a given base path with a custom
+	 * {@link GsonBuilder} to support custom attributes.
+	 *
+	 * @param checkVersion
+	 *            the version check
+	 * @param keyValueAccess
+	 *            the backend KeyValueAccess used
+	 * @param basePath
+	 *            base path
+	 * @param gsonBuilder
+	 *            the GsonBuilder
+	 * @param cacheMeta
+	 *            cache attributes and meta data
+	 * @param checkExists
+	 *            if true, an N5IOException will be thrown if a container does
+	 *            not exist at the specified location
+	 * @param trust
+	 *            if true, the version and existence checks and loading
+	 *            consolidated metadata are deferred until first access
+	 * @param consolidated
+	 *            if true, and {@code cacheMeta} is true without revalidation,
+	 *            the cache is populated from the
+	 *            {@link #getConsolidatedMetadataKey() consolidated metadata}
+	 *            of the container, if it has any
+	 * @throws N5Exception
+	 *             if {@code trust} is false and the base path cannot be read
+	 *             or does not exist, or the N5 version of the container is
+	 *             not compatible with this implementation.
+	 */
+	protected N5KeyValueReader(
+			final boolean checkVersion,
+			final KeyValueAccess keyValueAccess,
+			final String basePath,
+			final GsonBuilder gsonBuilder,
+			final boolean cacheMeta,
+			final boolean checkExists,
+			final boolean trust,
+			final boolean consolidated)
+			throws N5Exception {
+
 		this.keyValueAccess = keyValueAccess;
 		this.gson = registerGson(gsonBuilder).create();
 		this.cacheMeta = cacheMeta;
+		this.checkVersion = checkVersion;
+		this.checkExists = checkExists;
+		this.consolidated = consolidated;
 
 		if (this.cacheMeta)
 			this.cache = newCache();
@@ -113,31 +260,79 @@ public class N5KeyValueReader implements CachedGsonKeyValueN5Reader {
 			throw new N5Exception(e);
 		}
 
-		boolean versionFound = false;
-		if (checkVersion) {
-			/* Existence checks, if any, go in subclasses */
-			/* Check that version (if there is one) is compatible. */
-			final Version version = getVersion();
-			versionFound = !version.equals(NO_VERSION);
-			if (!VERSION.isCompatible(version))
-				throw new N5Exception.N5IOException(
-					"Incompatible version " + version + " (this is " + VERSION + ").");
+		if (!trust)
+			open();
+	}
+
+	/**
+	 * Loads consolidated metadata and checks the version and existence of
+	 * the container, once. Other threads wait until the container is
+	 * validated. If a version is found, the container exists and the root
+	 * attributes are not read again, with a cache, the version is read from
+	 * the cached root attributes.
+	 */
+	private void open() throws N5Exception {
+
+		synchronized (openLock) {
+			if (opened || openingThread == Thread.currentThread())
+				return;
+
+			openingThread = Thread.currentThread();
+			try {
+				if (this.cacheMeta && useConsolidatedMetadata() && cache.getRevalidateAfterMillis() < 0)
+					loadConsolidatedMetadata();
+
+				boolean versionFound = false;
+				if (checkVersion) {
+					/* Existence checks, if any, go in subclasses */
+					/* Check that version (if there is one) is compatible. */
+					final Version version = getVersion();
+					versionFound = !version.equals(NO_VERSION);
+					if (!VERSION.isCompatible(version))
+						throw new N5Exception.N5IOException(
+							"Incompatible version " + version + " (this is " + VERSION + ").");
+				}
+
+				// if a version was found, the container exists - don't need to check again
+				if (checkExists && !versionFound && getAttributes("/") == null && !exists("/"))
+					throw new N5Exception.N5IOException("No container exists at " + uri);
+
+				opened = true;
+			} finally {
+				openingThread = null;
+			}
 		}
+	}
 
-		// if a version was found, the container exists - don't need to check again
-		if (checkExists && (!versionFound && !inferExistence("/")))
-			throw new N5Exception.N5IOException("No container exists at " + basePath);
+	/**
+	 * Whether the container was validated, i.e. it was opened without trust,
+	 * or it was accessed since.
+	 *
+	 * @return true if the container was validated
+	 */
+	protected boolean isOpened() {
+
+		return opened;
 	}
 
-	private boolean inferExistence(String path) {
+	/**
+	 * Whether the cache is populated from consolidated metadata when opening
+	 * the container. This is opt-in because consolidated metadata may be
+	 * outdated, writers never use them.
+	 *
+	 * @return true if consolidated metadata are used
+	 */
+	protected boolean useConsolidatedMetadata() {
 
-		final JsonElement attributes = getAttributes(path);
-		return attributes != null || exists(path);
+		return consolidated;
 	}
 
 	protected GsonBuilder registerGson(final GsonBuilder gsonBuilder) {
 
 		gsonBuilder.registerTypeAdapter(DataType.class, new DataType.JsonAdapter());
+		gsonBuilder.registerTypeAdapter(ByteOrder.class, RawBlockCodecInfo.byteOrderAdapter);
+		// for the codecs of datasets, registered first such that Compressions keep their own adapter
+		gsonBuilder.registerTypeHierarchyAdapter(CodecInfo.class, NameConfigAdapter.getJsonAdapter(CodecInfo.class));
 		gsonBuilder.registerTypeHierarchyAdapter(Compression.class, CompressionAdapter.getJsonAdapter());
 		gsonBuilder.registerTypeHierarchyAdapter(DatasetAttributes.class, DatasetAttributes.getJsonAdapter());
 		gsonBuilder.disableHtmlEscaping();
@@ -150,15 +345,28 @@ public class N5KeyValueReader implements CachedGsonKeyValueN5Reader {
 		return ATTRIBUTES_JSON;
 	}
 
+	@Override
+	public String getConsolidatedMetadataKey() {
+
+		return CONSOLIDATED_JSON;
+	}
+
 	@Override
 	public Gson getGson() {
 
 		return gson;
 	}
 
+	/**
+	 * Returns the {@link KeyValueAccess} of this container. If this container
+	 * was opened in trust mode, the container is validated when this is first
+	 * called.
+	 */
 	@Override
 	public KeyValueAccess getKeyValueAccess() {
 
+		if (!opened)
+			open();
 		return keyValueAccess;
 	}
 
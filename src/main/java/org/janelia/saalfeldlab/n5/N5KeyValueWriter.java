@@ -57,4 +57,21 @@ public class N5KeyValueWriter extends N5KeyValueReader implements CachedGsonKeyV
 			setVersion("/");
 		}
 	}
+
+	@Override
+	protected boolean useConsolidatedMetadata() {
+
+		return false;
+	}
+
+	/**
+	 * Flushes deferred changes. A container that was opened in trust mode and
+	 * never accessed has no changes, closing it does not validate it.
+	 */
+	@Override
+	public void flush() throws N5Exception {
+
+		if (isOpened())
+			CachedGsonKeyValueN5Writer.super.flush();
+	}
 }
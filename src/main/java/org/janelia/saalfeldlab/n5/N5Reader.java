@@ -10,13 +10,18 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.janelia.saalfeldlab.n5.shard.Nesting.NestedGrid;
 
 /**
@@ -785,6 +790,85 @@ public interface N5Reader extends AutoCloseable {
 		return deepListDatasets(pathName, a -> true, executor);
 	}
 
+	/**
+	 * Lazily and recursively lists all groups (including datasets), or only
+	 * datasets, in the given group. Paths are relative to {@code pathName}
+	 * and are produced in depth first order as the stream is consumed. Only
+	 * paths that satisfy the provided filter will be included, but the
+	 * children of paths that were excluded may be included (filter does not
+	 * apply to the subtree).
+	 * <p>
+	 * {@link #datasetExists(String)} is called once per node, and
+	 * {@link #list(String)} once per group. Readers that cache meta data
+	 * answer both from their cache where possible. Nodes that cannot be read
+	 * are skipped.
+	 *
+	 * @param pathName
+	 *            base group path
+	 * @param filter
+	 *            filter for children to be included
+	 * @param datasetsOnly
+	 *            true if only datasets should be included
+	 * @return a stream of paths
+	 */
+	default Stream<String> deepListStream(
+			final String pathName,
+			final Predicate<String> filter,
+			final boolean datasetsOnly) {
+
+		return deepListStream(pathName, filter, datasetsOnly, null, 1);
+	}
+
+	/**
+	 * Lazily and recursively lists all groups (including datasets), or only
+	 * datasets, in the given group, visiting up to {@code parallelism} nodes
+	 * concurrently on the given {@link Executor}, e.g. a
+	 * {@link java.util.concurrent.ForkJoinPool}. Paths are relative to
+	 * {@code pathName} and are produced as they are found, in no particular
+	 * order. Only paths that satisfy the provided filter will be included,
+	 * but the children of paths that were excluded may be included (filter
+	 * does not apply to the subtree).
+	 * <p>
+	 * The traversal pauses while many found paths have not been consumed, and
+	 * stops when the stream is {@link Stream#close() closed}. Nodes below
+	 * {@code pathName} that cannot be read are skipped, if {@code pathName}
+	 * itself cannot be listed, consuming the stream throws an
+	 * {@link N5Exception} like {@link #deepList(String)}.
+	 *
+	 * @param pathName
+	 *            base group path
+	 * @param filter
+	 *            filter for children to be included
+	 * @param datasetsOnly
+	 *            true if only datasets should be included
+	 * @param executor
+	 *            the executor, or null to visit nodes on the consuming thread
+	 * @param parallelism
+	 *            the maximum number of nodes visited concurrently
+	 * @return a stream of paths, close it to stop the traversal early
+	 */
+	default Stream<String> deepListStream(
+			final String pathName,
+			final Predicate<String> filter,
+			final boolean datasetsOnly,
+			final Executor executor,
+			final int parallelism) {
+
+		final String groupSeparator = getGroupSeparator();
+		final String normalPathName = pathName.replaceAll("(^" + groupSeparator + "*)|(" + groupSeparator + "*$)", "");
+		final DeepListIterator iterator = new DeepListIterator(
+				this,
+				normalPathName,
+				datasetsOnly,
+				filter,
+				executor,
+				parallelism,
+				DeepListIterator.DEFAULT_BUFFER_SIZE);
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+				.onClose(iterator::close);
+	}
+
 	/**
 	 * Helper method for parallel deep listing. This method is not part of the
 	 * public API and is accessible only because Java 8 does not support private
@@ -14,6 +14,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -28,6 +29,9 @@ public class N5URI {
 
 	private static final Charset UTF8 = StandardCharsets.UTF_8;
 	public static final Pattern ARRAY_INDEX = Pattern.compile("\\[([0-9]+)]");
+
+	private static final NormalizedPathCache NORMAL_GROUP_PATHS = new NormalizedPathCache(10);
+	private static final NormalizedPathCache NORMAL_ATTRIBUTE_PATHS = new NormalizedPathCache(10);
 	final URI uri;
 	private final String scheme;
 	private final String container;
@@ -326,7 +330,7 @@ public class N5URI {
 	 * Normalize a POSIX path, resulting in removal of redundant "/", "./", and
 	 * resolution of relative "../".
 	 * <p>
-	 * NOTE: currently a private helper method only used by {@link N5URI#normalizeGroupPath(String)}.
+	 * NOTE: currently a helper method only used by {@link N5URI#normalizeGroupPath(String)}.
 	 * 	It's safe to do in that case since relative group paths should always be POSIX compliant.
 	 * 	A new helper method to understand other path types (e.g. Windows) may be necessary eventually.
 	 *
@@ -334,7 +338,7 @@ public class N5URI {
 	 *            to normalize
 	 * @return the normalized path
 	 */
-	private static String normalizePath(String path) {
+	static String normalizePath(String path) {
 
 		path = path == null ? "" : path;
 		final char[] pathChars = path.toCharArray();
@@ -395,12 +399,46 @@ public class N5URI {
 			tokens.remove(0);
 			root = "/";
 		}
-		return root + tokens
-				.stream()
-				.filter(it -> !it.equals("."))
-				.filter(it -> !it.isEmpty())
-				.reduce((l, r) -> l + "/" + r)
-				.orElse("");
+		final StringBuilder normalPath = new StringBuilder(root);
+		for (final String token : tokens) {
+			if (token.isEmpty() || token.equals("."))
+				continue;
+			if (normalPath.length() > root.length())
+				normalPath.append('/');
+			normalPath.append(token);
+		}
+		return normalPath.toString();
+	}
+
+	/**
+	 * Returns true if {@code path}, starting at {@code start}, is a normalized
+	 * group path, i.e. {@link #normalizePath(String)} would not change it. This
+	 * is the case if it contains no escape characters, empty segments, or "."
+	 * and ".." segments.
+	 */
+	private static boolean isNormalGroupPath(final String path, final int start) {
+
+		final int length = path.length();
+		boolean segmentStart = true;
+		for (int i = start; i < length; ++i) {
+			final char c = path.charAt(i);
+			if (c == '\\')
+				return false;
+			if (c == '/') {
+				if (segmentStart || i == length - 1)
+					return false;
+				segmentStart = true;
+				continue;
+			}
+			if (segmentStart && c == '.') {
+				final int end = path.indexOf('/', i);
+				final int segmentLength = (end < 0 ? length : end) - i;
+				if (segmentLength == 1 || (segmentLength == 2 && path.charAt(i + 1) == '.'))
+					return false;
+			}
+			segmentStart = false;
+		}
+		return true;
 	}
 
 	/**
@@ -424,15 +462,24 @@ public class N5URI {
 		 * has to be in the implementations, since KeyValueAccess doesn't have a
 		 * basePath.
 		 */
-		return normalizePath(path.startsWith("/") || path.startsWith("\\") ? path.substring(1) : path);
+		final int start = path.startsWith("/") || path.startsWith("\\") ? 1 : 0;
+		if (isNormalGroupPath(path, start)) {
+			if (start == 0)
+				return path;
+			return path.length() == 1 ? "" : path.substring(1);
+		}
+
+		final String cached = NORMAL_GROUP_PATHS.get(path);
+		if (cached != null)
+			return cached;
+
+		final String normalPath = normalizePath(path.substring(start));
+		NORMAL_GROUP_PATHS.put(path, normalPath);
+		return normalPath;
 	}
 
 	private enum N5UriPattern {
 
-		/**
-		 * matches any `/` or `[N]` where `N` is non-negative
-		 */
-		MULTI_PART_ATTRIBUTE(Pattern.compile(".*((?<!\\\\)(/|\\[[0-9]+])).*")),
 		/**
 		 * matches `[N]` where `[` is the first character
 		 */
@@ -549,12 +596,28 @@ public class N5URI {
 	public static String normalizeAttributePath(final String attributePath) {
 
 		/*
-		 * Short circuit if there are no non-escaped `/` or array indices (e.g.
-		 * [N] where N is a non-negative integer)
+		 * Short circuit if the path is normal already, or if there are no
+		 * non-escaped `/` or array indices (e.g. [N] where N is a non-negative
+		 * integer)
 		 */
-		if (!N5UriPattern.MULTI_PART_ATTRIBUTE.matches(attributePath))
+		if (isNormalAttributePath(attributePath) || !isMultiPartAttributePath(attributePath))
 			return attributePath;
 
+		final String cached = NORMAL_ATTRIBUTE_PATHS.get(attributePath);
+		if (cached != null)
+			return cached;
+
+		final String normalAttributePath = normalizeMultiPartAttributePath(attributePath);
+		NORMAL_ATTRIBUTE_PATHS.put(attributePath, normalAttributePath);
+		return normalAttributePath;
+	}
+
+	/**
+	 * Normalizes an attribute path that contains non-escaped `/` or array
+	 * indices, see {@link #normalizeAttributePath(String)}.
+	 */
+	static String normalizeMultiPartAttributePath(final String attributePath) {
+
 		/* Add separator after arrays at the beginning `[10]b` -> `[10]/b` */
 		final String attrPathPlusFirstIndexSeparator = N5UriPattern.appendSlashAfterArrayStart(attributePath);
 
@@ -568,6 +631,101 @@ public class N5URI {
 		return N5UriPattern.removeRelativePathParts(attrPathPlusIndexSeparators);
 	}
 
+	/**
+	 * Returns true if {@code attributePath} contains a non-escaped `/` or an
+	 * array index `[N]` that is not escaped.
+	 */
+	private static boolean isMultiPartAttributePath(final String attributePath) {
+
+		boolean multiPart = false;
+		final int length = attributePath.length();
+		for (int i = 0; i < length; ++i) {
+			final char c = attributePath.charAt(i);
+			// the previous pattern based test did not match across lines
+			if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029')
+				return false;
+			if (multiPart || ((c == '/' || c == '[') && i > 0 && attributePath.charAt(i - 1) == '\\'))
+				continue;
+			if (c == '/')
+				multiPart = true;
+			else if (c == '[') {
+				int j = i + 1;
+				while (j < length && attributePath.charAt(j) >= '0' && attributePath.charAt(j) <= '9')
+					++j;
+				multiPart = j > i + 1 && j < length && attributePath.charAt(j) == ']';
+			}
+		}
+		return multiPart;
+	}
+
+	/**
+	 * Returns true if {@code attributePath} is a normalized attribute path
+	 * that {@link #normalizeMultiPartAttributePath(String)} would not change.
+	 * This is a conservative test for the common case, paths with escape
+	 * characters, brackets, empty segments, or segments starting with "."
+	 * are not recognized.
+	 */
+	private static boolean isNormalAttributePath(final String attributePath) {
+
+		final int length = attributePath.length();
+		if (length == 1 && attributePath.charAt(0) == '/')
+			return true;
+
+		boolean segmentStart = true;
+		for (int i = 0; i < length; ++i) {
+			final char c = attributePath.charAt(i);
+			if (c == '\\' || c == '[' || c == ']')
+				return false;
+			if (c == '/') {
+				if ((segmentStart && i > 0) || i == length - 1)
+					return false;
+				segmentStart = true;
+				continue;
+			}
+			if (segmentStart && c == '.')
+				return false;
+			segmentStart = false;
+		}
+		return true;
+	}
+
+	/**
+	 * A bounded cache of recently normalized paths.
+	 * <p>
+	 * Each path maps to one of a fixed number of slots by its hash code, and
+	 * replaces the previous entry of that slot. Entries are immutable, such
+	 * that lookups and updates need no locking.
+	 */
+	private static class NormalizedPathCache {
+
+		private final AtomicReferenceArray<String[]> entries;
+
+		private final int mask;
+
+		NormalizedPathCache(final int sizeBits) {
+
+			entries = new AtomicReferenceArray<>(1 << sizeBits);
+			mask = (1 << sizeBits) - 1;
+		}
+
+		private int slot(final String path) {
+
+			final int h = path.hashCode();
+			return (h ^ (h >>> 16)) & mask;
+		}
+
+		String get(final String path) {
+
+			final String[] entry = entries.get(slot(path));
+			return entry != null && entry[0].equals(path) ? entry[1] : null;
+		}
+
+		void put(final String path, final String normalPath) {
+
+			entries.set(slot(path), new String[]{path, normalPath});
+		}
+	}
+
 	/**
 	 * If uri is a valid URI, just return it as a URI. Else, encode if possible.
 	 *
@@ -7,10 +7,12 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.janelia.saalfeldlab.n5.shard.Nesting.NestedGrid;
 
 /**
@@ -103,6 +105,29 @@ public interface N5Writer extends N5Reader {
 		return removed;
 	}
 
+	/**
+	 * Applies all attribute changes collected in an
+	 * {@link AttributeTransaction}. Changes of each group are applied in the
+	 * order they were added.
+	 * <p>
+	 * This default implementation applies each change individually.
+	 * Implementations should apply all changes of a group at once.
+	 *
+	 * @param transaction the attribute changes
+	 * @throws N5Exception the exception
+	 */
+	default void applyAttributes(final AttributeTransaction transaction) throws N5Exception {
+
+		for (final String groupPath : transaction.getGroupPaths()) {
+			for (final AttributeTransaction.Operation operation : transaction.getOperations(groupPath)) {
+				if (operation.isRemove())
+					removeAttribute(groupPath, operation.getAttributePath());
+				else
+					setAttribute(groupPath, operation.getAttributePath(), operation.getAttribute());
+			}
+		}
+	}
+
 	/**
 	 * Sets mandatory dataset attributes.
 	 *
@@ -157,6 +182,50 @@ public interface N5Writer extends N5Reader {
 	 */
 	boolean remove(String groupPath) throws N5Exception;
 
+	/**
+	 * Removes a group or dataset (directory and all contained files), see
+	 * {@link #remove(String)}, using {@code exec} to delete the contained
+	 * files in parallel.
+	 *
+	 * @param groupPath group path
+	 * @param exec used to parallelize over contained files
+	 * @return true if removal was successful, false otherwise
+	 * @throws N5Exception the exception
+	 * @throws InterruptedException if interrupted while waiting for the removal
+	 * @throws ExecutionException if deleting a contained file failed
+	 */
+	default boolean remove(
+			final String groupPath,
+			final ExecutorService exec) throws N5Exception, InterruptedException, ExecutionException {
+
+		return remove(groupPath, exec, false);
+	}
+
+	/**
+	 * Removes a group or dataset (directory and all contained files), see
+	 * {@link #remove(String)}, using {@code exec} to delete the contained
+	 * files in parallel.
+	 * <p>
+	 * If {@code exclusive}, the caller asserts that no one else reads or
+	 * writes the group or dataset during the removal, such that
+	 * implementations may skip locking the contained files.
+	 *
+	 * @param groupPath group path
+	 * @param exec used to parallelize over contained files
+	 * @param exclusive whether the caller has exclusive access to the group
+	 * @return true if removal was successful, false otherwise
+	 * @throws N5Exception the exception
+	 * @throws InterruptedException if interrupted while waiting for the removal
+	 * @throws ExecutionException if deleting a contained file failed
+	 */
+	default boolean remove(
+			final String groupPath,
+			final ExecutorService exec,
+			final boolean exclusive) throws N5Exception, InterruptedException, ExecutionException {
+
+		return remove(groupPath);
+	}
+
 	/**
 	 * Removes the N5 container.
 	 *
@@ -168,6 +237,15 @@ public interface N5Writer extends N5Reader {
 		return remove("/");
 	}
 
+	/**
+	 * Makes all changes durable that the implementation deferred, e.g. for
+	 * a file system that forces files to storage in batches. The default
+	 * implementation does nothing.
+	 *
+	 * @throws N5Exception the exception
+	 */
+	default void flush() throws N5Exception {}
+
 	/**
 	 * Creates a dataset. This does not create any data but the path and
 	 * mandatory attributes only. The returned DatasetAttributes should be used
@@ -213,6 +291,50 @@ public interface N5Writer extends N5Reader {
 		return createDataset(datasetPath, new DatasetAttributes(dimensions, blockSize, dataType, compression));
 	}
 
+	/**
+	 * Creates many datasets at once, see
+	 * {@link #createDataset(String, DatasetAttributes)}. Implementations
+	 * should create shared ancestor groups only once.
+	 *
+	 * @param datasets dataset attributes by dataset path
+	 * @return DatasetAttributes optimal attributes objects to be used for read/write operations, by the given dataset paths
+	 * @throws N5Exception the exception
+	 */
+	default Map<String, DatasetAttributes> createDatasets(
+			final Map<String, DatasetAttributes> datasets) throws N5Exception {
+
+		final Map<String, DatasetAttributes> convertedDatasets = new LinkedHashMap<>();
+		for (final Map.Entry<String, DatasetAttributes> entry : datasets.entrySet())
+			convertedDatasets.put(entry.getKey(), createDataset(entry.getKey(), entry.getValue()));
+		return convertedDatasets;
+	}
+
+	/**
+	 * Creates many datasets at once, see
+	 * {@link #createDataset(String, DatasetAttributes)}, using
+	 * {@code exec} to write the attributes of the datasets in parallel.
+	 *
+	 * @param datasets dataset attributes by dataset path
+	 * @param exec used to parallelize over datasets
+	 * @return DatasetAttributes optimal attributes objects to be used for read/write operations, by the given dataset paths
+	 * @throws N5Exception the exception
+	 * @throws InterruptedException if interrupted while waiting for the datasets to be created
+	 * @throws ExecutionException if the creation of a dataset failed
+	 */
+	default Map<String, DatasetAttributes> createDatasets(
+			final Map<String, DatasetAttributes> datasets,
+			final ExecutorService exec) throws N5Exception, InterruptedException, ExecutionException {
+
+		final Map<String, Future<DatasetAttributes>> futures = new LinkedHashMap<>();
+		for (final Map.Entry<String, DatasetAttributes> entry : datasets.entrySet())
+			futures.put(entry.getKey(), exec.submit(() -> createDataset(entry.getKey(), entry.getValue())));
+
+		final Map<String, DatasetAttributes> convertedDatasets = new LinkedHashMap<>();
+		for (final Map.Entry<String, Future<DatasetAttributes>> entry : futures.entrySet())
+			convertedDatasets.put(entry.getKey(), entry.getValue().get());
+		return convertedDatasets;
+	}
+
 	/**
 	 * Writes a chunk represented by a {@link DataBlock}.
 	 *
@@ -135,7 +135,7 @@ public class NameConfigAdapter<T> implements JsonDeserializer<T>, JsonSerializer
 				field.setAccessible(true);
 				final Object value = field.get(object);
 				field.setAccessible(isAccessible);
-				final JsonElement serialized = context.serialize(value);
+				final JsonElement serialized = serializeParameter(value, field.getType(), context);
 				if (field.getAnnotation(N5Annotations.ReverseArray.class) != null) {
 					final JsonArray reversedArray = reverseJsonArray(serialized.getAsJsonArray());
 					configuration.add(parameterNameMap.get(fieldName), reversedArray);
@@ -153,6 +153,33 @@ public class NameConfigAdapter<T> implements JsonDeserializer<T>, JsonSerializer
 		return json;
 	}
 
+	/**
+	 * Serializes parameters that are, or are arrays of, types with a
+	 * {@code NameConfigAdapter} by their declared type, like they are
+	 * deserialized. Otherwise, adapters registered for their runtime types
+	 * would be used, e.g. the legacy adapter of {@link Compression}s.
+	 */
+	private static JsonElement serializeParameter(
+			final Object value,
+			final Class<?> declaredType,
+			final JsonSerializationContext context) {
+
+		if (value != null && declaredType.isArray() && isAdapted(declaredType.getComponentType())) {
+			final JsonArray array = new JsonArray();
+			for (final Object element : (Object[])value)
+				array.add(context.serialize(element, declaredType.getComponentType()));
+			return array;
+		} else if (value != null && isAdapted(declaredType))
+			return context.serialize(value, declaredType);
+		else
+			return context.serialize(value);
+	}
+
+	private static boolean isAdapted(final Class<?> cls) {
+
+		return adapters.keySet().stream().anyMatch(adapted -> adapted.isAssignableFrom(cls));
+	}
+
 	@Override
 	public T deserialize(
 			final JsonElement json,
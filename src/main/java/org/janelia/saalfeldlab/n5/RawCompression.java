@@ -27,6 +27,11 @@ public class RawCompression implements Compression, DeterministicSizeDataCodec {
 		return readData;
 	}
 
+	@Override
+	public boolean isIdentity() {
+		return true;
+	}
+
 	@Override
 	public long encodedSize(final long size) {
 		return size;
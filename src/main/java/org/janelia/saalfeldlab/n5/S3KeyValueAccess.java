@@ -0,0 +1,967 @@
+package org.janelia.saalfeldlab.n5;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.commons.io.IOUtils;
+import org.janelia.saalfeldlab.n5.N5Exception.N5ConcurrentModificationException;
+import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
+import org.janelia.saalfeldlab.n5.N5Exception.N5NoSuchKeyException;
+import org.janelia.saalfeldlab.n5.readdata.LazyRead;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.janelia.saalfeldlab.n5.readdata.VolatileReadData;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * A {@link KeyValueAccess} for a bucket of an S3 compatible object store,
+ * e.g. AWS S3 or MinIO, using plain HTTP requests signed with AWS signature
+ * version 4.
+ * <p>
+ * Keys are absolute paths within the bucket, e.g. a container at
+ * {@code s3://bucket/path/to/container.n5} is opened with
+ *
+ * <pre>
+ * {@code
+ * final S3KeyValueAccess s3 = new S3KeyValueAccess(URI.create("http://localhost:9000"), "bucket", "us-east-1", accessKey, secretKey);
+ * final N5Writer n5 = new N5KeyValueWriter(s3, "/path/to/container.n5", new GsonBuilder(), true);
+ * }
+ * </pre>
+ *
+ * The bucket is addressed path-style, i.e. as the first component of the
+ * path of the endpoint. Without credentials, requests are sent unsigned.
+ * <p>
+ * Objects are read with ranged GETs, all ranges of one
+ * {@link #createReadData(String) VolatileReadData} are read from the same
+ * version of the object, or fail with an
+ * {@link N5ConcurrentModificationException}. Objects larger than the part
+ * size are uploaded in parts, in parallel. Directories are implicit in the
+ * keys, {@link #createDirectories(String)} writes empty {@code "key/"}
+ * marker objects for the path and its parents such that empty directories
+ * exist. Deletes are sent in
+ * batches of up to 1000 keys. {@link #write(String, ReadData, String)} writes
+ * conditionally, for optimistic concurrency.
+ */
+public class S3KeyValueAccess implements KeyValueAccess {
+
+	public static final String ETAG = "ETag";
+	public static final String IF_MATCH = "If-Match";
+	public static final String IF_NONE_MATCH = "If-None-Match";
+	public static final String RANGE = "Range";
+
+	private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+	private static final String EMPTY_PAYLOAD_HASH = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+	private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+	/**
+	 * The maximum number of keys S3 deletes in one request.
+	 */
+	private static final int DELETE_BATCH_SIZE = 1000;
+
+	/**
+	 * The maximum number of parts of a multipart upload.
+	 */
+	private static final int MAX_PARTS = 10000;
+
+	private final URI endpoint;
+
+	private final String bucket;
+
+	private final String region;
+
+	private final String accessKey;
+
+	private final String secretKey;
+
+	private int readTimeoutMilliseconds = 30000;
+
+	private int connectionTimeoutMilliseconds = 5000;
+
+	private long partSize = 8 << 20;
+
+	private int uploadParallelism = 4;
+
+	/**
+	 * Opens an {@link S3KeyValueAccess} that sends unsigned requests.
+	 *
+	 * @param endpoint
+	 *            the endpoint, e.g. {@code https://s3.us-east-1.amazonaws.com}
+	 * @param bucket
+	 *            the bucket
+	 */
+	public S3KeyValueAccess(final URI endpoint, final String bucket) {
+
+		this(endpoint, bucket, "us-east-1", null, null);
+	}
+
+	/**
+	 * @param endpoint
+	 *            the endpoint, e.g. {@code https://s3.us-east-1.amazonaws.com}
+	 * @param bucket
+	 *            the bucket
+	 * @param region
+	 *            the region requests are signed for
+	 * @param accessKey
+	 *            the access key, or null to send unsigned requests
+	 * @param secretKey
+	 *            the secret key
+	 */
+	public S3KeyValueAccess(
+			final URI endpoint,
+			final String bucket,
+			final String region,
+			final String accessKey,
+			final String secretKey) {
+
+		final String endpointString = endpoint.toString();
+		this.endpoint = URI.create(endpointString.endsWith("/") ? endpointString.substring(0, endpointString.length() - 1) : endpointString);
+		this.bucket = bucket;
+		this.region = region;
+		this.accessKey = accessKey;
+		this.secretKey = secretKey;
+	}
+
+	public URI getEndpoint() {
+
+		return endpoint;
+	}
+
+	public String getBucket() {
+
+		return bucket;
+	}
+
+	public void setReadTimeout(final int readTimeoutMilliseconds) {
+
+		this.readTimeoutMilliseconds = readTimeoutMilliseconds;
+	}
+
+	public void setConnectionTimeout(final int connectionTimeoutMilliseconds) {
+
+		this.connectionTimeoutMilliseconds = connectionTimeoutMilliseconds;
+	}
+
+	/**
+	 * Sets the size of the parts of multipart uploads. Objects up to this size
+	 * are uploaded in one request. S3 requires parts of at least 5MiB, except
+	 * for the last part.
+	 *
+	 * @param partSize
+	 *            the part size in bytes
+	 */
+	public void setPartSize(final long partSize) {
+
+		if (partSize <= 0 || partSize > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Invalid part size " + partSize);
+		this.partSize = partSize;
+	}
+
+	public long getPartSize() {
+
+		return partSize;
+	}
+
+	/**
+	 * Sets the number of parts of a multipart upload that are uploaded in
+	 * parallel.
+	 *
+	 * @param uploadParallelism
+	 *            the number of parallel part uploads
+	 */
+	public void setUploadParallelism(final int uploadParallelism) {
+
+		if (uploadParallelism < 1)
+			throw new IllegalArgumentException("Invalid upload parallelism " + uploadParallelism);
+		this.uploadParallelism = uploadParallelism;
+	}
+
+	/**
+	 * Maps a normal path to a key, i.e. removes leading and trailing slashes.
+	 */
+	private static String key(final String normalPath) {
+
+		int start = 0;
+		int end = normalPath.length();
+		while (start < end && normalPath.charAt(start) == '/')
+			++start;
+		while (end > start && normalPath.charAt(end - 1) == '/')
+			--end;
+		return normalPath.substring(start, end);
+	}
+
+	@Override
+	public String normalize(final String path) {
+
+		return N5URI.normalizeGroupPath(path);
+	}
+
+	/**
+	 * Sends a HEAD request for a key.
+	 *
+	 * @return the connection, or null if the key does not exist
+	 */
+	private HttpURLConnection head(final String key) throws N5IOException {
+
+		if (key.isEmpty())
+			return null;
+		try {
+			final HttpURLConnection connection = connect("HEAD", key, Collections.emptyMap(), Collections.emptyMap(), EMPTY_PAYLOAD_HASH, -1);
+			final int code = connection.getResponseCode();
+			if (code == 404)
+				return null;
+			requireSuccess(connection, code, "Failed to access " + key);
+			return connection;
+		} catch (final IOException e) {
+			throw new N5IOException("Failed to access " + key, e);
+		}
+	}
+
+	@Override
+	public boolean exists(final String normalPath) {
+
+		return isFile(normalPath) || isDirectory(normalPath);
+	}
+
+	@Override
+	public boolean isFile(final String normalPath) {
+
+		return head(key(normalPath)) != null;
+	}
+
+	@Override
+	public boolean isDirectory(final String normalPath) {
+
+		final String key = key(normalPath);
+		if (key.isEmpty())
+			return true;
+		final boolean[] found = {false};
+		listPages(key + "/", "/", 1, page -> {
+			found[0] = !page.keys.isEmpty() || !page.prefixes.isEmpty();
+			return false;
+		});
+		return found[0];
+	}
+
+	@Override
+	public long size(final String normalPath) throws N5NoSuchKeyException {
+
+		final HttpURLConnection connection = head(key(normalPath));
+		if (connection == null)
+			throw new N5NoSuchKeyException("No such key " + normalPath);
+		return connection.getContentLengthLong();
+	}
+
+	/**
+	 * Returns the {@code ETag} of an object, directories have no version.
+	 */
+	@Override
+	public String version(final String normalPath) throws N5IOException {
+
+		final HttpURLConnection connection = head(key(normalPath));
+		if (connection != null)
+			return connection.getHeaderField(ETAG);
+		return isDirectory(normalPath) ? null : "";
+	}
+
+	/**
+	 * Sends a {@code HEAD} request with {@code If-None-Match}, and returns
+	 * the known version if the object is not modified.
+	 */
+	@Override
+	public String version(final String normalPath, final String knownVersion) throws N5IOException {
+
+		final String key = key(normalPath);
+		if (knownVersion == null || knownVersion.isEmpty() || key.isEmpty())
+			return version(normalPath);
+
+		try {
+			final HttpURLConnection connection = connect("HEAD", key, Collections.emptyMap(), Collections.singletonMap(IF_NONE_MATCH, knownVersion), EMPTY_PAYLOAD_HASH, -1);
+			final int code = connection.getResponseCode();
+			if (code == HttpURLConnection.HTTP_NOT_MODIFIED)
+				return knownVersion;
+			if (code == 404)
+				return isDirectory(normalPath) ? null : "";
+			requireSuccess(connection, code, "Failed to access " + key);
+			return connection.getHeaderField(ETAG);
+		} catch (final IOException e) {
+			throw new N5IOException("Failed to access " + key, e);
+		}
+	}
+
+	@Override
+	public VolatileReadData createReadData(final String normalPath) throws N5IOException {
+
+		return VolatileReadData.from(new S3LazyRead(key(normalPath)));
+	}
+
+	private class S3LazyRead implements LazyRead {
+
+		private final String key;
+
+		/**
+		 * The version of the object all ranges are read from, known after the
+		 * first request.
+		 */
+		private String etag = null;
+
+		private long size = -1;
+
+		S3LazyRead(final String key) {
+
+			this.key = key;
+		}
+
+		private Map<String, String> conditions() {
+
+			return etag == null ? Collections.emptyMap() : Collections.singletonMap(IF_MATCH, etag);
+		}
+
+		@Override
+		public synchronized long size() throws N5IOException {
+
+			if (size < 0) {
+				try {
+					final HttpURLConnection connection = connect("HEAD", key, Collections.emptyMap(), conditions(), EMPTY_PAYLOAD_HASH, -1);
+					requireSuccess(connection, connection.getResponseCode(), "Failed to access " + key);
+					if (etag == null)
+						etag = connection.getHeaderField(ETAG);
+					size = connection.getContentLengthLong();
+				} catch (final IOException e) {
+					throw new N5IOException("Failed to access " + key, e);
+				}
+			}
+			return size;
+		}
+
+		@Override
+		public synchronized ReadData materialize(final long offset, final long length) throws N5IOException {
+
+			if (offset < 0)
+				throw new IndexOutOfBoundsException("Negative offset: " + offset);
+			if (length == 0)
+				return ReadData.empty();
+
+			final Map<String, String> headers = new TreeMap<>(conditions());
+			final boolean ranged = offset > 0 || length > 0;
+			if (ranged)
+				headers.put(RANGE, "bytes=" + offset + "-" + (length > 0 ? Long.toString(offset + length - 1) : ""));
+
+			try {
+				final HttpURLConnection connection = connect("GET", key, Collections.emptyMap(), headers, EMPTY_PAYLOAD_HASH, -1);
+				final int code = connection.getResponseCode();
+				if (code == 416)
+					throw new IndexOutOfBoundsException("offset " + offset + " and length " + length + " out of bounds of " + key);
+				requireSuccess(connection, code, "Failed to read " + key);
+				if (etag == null)
+					etag = connection.getHeaderField(ETAG);
+
+				final byte[] data;
+				try (final InputStream in = connection.getInputStream()) {
+					data = IOUtils.toByteArray(in);
+				}
+				if (code == 200) {
+					/* the whole object, ranges are not supported */
+					size = data.length;
+					if (ranged)
+						return ReadData.from(data).slice(offset, length);
+				}
+				if (length > 0 && data.length < length)
+					throw new IndexOutOfBoundsException("offset " + offset + " and length " + length + " out of bounds of " + key);
+				return ReadData.from(data);
+			} catch (final IOException e) {
+				throw new N5IOException("Failed to read " + key, e);
+			}
+		}
+
+		@Override
+		public void close() {}
+	}
+
+	/**
+	 * A page of a list response.
+	 */
+	private static class ListPage {
+
+		final List<String> keys = new ArrayList<>();
+		final List<String> prefixes = new ArrayList<>();
+		String continuationToken;
+	}
+
+	/**
+	 * Lists keys by prefix, page by page.
+	 *
+	 * @param prefix
+	 *            the prefix
+	 * @param delimiter
+	 *            the delimiter keys are grouped by into common prefixes, or
+	 *            null
+	 * @param maxKeys
+	 *            the maximum number of keys and prefixes per page
+	 * @param consumer
+	 *            receives each page, and returns whether to continue listing
+	 */
+	private void listPages(
+			final String prefix,
+			final String delimiter,
+			final int maxKeys,
+			final Predicate<ListPage> consumer) throws N5IOException {
+
+		String token = null;
+		do {
+			final Map<String, String> query = new TreeMap<>();
+			query.put("list-type", "2");
+			query.put("prefix", prefix);
+			query.put("max-keys", Integer.toString(maxKeys));
+			if (delimiter != null)
+				query.put("delimiter", delimiter);
+			if (token != null)
+				query.put("continuation-token", token);
+
+			final Document document = requestXml("GET", "", query, Collections.emptyMap(), null, "Failed to list " + prefix);
+			final ListPage page = new ListPage();
+			for (final Element contents : elements(document.getDocumentElement(), "Contents"))
+				page.keys.add(text(contents, "Key"));
+			for (final Element prefixes : elements(document.getDocumentElement(), "CommonPrefixes"))
+				page.prefixes.add(text(prefixes, "Prefix"));
+			if ("true".equals(text(document.getDocumentElement(), "IsTruncated")))
+				page.continuationToken = text(document.getDocumentElement(), "NextContinuationToken");
+			if (!consumer.test(page))
+				return;
+			token = page.continuationToken;
+		} while (token != null);
+	}
+
+	@Override
+	public String[] listDirectories(final String normalPath) throws N5IOException {
+
+		return list(normalPath, true);
+	}
+
+	@Override
+	public String[] list(final String normalPath) throws N5IOException {
+
+		return list(normalPath, false);
+	}
+
+	private String[] list(final String normalPath, final boolean directoriesOnly) throws N5IOException {
+
+		final String key = key(normalPath);
+		final String prefix = key.isEmpty() ? "" : key + "/";
+		final List<String> children = new ArrayList<>();
+		final boolean[] found = {key.isEmpty()};
+		listPages(prefix, "/", 1000, page -> {
+			found[0] |= !page.keys.isEmpty() || !page.prefixes.isEmpty();
+			if (!directoriesOnly) {
+				for (final String child : page.keys) {
+					/* skip the directory marker */
+					if (child.length() > prefix.length())
+						children.add(child.substring(prefix.length()));
+				}
+			}
+			for (final String child : page.prefixes)
+				children.add(child.substring(prefix.length(), child.length() - 1));
+			return true;
+		});
+		if (!found[0])
+			throw new N5NoSuchKeyException("No such directory " + normalPath);
+		return children.toArray(new String[0]);
+	}
+
+	@Override
+	public void createDirectories(final String normalPath) throws N5IOException {
+
+		/*
+		 * Markers for the path and all parents, such that they remain when
+		 * children are removed. Markers are written top down, so an existing
+		 * marker implies that all parent markers exist, and only the missing
+		 * markers below the deepest existing one are written.
+		 */
+		final String key = key(normalPath);
+		int end = key.length();
+		while (end > 0 && head(key.substring(0, end) + "/") == null)
+			end = key.lastIndexOf('/', end - 1);
+		for (int i = key.indexOf('/', end + 1); i >= 0; i = key.indexOf('/', i + 1))
+			putObject(key.substring(0, i + 1), ReadData.empty(), 0, Collections.emptyMap());
+		if (end < key.length())
+			putObject(key + "/", ReadData.empty(), 0, Collections.emptyMap());
+	}
+
+	@Override
+	public void write(final String normalPath, final ReadData data) throws N5IOException {
+
+		write(key(normalPath), data, Collections.emptyMap());
+	}
+
+	/**
+	 * Writes a key only if its current version, as returned by
+	 * {@link #version(String)}, matches, i.e. fails if the key was written by
+	 * someone else since it was read.
+	 *
+	 * @param normalPath
+	 *            is expected to be in normalized form, no further efforts are
+	 *            made to normalize it.
+	 * @param data
+	 *            the data
+	 * @param version
+	 *            the {@code ETag} the key must have, or an empty String if the
+	 *            key must not exist
+	 * @return the new version of the key
+	 * @throws N5ConcurrentModificationException
+	 *             if the key does not have the given version
+	 * @throws N5IOException
+	 *             if an error occurs
+	 */
+	public String write(final String normalPath, final ReadData data, final String version) throws N5IOException {
+
+		final Map<String, String> conditions = version.isEmpty()
+				? Collections.singletonMap(IF_NONE_MATCH, "*")
+				: Collections.singletonMap(IF_MATCH, version);
+		return write(key(normalPath), data, conditions);
+	}
+
+	private String write(final String key, final ReadData data, final Map<String, String> conditions) throws N5IOException {
+
+		if (key.isEmpty())
+			throw new N5IOException("Cannot write to the root of bucket " + bucket);
+
+		final long length = data.length();
+		if (length >= 0 && length <= partSize)
+			return putObject(key, data, length, conditions);
+
+		final ReadData materialized = data.materialize();
+		final long size = materialized.requireLength();
+		if (size <= partSize)
+			return putObject(key, materialized, size, conditions);
+		return multipartUpload(key, materialized, size, conditions);
+	}
+
+	private String putObject(final String key, final ReadData data, final long length, final Map<String, String> conditions) throws N5IOException {
+
+		try {
+			final HttpURLConnection connection = connect("PUT", key, Collections.emptyMap(), conditions, UNSIGNED_PAYLOAD, length);
+			try (final OutputStream out = connection.getOutputStream()) {
+				data.writeTo(out);
+			}
+			requireSuccess(connection, connection.getResponseCode(), "Failed to write " + key);
+			return connection.getHeaderField(ETAG);
+		} catch (final IOException e) {
+			throw new N5IOException("Failed to write " + key, e);
+		}
+	}
+
+	/**
+	 * Uploads the parts of an object in parallel, and aborts the upload if
+	 * any part fails.
+	 */
+	private String multipartUpload(final String key, final ReadData data, final long size, final Map<String, String> conditions) throws N5IOException {
+
+		final long partSize = Math.max(this.partSize, (size + MAX_PARTS - 1) / MAX_PARTS);
+		final int numParts = (int)((size + partSize - 1) / partSize);
+
+		final Document initiated = requestXml("POST", key, Collections.singletonMap("uploads", ""), Collections.emptyMap(), null, "Failed to upload " + key);
+		final String uploadId = text(initiated.getDocumentElement(), "UploadId");
+
+		final ExecutorService exec = Executors.newFixedThreadPool(Math.min(numParts, uploadParallelism), runnable -> {
+			final Thread thread = new Thread(runnable, "n5-s3-upload");
+			thread.setDaemon(true);
+			return thread;
+		});
+		boolean completed = false;
+		try {
+			final List<Future<String>> etags = new ArrayList<>(numParts);
+			for (int i = 0; i < numParts; ++i) {
+				final int partNumber = i + 1;
+				final long offset = i * partSize;
+				final ReadData part = data.slice(offset, Math.min(partSize, size - offset));
+				etags.add(exec.submit(() -> uploadPart(key, uploadId, partNumber, part)));
+			}
+
+			final StringBuilder complete = new StringBuilder("<CompleteMultipartUpload>");
+			for (int i = 0; i < numParts; ++i) {
+				complete.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+						.append(escapeXml(etags.get(i).get())).append("</ETag></Part>");
+			}
+			complete.append("</CompleteMultipartUpload>");
+
+			final Document result = requestXml(
+					"POST",
+					key,
+					Collections.singletonMap("uploadId", uploadId),
+					conditions,
+					complete.toString().getBytes(StandardCharsets.UTF_8),
+					"Failed to complete upload of " + key);
+			completed = true;
+			return text(result.getDocumentElement(), "ETag");
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new N5IOException("Interrupted while uploading " + key, e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof N5Exception)
+				throw (N5Exception)e.getCause();
+			throw new N5IOException("Failed to upload " + key, e.getCause());
+		} finally {
+			exec.shutdownNow();
+			if (!completed)
+				abortUpload(key, uploadId);
+		}
+	}
+
+	private String uploadPart(final String key, final String uploadId, final int partNumber, final ReadData part) throws N5IOException {
+
+		final Map<String, String> query = new TreeMap<>();
+		query.put("partNumber", Integer.toString(partNumber));
+		query.put("uploadId", uploadId);
+		try {
+			final HttpURLConnection connection = connect("PUT", key, query, Collections.emptyMap(), UNSIGNED_PAYLOAD, part.requireLength());
+			try (final OutputStream out = connection.getOutputStream()) {
+				part.writeTo(out);
+			}
+			requireSuccess(connection, connection.getResponseCode(), "Failed to upload part " + partNumber + " of " + key);
+			return connection.getHeaderField(ETAG);
+		} catch (final IOException e) {
+			throw new N5IOException("Failed to upload part " + partNumber + " of " + key, e);
+		}
+	}
+
+	private void abortUpload(final String key, final String uploadId) {
+
+		try {
+			final HttpURLConnection connection = connect("DELETE", key, Collections.singletonMap("uploadId", uploadId), Collections.emptyMap(), EMPTY_PAYLOAD_HASH, -1);
+			connection.getResponseCode();
+		} catch (final IOException e) {
+			/* incomplete uploads expire by the lifecycle policy of the bucket */
+		}
+	}
+
+	@Override
+	public void delete(final String normalPath) throws N5IOException {
+
+		try {
+			delete(key(normalPath), null);
+		} catch (InterruptedException | ExecutionException e) {
+			/* not thrown without executor */
+			throw new N5IOException("Failed to delete " + normalPath, e);
+		}
+	}
+
+	/**
+	 * Deletes a key and all keys below it, sending batches of keys to
+	 * {@code exec} while listing continues.
+	 */
+	@Override
+	public void delete(
+			final String normalPath,
+			final ExecutorService exec,
+			final boolean exclusive) throws N5IOException, InterruptedException, ExecutionException {
+
+		delete(key(normalPath), exec);
+	}
+
+	private void delete(final String key, final ExecutorService exec) throws N5IOException, InterruptedException, ExecutionException {
+
+		final List<Future<?>> futures = new ArrayList<>();
+		if (!key.isEmpty())
+			deleteObjects(Collections.singletonList(key));
+		listPages(key.isEmpty() ? "" : key + "/", null, DELETE_BATCH_SIZE, page -> {
+			if (page.keys.isEmpty())
+				return true;
+			if (exec == null)
+				deleteObjects(page.keys);
+			else
+				futures.add(exec.submit(() -> deleteObjects(page.keys)));
+			return true;
+		});
+		for (final Future<?> future : futures)
+			future.get();
+	}
+
+	private void deleteObjects(final List<String> keys) throws N5IOException {
+
+		final StringBuilder delete = new StringBuilder("<Delete><Quiet>true</Quiet>");
+		for (final String key : keys)
+			delete.append("<Object><Key>").append(escapeXml(key)).append("</Key></Object>");
+		delete.append("</Delete>");
+		final byte[] body = delete.toString().getBytes(StandardCharsets.UTF_8);
+
+		final Map<String, String> headers = new TreeMap<>();
+		headers.put("Content-MD5", Base64.getEncoder().encodeToString(digest("MD5", body)));
+		headers.put("Content-Type", "application/xml");
+		final Document result = requestXml("POST", "", Collections.singletonMap("delete", ""), headers, body, "Failed to delete " + keys.get(0));
+		final List<Element> errors = elements(result.getDocumentElement(), "Error");
+		if (!errors.isEmpty())
+			throw new N5IOException("Failed to delete " + text(errors.get(0), "Key") + ": " + text(errors.get(0), "Message"));
+	}
+
+	/**
+	 * Sends a request with an optional body, and parses the XML response.
+	 */
+	private Document requestXml(
+			final String method,
+			final String key,
+			final Map<String, String> query,
+			final Map<String, String> headers,
+			final byte[] body,
+			final String message) throws N5IOException {
+
+		try {
+			final HttpURLConnection connection = connect(
+					method,
+					key,
+					query,
+					headers,
+					body == null ? EMPTY_PAYLOAD_HASH : hex(digest("SHA-256", body)),
+					body == null ? (method.equals("POST") ? 0 : -1) : body.length);
+			if (connection.getDoOutput()) {
+				try (final OutputStream out = connection.getOutputStream()) {
+					if (body != null)
+						out.write(body);
+				}
+			}
+			requireSuccess(connection, connection.getResponseCode(), message);
+			final byte[] response;
+			try (final InputStream in = connection.getInputStream()) {
+				response = IOUtils.toByteArray(in);
+			}
+			final Document document = parseXml(response);
+			/* S3 may report errors in the body of a successful response */
+			if (document.getDocumentElement().getTagName().equals("Error"))
+				throw new N5IOException(message + ": " + text(document.getDocumentElement(), "Message"));
+			return document;
+		} catch (final IOException e) {
+			throw new N5IOException(message, e);
+		}
+	}
+
+	private static void requireSuccess(final HttpURLConnection connection, final int code, final String message) throws N5IOException {
+
+		if (code >= 200 && code < 300)
+			return;
+
+		String detail = message + " (" + code + ")";
+		try (final InputStream in = connection.getErrorStream()) {
+			if (in != null)
+				detail += " " + IOUtils.toString(in, StandardCharsets.UTF_8);
+		} catch (final IOException e) {}
+		if (code == 404)
+			throw new N5NoSuchKeyException(detail);
+		else if (code == 409 || code == 412)
+			throw new N5ConcurrentModificationException(detail);
+		else
+			throw new N5IOException(detail);
+	}
+
+	/**
+	 * Opens a signed connection.
+	 *
+	 * @param contentLength
+	 *            the length of the request body, or -1 if there is none
+	 */
+	private HttpURLConnection connect(
+			final String method,
+			final String key,
+			final Map<String, String> query,
+			final Map<String, String> headers,
+			final String payloadHash,
+			final long contentLength) throws IOException {
+
+		final String canonicalUri = endpoint.getRawPath() + "/" + uriEncode(bucket, true) + (key.isEmpty() ? "" : "/" + uriEncode(key, false));
+		final String canonicalQuery = canonicalQuery(query);
+		final URL url = URI.create(endpoint.getScheme() + "://" + endpoint.getRawAuthority() + canonicalUri + (canonicalQuery.isEmpty() ? "" : "?" + canonicalQuery)).toURL();
+
+		final HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+		connection.setReadTimeout(readTimeoutMilliseconds);
+		connection.setConnectTimeout(connectionTimeoutMilliseconds);
+		connection.setInstanceFollowRedirects(false);
+		connection.setRequestMethod(method);
+		if (contentLength >= 0) {
+			connection.setDoOutput(true);
+			connection.setFixedLengthStreamingMode(contentLength);
+		}
+		for (final Map.Entry<String, String> header : headers.entrySet())
+			connection.setRequestProperty(header.getKey(), header.getValue());
+
+		if (accessKey != null) {
+			final String amzDate = ZonedDateTime.now(ZoneOffset.UTC).format(AMZ_DATE);
+			final TreeMap<String, String> signedHeaders = new TreeMap<>();
+			for (final Map.Entry<String, String> header : headers.entrySet())
+				signedHeaders.put(header.getKey().toLowerCase(), header.getValue());
+			signedHeaders.put("host", url.getPort() < 0 ? url.getHost() : url.getHost() + ":" + url.getPort());
+			signedHeaders.put("x-amz-content-sha256", payloadHash);
+			signedHeaders.put("x-amz-date", amzDate);
+			connection.setRequestProperty("x-amz-content-sha256", payloadHash);
+			connection.setRequestProperty("x-amz-date", amzDate);
+			connection.setRequestProperty(
+					"Authorization",
+					authorization(method, canonicalUri, canonicalQuery, signedHeaders, payloadHash, amzDate, region, accessKey, secretKey));
+		}
+		return connection;
+	}
+
+	/**
+	 * Creates the {@code Authorization} header of a request signed with AWS
+	 * signature version 4.
+	 *
+	 * @param headers
+	 *            the signed headers with lower case names, including
+	 *            {@code host}
+	 */
+	public static String authorization(
+			final String method,
+			final String canonicalUri,
+			final String canonicalQuery,
+			final TreeMap<String, String> headers,
+			final String payloadHash,
+			final String amzDate,
+			final String region,
+			final String accessKey,
+			final String secretKey) {
+
+		final StringBuilder canonicalHeaders = new StringBuilder();
+		for (final Map.Entry<String, String> header : headers.entrySet())
+			canonicalHeaders.append(header.getKey()).append(':').append(header.getValue().trim()).append('\n');
+		final String signedHeaders = String.join(";", headers.keySet());
+
+		final String canonicalRequest = method + "\n" + canonicalUri + "\n" + canonicalQuery + "\n" + canonicalHeaders + "\n" + signedHeaders + "\n" + payloadHash;
+
+		final String date = amzDate.substring(0, 8);
+		final String scope = date + "/" + region + "/s3/aws4_request";
+		final String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n"
+				+ hex(digest("SHA-256", canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+
+		byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+		signingKey = hmac(signingKey, region);
+		signingKey = hmac(signingKey, "s3");
+		signingKey = hmac(signingKey, "aws4_request");
+		final String signature = hex(hmac(signingKey, stringToSign));
+
+		return "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature;
+	}
+
+	private static String canonicalQuery(final Map<String, String> query) {
+
+		final TreeMap<String, String> encoded = new TreeMap<>();
+		for (final Map.Entry<String, String> parameter : query.entrySet())
+			encoded.put(uriEncode(parameter.getKey(), true), uriEncode(parameter.getValue(), true));
+		final StringBuilder canonicalQuery = new StringBuilder();
+		for (final Map.Entry<String, String> parameter : encoded.entrySet()) {
+			if (canonicalQuery.length() > 0)
+				canonicalQuery.append('&');
+			canonicalQuery.append(parameter.getKey()).append('=').append(parameter.getValue());
+		}
+		return canonicalQuery.toString();
+	}
+
+	/**
+	 * Percent-encodes all but unreserved characters, as required for
+	 * signing.
+	 */
+	public static String uriEncode(final String value, final boolean encodeSlash) {
+
+		final StringBuilder encoded = new StringBuilder();
+		for (final byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			final char c = (char)(b & 0xff);
+			if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && !encodeSlash))
+				encoded.append(c);
+			else
+				encoded.append('%').append(Character.toUpperCase(Character.forDigit((b >> 4) & 0xf, 16))).append(Character.toUpperCase(Character.forDigit(b & 0xf, 16)));
+		}
+		return encoded.toString();
+	}
+
+	private static byte[] hmac(final byte[] key, final String data) {
+
+		try {
+			final Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(key, "HmacSHA256"));
+			return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+		} catch (final Exception e) {
+			throw new N5Exception("HmacSHA256 is not available", e);
+		}
+	}
+
+	private static byte[] digest(final String algorithm, final byte[] data) {
+
+		try {
+			return MessageDigest.getInstance(algorithm).digest(data);
+		} catch (final NoSuchAlgorithmException e) {
+			throw new N5Exception(algorithm + " is not available", e);
+		}
+	}
+
+	private static String hex(final byte[] bytes) {
+
+		final StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (final byte b : bytes)
+			hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		return hex.toString();
+	}
+
+	private static Document parseXml(final byte[] xml) throws N5IOException {
+
+		try {
+			final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+			return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+		} catch (ParserConfigurationException | SAXException | IOException e) {
+			throw new N5IOException("Invalid XML response", e);
+		}
+	}
+
+	/**
+	 * @return the child elements with the given name
+	 */
+	private static List<Element> elements(final Element parent, final String name) {
+
+		final List<Element> elements = new ArrayList<>();
+		final NodeList children = parent.getChildNodes();
+		for (int i = 0; i < children.getLength(); ++i) {
+			if (children.item(i) instanceof Element && ((Element)children.item(i)).getTagName().equals(name))
+				elements.add((Element)children.item(i));
+		}
+		return elements;
+	}
+
+	/**
+	 * @return the text of the first child element with the given name, or null
+	 */
+	private static String text(final Element parent, final String name) {
+
+		final List<Element> elements = elements(parent, name);
+		return elements.isEmpty() ? null : elements.get(0).getTextContent();
+	}
+
+	private static String escapeXml(final String text) {
+
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;").replace("'", "&apos;");
+	}
+}
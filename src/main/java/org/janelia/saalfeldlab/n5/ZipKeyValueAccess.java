@@ -0,0 +1,804 @@
+package org.janelia.saalfeldlab.n5;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
+import org.janelia.saalfeldlab.n5.N5Exception.N5NoSuchKeyException;
+import org.janelia.saalfeldlab.n5.readdata.LazyRead;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.janelia.saalfeldlab.n5.readdata.VolatileReadData;
+
+/**
+ * A {@link KeyValueAccess} that stores all keys as entries of a single ZIP
+ * archive.
+ * <p>
+ * Keys are absolute paths within the archive, e.g. a container at the root of
+ * the archive is opened with base path {@code "/"}:
+ *
+ * <pre>
+ * {@code
+ * try (final ZipKeyValueAccess zip = new ZipKeyValueAccess(Paths.get("data.zip"), true, false)) {
+ * 	final N5Writer n5 = new N5KeyValueWriter(zip, "/", new GsonBuilder(), true);
+ * 	...
+ * }
+ * }
+ * </pre>
+ *
+ * When opened, the central directory of the archive is loaded into an
+ * in-memory index, such that keys are read with one positioned read each,
+ * without opening or querying other files. Only uncompressed ({@code STORED})
+ * entries can be read, compression is left to the N5 codecs. Archives with
+ * more than 65535 entries or larger than 4GB use the ZIP64 format.
+ * <p>
+ * A writable {@code ZipKeyValueAccess} appends new entries at the end of the
+ * archive, and writes a new central directory after them on {@link #flush()}
+ * and {@link #close()}. Nothing in the archive is ever overwritten. In
+ * between, the previous central directory remains valid, but it is not at the
+ * end of the file anymore. Other readers may not find it, a {@code
+ * ZipKeyValueAccess} finds it by scanning backwards, such that an archive
+ * whose writer crashed still contains all entries of its last flush.
+ * Overwritten and deleted entries, and previous central directories, remain
+ * in the archive as unreferenced data. Readers of this {@code
+ * ZipKeyValueAccess} are not affected by concurrent writes. Only one {@code
+ * ZipKeyValueAccess} may write an archive at a time.
+ */
+public class ZipKeyValueAccess implements KeyValueAccess, Closeable {
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int END_SIGNATURE = 0x06054b50;
+	private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+	private static final int LOCAL_HEADER_SIZE = 30;
+	private static final int CENTRAL_HEADER_SIZE = 46;
+	private static final int END_SIZE = 22;
+	private static final int ZIP64_END_SIZE = 56;
+	private static final int ZIP64_LOCATOR_SIZE = 20;
+
+	private static final int ZIP64_EXTRA_ID = 0x0001;
+	private static final int UTF8_FLAG = 0x0800;
+	private static final int STORED = 0;
+
+	private static final long MAX_16 = 0xffffL;
+	private static final long MAX_32 = 0xffffffffL;
+
+	/**
+	 * Size of the segments a read-only archive is mapped with, entries that
+	 * span two segments are read from the channel.
+	 */
+	private static final long MAPPED_SEGMENT_SIZE = 1L << 30;
+
+	/**
+	 * Size of the blocks in which the archive is scanned backwards for the
+	 * end of central directory record if it is not at the end of the file.
+	 */
+	private static final int SCAN_BLOCK_SIZE = 1 << 16;
+
+	/**
+	 * An entry of the central directory.
+	 */
+	private static final class Entry {
+
+		final long headerOffset;
+		final long compressedSize;
+		final long size;
+		final int crc;
+		final int flags;
+		final int method;
+		final int dosTime;
+
+		/**
+		 * Offset of the data, read from the local header on first access.
+		 */
+		volatile long dataOffset;
+
+		Entry(
+				final long headerOffset,
+				final long dataOffset,
+				final long compressedSize,
+				final long size,
+				final int crc,
+				final int flags,
+				final int method,
+				final int dosTime) {
+
+			this.headerOffset = headerOffset;
+			this.dataOffset = dataOffset;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.crc = crc;
+			this.flags = flags;
+			this.method = method;
+			this.dosTime = dosTime;
+		}
+
+		boolean isReadable() {
+
+			return method == STORED && (flags & 1) == 0; // not encrypted
+		}
+	}
+
+	private final Path zipFile;
+
+	private final boolean writable;
+
+	private final FileChannel channel;
+
+	/**
+	 * Segments of a memory mapped read-only archive, or null.
+	 */
+	private final MappedByteBuffer[] mappedSegments;
+
+	/**
+	 * Entries by name, directories end with a slash.
+	 */
+	private final ConcurrentSkipListMap<String, Entry> index = new ConcurrentSkipListMap<>();
+
+	/**
+	 * Where the next entry is written, guarded by {@code this}.
+	 */
+	private long appendOffset;
+
+	/**
+	 * Whether entries changed since the central directory was written,
+	 * guarded by {@code this}.
+	 */
+	private boolean dirty = false;
+
+	/**
+	 * Incremented whenever entries are added or removed, the version of all
+	 * directories.
+	 */
+	private volatile long modificationCount = 0;
+
+	/**
+	 * Opens an existing archive for reading.
+	 *
+	 * @param zipFile
+	 *            the archive
+	 * @throws N5IOException
+	 *             if the archive cannot be opened or is not a valid archive
+	 */
+	public ZipKeyValueAccess(final Path zipFile) throws N5IOException {
+
+		this(zipFile, false, false);
+	}
+
+	/**
+	 * @param zipFile
+	 *            the archive, created if {@code writable} and it does not exist
+	 * @param writable
+	 *            whether entries can be written and deleted
+	 * @param memoryMapped
+	 *            whether a read-only archive is memory mapped, ignored if
+	 *            {@code writable}
+	 * @throws N5IOException
+	 *             if the archive cannot be opened or is not a valid archive
+	 */
+	public ZipKeyValueAccess(final Path zipFile, final boolean writable, final boolean memoryMapped) throws N5IOException {
+
+		this.zipFile = zipFile;
+		this.writable = writable;
+		try {
+			if (writable) {
+				if (zipFile.getParent() != null)
+					Files.createDirectories(zipFile.getParent());
+				channel = FileChannel.open(zipFile, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+			} else
+				channel = FileChannel.open(zipFile, StandardOpenOption.READ);
+		} catch (IOException | UncheckedIOException e) {
+			throw new N5IOException("Failed to open " + zipFile, e);
+		}
+
+		try {
+			final long size = channel.size();
+			if (size == 0 && writable)
+				dirty = true;
+			else
+				readCentralDirectory(size);
+			appendOffset = size;
+
+			if (memoryMapped && !writable) {
+				mappedSegments = new MappedByteBuffer[(int)((size + MAPPED_SEGMENT_SIZE - 1) / MAPPED_SEGMENT_SIZE)];
+				for (int i = 0; i < mappedSegments.length; ++i) {
+					final long offset = i * MAPPED_SEGMENT_SIZE;
+					mappedSegments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAPPED_SEGMENT_SIZE, size - offset));
+				}
+			} else
+				mappedSegments = null;
+		} catch (IOException | RuntimeException e) {
+			try {
+				channel.close();
+			} catch (final IOException ignore) {}
+			if (e instanceof N5Exception)
+				throw (N5Exception)e;
+			throw new N5IOException("Failed to read " + zipFile, e);
+		}
+	}
+
+	public Path getZipFile() {
+
+		return zipFile;
+	}
+
+	public boolean isWritable() {
+
+		return writable;
+	}
+
+	/**
+	 * @return the number of entries, including directories
+	 */
+	public int numEntries() {
+
+		return index.size();
+	}
+
+	private void requireWritable() throws N5IOException {
+
+		if (!writable)
+			throw new N5IOException(zipFile + " is opened read-only");
+	}
+
+	/**
+	 * Finds the last end of central directory record of the archive.
+	 * <p>
+	 * The record is followed by a comment of up to 65535 bytes. Entries
+	 * appended by a writer that did not write a new central directory follow
+	 * the previous record, so if it is not found there, the archive is scanned
+	 * backwards.
+	 *
+	 * @return the offset of the record, or -1 if there is none
+	 */
+	private long findEnd(final long size) throws IOException {
+
+		final long tailStart = Math.max(0, size - END_SIZE - MAX_16);
+		for (long blockEnd = size - END_SIZE + 1; blockEnd > 0;) {
+			final long blockStart = blockEnd > tailStart ? tailStart : Math.max(0, blockEnd - SCAN_BLOCK_SIZE);
+			final ByteBuffer block = read(blockStart, (int)(blockEnd - blockStart) + END_SIZE - 1);
+			for (int i = (int)(blockEnd - blockStart) - 1; i >= 0; --i) {
+				if (block.getInt(i) == END_SIGNATURE && isEnd(blockStart + i, block, i, size))
+					return blockStart + i;
+			}
+			blockEnd = blockStart;
+		}
+		return -1;
+	}
+
+	/**
+	 * Whether the signature at {@code endOffset} is an end of central
+	 * directory record, i.e. it ends the archive with its comment, or it
+	 * directly follows its central directory or a ZIP64 end of central
+	 * directory locator.
+	 */
+	private boolean isEnd(final long endOffset, final ByteBuffer buffer, final int end, final long size) throws IOException {
+
+		final long directorySize = buffer.getInt(end + 12) & MAX_32;
+		final long directoryOffset = buffer.getInt(end + 16) & MAX_32;
+		final int commentLength = buffer.getShort(end + 20) & 0xffff;
+		if (endOffset + END_SIZE + commentLength == size || directoryOffset + directorySize == endOffset)
+			return true;
+		return endOffset >= ZIP64_LOCATOR_SIZE && read(endOffset - ZIP64_LOCATOR_SIZE, 4).getInt(0) == ZIP64_LOCATOR_SIGNATURE;
+	}
+
+	/**
+	 * Reads the central directory into the index.
+	 */
+	private void readCentralDirectory(final long size) throws IOException {
+
+		final long endOffset = findEnd(size);
+		if (endOffset < 0)
+			throw new N5IOException(zipFile + " is not a ZIP archive");
+
+		final ByteBuffer end = read(endOffset, END_SIZE);
+		long numEntries = end.getShort(10) & MAX_16;
+		long directorySize = end.getInt(12) & MAX_32;
+		long directoryOffset = end.getInt(16) & MAX_32;
+
+		if (endOffset >= ZIP64_LOCATOR_SIZE) {
+			final ByteBuffer locator = read(endOffset - ZIP64_LOCATOR_SIZE, ZIP64_LOCATOR_SIZE);
+			if (locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+				final ByteBuffer zip64End = read(locator.getLong(8), ZIP64_END_SIZE);
+				if (zip64End.getInt(0) != ZIP64_END_SIGNATURE)
+					throw new N5IOException("Invalid ZIP64 end of central directory in " + zipFile);
+				numEntries = zip64End.getLong(32);
+				directorySize = zip64End.getLong(40);
+				directoryOffset = zip64End.getLong(48);
+			}
+		}
+		if (directorySize > Integer.MAX_VALUE)
+			throw new N5IOException("Central directory of " + zipFile + " is too large");
+
+		final ByteBuffer directory = read(directoryOffset, (int)directorySize);
+		for (long i = 0; i < numEntries; ++i) {
+			final int p = directory.position();
+			if (directory.getInt(p) != CENTRAL_HEADER_SIGNATURE)
+				throw new N5IOException("Invalid central directory in " + zipFile);
+
+			final int flags = directory.getShort(p + 8) & 0xffff;
+			final int method = directory.getShort(p + 10) & 0xffff;
+			final int dosTime = directory.getInt(p + 12);
+			final int crc = directory.getInt(p + 16);
+			long compressedSize = directory.getInt(p + 20) & MAX_32;
+			long uncompressedSize = directory.getInt(p + 24) & MAX_32;
+			final int nameLength = directory.getShort(p + 28) & 0xffff;
+			final int extraLength = directory.getShort(p + 30) & 0xffff;
+			final int commentLength = directory.getShort(p + 32) & 0xffff;
+			long headerOffset = directory.getInt(p + 42) & MAX_32;
+
+			final byte[] name = new byte[nameLength];
+			directory.position(p + CENTRAL_HEADER_SIZE);
+			directory.get(name);
+
+			/* ZIP64 extra field, values are present only if the header value is saturated */
+			final int extraEnd = directory.position() + extraLength;
+			while (directory.position() + 4 <= extraEnd) {
+				final int id = directory.getShort() & 0xffff;
+				final int length = directory.getShort() & 0xffff;
+				final int next = directory.position() + length;
+				if (id == ZIP64_EXTRA_ID) {
+					if (uncompressedSize == MAX_32)
+						uncompressedSize = directory.getLong();
+					if (compressedSize == MAX_32)
+						compressedSize = directory.getLong();
+					if (headerOffset == MAX_32)
+						headerOffset = directory.getLong();
+				}
+				directory.position(next);
+			}
+			directory.position(extraEnd + commentLength);
+
+			index.put(
+					new String(name, StandardCharsets.UTF_8),
+					new Entry(headerOffset, -1, compressedSize, uncompressedSize, crc, flags, method, dosTime));
+		}
+	}
+
+	private ByteBuffer read(final long position, final int length) throws IOException {
+
+		final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(buffer, position);
+		buffer.flip();
+		return buffer;
+	}
+
+	private void readFully(final ByteBuffer buffer, final long position) throws IOException {
+
+		long p = position;
+		while (buffer.hasRemaining()) {
+			final int n = channel.read(buffer, p);
+			if (n < 0)
+				throw new N5IOException("Unexpected end of " + zipFile);
+			p += n;
+		}
+	}
+
+	private long dataOffset(final Entry entry) throws IOException {
+
+		long dataOffset = entry.dataOffset;
+		if (dataOffset < 0) {
+			final ByteBuffer header = read(entry.headerOffset, LOCAL_HEADER_SIZE);
+			if (header.getInt(0) != LOCAL_HEADER_SIGNATURE)
+				throw new N5IOException("Invalid local header in " + zipFile);
+			dataOffset = entry.headerOffset + LOCAL_HEADER_SIZE + (header.getShort(26) & 0xffff) + (header.getShort(28) & 0xffff);
+			entry.dataOffset = dataOffset;
+		}
+		return dataOffset;
+	}
+
+	/**
+	 * Maps a normal path to an entry name, i.e. removes leading and trailing
+	 * slashes.
+	 */
+	private static String entryName(final String normalPath) {
+
+		int start = 0;
+		int end = normalPath.length();
+		while (start < end && normalPath.charAt(start) == '/')
+			++start;
+		while (end > start && normalPath.charAt(end - 1) == '/')
+			--end;
+		return normalPath.substring(start, end);
+	}
+
+	private Entry requireEntry(final String normalPath) throws N5NoSuchKeyException {
+
+		final String name = entryName(normalPath);
+		final Entry entry = name.isEmpty() ? null : index.get(name);
+		if (entry == null)
+			throw new N5NoSuchKeyException("No such key " + normalPath + " in " + zipFile);
+		return entry;
+	}
+
+	@Override
+	public String normalize(final String path) {
+
+		return N5URI.normalizeGroupPath(path);
+	}
+
+	@Override
+	public boolean isDirectory(final String normalPath) {
+
+		final String name = entryName(normalPath);
+		if (name.isEmpty())
+			return true;
+		final String prefix = name + "/";
+		final String next = index.ceilingKey(prefix);
+		return next != null && next.startsWith(prefix);
+	}
+
+	@Override
+	public boolean isFile(final String normalPath) {
+
+		final String name = entryName(normalPath);
+		return !name.isEmpty() && index.containsKey(name);
+	}
+
+	@Override
+	public boolean exists(final String normalPath) {
+
+		return isFile(normalPath) || isDirectory(normalPath);
+	}
+
+	@Override
+	public long size(final String normalPath) throws N5NoSuchKeyException {
+
+		return requireEntry(normalPath).size;
+	}
+
+	/**
+	 * Returns the offset of an entry, which changes when it is overwritten,
+	 * or, for directories, a counter of all changes to the archive.
+	 */
+	@Override
+	public String version(final String normalPath) throws N5IOException {
+
+		final String name = entryName(normalPath);
+		final Entry entry = name.isEmpty() ? null : index.get(name);
+		if (entry != null)
+			return Long.toString(entry.headerOffset);
+		else if (isDirectory(normalPath))
+			return "d" + modificationCount;
+		else
+			return "";
+	}
+
+	@Override
+	public VolatileReadData createReadData(final String normalPath) throws N5IOException {
+
+		final Entry entry = requireEntry(normalPath);
+		if (!entry.isReadable())
+			throw new N5IOException("Entry " + normalPath + " in " + zipFile + " is compressed or encrypted");
+		return VolatileReadData.from(new EntryLazyRead(entry));
+	}
+
+	private class EntryLazyRead implements LazyRead {
+
+		private final Entry entry;
+
+		EntryLazyRead(final Entry entry) {
+
+			this.entry = entry;
+		}
+
+		@Override
+		public long size() {
+
+			return entry.size;
+		}
+
+		@Override
+		public ReadData materialize(final long offset, final long length) throws N5IOException {
+
+			if (offset < 0 || offset > entry.size || (length >= 0 && offset + length > entry.size))
+				throw new IndexOutOfBoundsException(
+						"offset " + offset + " and length " + length + " out of bounds of entry of size " + entry.size);
+
+			final long size = length < 0 ? entry.size - offset : length;
+			if (size > Integer.MAX_VALUE)
+				throw new IndexOutOfBoundsException("Attempt to materialize too large data");
+
+			try {
+				final long position = dataOffset(entry) + offset;
+				final byte[] data = new byte[(int)size];
+				if (mappedSegments != null) {
+					final int segment = (int)(position / MAPPED_SEGMENT_SIZE);
+					final long segmentOffset = position - segment * MAPPED_SEGMENT_SIZE;
+					if (segmentOffset + size <= mappedSegments[segment].capacity()) {
+						final ByteBuffer mapped = mappedSegments[segment].duplicate();
+						mapped.position((int)segmentOffset);
+						mapped.get(data);
+						return ReadData.from(data);
+					}
+				}
+				readFully(ByteBuffer.wrap(data), position);
+				return ReadData.from(data);
+			} catch (IOException | UncheckedIOException e) {
+				throw new N5IOException("Failed to read entry of " + zipFile, e);
+			}
+		}
+
+		@Override
+		public void close() {}
+	}
+
+	@Override
+	public String[] listDirectories(final String normalPath) throws N5IOException {
+
+		return list(normalPath, true);
+	}
+
+	@Override
+	public String[] list(final String normalPath) throws N5IOException {
+
+		return list(normalPath, false);
+	}
+
+	private String[] list(final String normalPath, final boolean directoriesOnly) throws N5IOException {
+
+		if (!isDirectory(normalPath))
+			throw new N5NoSuchKeyException("No such directory " + normalPath + " in " + zipFile);
+
+		final String name = entryName(normalPath);
+		final String prefix = name.isEmpty() ? "" : name + "/";
+		final List<String> children = new ArrayList<>();
+		String key = index.higherKey(prefix); // skips the entry of the directory itself
+		while (key != null && key.startsWith(prefix)) {
+			final int slash = key.indexOf('/', prefix.length());
+			if (slash < 0) {
+				if (!directoriesOnly)
+					children.add(key.substring(prefix.length()));
+				key = index.higherKey(key);
+			} else {
+				final String child = key.substring(prefix.length(), slash);
+				if (!child.isEmpty())
+					children.add(child);
+				/* skip all entries of the child directory, '0' follows '/' */
+				key = index.ceilingKey(key.substring(0, slash) + '0');
+			}
+		}
+		return children.toArray(new String[0]);
+	}
+
+	@Override
+	public void createDirectories(final String normalPath) throws N5IOException {
+
+		requireWritable();
+		final String name = entryName(normalPath);
+		if (name.isEmpty() || isDirectory(normalPath))
+			return;
+		if (index.containsKey(name))
+			throw new N5IOException("Cannot create directory " + normalPath + " in " + zipFile + ", it is a key");
+		append(name + "/", new byte[0]);
+	}
+
+	@Override
+	public void write(final String normalPath, final ReadData data) throws N5IOException {
+
+		requireWritable();
+		final String name = entryName(normalPath);
+		if (name.isEmpty())
+			throw new N5IOException("Cannot write to the root of " + zipFile);
+		append(name, data.allBytes());
+	}
+
+	private synchronized void append(final String name, final byte[] data) throws N5IOException {
+
+		final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		if (nameBytes.length > MAX_16)
+			throw new N5IOException("Key " + name + " is too long");
+
+		final CRC32 crc32 = new CRC32();
+		crc32.update(data);
+		final int crc = (int)crc32.getValue();
+		final int dosTime = dosTime(System.currentTimeMillis());
+
+		final ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_SIZE + nameBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(LOCAL_HEADER_SIGNATURE);
+		header.putShort((short)20); // version needed
+		header.putShort((short)UTF8_FLAG);
+		header.putShort((short)STORED);
+		header.putInt(dosTime);
+		header.putInt(crc);
+		header.putInt(data.length); // compressed size
+		header.putInt(data.length); // uncompressed size
+		header.putShort((short)nameBytes.length);
+		header.putShort((short)0); // extra length
+		header.put(nameBytes);
+		header.flip();
+
+		try {
+			final long headerOffset = appendOffset;
+			channel.position(headerOffset);
+			final ByteBuffer[] buffers = {header, ByteBuffer.wrap(data)};
+			while (buffers[1].hasRemaining())
+				channel.write(buffers);
+
+			final long dataOffset = headerOffset + LOCAL_HEADER_SIZE + nameBytes.length;
+			appendOffset = dataOffset + data.length;
+			index.put(name, new Entry(headerOffset, dataOffset, data.length, data.length, crc, UTF8_FLAG, STORED, dosTime));
+			dirty = true;
+			++modificationCount;
+		} catch (IOException | UncheckedIOException e) {
+			throw new N5IOException("Failed to write " + name + " to " + zipFile, e);
+		}
+	}
+
+	@Override
+	public synchronized void delete(final String normalPath) throws N5IOException {
+
+		requireWritable();
+		final String name = entryName(normalPath);
+		final boolean removed;
+		if (name.isEmpty()) {
+			removed = !index.isEmpty();
+			index.clear();
+		} else {
+			final Map<String, Entry> children = index.subMap(name + "/", name + "0");
+			removed = (index.remove(name) != null) | !children.isEmpty();
+			children.clear();
+		}
+		if (removed) {
+			dirty = true;
+			++modificationCount;
+		}
+	}
+
+	/**
+	 * Appends a new central directory if entries changed since it was
+	 * written, such that the archive is valid.
+	 */
+	@Override
+	public synchronized void flush() throws N5IOException {
+
+		if (!writable || !dirty)
+			return;
+
+		try {
+			final long directoryOffset = appendOffset;
+			channel.position(directoryOffset);
+
+			final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			long directorySize = 0;
+			long numEntries = 0;
+			for (final Map.Entry<String, Entry> e : index.entrySet()) {
+				final byte[] name = e.getKey().getBytes(StandardCharsets.UTF_8);
+				final Entry entry = e.getValue();
+
+				/* ZIP64 extra field, values are present only if the header value is saturated */
+				final boolean zip64Size = entry.size >= MAX_32;
+				final boolean zip64CompressedSize = entry.compressedSize >= MAX_32;
+				final boolean zip64Offset = entry.headerOffset >= MAX_32;
+				final int zip64Length = 8 * ((zip64Size ? 1 : 0) + (zip64CompressedSize ? 1 : 0) + (zip64Offset ? 1 : 0));
+				final boolean zip64 = zip64Length > 0;
+				final int headerSize = CENTRAL_HEADER_SIZE + name.length + (zip64 ? 4 + zip64Length : 0);
+				if (buffer.remaining() < headerSize) {
+					writeFully(buffer);
+					if (buffer.capacity() < headerSize)
+						throw new N5IOException("Key " + e.getKey() + " is too long");
+				}
+				buffer.putInt(CENTRAL_HEADER_SIGNATURE);
+				buffer.putShort((short)45); // version made by
+				buffer.putShort((short)(zip64 ? 45 : 20)); // version needed
+				buffer.putShort((short)(entry.flags | UTF8_FLAG));
+				buffer.putShort((short)entry.method);
+				buffer.putInt(entry.dosTime);
+				buffer.putInt(entry.crc);
+				buffer.putInt((int)Math.min(entry.compressedSize, MAX_32));
+				buffer.putInt((int)Math.min(entry.size, MAX_32));
+				buffer.putShort((short)name.length);
+				buffer.putShort((short)(zip64 ? 4 + zip64Length : 0)); // extra length
+				buffer.putShort((short)0); // comment length
+				buffer.putShort((short)0); // disk
+				buffer.putShort((short)0); // internal attributes
+				buffer.putInt(0); // external attributes
+				buffer.putInt((int)Math.min(entry.headerOffset, MAX_32));
+				buffer.put(name);
+				if (zip64) {
+					buffer.putShort((short)ZIP64_EXTRA_ID);
+					buffer.putShort((short)zip64Length);
+					if (zip64Size)
+						buffer.putLong(entry.size);
+					if (zip64CompressedSize)
+						buffer.putLong(entry.compressedSize);
+					if (zip64Offset)
+						buffer.putLong(entry.headerOffset);
+				}
+				directorySize += headerSize;
+				++numEntries;
+			}
+
+			final long endOffset = directoryOffset + directorySize;
+			final boolean zip64 = numEntries >= MAX_16 || directorySize >= MAX_32 || directoryOffset >= MAX_32;
+			if (buffer.remaining() < ZIP64_END_SIZE + ZIP64_LOCATOR_SIZE + END_SIZE)
+				writeFully(buffer);
+			if (zip64) {
+				buffer.putInt(ZIP64_END_SIGNATURE);
+				buffer.putLong(ZIP64_END_SIZE - 12);
+				buffer.putShort((short)45); // version made by
+				buffer.putShort((short)45); // version needed
+				buffer.putInt(0); // disk
+				buffer.putInt(0); // disk of central directory
+				buffer.putLong(numEntries);
+				buffer.putLong(numEntries);
+				buffer.putLong(directorySize);
+				buffer.putLong(directoryOffset);
+
+				buffer.putInt(ZIP64_LOCATOR_SIGNATURE);
+				buffer.putInt(0); // disk of ZIP64 end
+				buffer.putLong(endOffset);
+				buffer.putInt(1); // number of disks
+			}
+			buffer.putInt(END_SIGNATURE);
+			buffer.putShort((short)0); // disk
+			buffer.putShort((short)0); // disk of central directory
+			buffer.putShort((short)Math.min(numEntries, MAX_16));
+			buffer.putShort((short)Math.min(numEntries, MAX_16));
+			buffer.putInt((int)Math.min(directorySize, MAX_32));
+			buffer.putInt((int)Math.min(directoryOffset, MAX_32));
+			buffer.putShort((short)0); // comment length
+			writeFully(buffer);
+
+			channel.force(true);
+			appendOffset = channel.position();
+			dirty = false;
+		} catch (IOException | UncheckedIOException e) {
+			throw new N5IOException("Failed to write central directory of " + zipFile, e);
+		}
+	}
+
+	private void writeFully(final ByteBuffer buffer) throws IOException {
+
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Writes the central directory if needed, and closes the archive.
+	 */
+	@Override
+	public void close() throws N5IOException {
+
+		try {
+			flush();
+		} finally {
+			try {
+				channel.close();
+			} catch (final IOException e) {
+				throw new N5IOException("Failed to close " + zipFile, e);
+			}
+		}
+	}
+
+	private static int dosTime(final long millis) {
+
+		final Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(millis);
+		final int year = Math.max(calendar.get(Calendar.YEAR), 1980);
+		return ((year - 1980) << 25)
+				| ((calendar.get(Calendar.MONTH) + 1) << 21)
+				| (calendar.get(Calendar.DAY_OF_MONTH) << 16)
+				| (calendar.get(Calendar.HOUR_OF_DAY) << 11)
+				| (calendar.get(Calendar.MINUTE) << 5)
+				| (calendar.get(Calendar.SECOND) >> 1);
+	}
+}
@@ -2,9 +2,16 @@ package org.janelia.saalfeldlab.n5.cache;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedHashSet;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.janelia.saalfeldlab.n5.DatasetAttributes;
 import org.janelia.saalfeldlab.n5.N5Exception;
 
 import com.google.gson.JsonElement;
@@ -14,13 +21,41 @@ import com.google.gson.JsonElement;
  * datasets stored in N5 containers. Used by {@link CachedGsonKeyValueN5Reader}
  * and {@link CachedGsonKeyValueN5Writer}.
  *
+ * The cache is safe for concurrent use. Lookups of cached nodes do not lock.
+ * The number of cached nodes can be bounded, in which case leaf nodes that
+ * were not used recently are evicted when the bound is exceeded (CLOCK
+ * replacement). The default bound is taken from the system property
+ * {@code n5.cache.maxEntries} (unbounded if not set).
+ *
+ * By default, the cache assumes that it is the only writer of the container.
+ * To pick up changes made by other processes, cached nodes can be revalidated
+ * once they are older than a given time, taken from the system property
+ * {@code n5.cache.revalidateMillis} by default (never if not set). A node is
+ * revalidated by comparing the container's current
+ * {@link N5JsonCacheableContainer#getVersionFromContainer version} of the path
+ * with the version at the time it was loaded, and reloaded only if it changed.
+ * Unless nodes are revalidated on every access, the version is not requested
+ * when a node is loaded or written, but when it is first revalidated, which
+ * then reloads it. Nodes that are not used for longer than the revalidation
+ * time therefore cost no version requests. The cached children of a node are
+ * kept while its version does not change.
  */
 public class N5JsonCache {
 
+	public static final String MAX_ENTRIES_PROPERTY = "n5.cache.maxEntries";
+
+	public static final String REVALIDATE_MILLIS_PROPERTY = "n5.cache.revalidateMillis";
+
 	public static final N5CacheInfo emptyCacheInfo = new N5CacheInfo();
 
 	public static final EmptyJson emptyJson = new EmptyJson();
 
+	/**
+	 * Stands in for cached {@code null} attributes, because
+	 * {@link ConcurrentHashMap} does not permit {@code null} values.
+	 */
+	private static final EmptyJson nullJson = new EmptyJson();
+
 	protected final N5JsonCacheableContainer container;
 
 	/**
@@ -29,25 +64,31 @@ public class N5JsonCache {
 	 */
 	protected static class N5CacheInfo {
 
-		protected final HashMap<String, JsonElement> attributesCache = new HashMap<>();
-		protected LinkedHashSet<String> children = null;
-		protected boolean isDataset = false;
-		protected boolean isGroup = false;
+		protected final Map<String, JsonElement> attributesCache = new ConcurrentHashMap<>();
+		protected volatile Set<String> children = null;
+		protected volatile boolean isDataset = false;
+		protected volatile boolean isGroup = false;
+
+		/**
+		 * {@link DatasetAttributes} created from cached attributes, reset
+		 * whenever these attributes change.
+		 */
+		protected volatile CachedDatasetAttributes datasetAttributes = null;
+
+		/**
+		 * Whether the node was used since the eviction clock last passed it.
+		 */
+		protected volatile boolean referenced = false;
 
 		public JsonElement getCache(final String normalCacheKey) {
 
-			// synchronize the method instead?
-			synchronized (attributesCache) {
-				return attributesCache.get(normalCacheKey);
-			}
+			final JsonElement attributes = attributesCache.get(normalCacheKey);
+			return attributes == nullJson ? null : attributes;
 		}
 
 		public boolean containsKey(final String normalCacheKey) {
 
-			// synchronize the method instead?
-			synchronized (attributesCache) {
-				return attributesCache.containsKey(normalCacheKey);
-			}
+			return attributesCache.containsKey(normalCacheKey);
 		}
 
 		public boolean isDataset() {
@@ -61,6 +102,33 @@ public class N5JsonCache {
 		}
 	}
 
+	protected static class CachedDatasetAttributes {
+
+		protected final String normalCacheKey;
+		protected final DatasetAttributes datasetAttributes;
+
+		protected CachedDatasetAttributes(final String normalCacheKey, final DatasetAttributes datasetAttributes) {
+
+			this.normalCacheKey = normalCacheKey;
+			this.datasetAttributes = datasetAttributes;
+		}
+	}
+
+	/**
+	 * The version of a path when it was last loaded, written, or revalidated.
+	 */
+	private static class Validation {
+
+		final long time;
+		final String version;
+
+		Validation(final long time, final String version) {
+
+			this.time = time;
+			this.version = version;
+		}
+	}
+
 	@SuppressWarnings("deprecation")
 	protected static class EmptyJson extends JsonElement {
 
@@ -72,50 +140,247 @@ public class N5JsonCache {
 
 	}
 
-	private final HashMap<String, N5JsonCache.N5CacheInfo> containerPathToCache = new HashMap<>();
+	private final ConcurrentHashMap<String, N5JsonCache.N5CacheInfo> containerPathToCache = new ConcurrentHashMap<>();
+
+	/**
+	 * The cached paths in order, to find the cached descendants of a path.
+	 * Updated atomically with {@link #containerPathToCache} when paths are
+	 * added or evicted.
+	 */
+	private final ConcurrentSkipListSet<String> cachedPaths = new ConcurrentSkipListSet<>();
+
+	/**
+	 * Cached paths in the order the eviction clock visits them, only used if
+	 * the cache is bounded.
+	 */
+	private final ConcurrentLinkedQueue<String> clock = new ConcurrentLinkedQueue<>();
+
+	private final long maxEntries;
+
+	private final long revalidateAfterNanos;
+
+	private final ConcurrentHashMap<String, Validation> validations = new ConcurrentHashMap<>();
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
 
 	public N5JsonCache(final N5JsonCacheableContainer container) {
 
+		this(container, Long.getLong(MAX_ENTRIES_PROPERTY, Long.MAX_VALUE));
+	}
+
+	/**
+	 * @param container
+	 *            the cached container
+	 * @param maxEntries
+	 *            maximum number of cached nodes (paths)
+	 */
+	public N5JsonCache(final N5JsonCacheableContainer container, final long maxEntries) {
+
+		this(container, maxEntries, Long.getLong(REVALIDATE_MILLIS_PROPERTY, -1));
+	}
+
+	/**
+	 * @param container
+	 *            the cached container
+	 * @param maxEntries
+	 *            maximum number of cached nodes (paths)
+	 * @param revalidateAfterMillis
+	 *            age in milliseconds after which a cached node is revalidated
+	 *            against the container, 0 to revalidate on every access, or
+	 *            negative to never revalidate
+	 */
+	public N5JsonCache(final N5JsonCacheableContainer container, final long maxEntries, final long revalidateAfterMillis) {
+
+		if (maxEntries < 1)
+			throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+
 		this.container = container;
+		this.maxEntries = maxEntries;
+		this.revalidateAfterNanos = revalidateAfterMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(revalidateAfterMillis);
 	}
 
-	public JsonElement getAttributes(final String normalPathKey, final String normalCacheKey) {
+	/**
+	 * @return the maximum number of cached nodes
+	 */
+	public long getMaxEntries() {
 
-		N5CacheInfo cacheInfo = getCacheInfo(normalPathKey);
-		if (cacheInfo == null) {
-			addNewCacheInfo(normalPathKey, normalCacheKey, null);
-			cacheInfo = getCacheInfo(normalPathKey);
+		return maxEntries;
+	}
+
+	/**
+	 * @return the age in milliseconds after which cached nodes are
+	 *         revalidated, or -1 if they are never revalidated
+	 */
+	public long getRevalidateAfterMillis() {
+
+		return revalidateAfterNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(revalidateAfterNanos);
+	}
+
+	/**
+	 * @return the number of cached nodes
+	 */
+	public int size() {
+
+		return containerPathToCache.size();
+	}
+
+	/**
+	 * @return the number of lookups of a path that was cached
+	 */
+	public long getHitCount() {
+
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of lookups of a path that was not cached and had to
+	 *         be read from the container
+	 */
+	public long getMissCount() {
+
+		return misses.sum();
+	}
+
+	/**
+	 * @return the number of nodes evicted because the cache was full
+	 */
+	public long getEvictionCount() {
+
+		return evictions.sum();
+	}
+
+	/**
+	 * Returns the cache node for a path, creating it from the container if
+	 * it is not cached.
+	 */
+	private N5CacheInfo lookup(final String normalPathKey, final String normalCacheKey) {
+
+		final N5CacheInfo cacheInfo = getCacheInfo(normalPathKey);
+		if (revalidateAfterNanos < 0) {
+			if (cacheInfo != null) {
+				hits.increment();
+				return cacheInfo;
+			}
+			misses.increment();
+			return addNewCacheInfo(normalPathKey, normalCacheKey, null);
 		}
-		if (cacheInfo == emptyCacheInfo || cacheInfo.getCache(normalCacheKey) == emptyJson) {
-			return null;
+
+		final long now = System.nanoTime();
+		final Validation validation = validations.get(normalPathKey);
+		if (cacheInfo != null && validation != null && now - validation.time < revalidateAfterNanos) {
+			hits.increment();
+			return cacheInfo;
+		}
+
+		// the version of a node that is loaded for the first time is requested
+		// when it is first revalidated, unless that is right away
+		final String version = cacheInfo != null || revalidateAfterNanos == 0
+				? container.getVersionFromContainer(normalPathKey, validation == null ? null : validation.version)
+				: null;
+		if (cacheInfo != null && validation != null && version != null && version.equals(validation.version)) {
+			validations.put(normalPathKey, new Validation(now, version));
+			hits.increment();
+			return cacheInfo;
 		}
+
+		// not cached, or changed since it was cached, the loaded node replaces the cached node
+		misses.increment();
+		final N5CacheInfo loaded = addNewCacheInfo(normalPathKey, normalCacheKey, null);
+		validations.put(normalPathKey, new Validation(now, version));
+		return loaded;
+	}
+
+	/**
+	 * Makes sure that the attributes for {@code normalCacheKey} are cached in
+	 * {@code cacheInfo}, and returns the node holding them.
+	 */
+	private N5CacheInfo withAttributes(final N5CacheInfo cacheInfo, final String normalPathKey, final String normalCacheKey) {
+
+		if (cacheInfo.containsKey(normalCacheKey))
+			return cacheInfo;
+
 		synchronized (cacheInfo) {
-			if (!cacheInfo.containsKey(normalCacheKey)) {
-				updateCacheInfo(normalPathKey, normalCacheKey, null);
-			}
+			if (!cacheInfo.containsKey(normalCacheKey))
+				loadCacheInfo(normalPathKey, normalCacheKey, null);
 		}
+		if (cacheInfo.containsKey(normalCacheKey))
+			return cacheInfo;
+
+		// the node was evicted concurrently, use the node that was updated
+		final N5CacheInfo updated = getCacheInfo(normalPathKey);
+		return updated == null ? cacheInfo : updated;
+	}
 
-		final JsonElement output = cacheInfo.getCache(normalCacheKey);
+	public JsonElement getAttributes(final String normalPathKey, final String normalCacheKey) {
+
+		final N5CacheInfo cacheInfo = lookup(normalPathKey, normalCacheKey);
+		if (cacheInfo == emptyCacheInfo || cacheInfo.getCache(normalCacheKey) == emptyJson) {
+			return null;
+		}
+		final JsonElement output = withAttributes(cacheInfo, normalPathKey, normalCacheKey).getCache(normalCacheKey);
 		return output == null ? null : output.deepCopy();
 	}
 
 	public boolean isDataset(final String normalPathKey, final String normalCacheKey) {
 
-		N5CacheInfo cacheInfo = getCacheInfo(normalPathKey);
-		if (cacheInfo == null) {
-			addNewCacheInfo(normalPathKey, normalCacheKey, null);
-			cacheInfo = getCacheInfo(normalPathKey);
-		}
+		final N5CacheInfo cacheInfo = lookup(normalPathKey, normalCacheKey);
 		return cacheInfo.isDataset;
 	}
 
-	public boolean isGroup(final String normalPathKey, final String cacheKey) {
+	/**
+	 * Returns the {@link DatasetAttributes} of a dataset, or null if the path
+	 * is not a dataset.
+	 * <p>
+	 * The {@code DatasetAttributes} are created once from the cached
+	 * attributes, and returned until the attributes of this path change.
+	 *
+	 * @param normalPathKey
+	 *            the container path
+	 * @param normalCacheKey
+	 *            the cache key / resource
+	 * @return the dataset attributes
+	 */
+	public DatasetAttributes getDatasetAttributes(final String normalPathKey, final String normalCacheKey) {
 
-		N5CacheInfo cacheInfo = getCacheInfo(normalPathKey);
-		if (cacheInfo == null) {
-			addNewCacheInfo(normalPathKey, cacheKey, null);
-			cacheInfo = getCacheInfo(normalPathKey);
+		final N5CacheInfo cacheInfo = lookup(normalPathKey, normalCacheKey);
+		if (cacheInfo == emptyCacheInfo || !cacheInfo.isDataset)
+			return null;
+
+		final CachedDatasetAttributes cached = cacheInfo.datasetAttributes;
+		if (cached != null && cached.normalCacheKey.equals(normalCacheKey))
+			return cached.datasetAttributes;
+
+		final N5CacheInfo info = withAttributes(cacheInfo, normalPathKey, normalCacheKey);
+		final JsonElement attributes = info.getCache(normalCacheKey);
+		if (attributes == null || attributes == emptyJson)
+			return null;
+
+		return createDatasetAttributes(info, normalCacheKey, attributes);
+	}
+
+	private DatasetAttributes createDatasetAttributes(
+			final N5CacheInfo cacheInfo,
+			final String normalCacheKey,
+			final JsonElement attributes) {
+
+		final DatasetAttributes datasetAttributes = container.getDatasetAttributesFromAttributes(normalCacheKey, attributes);
+		synchronized (cacheInfo.attributesCache) {
+			// only cache if the attributes did not change in the meantime
+			if (datasetAttributes != null && cacheInfo.attributesCache.get(normalCacheKey) == attributes)
+				cacheInfo.datasetAttributes = new CachedDatasetAttributes(normalCacheKey, datasetAttributes);
 		}
+		return datasetAttributes;
+	}
+
+	public boolean isGroup(final String normalPathKey, final String cacheKey) {
+
+		final N5CacheInfo cacheInfo = lookup(normalPathKey, cacheKey);
 		return cacheInfo.isGroup;
 	}
 
@@ -130,32 +395,20 @@ public class N5JsonCache {
 	 */
 	public boolean exists(final String normalPathKey, final String normalCacheKey) {
 
-		N5CacheInfo cacheInfo = getCacheInfo(normalPathKey);
-		if (cacheInfo == null) {
-			addNewCacheInfo(normalPathKey, normalCacheKey, null);
-			cacheInfo = getCacheInfo(normalPathKey);
-		}
+		final N5CacheInfo cacheInfo = lookup(normalPathKey, normalCacheKey);
 		return cacheInfo != emptyCacheInfo;
 	}
 
 	public String[] list(final String normalPathKey) {
 
-		N5CacheInfo cacheInfo = getCacheInfo(normalPathKey);
-		if (cacheInfo == null) {
-			addNewCacheInfo(normalPathKey);
-			cacheInfo = getCacheInfo(normalPathKey);
-		}
+		final N5CacheInfo cacheInfo = lookup(normalPathKey, null);
 		if (cacheInfo == emptyCacheInfo)
 			throw new N5Exception.N5IOException(normalPathKey + " is not a valid group");
 
 		if (cacheInfo.children == null)
 			addChild(cacheInfo, normalPathKey);
 
-		final String[] children = new String[cacheInfo.children.size()];
-		int i = 0;
-		for (final String child : cacheInfo.children) {
-			children[i++] = child;
-		}
+		final String[] children = cacheInfo.children.toArray(new String[0]);
 		Arrays.sort(children);
 		return children;
 	}
@@ -198,18 +451,21 @@ public class N5JsonCache {
 		return cacheInfo;
 	}
 
-	private N5CacheInfo addNewCacheInfo(final String normalPathKey) {
+	private void addChild(final N5CacheInfo cacheInfo, final String normalPathKey) {
 
-		return addNewCacheInfo(normalPathKey, null, null);
+		final Set<String> children = newChildren();
+		Collections.addAll(children, container.listFromContainer(normalPathKey));
+		synchronized (cacheInfo) {
+			if (cacheInfo.children == null)
+				cacheInfo.children = children;
+			else
+				cacheInfo.children.addAll(children);
+		}
 	}
 
-	private void addChild(final N5CacheInfo cacheInfo, final String normalPathKey) {
+	private static Set<String> newChildren() {
 
-		if (cacheInfo.children == null)
-			cacheInfo.children = new LinkedHashSet<>();
-
-		final String[] children = container.listFromContainer(normalPathKey);
-		Collections.addAll(cacheInfo.children, children);
+		return ConcurrentHashMap.newKeySet();
 	}
 
 	protected N5CacheInfo getOrMakeCacheInfo(final String normalPathKey) {
@@ -237,7 +493,7 @@ public class N5JsonCache {
 	public void updateCacheInfo(final String normalPathKey, final String normalCacheKey) {
 
 		final N5CacheInfo cacheInfo = getOrMakeCacheInfo(normalPathKey);
-		final JsonElement attrs = cacheInfo.attributesCache.get(normalCacheKey);
+		final JsonElement attrs = cacheInfo.getCache(normalCacheKey);
 		updateCacheInfo(normalPathKey, normalCacheKey, attrs);
 	}
 
@@ -258,6 +514,15 @@ public class N5JsonCache {
 			final String normalCacheKey,
 			final JsonElement uncachedAttributes) {
 
+		loadCacheInfo(normalPathKey, normalCacheKey, uncachedAttributes);
+		written(normalPathKey);
+	}
+
+	private void loadCacheInfo(
+			final String normalPathKey,
+			final String normalCacheKey,
+			final JsonElement uncachedAttributes) {
+
 		final N5CacheInfo cacheInfo = getOrMakeCacheInfo(normalPathKey);
 		if (normalCacheKey != null) {
 			final JsonElement attributesToCache = uncachedAttributes == null
@@ -286,6 +551,37 @@ public class N5JsonCache {
 		}
 	}
 
+	/**
+	 * Caches a node from consolidated metadata, replacing a cached node at the
+	 * same path. Does not query the container.
+	 *
+	 * @param normalPathKey
+	 *            the normalized path key
+	 * @param normalCacheKey
+	 *            the normalized cache key
+	 * @param attributes
+	 *            the attributes, may be null
+	 * @param children
+	 *            the children, or null if they are not known
+	 */
+	public void addConsolidatedNode(
+			final String normalPathKey,
+			final String normalCacheKey,
+			final JsonElement attributes,
+			final String[] children) {
+
+		final N5CacheInfo cacheInfo = newCacheInfo();
+		updateCacheAttributes(cacheInfo, normalCacheKey, attributes);
+		updateCacheIsGroup(cacheInfo, container.isGroupFromAttributes(normalCacheKey, attributes));
+		updateCacheIsDataset(cacheInfo, container.isDatasetFromAttributes(normalCacheKey, attributes));
+		if (children != null) {
+			final Set<String> childSet = newChildren();
+			Collections.addAll(childSet, children);
+			cacheInfo.children = childSet;
+		}
+		updateCache(normalPathKey, cacheInfo);
+	}
+
 	public void setAttributes(final String normalPathKey, final String normalCacheKey, final JsonElement attributes) {
 
 		N5CacheInfo cacheInfo = getCacheInfo(normalPathKey);
@@ -303,6 +599,23 @@ public class N5JsonCache {
 
 		if (update)
 			updateCache(normalPathKey, cacheInfo);
+
+		written(normalPathKey);
+	}
+
+	/**
+	 * Records that a path was written through this cache's container, such
+	 * that the cached node is not revalidated before the revalidation time
+	 * passed. If nodes are revalidated on every access, the current version
+	 * is recorded such that the node is not reloaded, unless it is changed by
+	 * others in the meantime.
+	 */
+	private void written(final String normalPathKey) {
+
+		if (revalidateAfterNanos == 0)
+			validations.put(normalPathKey, new Validation(System.nanoTime(), container.getVersionFromContainer(normalPathKey)));
+		else if (revalidateAfterNanos > 0)
+			validations.put(normalPathKey, new Validation(System.nanoTime(), null));
 	}
 
 	/**
@@ -320,8 +633,9 @@ public class N5JsonCache {
 		if (cacheInfo == null)
 			return;
 
-		if (cacheInfo.children != null)
-			cacheInfo.children.add(child);
+		final Set<String> children = cacheInfo.children;
+		if (children != null)
+			children.add(child);
 	}
 
 	/**
@@ -336,29 +650,31 @@ public class N5JsonCache {
 	public void addChild(final String parent, final String child) {
 
 		final N5CacheInfo cacheInfo = getCacheInfo(parent);
-		if (cacheInfo == null)
+		if (cacheInfo == null || cacheInfo == emptyCacheInfo)
 			return;
 
-		if (cacheInfo.children == null)
-			cacheInfo.children = new LinkedHashSet<>();
-
+		synchronized (cacheInfo) {
+			if (cacheInfo.children == null)
+				cacheInfo.children = newChildren();
+		}
 		cacheInfo.children.add(child);
 	}
 
 	public void removeCache(final String normalParentPathKey, final String normalPathKey) {
 
 		// this path and all children should be removed = set to emptyCacheInfo
-		synchronized (containerPathToCache) {
-			containerPathToCache.put(normalPathKey, emptyCacheInfo);
-			containerPathToCache.keySet().stream().filter(x -> {
-				return x.startsWith(normalPathKey + "/");
-			}).forEach(x -> {
-				containerPathToCache.put(x, emptyCacheInfo);
-			});
+		final String prefix = normalPathKey + "/";
+		updateCache(normalPathKey, emptyCacheInfo);
+		validations.remove(normalPathKey);
+		for (final String path : cachedPaths.tailSet(prefix)) {
+			if (!path.startsWith(prefix))
+				break;
+			containerPathToCache.replace(path, emptyCacheInfo);
+			validations.remove(path);
 		}
 
 		// update the parent's children, if present (remove the normalPathKey)
-		final N5CacheInfo parentCache = containerPathToCache.get(normalParentPathKey);
+		final N5CacheInfo parentCache = normalParentPathKey == null ? null : containerPathToCache.get(normalParentPathKey);
 		if (parentCache != null && parentCache.children != null) {
 			parentCache.children.remove(normalPathKey.replaceFirst(normalParentPathKey + "/", ""));
 		}
@@ -366,9 +682,14 @@ public class N5JsonCache {
 
 	protected N5CacheInfo getCacheInfo(final String pathKey) {
 
-		synchronized (containerPathToCache) {
-			return containerPathToCache.get(pathKey);
-		}
+		if (pathKey == null)
+			return null;
+
+		final N5CacheInfo cacheInfo = containerPathToCache.get(pathKey);
+		// read before write, such that hits of referenced nodes do not write
+		if (cacheInfo != null && maxEntries != Long.MAX_VALUE && !cacheInfo.referenced && cacheInfo != emptyCacheInfo)
+			cacheInfo.referenced = true;
+		return cacheInfo;
 	}
 
 	protected N5CacheInfo newCacheInfo() {
@@ -378,18 +699,113 @@ public class N5JsonCache {
 
 	protected void updateCache(final String normalPathKey, final N5CacheInfo cacheInfo) {
 
-		synchronized (containerPathToCache) {
-			containerPathToCache.put(normalPathKey, cacheInfo);
+		final boolean[] added = {false};
+		containerPathToCache.compute(normalPathKey, (path, previous) -> {
+			if (previous == null) {
+				cachedPaths.add(path);
+				if (maxEntries != Long.MAX_VALUE)
+					clock.add(path);
+				added[0] = true;
+			}
+			return cacheInfo;
+		});
+
+		if (added[0] && containerPathToCache.size() > maxEntries)
+			evict();
+	}
+
+	/**
+	 * Evicts leaf nodes, i.e., nodes without cached descendants, until the
+	 * cache holds at most 90% of {@link #maxEntries} nodes. Evicting in batches
+	 * amortizes locking.
+	 */
+	private void evict() {
+
+		// only one thread evicts, others proceed; the size is checked again
+		// after unlocking so that entries added meanwhile are not missed
+		while (containerPathToCache.size() > maxEntries && evictionLock.tryLock()) {
+			final boolean evicted;
+			try {
+				evicted = evictLeaves();
+			} finally {
+				evictionLock.unlock();
+			}
+			// only parents are left
+			if (!evicted)
+				return;
 		}
 	}
 
+	/**
+	 * Advances the eviction clock: nodes that were used since the clock last
+	 * passed them get a second chance, nodes with cached descendants are
+	 * kept, other nodes are evicted. Nodes that are cached as non-existent
+	 * are never referenced and evicted on the first pass.
+	 */
+	private boolean evictLeaves() {
+
+		final long target = maxEntries - maxEntries / 10;
+		boolean evicted = false;
+		// every node is passed at most twice
+		for (long steps = 2L * containerPathToCache.size(); steps > 0 && containerPathToCache.size() > target; --steps) {
+			final String path = clock.poll();
+			if (path == null)
+				break;
+
+			final N5CacheInfo cacheInfo = containerPathToCache.get(path);
+			if (cacheInfo == null)
+				continue;
+
+			if (cacheInfo.referenced) {
+				cacheInfo.referenced = false;
+				clock.add(path);
+			} else if (hasCachedDescendants(path) || !remove(path, cacheInfo)) {
+				clock.add(path);
+			} else {
+				validations.remove(path);
+				evictions.increment();
+				evicted = true;
+			}
+		}
+		return evicted;
+	}
+
+	private boolean hasCachedDescendants(final String normalPathKey) {
+
+		if (normalPathKey.isEmpty())
+			return cachedPaths.higher(normalPathKey) != null;
+
+		final String prefix = normalPathKey + "/";
+		final String next = cachedPaths.ceiling(prefix);
+		return next != null && next.startsWith(prefix);
+	}
+
+	/**
+	 * Removes a node if it is still mapped to {@code cacheInfo}.
+	 */
+	private boolean remove(final String normalPathKey, final N5CacheInfo cacheInfo) {
+
+		final boolean[] removed = {false};
+		containerPathToCache.computeIfPresent(normalPathKey, (path, current) -> {
+			if (current != cacheInfo)
+				return current;
+			cachedPaths.remove(path);
+			removed[0] = true;
+			return null;
+		});
+		return removed[0];
+	}
+
 	protected void updateCacheAttributes(
 			final N5CacheInfo cacheInfo,
 			final String normalCacheKey,
 			final JsonElement attributes) {
 
 		synchronized (cacheInfo.attributesCache) {
-			cacheInfo.attributesCache.put(normalCacheKey, attributes);
+			cacheInfo.attributesCache.put(normalCacheKey, attributes == null ? nullJson : attributes);
+			final CachedDatasetAttributes cached = cacheInfo.datasetAttributes;
+			if (cached != null && cached.normalCacheKey.equals(normalCacheKey))
+				cacheInfo.datasetAttributes = null;
 		}
 	}
 
@@ -1,6 +1,7 @@
 package org.janelia.saalfeldlab.n5.cache;
 
 import org.janelia.saalfeldlab.n5.CachedGsonKeyValueN5Reader;
+import org.janelia.saalfeldlab.n5.DatasetAttributes;
 import org.janelia.saalfeldlab.n5.GsonKeyValueN5Reader;
 import org.janelia.saalfeldlab.n5.N5Reader;
 
@@ -88,6 +89,59 @@ public interface N5JsonCacheableContainer {
 	 */
 	boolean isDatasetFromAttributes(final String normalCacheKey, final JsonElement attributes);
 
+	/**
+	 * Returns the {@link DatasetAttributes} described by the given attributes
+	 * for the given cache key, or null if they do not describe a dataset.
+	 * <p>
+	 * Should not call the backing storage. The returned instance is cached
+	 * until the attributes change.
+	 *
+	 * @param normalCacheKey
+	 *            the cache key
+	 * @param attributes
+	 *            the attributes
+	 * @return the dataset attributes
+	 */
+	default DatasetAttributes getDatasetAttributesFromAttributes(final String normalCacheKey, final JsonElement attributes) {
+
+		return null;
+	}
+
+	/**
+	 * Returns a token that changes whenever the attributes or children of a
+	 * path change, used to revalidate cached nodes (see
+	 * {@link N5JsonCache#getRevalidateAfterMillis()}).
+	 * <p>
+	 * Should be cheap compared to reading the attributes, e.g. a file's
+	 * modification time. Returns null if changes can not be detected, in
+	 * which case cached nodes are reloaded whenever they are revalidated.
+	 *
+	 * @param normalPathName
+	 *            the normalized path name
+	 * @return the version, or null
+	 */
+	default String getVersionFromContainer(final String normalPathName) {
+
+		return null;
+	}
+
+	/**
+	 * Returns the current version of a path like
+	 * {@link #getVersionFromContainer(String)}, given the version that was
+	 * returned for it earlier, which allows containers to check whether it
+	 * changed with a single conditional request.
+	 *
+	 * @param normalPathName
+	 *            the normalized path name
+	 * @param knownVersion
+	 *            the version returned earlier, or null
+	 * @return the version, or null
+	 */
+	default String getVersionFromContainer(final String normalPathName, final String knownVersion) {
+
+		return getVersionFromContainer(normalPathName);
+	}
+
 	/**
 	 * List the children of a path for this container.
 	 *
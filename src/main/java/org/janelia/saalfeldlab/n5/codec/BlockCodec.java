@@ -53,6 +53,65 @@ public interface BlockCodec<T> {
 	 */
 	DataBlock<T> decode(ReadData readData, long[] gridPosition) throws N5IOException;
 
+	/**
+	 * Deserializes the sub-box {@code [min, min + size)} of a {@link
+	 * DataBlock} from its {@link ReadData} representation.
+	 * <p>
+	 * The returned {@code DataBlock} has the given {@code gridPosition} and
+	 * {@link DataBlock#getSize() size} {@code size}, its data contains the
+	 * elements of the sub-box in flattened order.
+	 * <p>
+	 * If the block is stored uncompressed with fixed-size elements, only the
+	 * byte ranges covering the sub-box are {@link ReadData#slice sliced} from
+	 * {@code readData}, e.g., for a single XY plane of a 3D block. Otherwise,
+	 * the whole block is decoded and the sub-box is copied. This is what the
+	 * default implementation does.
+	 *
+	 * @param readData
+	 *            the serialized data to decode
+	 * @param gridPosition
+	 *            position of this block on the block grid (level 0 coordinates)
+	 * @param min
+	 *            min of the sub-box, relative to the block
+	 * @param size
+	 *            size of the sub-box
+	 *
+	 * @return data block containing the sub-box
+	 *
+	 * @throws N5IOException
+	 *             if decoding, decompression, or data validation fails
+	 * @throws IndexOutOfBoundsException
+	 *             if the sub-box is not contained in the block
+	 * @throws UnsupportedOperationException
+	 *             if the decoded block data is not a primitive or
+	 *             {@code String} array
+	 *
+	 * @see #decode(ReadData, long[])
+	 */
+	default DataBlock<T> decode(ReadData readData, long[] gridPosition, int[] min, int[] size) throws N5IOException {
+
+		return SubBlocks.crop(decode(readData, gridPosition), min, size);
+	}
+
+	/**
+	 * Returns the size of the block encoded in {@code readData} if {@link
+	 * #decode(ReadData, long[], int[], int[])} can decode sub-boxes of it
+	 * without decoding the whole block, or {@code null} otherwise. Use it to
+	 * check that a sub-box is contained in the block before decoding it.
+	 *
+	 * @param readData
+	 *            the serialized data
+	 *
+	 * @return size of the encoded block, or {@code null}
+	 *
+	 * @throws N5IOException
+	 *             if the block size cannot be read
+	 */
+	default int[] subBoxBlockSize(ReadData readData) throws N5IOException {
+
+		return null;
+	}
+
 	/**
 	 * Given the {@code blockSize} of a {@code DataBlock<T>} return the size of
 	 * the encoded block in bytes.
@@ -32,4 +32,14 @@ class ConcatenatedDataCodec implements DataCodec {
 		}
 		return readData;
 	}
+
+	@Override
+	public boolean isIdentity() {
+
+		for (DataCodec codec : codecs) {
+			if (!codec.isIdentity())
+				return false;
+		}
+		return true;
+	}
 }
@@ -43,6 +43,19 @@ public interface DataCodec {
 	 */
 	ReadData encode(ReadData readData) throws N5IOException;
 
+	/**
+	 * Returns {@code true} if this {@code DataCodec} returns data unchanged
+	 * for both encoding and decoding. Then, the encoded bytes are the decoded
+	 * bytes, and ranges of the decoded data can be read directly from the
+	 * encoded {@link ReadData}.
+	 *
+	 * @return whether this codec is the identity
+	 */
+	default boolean isIdentity() {
+
+		return false;
+	}
+
 	/**
 	 * Create a {@code DataCodec} that sequentially applies {@code codecs} in
 	 * the given order for encoding, and in reverse order for decoding.
@@ -1,6 +1,7 @@
 package org.janelia.saalfeldlab.n5.codec;
 
 import org.janelia.saalfeldlab.n5.DataBlock;
+import org.janelia.saalfeldlab.n5.DataType;
 import org.janelia.saalfeldlab.n5.DatasetAttributes;
 import org.janelia.saalfeldlab.n5.codec.transpose.TransposeCodec;
 import org.janelia.saalfeldlab.n5.serialization.NameConfig;
@@ -13,4 +14,18 @@ import org.janelia.saalfeldlab.n5.serialization.NameConfig;
 public interface DatasetCodecInfo extends CodecInfo {
 
 	DatasetCodec<?, ?> create(final DatasetAttributes attributes);
+
+	/**
+	 * Returns the {@link DataType} of blocks encoded by this codec, given the
+	 * {@code DataType} of the decoded blocks. Most {@code DatasetCodec}s do not
+	 * change the type of a block.
+	 *
+	 * @param dataType
+	 *            the data type of decoded blocks
+	 * @return the data type of encoded blocks
+	 */
+	default DataType getEncodedDataType(final DataType dataType) {
+
+		return dataType;
+	}
 }
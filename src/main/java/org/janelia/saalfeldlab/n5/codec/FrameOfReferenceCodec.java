@@ -0,0 +1,510 @@
+package org.janelia.saalfeldlab.n5.codec;
+
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+import org.janelia.saalfeldlab.n5.N5Exception;
+import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.janelia.saalfeldlab.n5.serialization.NameConfig;
+
+/**
+ * A {@link DataCodec} for integer data that applies (optional) delta coding
+ * followed by frame-of-reference bit-packing.
+ * <p>
+ * The input is interpreted as a flat sequence of unsigned integers of
+ * {@code elementSize} bytes each, in the given {@code endian} byte order. This
+ * is the output of {@link FlatArrayCodec} for integer types, so this codec is
+ * placed directly after the block codec and can be followed by any
+ * compressor, e.g.
+ * <pre>
+ * [n5bytes, n5-frame-of-reference, gzip]
+ * </pre>
+ * With {@code delta} enabled, consecutive differences are zig-zag encoded,
+ * such that runs of identical values pack into zero bits. The sequence is
+ * split into frames of {@code frameSize} elements. Each frame stores its
+ * minimum (the reference) and the number of bits needed to store all values
+ * relative to that reference. If smaller, a frame instead stores a lookup
+ * table of its distinct values and bit-packed indices into that table
+ * (similar to compressed segmentation), which suits label and segmentation
+ * volumes with few, sparse label ids per frame.
+ * <p>
+ * Encoded layout (all multi-byte values big endian):
+ * <pre>
+ * int32   numElements
+ * frame*  { uint8 numBits, int64 reference, packed values }
+ *       | { uint8 0x80 | numBits, uint16 tableSize, int64[tableSize] table, packed indices }
+ * </pre>
+ * Packed values are written LSB first, each frame starts byte aligned.
+ * <p>
+ * {@link #decode(byte[], int, long[])} decodes directly into a
+ * caller-provided {@code long[]} without allocating.
+ */
+@NameConfig.Name(FrameOfReferenceCodec.TYPE)
+public class FrameOfReferenceCodec implements DataCodec, DataCodecInfo {
+
+	private static final long serialVersionUID = -3106468563812493718L;
+
+	public static final String TYPE = "n5-frame-of-reference";
+
+	private static final int DEFAULT_FRAME_SIZE = 128;
+
+	private static final int MAX_TABLE_SIZE = 256;
+
+	private static final int TABLE_FLAG = 0x80;
+
+	@NameConfig.Parameter
+	private final int elementSize;
+
+	@NameConfig.Parameter(optional = true)
+	private final String endian;
+
+	@NameConfig.Parameter(optional = true)
+	private final boolean delta;
+
+	@NameConfig.Parameter(optional = true)
+	private final int frameSize;
+
+	public FrameOfReferenceCodec() {
+
+		// for serialization
+		this(8);
+	}
+
+	public FrameOfReferenceCodec(final int elementSize) {
+
+		this(elementSize, ByteOrder.BIG_ENDIAN, true, DEFAULT_FRAME_SIZE);
+	}
+
+	public FrameOfReferenceCodec(final int elementSize, final ByteOrder byteOrder) {
+
+		this(elementSize, byteOrder, true, DEFAULT_FRAME_SIZE);
+	}
+
+	public FrameOfReferenceCodec(
+			final int elementSize,
+			final ByteOrder byteOrder,
+			final boolean delta,
+			final int frameSize) {
+
+		this.elementSize = elementSize;
+		this.endian = ByteOrder.LITTLE_ENDIAN.equals(byteOrder) ? "little" : "big";
+		this.delta = delta;
+		this.frameSize = frameSize;
+	}
+
+	@Override
+	public String getType() {
+
+		return TYPE;
+	}
+
+	public int getElementSize() {
+
+		return elementSize;
+	}
+
+	public ByteOrder getByteOrder() {
+
+		return isLittleEndian() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+	}
+
+	public boolean isDelta() {
+
+		return delta;
+	}
+
+	public int getFrameSize() {
+
+		return frameSize;
+	}
+
+	private boolean isLittleEndian() {
+
+		return "little".equals(endian);
+	}
+
+	private void validate() {
+
+		switch (elementSize) {
+		case 1:
+		case 2:
+		case 4:
+		case 8:
+			break;
+		default:
+			throw new N5Exception("Invalid elementSize " + elementSize + " for " + TYPE + " codec, must be 1, 2, 4, or 8");
+		}
+		if (frameSize <= 0)
+			throw new N5Exception("Invalid frameSize " + frameSize + " for " + TYPE + " codec, must be positive");
+	}
+
+	@Override
+	public DataCodec create() {
+
+		validate();
+		return this;
+	}
+
+	@Override
+	public ReadData encode(final ReadData readData) throws N5IOException {
+
+		validate();
+		final byte[] src = readData.allBytes();
+		if (src.length % elementSize != 0)
+			throw new N5IOException("Data length " + src.length + " is not a multiple of elementSize " + elementSize);
+
+		final int n = src.length / elementSize;
+		final int maxFrameLength = Math.min(n, frameSize);
+		final long[] raw = new long[maxFrameLength];
+		final long[] values = new long[maxFrameLength];
+		final long[] table = new long[MAX_TABLE_SIZE];
+		final byte[] dst = new byte[maxEncodedSize(n, frameSize)];
+
+		writeInt(dst, 0, n);
+		int pos = 4;
+		long previous = 0;
+		for (int frameStart = 0; frameStart < n; frameStart += frameSize) {
+			final int frameLength = Math.min(frameSize, n - frameStart);
+			long min = -1L;
+			long max = 0;
+			for (int i = 0; i < frameLength; ++i) {
+				final long value = readElement(src, (frameStart + i) * elementSize);
+				final long v;
+				if (delta) {
+					final long d = value - previous;
+					previous = value;
+					v = (d << 1) ^ (d >> 63);
+				} else
+					v = value;
+				raw[i] = value;
+				values[i] = v;
+				if (Long.compareUnsigned(v, min) < 0)
+					min = v;
+				if (Long.compareUnsigned(v, max) > 0)
+					max = v;
+			}
+
+			final int numBits = bitsRequired(max - min);
+			final int forSize = 8 + packedSize(frameLength, numBits);
+			final int tableSize = lookupTable(raw, frameLength, table, forSize);
+			final int indexBits = bitsRequired(tableSize - 1);
+			long bitPos;
+			if (tableSize > 0 && 2 + tableSize * 8 + packedSize(frameLength, indexBits) < forSize) {
+				dst[pos++] = (byte)(TABLE_FLAG | indexBits);
+				dst[pos++] = (byte)(tableSize >>> 8);
+				dst[pos++] = (byte)tableSize;
+				for (int j = 0; j < tableSize; ++j, pos += 8)
+					writeLong(dst, pos, table[j]);
+				bitPos = (long)pos << 3;
+				if (indexBits > 0) {
+					for (int i = 0; i < frameLength; ++i) {
+						writeBits(dst, bitPos, indexBits, indexOf(table, tableSize, raw[i]));
+						bitPos += indexBits;
+					}
+				}
+				pos += packedSize(frameLength, indexBits);
+			} else {
+				dst[pos] = (byte)numBits;
+				writeLong(dst, pos + 1, min);
+				pos += 9;
+				bitPos = (long)pos << 3;
+				if (numBits > 0) {
+					for (int i = 0; i < frameLength; ++i) {
+						writeBits(dst, bitPos, numBits, values[i] - min);
+						bitPos += numBits;
+					}
+				}
+				pos += packedSize(frameLength, numBits);
+			}
+		}
+		return ReadData.from(dst, 0, pos);
+	}
+
+	@Override
+	public ReadData decode(final ReadData readData) throws N5IOException {
+
+		final byte[] src = readData.allBytes();
+		final int n = numElements(src, 0);
+		final long[] values = new long[n];
+		decode(src, 0, values);
+
+		final byte[] dst = new byte[n * elementSize];
+		for (int i = 0; i < n; ++i)
+			writeElement(dst, i * elementSize, values[i]);
+		return ReadData.from(dst);
+	}
+
+	/**
+	 * Decode the encoded {@code readData} into {@code values}.
+	 * <p>
+	 * This allocates only if {@code readData} is not already backed by a
+	 * {@code byte[]} array of exactly its length.
+	 *
+	 * @param readData
+	 *            the encoded data
+	 * @param values
+	 *            the destination, must hold at least {@link #numElements}
+	 *            values
+	 * @return the number of decoded values
+	 * @throws N5IOException
+	 *             if the encoded data is malformed
+	 */
+	public int decode(final ReadData readData, final long[] values) throws N5IOException {
+
+		return decode(readData.allBytes(), 0, values);
+	}
+
+	/**
+	 * Decode the encoded data starting at {@code offset} in {@code src} into
+	 * {@code values} without allocating. Values narrower than 8 bytes are
+	 * zero-extended.
+	 *
+	 * @param src
+	 *            the encoded data
+	 * @param offset
+	 *            the offset of the encoded data in {@code src}
+	 * @param values
+	 *            the destination, must hold at least {@link #numElements}
+	 *            values
+	 * @return the number of decoded values
+	 * @throws N5IOException
+	 *             if the encoded data is malformed
+	 */
+	public int decode(final byte[] src, final int offset, final long[] values) throws N5IOException {
+
+		final int n = numElements(src, offset);
+		if (values.length < n)
+			throw new IllegalArgumentException("Destination holds " + values.length + " values, but " + n + " are required");
+
+		final long mask = elementSize == 8 ? -1L : (1L << (elementSize << 3)) - 1;
+		int pos = offset + 4;
+		long previous = 0;
+		for (int frameStart = 0; frameStart < n; frameStart += frameSize) {
+			final int frameEnd = frameStart + Math.min(frameSize, n - frameStart);
+			requireAvailable(src, pos, 1);
+			final int tag = src[pos++] & 0xff;
+			final int numBits = tag & ~TABLE_FLAG;
+			if (numBits > 64)
+				throw new N5IOException("Invalid bit width " + numBits + " in " + TYPE + " frame");
+
+			if ((tag & TABLE_FLAG) != 0) {
+				/* lookup table of absolute values */
+				requireAvailable(src, pos, 2);
+				final int tableSize = ((src[pos] & 0xff) << 8) | (src[pos + 1] & 0xff);
+				final int tableOffset = pos + 2;
+				requireAvailable(src, tableOffset, tableSize * 8L + packedSize(frameEnd - frameStart, numBits));
+				pos = tableOffset + tableSize * 8;
+				long bitPos = (long)pos << 3;
+				for (int i = frameStart; i < frameEnd; ++i) {
+					int index = 0;
+					if (numBits > 0) {
+						index = (int)readBits(src, bitPos, numBits);
+						bitPos += numBits;
+					}
+					if (index >= tableSize)
+						throw new N5IOException("Invalid lookup table index " + index + " in " + TYPE + " frame");
+					previous = readLong(src, tableOffset + index * 8);
+					values[i] = previous & mask;
+				}
+				pos += packedSize(frameEnd - frameStart, numBits);
+			} else {
+				/* frame of reference */
+				requireAvailable(src, pos, 8L + packedSize(frameEnd - frameStart, numBits));
+				final long reference = readLong(src, pos);
+				pos += 8;
+				long bitPos = (long)pos << 3;
+				for (int i = frameStart; i < frameEnd; ++i) {
+					long v = reference;
+					if (numBits > 0) {
+						v += readBits(src, bitPos, numBits);
+						bitPos += numBits;
+					}
+					if (delta) {
+						previous += (v >>> 1) ^ -(v & 1);
+						values[i] = previous & mask;
+					} else
+						values[i] = v & mask;
+				}
+				pos += packedSize(frameEnd - frameStart, numBits);
+			}
+		}
+		return n;
+	}
+
+	private static void requireAvailable(final byte[] src, final int pos, final long length) {
+
+		if (src.length - pos < length)
+			throw new N5IOException("Truncated " + TYPE + " data");
+	}
+
+	/**
+	 * Returns the number of elements stored in the encoded {@code readData}.
+	 *
+	 * @param readData
+	 *            the encoded data
+	 * @return the number of elements
+	 */
+	public static int numElements(final ReadData readData) {
+
+		return numElements(readData.slice(0, 4).allBytes(), 0);
+	}
+
+	private static int numElements(final byte[] src, final int offset) {
+
+		if (src.length - offset < 4)
+			throw new N5IOException("Truncated " + TYPE + " data");
+		return readInt(src, offset);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+
+		if (this == obj)
+			return true;
+		if (!(obj instanceof FrameOfReferenceCodec))
+			return false;
+		final FrameOfReferenceCodec other = (FrameOfReferenceCodec)obj;
+		return elementSize == other.elementSize
+				&& isLittleEndian() == other.isLittleEndian()
+				&& delta == other.delta
+				&& frameSize == other.frameSize;
+	}
+
+	@Override
+	public int hashCode() {
+
+		return Objects.hash(elementSize, isLittleEndian(), delta, frameSize);
+	}
+
+	static int maxEncodedSize(final int n, final int frameSize) throws N5IOException {
+
+		final long numFrames = ((long)n + frameSize - 1) / frameSize;
+		final long size = 4 + numFrames * 9 + (long)n * 8;
+		if (size > Integer.MAX_VALUE)
+			throw new N5IOException("Encoding " + n + " elements with " + TYPE + " codec exceeds the maximum array size");
+		return (int)size;
+	}
+
+	private static int bitsRequired(final long range) {
+
+		return 64 - Long.numberOfLeadingZeros(range);
+	}
+
+	/**
+	 * Collect the distinct values of {@code raw} into {@code table}.
+	 *
+	 * @return the number of distinct values, or 0 if a lookup table would
+	 *         not be smaller than {@code maxSize} bytes
+	 */
+	private static int lookupTable(final long[] raw, final int n, final long[] table, final int maxSize) {
+
+		int size = 0;
+		for (int i = 0; i < n; ++i) {
+			final long value = raw[i];
+			if (i > 0 && value == raw[i - 1])
+				continue;
+			if (indexOf(table, size, value) < 0) {
+				if (size == table.length || 2 + (size + 1) * 8 >= maxSize)
+					return 0;
+				table[size++] = value;
+			}
+		}
+		return size;
+	}
+
+	private static int indexOf(final long[] table, final int size, final long value) {
+
+		for (int j = 0; j < size; ++j)
+			if (table[j] == value)
+				return j;
+		return -1;
+	}
+
+	private static int packedSize(final int frameLength, final int numBits) {
+
+		return (int)(((long)frameLength * numBits + 7) >>> 3);
+	}
+
+	private long readElement(final byte[] src, final int offset) {
+
+		long value = 0;
+		if (isLittleEndian()) {
+			for (int b = elementSize - 1; b >= 0; --b)
+				value = (value << 8) | (src[offset + b] & 0xffL);
+		} else {
+			for (int b = 0; b < elementSize; ++b)
+				value = (value << 8) | (src[offset + b] & 0xffL);
+		}
+		return value;
+	}
+
+	private void writeElement(final byte[] dst, final int offset, long value) {
+
+		if (isLittleEndian()) {
+			for (int b = 0; b < elementSize; ++b, value >>>= 8)
+				dst[offset + b] = (byte)value;
+		} else {
+			for (int b = elementSize - 1; b >= 0; --b, value >>>= 8)
+				dst[offset + b] = (byte)value;
+		}
+	}
+
+	private static long readBits(final byte[] src, long bitPos, final int numBits) {
+
+		long value = 0;
+		int read = 0;
+		while (read < numBits) {
+			final int bitOffset = (int)(bitPos & 7);
+			final int n = Math.min(8 - bitOffset, numBits - read);
+			final long bits = ((src[(int)(bitPos >>> 3)] & 0xff) >>> bitOffset) & ((1 << n) - 1);
+			value |= bits << read;
+			read += n;
+			bitPos += n;
+		}
+		return value;
+	}
+
+	private static void writeBits(final byte[] dst, long bitPos, final int numBits, final long value) {
+
+		int written = 0;
+		while (written < numBits) {
+			final int bitOffset = (int)(bitPos & 7);
+			final int n = Math.min(8 - bitOffset, numBits - written);
+			final int bits = (int)(value >>> written) & ((1 << n) - 1);
+			dst[(int)(bitPos >>> 3)] |= (byte)(bits << bitOffset);
+			written += n;
+			bitPos += n;
+		}
+	}
+
+	private static int readInt(final byte[] src, final int offset) {
+
+		return ((src[offset] & 0xff) << 24)
+				| ((src[offset + 1] & 0xff) << 16)
+				| ((src[offset + 2] & 0xff) << 8)
+				| (src[offset + 3] & 0xff);
+	}
+
+	private static void writeInt(final byte[] dst, final int offset, final int value) {
+
+		dst[offset] = (byte)(value >>> 24);
+		dst[offset + 1] = (byte)(value >>> 16);
+		dst[offset + 2] = (byte)(value >>> 8);
+		dst[offset + 3] = (byte)value;
+	}
+
+	private static long readLong(final byte[] src, final int offset) {
+
+		long value = 0;
+		for (int b = 0; b < 8; ++b)
+			value = (value << 8) | (src[offset + b] & 0xffL);
+		return value;
+	}
+
+	private static void writeLong(final byte[] dst, final int offset, long value) {
+
+		for (int b = 7; b >= 0; --b, value >>>= 8)
+			dst[offset + b] = (byte)value;
+	}
+}
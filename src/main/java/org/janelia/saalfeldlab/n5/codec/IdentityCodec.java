@@ -28,6 +28,12 @@ public class IdentityCodec implements DeterministicSizeDataCodec, DataCodecInfo
 		return readData;
 	}
 
+	@Override
+	public boolean isIdentity() {
+
+		return true;
+	}
+
 	@Override public DataCodec create() {
 
 		return this;
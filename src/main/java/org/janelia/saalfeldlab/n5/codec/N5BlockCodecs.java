@@ -5,6 +5,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import org.janelia.saalfeldlab.n5.ByteArrayDataBlock;
 import org.janelia.saalfeldlab.n5.DataBlock;
@@ -141,6 +142,56 @@ public class N5BlockCodecs {
 			final T data = dataCodec.decode(decodeData, numElements);
 			return dataBlockFactory.createDataBlock(header.blockSize(), gridPosition, data);
 		}
+
+		/**
+		 * Read the header of a block whose elements can be sliced from {@code
+		 * readData}, or return {@code null} if they can not.
+		 */
+		private BlockHeader readSliceableHeader(final ReadData readData) throws N5IOException {
+
+			if (!SubBlocks.canSlice(dataCodec, codec))
+				return null;
+
+			// read the fixed-size part of the header (mode and number of dimensions)
+			final ByteBuffer prefix = readData.slice(0, 4).toByteBuffer();
+			final short mode = prefix.getShort();
+			if (mode != MODE_DEFAULT)
+				return null;
+
+			final int headerSize = headerSizeInBytes(MODE_DEFAULT, prefix.getShort());
+			try (final InputStream in = readData.slice(0, headerSize).inputStream()) {
+				return decodeBlockHeader(in);
+			} catch (IOException e) {
+				throw new N5IOException(e);
+			}
+		}
+
+		@Override
+		public int[] subBoxBlockSize(final ReadData readData) throws N5IOException {
+
+			final BlockHeader header = readSliceableHeader(readData);
+			return header == null ? null : header.blockSize();
+		}
+
+		@Override
+		public DataBlock<T> decode(final ReadData readData, final long[] gridPosition, final int[] min, final int[] size) throws N5IOException {
+
+			final BlockHeader header = readSliceableHeader(readData);
+			if (header != null) {
+				SubBlocks.checkBounds(header.blockSize(), min, size);
+				final T data = SubBlocks.read(dataCodec, readData, header.getSize(), header.blockSize(), min, size);
+				return dataBlockFactory.createDataBlock(size.clone(), gridPosition, data);
+			}
+
+			// compressed or var-length: decode the whole block
+			final DataBlock<T> dataBlock = decode(readData, gridPosition);
+			final int[] blockSize = dataBlock.getSize();
+			SubBlocks.checkBounds(blockSize, min, size);
+			if (SubBlocks.isFull(blockSize, min, size))
+				return dataBlock;
+			final T data = SubBlocks.crop(dataCodec, dataBlock.getData(), blockSize, min, size);
+			return dataBlockFactory.createDataBlock(size.clone(), gridPosition, data);
+		}
 	}
 
 
@@ -116,6 +116,28 @@ public class RawBlockCodecs {
 			return dataBlockFactory.createDataBlock(blockSize, gridPosition, data);
 		}
 
+		@Override
+		public int[] subBoxBlockSize(ReadData readData) {
+
+			return SubBlocks.canSlice(dataCodec, codec) ? blockSize : null;
+		}
+
+		@Override
+		public DataBlock<T> decode(ReadData readData, long[] gridPosition, int[] min, int[] size) {
+
+			SubBlocks.checkBounds(blockSize, min, size);
+			final T data;
+			if (SubBlocks.canSlice(dataCodec, codec)) {
+				data = SubBlocks.read(dataCodec, readData, 0, blockSize, min, size);
+			} else if (SubBlocks.isFull(blockSize, min, size)) {
+				return decode(readData, gridPosition);
+			} else {
+				// compressed: decode the whole block
+				data = SubBlocks.crop(dataCodec, decode(readData, gridPosition).getData(), blockSize, min, size);
+			}
+			return dataBlockFactory.createDataBlock(size.clone(), gridPosition, data);
+		}
+
 		@Override
 		public long encodedSize(final int[] blockSize) throws UnsupportedOperationException {
 			if (codec instanceof DeterministicSizeDataCodec) {
@@ -0,0 +1,178 @@
+package org.janelia.saalfeldlab.n5.codec;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.janelia.saalfeldlab.n5.ByteArrayDataBlock;
+import org.janelia.saalfeldlab.n5.DataBlock;
+import org.janelia.saalfeldlab.n5.DoubleArrayDataBlock;
+import org.janelia.saalfeldlab.n5.FloatArrayDataBlock;
+import org.janelia.saalfeldlab.n5.IntArrayDataBlock;
+import org.janelia.saalfeldlab.n5.LongArrayDataBlock;
+import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
+import org.janelia.saalfeldlab.n5.ShortArrayDataBlock;
+import org.janelia.saalfeldlab.n5.StringDataBlock;
+import org.janelia.saalfeldlab.n5.readdata.Range;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.janelia.saalfeldlab.n5.util.SubArrayCopy;
+
+/**
+ * Helpers for {@link BlockCodec#decode(ReadData, long[], int[], int[])
+ * decoding a sub-box} of a {@link DataBlock}.
+ */
+final class SubBlocks {
+
+	private SubBlocks() {}
+
+	static void checkBounds(final int[] blockSize, final int[] min, final int[] size) {
+
+		if (blockSize == null)
+			throw new UnsupportedOperationException("Cannot decode sub-box of a block without size");
+
+		if (min.length != blockSize.length || size.length != blockSize.length)
+			throw new IllegalArgumentException("Sub-box dimensionality does not match block dimensionality " + blockSize.length);
+
+		for (int d = 0; d < blockSize.length; ++d) {
+			if (min[d] < 0 || size[d] < 0 || min[d] + size[d] > blockSize[d])
+				throw new IndexOutOfBoundsException("Sub-box [" + min[d] + ", " + (min[d] + size[d]) + ") out of bounds [0, " + blockSize[d] + ") in dimension " + d);
+		}
+	}
+
+	static boolean isFull(final int[] blockSize, final int[] min, final int[] size) {
+
+		for (int d = 0; d < blockSize.length; ++d) {
+			if (min[d] != 0 || size[d] != blockSize[d])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Whether the elements of a sub-box can be read directly from the encoded
+	 * data, i.e., the elements have fixed size and the {@code codec} does not
+	 * transform the data.
+	 */
+	static boolean canSlice(final FlatArrayCodec<?> dataCodec, final DataCodec codec) {
+
+		return dataCodec.bytesPerElement() > 0 && codec.isIdentity();
+	}
+
+	/**
+	 * Copy the sub-box {@code [min, min + size)} out of the flattened {@code
+	 * data} of a block of size {@code blockSize}.
+	 */
+	static <T> T crop(
+			final FlatArrayCodec<T> dataCodec,
+			final T data,
+			final int[] blockSize,
+			final int[] min,
+			final int[] size) {
+
+		final T cropped = dataCodec.newArray(DataBlock.getNumElements(size));
+		SubArrayCopy.copy(data, blockSize, min, cropped, size, new int[size.length], size);
+		return cropped;
+	}
+
+	/**
+	 * Copy the sub-box {@code [min, min + size)} out of a fully decoded
+	 * {@code block}. The returned block has the same grid position as {@code
+	 * block}. If the sub-box covers the whole block, {@code block} is
+	 * returned.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> DataBlock<T> crop(
+			final DataBlock<T> block,
+			final int[] min,
+			final int[] size) {
+
+		final int[] blockSize = block.getSize();
+		checkBounds(blockSize, min, size);
+		if (isFull(blockSize, min, size))
+			return block;
+
+		final T data = block.getData();
+		final long[] gridPosition = block.getGridPosition();
+		final int numElements = DataBlock.getNumElements(size);
+		final DataBlock<?> cropped;
+		if (data instanceof byte[]) {
+			cropped = new ByteArrayDataBlock(size, gridPosition, new byte[numElements]);
+		} else if (data instanceof short[]) {
+			cropped = new ShortArrayDataBlock(size, gridPosition, new short[numElements]);
+		} else if (data instanceof int[]) {
+			cropped = new IntArrayDataBlock(size, gridPosition, new int[numElements]);
+		} else if (data instanceof long[]) {
+			cropped = new LongArrayDataBlock(size, gridPosition, new long[numElements]);
+		} else if (data instanceof float[]) {
+			cropped = new FloatArrayDataBlock(size, gridPosition, new float[numElements]);
+		} else if (data instanceof double[]) {
+			cropped = new DoubleArrayDataBlock(size, gridPosition, new double[numElements]);
+		} else if (data instanceof String[]) {
+			cropped = new StringDataBlock(size, gridPosition, new String[numElements]);
+		} else {
+			throw new UnsupportedOperationException("Cannot decode sub-box of a block with data " + data.getClass().getSimpleName());
+		}
+		SubArrayCopy.copy(data, blockSize, min, cropped.getData(), size, new int[size.length], size);
+		return (DataBlock<T>) cropped;
+	}
+
+	/**
+	 * Read the sub-box {@code [min, min + size)} of a block of size {@code
+	 * blockSize} whose raw elements start at {@code offset} in {@code
+	 * readData}.
+	 * <p>
+	 * Leading dimensions that are read in full are merged with the next
+	 * dimension into one contiguous run, and only the byte ranges of these
+	 * runs are sliced from {@code readData}.
+	 */
+	static <T> T read(
+			final FlatArrayCodec<T> dataCodec,
+			final ReadData readData,
+			final long offset,
+			final int[] blockSize,
+			final int[] min,
+			final int[] size) throws N5IOException {
+
+		final int n = blockSize.length;
+		final int numElements = DataBlock.getNumElements(size);
+		if (numElements == 0)
+			return dataCodec.newArray(0);
+
+		// length (in elements) of the contiguous runs
+		int k = 0;
+		int runLength = size[0];
+		while (k < n - 1 && size[k] == blockSize[k]) {
+			++k;
+			runLength *= size[k];
+		}
+
+		// byte ranges of all runs
+		final int bytesPerElement = dataCodec.bytesPerElement();
+		final long runBytes = (long)runLength * bytesPerElement;
+		final List<Range> ranges = new ArrayList<>(numElements / runLength);
+		final int[] pos = min.clone();
+		while (true) {
+			final long index = SubArrayCopy.positionToIndex(pos, blockSize);
+			ranges.add(Range.at(offset + index * bytesPerElement, runBytes));
+
+			int d = k + 1;
+			for (; d < n; ++d) {
+				if (++pos[d] < min[d] + size[d])
+					break;
+				pos[d] = min[d];
+			}
+			if (d == n)
+				break;
+		}
+
+		readData.prefetch(ranges);
+		final byte[] bytes = new byte[numElements * bytesPerElement];
+		int i = 0;
+		for (final Range range : ranges) {
+			final ByteBuffer buffer = readData.slice(range).toByteBuffer();
+			buffer.get(bytes, i, (int)runBytes);
+			i += runBytes;
+		}
+		return dataCodec.decode(ReadData.from(bytes), numElements);
+	}
+}
@@ -1,7 +1,8 @@
 package org.janelia.saalfeldlab.n5.codec.checksum;
 
-import org.apache.commons.codec.digest.PureJavaCrc32C;
 import org.janelia.saalfeldlab.n5.codec.DataCodec;
+import org.janelia.saalfeldlab.n5.codec.engine.ChecksumEngine;
+import org.janelia.saalfeldlab.n5.codec.engine.CodecEngines;
 import org.janelia.saalfeldlab.n5.serialization.NameConfig;
 
 import java.nio.ByteBuffer;
@@ -17,7 +18,7 @@ public class Crc32cChecksumCodec extends ChecksumCodec {
 
 	public Crc32cChecksumCodec() {
 
-		super(() -> new PureJavaCrc32C(), 4);
+		super(CodecEngines.get(TYPE, ChecksumEngine.class)::createChecksum, 4);
 	}
 
 	@Override
@@ -0,0 +1,14 @@
+package org.janelia.saalfeldlab.n5.codec.engine;
+
+import java.util.zip.Checksum;
+
+/**
+ * A {@link CodecEngine} that computes checksums.
+ */
+public interface ChecksumEngine extends CodecEngine {
+
+	/**
+	 * @return a new {@link Checksum} instance
+	 */
+	Checksum createChecksum();
+}
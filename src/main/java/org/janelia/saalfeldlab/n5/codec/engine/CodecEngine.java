@@ -0,0 +1,76 @@
+package org.janelia.saalfeldlab.n5.codec.engine;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.scijava.annotations.Indexable;
+
+/**
+ * An implementation ("engine") of the format of a codec.
+ * <p>
+ * A codec, identified by its name (e.g., {@code "gzip"} or {@code
+ * "crc32c"}), may have multiple engines that produce and consume the same
+ * encoded data, but differ in how they do it, e.g., by using intrinsics or
+ * native libraries that are only available on some JDKs. Codecs obtain their
+ * engine from {@link CodecEngines#get(String, Class)}, which picks the
+ * available engine with the highest {@link #getPriority() priority}, unless
+ * another engine is requested with the system property {@code
+ * n5.codec.engine.<codecName>}.
+ * <p>
+ * Engines are discovered at runtime through the {@link Provider} annotation
+ * and require a public no-argument constructor.
+ */
+public interface CodecEngine {
+
+	/**
+	 * Annotation for runtime discovery of codec engines.
+	 */
+	@Retention(RetentionPolicy.RUNTIME)
+	@Inherited
+	@Target(ElementType.TYPE)
+	@Indexable
+	@interface Provider {
+	}
+
+	/**
+	 * @return the name of the codec this engine implements
+	 */
+	String getCodecName();
+
+	/**
+	 * @return the name of this engine, unique for its codec
+	 */
+	String getName();
+
+	/**
+	 * Engines with higher priority are preferred.
+	 *
+	 * @return the priority of this engine
+	 */
+	default int getPriority() {
+
+		return 0;
+	}
+
+	/**
+	 * @return the minimum Java feature version required by this engine
+	 */
+	default int getMinimumJavaVersion() {
+
+		return 8;
+	}
+
+	/**
+	 * Whether this engine can be used in the running JVM, e.g., if classes it
+	 * depends on can be loaded.
+	 *
+	 * @return true if this engine is available
+	 */
+	default boolean isAvailable() {
+
+		return true;
+	}
+}
@@ -0,0 +1,166 @@
+package org.janelia.saalfeldlab.n5.codec.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.janelia.saalfeldlab.n5.N5Exception;
+import org.scijava.annotations.Index;
+import org.scijava.annotations.IndexItem;
+
+/**
+ * Registry of {@link CodecEngine}s.
+ * <p>
+ * For each codec name, the engine is selected once, on first use:
+ * <ol>
+ * <li>if the system property {@code n5.codec.engine.<codecName>} names an
+ * available engine, that engine is used,</li>
+ * <li>otherwise, the available engine with the highest priority is used.</li>
+ * </ol>
+ * An engine is available if the running JVM satisfies its {@link
+ * CodecEngine#getMinimumJavaVersion() minimum Java version} and it reports
+ * {@link CodecEngine#isAvailable() isAvailable()}.
+ * <p>
+ * All engines of a codec read and write the same format, such that the
+ * selection never changes what is stored.
+ */
+public class CodecEngines {
+
+	public static final String PROPERTY_PREFIX = "n5.codec.engine.";
+
+	private static Map<String, List<CodecEngine>> engines;
+
+	private static final Map<String, CodecEngine> selected = new ConcurrentHashMap<>();
+
+	private CodecEngines() {}
+
+	/**
+	 * Returns the selected engine for a codec.
+	 *
+	 * @param codecName
+	 *            the name of the codec
+	 * @param engineType
+	 *            the engine interface of the codec
+	 * @param <E>
+	 *            the engine type
+	 * @return the selected engine
+	 * @throws N5Exception
+	 *             if there is no available engine for the codec
+	 */
+	public static <E extends CodecEngine> E get(final String codecName, final Class<E> engineType) throws N5Exception {
+
+		final CodecEngine engine = selected.computeIfAbsent(codecName,
+				name -> select(list(name), engineType, System.getProperty(PROPERTY_PREFIX + name), javaVersion()));
+		if (!engineType.isInstance(engine))
+			throw new N5Exception("Engine " + engine.getName() + " for codec " + codecName + " is not a " + engineType.getSimpleName());
+
+		return engineType.cast(engine);
+	}
+
+	/**
+	 * Returns all engines registered for a codec, in order of descending
+	 * priority.
+	 *
+	 * @param codecName
+	 *            the name of the codec
+	 * @return the engines for the codec
+	 */
+	public static synchronized List<CodecEngine> list(final String codecName) {
+
+		if (engines == null)
+			engines = discover();
+
+		return new ArrayList<>(engines.getOrDefault(codecName, new ArrayList<>()));
+	}
+
+	/**
+	 * Registers an engine, and resets the selected engine of its codec.
+	 *
+	 * @param engine
+	 *            the engine
+	 */
+	public static synchronized void register(final CodecEngine engine) {
+
+		if (engines == null)
+			engines = discover();
+
+		add(engines, engine);
+		selected.remove(engine.getCodecName());
+	}
+
+	/**
+	 * Returns the available engine named {@code preferred}, if it exists, or
+	 * the available engine with the highest priority.
+	 */
+	static <E extends CodecEngine> E select(
+			final Collection<? extends CodecEngine> candidates,
+			final Class<E> engineType,
+			final String preferred,
+			final int javaVersion) throws N5Exception {
+
+		E best = null;
+		for (final CodecEngine engine : candidates) {
+			if (!engineType.isInstance(engine) || javaVersion < engine.getMinimumJavaVersion() || !engine.isAvailable())
+				continue;
+
+			final E candidate = engineType.cast(engine);
+			if (candidate.getName().equals(preferred))
+				return candidate;
+
+			if (best == null || candidate.getPriority() > best.getPriority())
+				best = candidate;
+		}
+
+		if (best == null)
+			throw new N5Exception("No " + engineType.getSimpleName() + " available");
+
+		if (preferred != null)
+			System.err.println("Codec engine '" + preferred + "' is not available, using '" + best.getName() + "'");
+
+		return best;
+	}
+
+	/**
+	 * @return the feature version of the running JVM, e.g. 8, 11, or 21
+	 */
+	static int javaVersion() {
+
+		final String version = System.getProperty("java.specification.version", "1.8");
+		try {
+			if (version.startsWith("1."))
+				return Integer.parseInt(version.substring(2));
+			return Integer.parseInt(version);
+		} catch (final NumberFormatException e) {
+			return 8;
+		}
+	}
+
+	private static Map<String, List<CodecEngine>> discover() {
+
+		final Map<String, List<CodecEngine>> engines = new HashMap<>();
+		final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		final Index<CodecEngine.Provider> annotationIndex = Index.load(CodecEngine.Provider.class, classLoader);
+		for (final IndexItem<CodecEngine.Provider> item : annotationIndex) {
+			try {
+				final Class<?> clazz = Class.forName(item.className());
+				add(engines, (CodecEngine)clazz.getDeclaredConstructor().newInstance());
+			} catch (final NoClassDefFoundError | ReflectiveOperationException | ClassCastException
+					| UnsatisfiedLinkError e) {
+				System.err.println("Codec engine '" + item.className() + "' could not be registered");
+			}
+		}
+		return engines;
+	}
+
+	private static void add(final Map<String, List<CodecEngine>> engines, final CodecEngine engine) {
+
+		final List<CodecEngine> codecEngines = engines.computeIfAbsent(engine.getCodecName(), k -> new ArrayList<>());
+		codecEngines.removeIf(e -> e.getName().equals(engine.getName()));
+		codecEngines.add(engine);
+		codecEngines.sort(Comparator.comparingInt(CodecEngine::getPriority).reversed());
+	}
+}
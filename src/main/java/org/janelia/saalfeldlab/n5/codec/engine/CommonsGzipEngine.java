@@ -0,0 +1,42 @@
+package org.janelia.saalfeldlab.n5.codec.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+
+/**
+ * {@link GzipEngine} using Apache Commons Compress. This is the default gzip
+ * engine.
+ */
+@CodecEngine.Provider
+public class CommonsGzipEngine implements GzipEngine {
+
+	public static final String NAME = "commons-compress";
+
+	@Override
+	public String getName() {
+
+		return NAME;
+	}
+
+	@Override
+	public InputStream decompress(final InputStream in) throws IOException {
+
+		return GzipCompressorInputStream.builder()
+				.setInputStream(in)
+				.setDecompressConcatenated(true)
+				.get();
+	}
+
+	@Override
+	public OutputStream compress(final OutputStream out, final int level) throws IOException {
+
+		final GzipParameters parameters = new GzipParameters();
+		parameters.setCompressionLevel(level);
+		return new GzipCompressorOutputStream(out, parameters);
+	}
+}
@@ -0,0 +1,44 @@
+package org.janelia.saalfeldlab.n5.codec.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A {@link CodecEngine} that reads and writes the gzip format (RFC 1952).
+ */
+public interface GzipEngine extends CodecEngine {
+
+	String CODEC_NAME = "gzip";
+
+	@Override
+	default String getCodecName() {
+
+		return CODEC_NAME;
+	}
+
+	/**
+	 * Returns a stream that decompresses {@code in}, including concatenated
+	 * gzip members.
+	 *
+	 * @param in
+	 *            the compressed stream
+	 * @return the decompressed stream
+	 * @throws IOException
+	 *             if the gzip header cannot be read
+	 */
+	InputStream decompress(InputStream in) throws IOException;
+
+	/**
+	 * Returns a stream that compresses into {@code out}.
+	 *
+	 * @param out
+	 *            the stream to write compressed data to
+	 * @param level
+	 *            the compression level (0-9)
+	 * @return the compressing stream
+	 * @throws IOException
+	 *             if the gzip header cannot be written
+	 */
+	OutputStream compress(OutputStream out, int level) throws IOException;
+}
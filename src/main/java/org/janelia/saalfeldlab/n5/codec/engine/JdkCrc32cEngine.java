@@ -0,0 +1,71 @@
+package org.janelia.saalfeldlab.n5.codec.engine;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.zip.Checksum;
+
+import org.janelia.saalfeldlab.n5.N5Exception;
+import org.janelia.saalfeldlab.n5.codec.checksum.Crc32cChecksumCodec;
+
+/**
+ * {@link ChecksumEngine} for CRC-32C using {@code java.util.zip.CRC32C}, which
+ * is intrinsified by the JIT on common platforms. Requires Java 9.
+ */
+@CodecEngine.Provider
+public class JdkCrc32cEngine implements ChecksumEngine {
+
+	public static final String NAME = "jdk";
+
+	private static final MethodHandle CONSTRUCTOR = findConstructor();
+
+	private static MethodHandle findConstructor() {
+
+		try {
+			final Class<?> clazz = Class.forName("java.util.zip.CRC32C");
+			return MethodHandles.publicLookup().findConstructor(clazz, MethodType.methodType(void.class));
+		} catch (final ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public String getCodecName() {
+
+		return Crc32cChecksumCodec.TYPE;
+	}
+
+	@Override
+	public String getName() {
+
+		return NAME;
+	}
+
+	@Override
+	public int getPriority() {
+
+		return 10;
+	}
+
+	@Override
+	public int getMinimumJavaVersion() {
+
+		return 9;
+	}
+
+	@Override
+	public boolean isAvailable() {
+
+		return CONSTRUCTOR != null;
+	}
+
+	@Override
+	public Checksum createChecksum() {
+
+		try {
+			return (Checksum)CONSTRUCTOR.invoke();
+		} catch (final Throwable e) {
+			throw new N5Exception("Could not create java.util.zip.CRC32C", e);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package org.janelia.saalfeldlab.n5.codec.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link GzipEngine} using {@code java.util.zip}, i.e., the zlib bundled with
+ * the JDK.
+ * <p>
+ * It has lower priority than the {@link CommonsGzipEngine}, and is selected
+ * with {@code -Dn5.codec.engine.gzip=jdk}.
+ */
+@CodecEngine.Provider
+public class JdkGzipEngine implements GzipEngine {
+
+	public static final String NAME = "jdk";
+
+	private static final int BUFFER_SIZE = 8192;
+
+	@Override
+	public String getName() {
+
+		return NAME;
+	}
+
+	@Override
+	public int getPriority() {
+
+		return -10;
+	}
+
+	@Override
+	public InputStream decompress(final InputStream in) throws IOException {
+
+		// GZIPInputStream reads concatenated members
+		return new GZIPInputStream(in, BUFFER_SIZE);
+	}
+
+	@Override
+	public OutputStream compress(final OutputStream out, final int level) throws IOException {
+
+		return new GZIPOutputStream(out, BUFFER_SIZE) {
+			{
+				def.setLevel(level);
+			}
+		};
+	}
+}
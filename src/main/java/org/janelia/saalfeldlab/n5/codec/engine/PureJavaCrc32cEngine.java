@@ -0,0 +1,34 @@
+package org.janelia.saalfeldlab.n5.codec.engine;
+
+import java.util.zip.Checksum;
+
+import org.apache.commons.codec.digest.PureJavaCrc32C;
+import org.janelia.saalfeldlab.n5.codec.checksum.Crc32cChecksumCodec;
+
+/**
+ * {@link ChecksumEngine} for CRC-32C using Apache Commons Codec. Available on
+ * all JDKs.
+ */
+@CodecEngine.Provider
+public class PureJavaCrc32cEngine implements ChecksumEngine {
+
+	public static final String NAME = "pure-java";
+
+	@Override
+	public String getCodecName() {
+
+		return Crc32cChecksumCodec.TYPE;
+	}
+
+	@Override
+	public String getName() {
+
+		return NAME;
+	}
+
+	@Override
+	public Checksum createChecksum() {
+
+		return new PureJavaCrc32C();
+	}
+}
@@ -0,0 +1,270 @@
+package org.janelia.saalfeldlab.n5.codec.framed;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
+import org.janelia.saalfeldlab.n5.codec.DataCodec;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+
+/**
+ * A {@link DataCodec} that splits data into frames of {@code frameSize} bytes,
+ * and encodes and decodes the frames independently on a {@link ForkJoinPool}
+ * using the wrapped {@code DataCodec}.
+ * <p>
+ * The encoded data starts with a header that records the offsets of all
+ * encoded frames, such that a range of the decoded data can be {@link
+ * #decode(ReadData, long, int) decoded} by only reading and decoding the
+ * frames that overlap it.
+ * <p>
+ * Encoded layout (big endian):
+ * <pre>
+ * int32               frameSize
+ * int32               numFrames
+ * int64               decodedLength
+ * int64[numFrames]    end offset of each encoded frame, relative to the end of the header
+ * byte[]              encoded frames
+ * </pre>
+ */
+public class FramedCodec implements DataCodec {
+
+	private static final int FIXED_HEADER_SIZE = 16;
+
+	private final DataCodec codec;
+
+	private final int frameSize;
+
+	private final ForkJoinPool pool;
+
+	public FramedCodec(final DataCodec codec, final int frameSize, final ForkJoinPool pool) {
+
+		this.codec = codec;
+		this.frameSize = frameSize;
+		this.pool = pool;
+	}
+
+	@Override
+	public ReadData encode(final ReadData readData) throws N5IOException {
+
+		final ReadData decoded = readData.materialize();
+		final long decodedLength = decoded.requireLength();
+		final int numFrames = (int)((decodedLength + frameSize - 1) / frameSize);
+
+		final ReadData[] frames = new ReadData[numFrames];
+		run(numFrames, i -> {
+			final long offset = (long)i * frameSize;
+			final long length = Math.min(frameSize, decodedLength - offset);
+			frames[i] = codec.encode(decoded.slice(offset, length)).materialize();
+		});
+
+		final int headerSize = headerSize(numFrames);
+		long encodedLength = headerSize;
+		for (final ReadData frame : frames)
+			encodedLength += frame.requireLength();
+		if (encodedLength > Integer.MAX_VALUE)
+			throw new N5IOException("Encoded data too large: " + encodedLength + " bytes");
+
+		final ByteBuffer buffer = ByteBuffer.allocate((int)encodedLength);
+		buffer.putInt(frameSize);
+		buffer.putInt(numFrames);
+		buffer.putLong(decodedLength);
+		long end = 0;
+		for (final ReadData frame : frames) {
+			end += frame.requireLength();
+			buffer.putLong(end);
+		}
+		for (final ReadData frame : frames)
+			buffer.put(frame.toByteBuffer());
+
+		return ReadData.from(buffer.array());
+	}
+
+	@Override
+	public ReadData decode(final ReadData readData) throws N5IOException {
+
+		final Header header = Header.read(readData);
+		if (header.decodedLength > Integer.MAX_VALUE)
+			throw new N5IOException("Decoded data too large: " + header.decodedLength + " bytes");
+
+		return decode(readData, header, 0, (int)header.decodedLength);
+	}
+
+	/**
+	 * Decode {@code length} bytes starting at {@code offset} of the decoded
+	 * data. Only the frames that overlap the requested range are
+	 * {@link ReadData#slice sliced} from {@code readData} and decoded.
+	 *
+	 * @param readData
+	 *            the encoded data
+	 * @param offset
+	 *            offset in the decoded data
+	 * @param length
+	 *            number of decoded bytes
+	 * @return the decoded range
+	 * @throws N5IOException
+	 *             if any I/O error occurs
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is not contained in the decoded data
+	 */
+	public ReadData decode(final ReadData readData, final long offset, final int length) throws N5IOException {
+
+		final Header header = Header.read(readData);
+		if (offset < 0 || length < 0 || offset + length > header.decodedLength)
+			throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") out of bounds [0, " + header.decodedLength + ")");
+
+		return decode(readData, header, offset, length);
+	}
+
+	/**
+	 * Returns the length of the decoded data, reading only the header of the
+	 * encoded {@code readData}.
+	 *
+	 * @param readData
+	 *            the encoded data
+	 * @return the decoded length
+	 * @throws N5IOException
+	 *             if any I/O error occurs
+	 */
+	public static long decodedLength(final ReadData readData) throws N5IOException {
+
+		return readData.slice(0, FIXED_HEADER_SIZE).toByteBuffer().getLong(8);
+	}
+
+	private ReadData decode(final ReadData readData, final Header header, final long offset, final int length) {
+
+		final byte[] decoded = new byte[length];
+		if (length == 0)
+			return ReadData.from(decoded);
+
+		final int firstFrame = (int)(offset / header.frameSize);
+		final int lastFrame = (int)((offset + length - 1) / header.frameSize);
+		final int headerSize = headerSize(header.numFrames);
+
+		run(lastFrame - firstFrame + 1, j -> {
+			final int i = firstFrame + j;
+			final long frameStart = (long)i * header.frameSize;
+			final long frameLength = Math.min(header.frameSize, header.decodedLength - frameStart);
+
+			final long encodedStart = i == 0 ? 0 : header.frameEnds[i - 1];
+			final ReadData frame = readData.slice(headerSize + encodedStart, header.frameEnds[i] - encodedStart);
+
+			// the part of this frame that overlaps the requested range
+			final long from = Math.max(frameStart, offset);
+			final long to = Math.min(frameStart + frameLength, offset + length);
+			try (final InputStream in = codec.decode(frame).inputStream()) {
+				skipFully(in, from - frameStart);
+				readFully(in, decoded, (int)(from - offset), (int)(to - from));
+			} catch (final IOException e) {
+				throw new N5IOException("Failed to decode frame " + i, e);
+			}
+		});
+		return ReadData.from(decoded);
+	}
+
+	@FunctionalInterface
+	private interface FrameTask {
+
+		void run(int i) throws N5IOException;
+	}
+
+	/**
+	 * Run {@code task} for frames {@code 0} to {@code numFrames - 1}, in
+	 * parallel on {@link #pool} if there is more than one frame.
+	 */
+	private void run(final int numFrames, final FrameTask task) {
+
+		if (numFrames == 0)
+			return;
+
+		if (numFrames == 1) {
+			task.run(0);
+			return;
+		}
+
+		final List<ForkJoinTask<?>> tasks = new ArrayList<>(numFrames);
+		for (int i = 0; i < numFrames; ++i) {
+			final int frame = i;
+			tasks.add(ForkJoinTask.adapt(() -> task.run(frame)));
+		}
+		pool.invoke(new RecursiveAction() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+
+				invokeAll(tasks);
+			}
+		});
+	}
+
+	private static int headerSize(final int numFrames) {
+
+		return FIXED_HEADER_SIZE + 8 * numFrames;
+	}
+
+	private static void skipFully(final InputStream in, long n) throws IOException {
+
+		while (n > 0) {
+			final long skipped = in.skip(n);
+			if (skipped <= 0) {
+				if (in.read() < 0)
+					throw new IOException("Unexpected end of frame");
+				--n;
+			} else
+				n -= skipped;
+		}
+	}
+
+	private static void readFully(final InputStream in, final byte[] b, int off, int len) throws IOException {
+
+		while (len > 0) {
+			final int n = in.read(b, off, len);
+			if (n < 0)
+				throw new IOException("Unexpected end of frame");
+			off += n;
+			len -= n;
+		}
+	}
+
+	private static class Header {
+
+		final int frameSize;
+		final int numFrames;
+		final long decodedLength;
+		final long[] frameEnds;
+
+		private Header(final int frameSize, final int numFrames, final long decodedLength, final long[] frameEnds) {
+
+			this.frameSize = frameSize;
+			this.numFrames = numFrames;
+			this.decodedLength = decodedLength;
+			this.frameEnds = frameEnds;
+		}
+
+		static Header read(final ReadData readData) throws N5IOException {
+
+			final ByteBuffer fixed = readData.slice(0, FIXED_HEADER_SIZE).toByteBuffer();
+			final int frameSize = fixed.getInt();
+			final int numFrames = fixed.getInt();
+			final long decodedLength = fixed.getLong();
+			if (frameSize <= 0 || numFrames < 0 || decodedLength < 0 || decodedLength > (long)frameSize * numFrames)
+				throw new N5IOException("Invalid frame header");
+
+			final long[] frameEnds = new long[numFrames];
+			if (numFrames > 0) {
+				final ByteBuffer offsets = readData.slice(FIXED_HEADER_SIZE, 8L * numFrames).toByteBuffer();
+				for (int i = 0; i < numFrames; ++i)
+					frameEnds[i] = offsets.getLong();
+			}
+
+			return new Header(frameSize, numFrames, decodedLength, frameEnds);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package org.janelia.saalfeldlab.n5.codec.framed;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+import org.janelia.saalfeldlab.n5.N5Exception;
+import org.janelia.saalfeldlab.n5.codec.DataCodecInfo;
+import org.janelia.saalfeldlab.n5.serialization.NameConfig;
+
+/**
+ * Describes a {@link FramedCodec}: the data is split into frames of
+ * {@code frameSize} bytes that are encoded independently (and in parallel)
+ * by the wrapped {@code codec}, typically a compressor.
+ * <p>
+ * Example:
+ * <pre>
+ * {"name": "n5-framed", "configuration": {"frameSize": 4194304, "codec": {"name": "gzip", "configuration": {"level": 6}}}}
+ * </pre>
+ */
+@NameConfig.Name(value = FramedCodecInfo.TYPE)
+public class FramedCodecInfo implements DataCodecInfo {
+
+	private static final long serialVersionUID = -1946280339318741537L;
+
+	public static final String TYPE = "n5-framed";
+
+	public static final int DEFAULT_FRAME_SIZE = 1 << 22;
+
+	@NameConfig.Parameter
+	private DataCodecInfo codec;
+
+	@NameConfig.Parameter(optional = true)
+	private int frameSize = DEFAULT_FRAME_SIZE;
+
+	private transient ForkJoinPool pool;
+
+	public FramedCodecInfo() {
+		// for serialization
+	}
+
+	public FramedCodecInfo(final DataCodecInfo codec) {
+
+		this(codec, DEFAULT_FRAME_SIZE);
+	}
+
+	public FramedCodecInfo(final DataCodecInfo codec, final int frameSize) {
+
+		this(codec, frameSize, null);
+	}
+
+	/**
+	 * @param codec
+	 *            the codec applied to each frame
+	 * @param frameSize
+	 *            the number of decoded bytes per frame
+	 * @param pool
+	 *            the pool on which frames are encoded and decoded, if
+	 *            {@code null}, the {@link ForkJoinPool#commonPool() common
+	 *            pool} is used
+	 */
+	public FramedCodecInfo(final DataCodecInfo codec, final int frameSize, final ForkJoinPool pool) {
+
+		this.codec = codec;
+		this.frameSize = frameSize;
+		this.pool = pool;
+	}
+
+	@Override
+	public String getType() {
+
+		return TYPE;
+	}
+
+	public DataCodecInfo getCodec() {
+
+		return codec;
+	}
+
+	public int getFrameSize() {
+
+		return frameSize;
+	}
+
+	@Override
+	public FramedCodec create() {
+
+		validate();
+		return new FramedCodec(codec.create(), frameSize, pool == null ? ForkJoinPool.commonPool() : pool);
+	}
+
+	private void validate() {
+
+		if (codec == null)
+			throw new N5Exception("FramedCodec requires a codec");
+
+		if (frameSize <= 0)
+			throw new N5Exception("Invalid frameSize for FramedCodec: " + frameSize + ". Must be positive.");
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+
+		if (obj instanceof FramedCodecInfo) {
+			final FramedCodecInfo other = (FramedCodecInfo)obj;
+			return frameSize == other.frameSize && Objects.equals(codec, other.codec);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+
+		return Objects.hash(codec, frameSize);
+	}
+}
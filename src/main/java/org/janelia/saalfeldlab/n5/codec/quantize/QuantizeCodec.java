@@ -0,0 +1,201 @@
+package org.janelia.saalfeldlab.n5.codec.quantize;
+
+import org.janelia.saalfeldlab.n5.DataBlock;
+import org.janelia.saalfeldlab.n5.DataType;
+import org.janelia.saalfeldlab.n5.codec.DatasetCodec;
+
+/**
+ * Quantizes {@code float[]} or {@code double[]} blocks to integer blocks.
+ *
+ * @param <S>
+ *            {@code float[]} or {@code double[]}
+ * @param <T>
+ *            {@code byte[]}, {@code short[]}, {@code int[]}, or {@code long[]}
+ *
+ * @see QuantizeCodecInfo
+ */
+public class QuantizeCodec<S, T> implements DatasetCodec<S, T> {
+
+	private final DataType dataType;
+	private final DataType encodedDataType;
+
+	private final double precision;
+	private final double offset;
+
+	private final long min;
+	private final long max;
+
+	public QuantizeCodec(final DataType dataType, final DataType encodedDataType, final double precision, final double offset) {
+
+		this.dataType = dataType;
+		this.encodedDataType = encodedDataType;
+		this.precision = precision;
+		this.offset = offset;
+
+		switch (encodedDataType) {
+		case INT8:
+			min = Byte.MIN_VALUE;
+			max = Byte.MAX_VALUE;
+			break;
+		case UINT8:
+			min = 0;
+			max = 0xff;
+			break;
+		case INT16:
+			min = Short.MIN_VALUE;
+			max = Short.MAX_VALUE;
+			break;
+		case UINT16:
+			min = 0;
+			max = 0xffff;
+			break;
+		case INT32:
+			min = Integer.MIN_VALUE;
+			max = Integer.MAX_VALUE;
+			break;
+		case UINT32:
+			min = 0;
+			max = 0xffffffffL;
+			break;
+		case INT64:
+			min = Long.MIN_VALUE;
+			max = Long.MAX_VALUE;
+			break;
+		case UINT64:
+			// values beyond Long.MAX_VALUE can not be reached by rounding a double
+			min = 0;
+			max = Long.MAX_VALUE;
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported encoded data type " + encodedDataType);
+		}
+	}
+
+	static boolean isIntegerType(final DataType dataType) {
+
+		if (dataType == null)
+			return false;
+
+		switch (dataType) {
+		case INT8:
+		case UINT8:
+		case INT16:
+		case UINT16:
+		case INT32:
+		case UINT32:
+		case INT64:
+		case UINT64:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private long quantize(final double value) {
+
+		final long q = Math.round((value - offset) / precision);
+		return q < min ? min : q > max ? max : q;
+	}
+
+	private double dequantize(final long q) {
+
+		return q * precision + offset;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public DataBlock<T> encode(final DataBlock<S> dataBlock) {
+
+		final int n = dataBlock.getNumElements();
+		final DataBlock<T> encodedBlock = (DataBlock<T>)encodedDataType.createDataBlock(dataBlock.getSize(), dataBlock.getGridPosition(), n);
+
+		final Object src = dataBlock.getData();
+		final float[] f = src instanceof float[] ? (float[])src : null;
+		final double[] d = f == null ? (double[])src : null;
+
+		final Object dst = encodedBlock.getData();
+		switch (encodedDataType) {
+		case INT8:
+		case UINT8: {
+			final byte[] q = (byte[])dst;
+			for (int i = 0; i < n; ++i)
+				q[i] = (byte)quantize(f != null ? f[i] : d[i]);
+			break;
+		}
+		case INT16:
+		case UINT16: {
+			final short[] q = (short[])dst;
+			for (int i = 0; i < n; ++i)
+				q[i] = (short)quantize(f != null ? f[i] : d[i]);
+			break;
+		}
+		case INT32:
+		case UINT32: {
+			final int[] q = (int[])dst;
+			for (int i = 0; i < n; ++i)
+				q[i] = (int)quantize(f != null ? f[i] : d[i]);
+			break;
+		}
+		default: {
+			final long[] q = (long[])dst;
+			for (int i = 0; i < n; ++i)
+				q[i] = quantize(f != null ? f[i] : d[i]);
+		}
+		}
+		return encodedBlock;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public DataBlock<S> decode(final DataBlock<T> dataBlock) {
+
+		final int n = dataBlock.getNumElements();
+		final DataBlock<S> decodedBlock = (DataBlock<S>)dataType.createDataBlock(dataBlock.getSize(), dataBlock.getGridPosition(), n);
+
+		final Object dst = decodedBlock.getData();
+		final float[] f = dst instanceof float[] ? (float[])dst : null;
+		final double[] d = f == null ? (double[])dst : null;
+
+		final Object src = dataBlock.getData();
+		switch (encodedDataType) {
+		case INT8:
+		case UINT8: {
+			final byte[] q = (byte[])src;
+			final long mask = encodedDataType == DataType.UINT8 ? 0xffL : -1L;
+			for (int i = 0; i < n; ++i)
+				set(f, d, i, dequantize(q[i] & mask));
+			break;
+		}
+		case INT16:
+		case UINT16: {
+			final short[] q = (short[])src;
+			final long mask = encodedDataType == DataType.UINT16 ? 0xffffL : -1L;
+			for (int i = 0; i < n; ++i)
+				set(f, d, i, dequantize(q[i] & mask));
+			break;
+		}
+		case INT32:
+		case UINT32: {
+			final int[] q = (int[])src;
+			final long mask = encodedDataType == DataType.UINT32 ? 0xffffffffL : -1L;
+			for (int i = 0; i < n; ++i)
+				set(f, d, i, dequantize(q[i] & mask));
+			break;
+		}
+		default: {
+			final long[] q = (long[])src;
+			for (int i = 0; i < n; ++i)
+				set(f, d, i, dequantize(q[i]));
+		}
+		}
+		return decodedBlock;
+	}
+
+	private static void set(final float[] f, final double[] d, final int i, final double value) {
+
+		if (f != null)
+			f[i] = (float)value;
+		else
+			d[i] = value;
+	}
+}
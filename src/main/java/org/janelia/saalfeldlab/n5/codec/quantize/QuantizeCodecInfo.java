@@ -0,0 +1,128 @@
+package org.janelia.saalfeldlab.n5.codec.quantize;
+
+import java.util.Objects;
+
+import org.janelia.saalfeldlab.n5.DataType;
+import org.janelia.saalfeldlab.n5.DatasetAttributes;
+import org.janelia.saalfeldlab.n5.N5Exception;
+import org.janelia.saalfeldlab.n5.codec.DatasetCodecInfo;
+import org.janelia.saalfeldlab.n5.serialization.NameConfig;
+
+/**
+ * Describes a lossy, error-bounded quantization of floating point blocks to
+ * integer blocks.
+ * <p>
+ * A value {@code x} is stored as the integer
+ * {@code q = round((x - offset) / precision)}, saturated to the range of the
+ * {@code encodedDataType}, and decoded as {@code q * precision + offset}. For
+ * all values within the representable range
+ * {@code [offset + min * precision, offset + max * precision]} the absolute
+ * error is at most {@code precision / 2}. Values outside that range are
+ * clamped, {@code NaN} is stored as {@code 0} (and decodes to {@code offset}).
+ * <p>
+ * Example: probabilities in {@code [0, 1]} with {@code precision = 1/255} and
+ * {@code encodedDataType = uint8} are stored in a quarter of the space of
+ * {@code float32}.
+ * <p>
+ * Applies to {@link DataType#FLOAT32} and {@link DataType#FLOAT64} datasets.
+ * The block codec of the dataset is created for the {@code encodedDataType}.
+ */
+@NameConfig.Name(value = QuantizeCodecInfo.TYPE)
+public class QuantizeCodecInfo implements DatasetCodecInfo {
+
+	private static final long serialVersionUID = 3518426733329441717L;
+
+	public static final String TYPE = "n5-quantize";
+
+	@NameConfig.Parameter
+	private double precision;
+
+	@NameConfig.Parameter(optional = true)
+	private double offset;
+
+	@NameConfig.Parameter
+	private DataType encodedDataType;
+
+	public QuantizeCodecInfo() {
+		// for serialization
+	}
+
+	public QuantizeCodecInfo(final double precision, final DataType encodedDataType) {
+
+		this(precision, 0, encodedDataType);
+	}
+
+	public QuantizeCodecInfo(final double precision, final double offset, final DataType encodedDataType) {
+
+		this.precision = precision;
+		this.offset = offset;
+		this.encodedDataType = encodedDataType;
+	}
+
+	@Override
+	public String getType() {
+
+		return TYPE;
+	}
+
+	public double getPrecision() {
+
+		return precision;
+	}
+
+	public double getOffset() {
+
+		return offset;
+	}
+
+	public DataType getEncodedDataType() {
+
+		return encodedDataType;
+	}
+
+	@Override
+	public DataType getEncodedDataType(final DataType dataType) {
+
+		return encodedDataType;
+	}
+
+	@Override
+	public QuantizeCodec<?, ?> create(final DatasetAttributes datasetAttributes) {
+
+		validate(datasetAttributes.getDataType());
+		return new QuantizeCodec<>(datasetAttributes.getDataType(), encodedDataType, precision, offset);
+	}
+
+	private void validate(final DataType dataType) {
+
+		if (dataType != DataType.FLOAT32 && dataType != DataType.FLOAT64)
+			throw new N5Exception("Invalid data type for QuantizeCodec: " + dataType + ". Must be float32 or float64.");
+
+		if (!QuantizeCodec.isIntegerType(encodedDataType))
+			throw new N5Exception("Invalid encoded data type for QuantizeCodec: " + encodedDataType + ". Must be an integer type.");
+
+		if (!(precision > 0) || Double.isInfinite(precision))
+			throw new N5Exception("Invalid precision for QuantizeCodec: " + precision + ". Must be positive and finite.");
+
+		if (Double.isNaN(offset) || Double.isInfinite(offset))
+			throw new N5Exception("Invalid offset for QuantizeCodec: " + offset + ". Must be finite.");
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+
+		if (obj instanceof QuantizeCodecInfo) {
+			final QuantizeCodecInfo other = (QuantizeCodecInfo)obj;
+			return Double.compare(precision, other.precision) == 0
+					&& Double.compare(offset, other.offset) == 0
+					&& encodedDataType == other.encodedDataType;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+
+		return Objects.hash(precision, offset, encodedDataType);
+	}
+}
@@ -45,9 +45,17 @@ public class DefaultDatasetAccess<T> implements DatasetAccess<T> {
 
 	@Override
 	public DataBlock<T> readChunk(final PositionValueAccess pva, final long[] gridPosition) throws N5IOException {
+		return readChunk(pva, gridPosition, null);
+	}
+
+	/**
+	 * Read the chunk at {@code gridPosition}. If {@code size != null}, only
+	 * the sub-box {@code [0, size)} of the chunk is decoded.
+	 */
+	private DataBlock<T> readChunk(final PositionValueAccess pva, final long[] gridPosition, final int[] size) throws N5IOException {
 		final NestedPosition position = grid.nestedPosition(gridPosition);
 		try (final VolatileReadData readData = pva.get(position.key())) {
-			return readChunkRecursive(readData, position, grid.numLevels() - 1);
+			return readChunkRecursive(readData, position, grid.numLevels() - 1, size);
 		} catch (N5NoSuchKeyException ignored) {
 			return null;
 		}
@@ -56,32 +64,96 @@ public class DefaultDatasetAccess<T> implements DatasetAccess<T> {
 	private DataBlock<T> readChunkRecursive(
 			final ReadData readData,
 			final NestedPosition position,
-			final int level) {
+			final int level,
+			final int[] size) {
 		if (readData == null) {
 			return null;
 		} else if (level == 0) {
 			@SuppressWarnings("unchecked")
 			final BlockCodec<T> codec = (BlockCodec<T>) codecs[0];
-			return codec.decode(readData, position.absolute(0));
+			return size == null
+					? codec.decode(readData, position.absolute(0))
+					: decodeSubBox(codec, readData, position.absolute(0), size);
 		} else {
 			@SuppressWarnings("unchecked")
 			final BlockCodec<RawShard> codec = (BlockCodec<RawShard>) codecs[level];
 			final RawShard shard = codec.decode(readData, position.absolute(level)).getData();
-			return readChunkRecursive(shard.getElementData(position.relative(level - 1)), position, level - 1);
+			return readChunkRecursive(shard.getElementData(position.relative(level - 1)), position, level - 1, size);
+		}
+	}
+
+	/**
+	 * Decode the sub-box {@code [0, size)} of a chunk.
+	 * <p>
+	 * The whole chunk is decoded, like it would be without {@code size}, if
+	 * the {@code codec} can not decode sub-boxes of it without decoding all of
+	 * it anyway, or if the stored chunk is smaller than {@code size}, e.g., a
+	 * truncated N5 border chunk written before the dataset was enlarged.
+	 */
+	private static <T> DataBlock<T> decodeSubBox(
+			final BlockCodec<T> codec,
+			final ReadData readData,
+			final long[] gridPosition,
+			final int[] size) {
+		final int[] blockSize = codec.subBoxBlockSize(readData);
+		if (blockSize == null || blockSize.length != size.length) {
+			return codec.decode(readData, gridPosition);
+		}
+		for (int d = 0; d < size.length; d++) {
+			if (size[d] > blockSize[d]) {
+				return codec.decode(readData, gridPosition);
+			}
+		}
+		return codec.decode(readData, gridPosition, new int[size.length], size);
+	}
+
+	/**
+	 * Returns the size of the part of the chunk at {@code gridPosition}
+	 * before {@code regionMax} (exclusive, in pixels), or {@code null} if the
+	 * whole chunk is before {@code regionMax}.
+	 */
+	private int[] croppedChunkSize(final long[] gridPosition, final long[] regionMax) {
+		if (regionMax == null) {
+			return null;
 		}
+		final int n = grid.numDimensions();
+		final int[] chunkSize = grid.getBlockSize(0);
+		final long[] chunkPixelPos = grid.pixelPosition(gridPosition, 0);
+		boolean cropped = false;
+		final int[] size = new int[n];
+		for (int d = 0; d < n; d++) {
+			size[d] = (int) Math.min(chunkSize[d], regionMax[d] - chunkPixelPos[d]);
+			cropped |= size[d] < chunkSize[d];
+		}
+		return cropped ? size : null;
 	}
 
 	@Override
 	public List<DataBlock<T>> readChunks(final PositionValueAccess pva, final List<long[]> gridPositions) throws N5IOException {
+		return readChunks(pva, gridPositions, null);
+	}
+
+	/**
+	 * Read the chunks at {@code gridPositions}. If {@code regionMax != null},
+	 * only the part of each chunk before {@code regionMax} (exclusive, in
+	 * pixels) is decoded.
+	 */
+	private List<DataBlock<T>> readChunks(
+			final PositionValueAccess pva,
+			final List<long[]> gridPositions,
+			final long[] regionMax
+	) throws N5IOException {
 
 		// for non-sharded datasets, just read the chunks individually
 		if (grid.numLevels() == 1) {
-			return gridPositions.stream().map(pos -> readChunk(pva, pos)).collect(Collectors.toList());
+			return gridPositions.stream()
+					.map(pos -> readChunk(pva, pos, croppedChunkSize(pos, regionMax)))
+					.collect(Collectors.toList());
 		}
 
 		// Create a list of ChunkRequests and sort it such that requests
 		// from the same (nested) shard are grouped contiguously.
-		final ChunkRequests<T> requests = createReadRequests(gridPositions);
+		final ChunkRequests<T> requests = createReadRequests(gridPositions, regionMax);
 		final List<ChunkRequest<T>> duplicates = requests.removeDuplicates();
 
 		final List<ChunkRequests<T>> split = requests.split();
@@ -139,7 +211,7 @@ public class DefaultDatasetAccess<T> implements DatasetAccess<T> {
 			for (final ChunkRequest<T> request : requests) {
 				final long[] elementPos = request.position.relative(0);
 				final ReadData elementData = shard.getElementData(elementPos);
-				request.chunk = readChunkRecursive(elementData, request.position, 0);
+				request.chunk = readChunkRecursive(elementData, request.position, 0, request.size);
 			}
 		} else { // level > 1
 			final List<ChunkRequests<T>> split = requests.split();
@@ -470,7 +542,7 @@ public class DefaultDatasetAccess<T> implements DatasetAccess<T> {
 			// Create a list of ChunkRequests and sort it such that requests
 			// from the same (nested) shard are grouped contiguously.
 			// Despite the name, createReadRequests() works for delete requests as well ...
-			final ChunkRequests<T> requests = createReadRequests(gridPositions);
+			final ChunkRequests<T> requests = createReadRequests(gridPositions, null);
 			requests.removeDuplicates();
 
 			boolean deleted = false;
@@ -669,9 +741,13 @@ public class DefaultDatasetAccess<T> implements DatasetAccess<T> {
 			gridMax[d] = gridMin[d] + gridSize - 1;
 		}
 
-		// read all chunks in (gridMin, gridMax) and filter out missing chunks
+		// read all chunks in (gridMin, gridMax) and filter out missing chunks.
+		// chunks that extend beyond the shard are only partially decoded.
+		final long[] shardPixelPos = grid.pixelPosition(shardGridPosition, level);
+		final long[] shardPixelMax = new long[n];
+		Arrays.setAll(shardPixelMax, d -> shardPixelPos[d] + shardSizeInPixels[d]);
 		final List<long[]> chunkPositions = Region.gridPositions(gridMin, gridMax);
-		final List<DataBlock<T>> chunks = readChunks(pva, chunkPositions)
+		final List<DataBlock<T>> chunks = readChunks(pva, chunkPositions, shardPixelMax)
 				.stream().filter(Objects::nonNull).collect(Collectors.toList());
 		if (chunks.isEmpty()) {
 			return null;
@@ -679,7 +755,6 @@ public class DefaultDatasetAccess<T> implements DatasetAccess<T> {
 
 		// allocate shard and copy data from chunks
 		final DataBlock<T> shard = DataBlockFactory.of(chunks.get(0).getData()).createDataBlock(shardSizeInPixels, shardGridPosition);
-		final long[] shardPixelPos = grid.pixelPosition(shardGridPosition, level);
 		final long[] chunkPixelPos = new long[n];
 		final int[] srcPos = new int[n];
 		final int[] destPos = new int[n];
@@ -812,12 +887,14 @@ public class DefaultDatasetAccess<T> implements DatasetAccess<T> {
 
 		final NestedPosition position;
 		final int index;
+		final int[] size; // if not null, read only the sub-box [0, size) of the chunk
 		DataBlock<T> chunk;
 
 		// read request
-		ChunkRequest(final NestedPosition position, final int index) {
+		ChunkRequest(final NestedPosition position, final int index, final int[] size) {
 			this.position = position;
 			this.index = index;
+			this.size = size;
 			this.chunk = null;
 		}
 
@@ -825,6 +902,7 @@ public class DefaultDatasetAccess<T> implements DatasetAccess<T> {
 		ChunkRequest(final NestedPosition position, final DataBlock<T> chunk) {
 			this.position = position;
 			this.index = -1;
+			this.size = null;
 			this.chunk = chunk;
 		}
 
@@ -1002,12 +1080,16 @@ public class DefaultDatasetAccess<T> implements DatasetAccess<T> {
 	 * any level. {@link ChunkRequests#split() Splitting} the {@code
 	 * ChunkRequests} once will return a list of {@code ChunkRequests}
 	 * that each contain chunks from one highest-order shard.
+	 * <p>
+	 * If {@code regionMax != null}, the requests only read the part of each
+	 * chunk before {@code regionMax} (see {@link #croppedChunkSize}).
 	 */
-	private ChunkRequests<T> createReadRequests(final List<long[]> gridPositions) {
+	private ChunkRequests<T> createReadRequests(final List<long[]> gridPositions, final long[] regionMax) {
 		final List<ChunkRequest<T>> requests = new ArrayList<>(gridPositions.size());
 		for (int i = 0; i < gridPositions.size(); i++) {
-			final NestedPosition pos = grid.nestedPosition(gridPositions.get(i));
-			requests.add(new ChunkRequest<>(pos, i));
+			final long[] gridPosition = gridPositions.get(i);
+			final NestedPosition pos = grid.nestedPosition(gridPosition);
+			requests.add(new ChunkRequest<>(pos, i, croppedChunkSize(gridPosition, regionMax)));
 		}
 		requests.sort(Comparator.comparing(r -> r.position));
 		return new ChunkRequests<>(requests, grid.numLevels(), grid);
@@ -16,18 +16,29 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.janelia.saalfeldlab.n5.N5Exception.N5ClassCastException;
 import org.janelia.saalfeldlab.n5.N5Reader.Version;
+import org.janelia.saalfeldlab.n5.codec.DataCodecInfo;
+import org.janelia.saalfeldlab.n5.codec.DatasetCodecInfo;
+import org.janelia.saalfeldlab.n5.codec.FrameOfReferenceCodec;
+import org.janelia.saalfeldlab.n5.codec.framed.FramedCodecInfo;
+import org.janelia.saalfeldlab.n5.codec.quantize.QuantizeCodecInfo;
 import org.janelia.saalfeldlab.n5.url.UriAttributeTest;
 import org.junit.After;
 import org.junit.Assert;
@@ -222,6 +233,84 @@ public abstract class AbstractN5Test {
 			assertEquals(DataType.UINT64, info.getDataType());
 	}
 
+	@Test
+	public void testCreateDatasets() throws InterruptedException, ExecutionException {
+
+		final Map<String, DatasetAttributes> datasets = new LinkedHashMap<>();
+		for (int i = 0; i < 3; ++i)
+			for (int s = 0; s < 3; ++s)
+				datasets.put("/crops/c" + i + "/s" + s, new DatasetAttributes(dimensions, blockSize, DataType.UINT8, new RawCompression()));
+		datasets.put("other", new DatasetAttributes(dimensions, blockSize, DataType.FLOAT32, new RawCompression()));
+
+		final ExecutorService exec = Executors.newFixedThreadPool(4);
+		try (N5Writer writer = createTempN5Writer()) {
+
+			writer.createGroup("crops/c0/s0");
+			writer.setAttribute("crops/c0/s0", "keep", "me");
+
+			final Map<String, DatasetAttributes> created = writer.createDatasets(datasets);
+			assertEquals(datasets.keySet(), created.keySet());
+			final Map<String, DatasetAttributes> createdInParallel = writer.createDatasets(
+					Collections.singletonMap("parallel/s0", datasets.get("other")), exec);
+			assertEquals(Collections.singleton("parallel/s0"), createdInParallel.keySet());
+			final Map<String, DatasetAttributes> parallelDatasets = new HashMap<>();
+			for (final Map.Entry<String, DatasetAttributes> entry : datasets.entrySet())
+				parallelDatasets.put("parallel/" + entry.getKey().replaceFirst("^/", ""), entry.getValue());
+			assertEquals(parallelDatasets.keySet(), writer.createDatasets(parallelDatasets, exec).keySet());
+
+			for (final String datasetPath : datasets.keySet()) {
+				assertTrue(datasetPath, writer.datasetExists(datasetPath));
+				final DatasetAttributes info = writer.getDatasetAttributes(datasetPath);
+				assertArrayEquals(dimensions, info.getDimensions());
+				assertEquals(datasets.get(datasetPath).getDataType(), info.getDataType());
+			}
+			assertTrue(writer.datasetExists("parallel/s0"));
+			for (final String datasetPath : parallelDatasets.keySet())
+				assertTrue(datasetPath, writer.datasetExists(datasetPath));
+			assertTrue(writer.exists("crops/c2"));
+			assertFalse(writer.datasetExists("crops/c2"));
+			assertArrayEquals(new String[]{"c0", "c1", "c2"}, sorted(writer.list("crops")));
+			assertArrayEquals(new String[]{"s0", "s1", "s2"}, sorted(writer.list("crops/c1")));
+			assertEquals("me", writer.getAttribute("crops/c0/s0", "keep", String.class));
+		} finally {
+			exec.shutdown();
+		}
+	}
+
+	@Test
+	public void testRemoveInParallel() throws InterruptedException, ExecutionException {
+
+		final int[] smallBlockSize = {2, 2, 2};
+		final DatasetAttributes attributes = new DatasetAttributes(new long[]{16, 16, 16}, smallBlockSize, DataType.UINT8, new RawCompression());
+		final byte[] data = new byte[8];
+
+		final ExecutorService exec = Executors.newFixedThreadPool(4);
+		try (N5Writer writer = createTempN5Writer()) {
+
+			for (final String path : new String[]{"remove/a/s0", "remove/b", "exclusive/s0", "keep/s0"}) {
+				final DatasetAttributes created = writer.createDataset(path, attributes);
+				for (int z = 0; z < 8; ++z)
+					for (int y = 0; y < 8; ++y)
+						for (int x = 0; x < 8; ++x)
+							writer.writeBlock(path, created, new ByteArrayDataBlock(smallBlockSize, new long[]{x, y, z}, data));
+			}
+			writer.setAttribute("remove/a", "some", "attribute");
+
+			assertTrue(writer.remove("remove", exec));
+			assertTrue(writer.remove("exclusive/s0", exec, true));
+			assertTrue(writer.remove("missing", exec));
+
+			assertFalse(writer.exists("remove"));
+			assertFalse(writer.exists("remove/a/s0"));
+			assertFalse(writer.exists("exclusive/s0"));
+			assertTrue(writer.exists("exclusive"));
+			assertTrue(writer.datasetExists("keep/s0"));
+			assertNotNull(writer.readBlock("keep/s0", writer.getDatasetAttributes("keep/s0"), 7, 7, 7));
+		} finally {
+			exec.shutdown();
+		}
+	}
+
 	@Test
 	public void testBlocksLargerThanDimensions() {
 
@@ -448,6 +537,76 @@ public abstract class AbstractN5Test {
 		}
 	}
 
+	@Test
+	public void testWriteReadQuantizedFloatBlock() {
+
+		try (final N5Writer n5 = createTempN5Writer()) {
+			final QuantizeCodecInfo quantize = new QuantizeCodecInfo(0.001, DataType.INT32);
+			n5.createDataset(datasetName, DatasetAttributes.builder(dimensions, DataType.FLOAT32)
+					.blockSize(blockSize)
+					.datasetCodecs(quantize)
+					.compression(new GzipCompression())
+					.build());
+			final DatasetAttributes attributes = n5.getDatasetAttributes(datasetName);
+			assertEquals(DataType.FLOAT32, attributes.getDataType());
+			assertArrayEquals(new DatasetCodecInfo[]{quantize}, attributes.getDatasetCodecInfos());
+			assertEquals(new GzipCompression(), attributes.getCompression());
+
+			final Random rnd = new Random(7);
+			final float[] values = new float[floatBlock.length];
+			for (int i = 0; i < values.length; i++)
+				values[i] = rnd.nextFloat() * 100;
+			final FloatArrayDataBlock dataBlock = new FloatArrayDataBlock(blockSize, new long[]{0, 0, 0}, values);
+			n5.writeBlock(datasetName, attributes, dataBlock);
+
+			final DataBlock<?> loadedDataBlock = n5.readBlock(datasetName, attributes, 0, 0, 0);
+
+			assertArrayEquals(values, (float[])loadedDataBlock.getData(), 0.0005f + 1e-5f);
+		}
+	}
+
+	@Test
+	public void testWriteReadDataCodecChain() throws IOException, URISyntaxException {
+
+		// more than one data codec can not be stored in the legacy "compression" attribute
+		testWriteReadIntBlock(new GzipCompression(), new GzipCompression(9));
+	}
+
+	@Test
+	public void testWriteReadFrameOfReference() throws IOException, URISyntaxException {
+
+		testWriteReadIntBlock(new FrameOfReferenceCodec(4), new GzipCompression());
+	}
+
+	@Test
+	public void testWriteReadFramed() throws IOException, URISyntaxException {
+
+		testWriteReadIntBlock(new FramedCodecInfo(new GzipCompression(), 64));
+	}
+
+	/**
+	 * Write an int block to a dataset with the given data codecs, and read it
+	 * back with the dataset attributes as they were persisted.
+	 */
+	protected void testWriteReadIntBlock(final DataCodecInfo... dataCodecInfos) throws IOException, URISyntaxException {
+
+		try (final N5Writer n5 = createTempN5Writer()) {
+			n5.createDataset(datasetName, new DatasetAttributes(dimensions, blockSize, DataType.INT32, dataCodecInfos));
+			final DatasetAttributes attributes = n5.getDatasetAttributes(datasetName);
+			assertArrayEquals(dataCodecInfos, attributes.getDataCodecInfos());
+
+			final IntArrayDataBlock dataBlock = new IntArrayDataBlock(blockSize, new long[]{0, 0, 0}, intBlock);
+			n5.writeBlock(datasetName, attributes, dataBlock);
+
+			try (final N5Reader reader = createN5Reader(n5.getURI().toString())) {
+				final DatasetAttributes readAttributes = reader.getDatasetAttributes(datasetName);
+				assertArrayEquals(dataCodecInfos, readAttributes.getDataCodecInfos());
+				final DataBlock<?> loadedDataBlock = reader.readBlock(datasetName, readAttributes, 0, 0, 0);
+				assertArrayEquals(intBlock, (int[])loadedDataBlock.getData());
+			}
+		}
+	}
+
 	@Test
 	public void testReadChunkVsBlock() {
 
@@ -956,6 +1115,46 @@ public abstract class AbstractN5Test {
 		}
 	}
 
+	@Test
+	public void testAttributeTransaction() throws IOException, URISyntaxException {
+
+		try (N5Writer writer = createTempN5Writer()) {
+
+			writer.createGroup("a");
+			writer.createGroup("b");
+			writer.setAttribute("a", "old", "x");
+			writer.setAttribute("b", "keep", 1);
+
+			final Map<String, Object> attributes = new HashMap<>();
+			attributes.put("c/d", 2.0);
+			attributes.put("e[1]", 3);
+			writer.applyAttributes(new AttributeTransaction()
+					.setAttribute("a", "foo", "bar")
+					.setAttributes("/a/", attributes)
+					.removeAttribute("a", "old")
+					.setAttribute("b", "list", new int[]{1, 2})
+					.removeAttribute("b", "missing")
+					.setAttribute("a", "foo", "baz")
+					.removeAttribute("not/a/group", "foo"));
+
+			assertEquals("baz", writer.getAttribute("a", "foo", String.class));
+			assertEquals(2.0, writer.getAttribute("a", "c/d", Double.class), 1e-9);
+			assertEquals((Integer)3, writer.getAttribute("a", "e[1]", Integer.class));
+			assertNull(writer.getAttribute("a", "old", String.class));
+			assertEquals((Integer)1, writer.getAttribute("b", "keep", Integer.class));
+			assertArrayEquals(new int[]{1, 2}, writer.getAttribute("b", "list", int[].class));
+			assertFalse(writer.exists("not/a/group"));
+
+			// removing the root removes all attributes
+			writer.applyAttributes(new AttributeTransaction().removeAttribute("a", "/").setAttribute("a", "x", 1));
+			assertEquals((Integer)1, writer.getAttribute("a", "x", Integer.class));
+			assertNull(writer.getAttribute("a", "foo", String.class));
+
+			assertThrows(N5Exception.class, () -> writer.applyAttributes(
+					new AttributeTransaction().setAttribute("not/a/group", "foo", "bar")));
+		}
+	}
+
 	@Test
 	public void testRemoveContainer() throws IOException, URISyntaxException {
 
@@ -1142,6 +1341,73 @@ public abstract class AbstractN5Test {
 		}
 	}
 
+	@Test
+	public void testDeepListStream() throws ExecutionException, InterruptedException {
+
+		try (final N5Writer n5 = createTempN5Writer()) {
+
+			for (final String subGroup : subGroupNames)
+				n5.createGroup(groupName + "/" + subGroup);
+			final DatasetAttributes datasetAttributes = new DatasetAttributes(dimensions, blockSize, DataType.UINT64);
+			n5.createDataset(datasetName, datasetAttributes);
+			n5.writeBlock(datasetName, datasetAttributes, new LongArrayDataBlock(blockSize, new long[]{0, 0, 0}, new long[blockNumElements]));
+
+			final Predicate<String> isBorC = d -> d.matches(".*/[bc]$");
+			final ForkJoinPool pool = new ForkJoinPool(2);
+			try {
+				for (final String prefix : new String[]{"", "/", "/test"}) {
+
+					final String[] expected = sorted(n5.deepList(prefix));
+					try (final Stream<String> stream = n5.deepListStream(prefix, a -> true, false)) {
+						assertArrayEquals(expected, sorted(stream.toArray(String[]::new)));
+					}
+					try (final Stream<String> stream = n5.deepListStream(prefix, a -> true, false, pool, 2)) {
+						assertArrayEquals(expected, sorted(stream.toArray(String[]::new)));
+					}
+
+					final String[] expectedDatasets = sorted(n5.deepListDatasets(prefix));
+					try (final Stream<String> stream = n5.deepListStream(prefix, a -> true, true, pool, 2)) {
+						assertArrayEquals(expectedDatasets, sorted(stream.toArray(String[]::new)));
+					}
+
+					final String[] expectedFiltered = sorted(n5.deepList(prefix, isBorC));
+					try (final Stream<String> stream = n5.deepListStream(prefix, isBorC, false, pool, 1)) {
+						assertArrayEquals(expectedFiltered, sorted(stream.toArray(String[]::new)));
+					}
+				}
+
+				// the sequential traversal lists parents before their children
+				try (final Stream<String> stream = n5.deepListStream("/", a -> true, false)) {
+					final List<String> paths = stream.collect(Collectors.toList());
+					assertTrue(paths.indexOf("test") < paths.indexOf("test/group"));
+					assertTrue(paths.indexOf("test/group") < paths.indexOf("test/group/a"));
+				}
+
+				// closing the stream early stops the traversal
+				try (final Stream<String> stream = n5.deepListStream("/", a -> true, false, pool, 2)) {
+					assertEquals(1, stream.limit(1).count());
+				}
+
+				// a missing base path fails like deepList
+				assertThrows(N5Exception.class, () -> n5.deepList("/missing"));
+				try (final Stream<String> stream = n5.deepListStream("/missing", a -> true, false)) {
+					assertThrows(N5Exception.class, () -> stream.count());
+				}
+				try (final Stream<String> stream = n5.deepListStream("/missing", a -> true, false, pool, 2)) {
+					assertThrows(N5Exception.class, () -> stream.count());
+				}
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	private static String[] sorted(final String[] paths) {
+
+		Arrays.sort(paths);
+		return paths;
+	}
+
 	@Test
 	public void testExists() {
 
@@ -6,14 +6,23 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteOrder;
+
+import org.janelia.saalfeldlab.n5.codec.CodecInfo;
 import org.janelia.saalfeldlab.n5.codec.DataCodecInfo;
+import org.janelia.saalfeldlab.n5.codec.DatasetCodecInfo;
 import org.janelia.saalfeldlab.n5.codec.N5BlockCodecInfo;
 import org.janelia.saalfeldlab.n5.codec.RawBlockCodecInfo;
+import org.janelia.saalfeldlab.n5.codec.quantize.QuantizeCodecInfo;
 import org.janelia.saalfeldlab.n5.shard.DefaultShardCodecInfo;
 import org.janelia.saalfeldlab.n5.shard.Nesting.NestedGrid;
 import org.janelia.saalfeldlab.n5.shard.ShardIndex.IndexLocation;
 import org.junit.Test;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
 /**
  * Unit tests for DatasetAttributes class.
  */
@@ -162,4 +171,80 @@ public class DatasetAttributesTest {
 				() -> shardDatasetAttributes(dimensions, new int[]{0, 64, 64}, new int[]{64, 64, 64}, dataType));
 	}
 
+
+	@Test
+	public void testCodecsJsonRoundTrip() {
+
+		final GsonBuilder gsonBuilder = new GsonBuilder();
+		gsonBuilder.registerTypeAdapter(DataType.class, new DataType.JsonAdapter());
+		gsonBuilder.registerTypeAdapter(ByteOrder.class, RawBlockCodecInfo.byteOrderAdapter);
+		gsonBuilder.registerTypeHierarchyAdapter(CodecInfo.class, NameConfigAdapter.getJsonAdapter(CodecInfo.class));
+		gsonBuilder.registerTypeHierarchyAdapter(Compression.class, CompressionAdapter.getJsonAdapter());
+		gsonBuilder.registerTypeHierarchyAdapter(DatasetAttributes.class, DatasetAttributes.getJsonAdapter());
+		final Gson gson = gsonBuilder.create();
+
+		final long[] dims = new long[]{100, 200};
+		final int[] blk = new int[]{32, 32};
+
+		// legacy attributes are serialized with a compression
+		final DatasetAttributes legacy = DatasetAttributes.builder(dims, DataType.FLOAT32)
+				.blockSize(blk).compression(new GzipCompression(5)).build();
+		final JsonObject legacyJson = gson.toJsonTree(legacy).getAsJsonObject();
+		assertTrue(legacyJson.has(DatasetAttributes.COMPRESSION_KEY));
+		assertFalse(legacyJson.has(DatasetAttributes.CODEC_KEY));
+
+		// dataset codecs require the codecs key
+		final QuantizeCodecInfo quantize = new QuantizeCodecInfo(0.001, -1, DataType.UINT16);
+		final DatasetAttributes quantized = DatasetAttributes.builder(dims, DataType.FLOAT32)
+				.blockSize(blk)
+				.datasetCodecs(quantize)
+				.compression(new GzipCompression(5))
+				.build();
+
+		final JsonObject json = gson.toJsonTree(quantized).getAsJsonObject();
+		assertTrue(json.has(DatasetAttributes.CODEC_KEY));
+		assertFalse(json.has(DatasetAttributes.COMPRESSION_KEY));
+		assertEquals(3, json.getAsJsonArray(DatasetAttributes.CODEC_KEY).size());
+
+		final DatasetAttributes deserialized = gson.fromJson(json, DatasetAttributes.class);
+		assertArrayEquals(dims, deserialized.getDimensions());
+		assertArrayEquals(blk, deserialized.getBlockSize());
+		assertEquals(DataType.FLOAT32, deserialized.getDataType());
+		assertArrayEquals(new DatasetCodecInfo[]{quantize}, deserialized.getDatasetCodecInfos());
+		assertEquals(1, deserialized.getDataCodecInfos().length);
+		assertEquals(new GzipCompression(5), deserialized.getDataCodecInfos()[0]);
+
+		// asMap uses the same representation
+		assertTrue(quantized.asMap().containsKey(DatasetAttributes.CODEC_KEY));
+		assertFalse(legacy.asMap().containsKey(DatasetAttributes.CODEC_KEY));
+
+		// sharded datasets can not be described by a compression
+		final DatasetAttributes sharded = shardDatasetAttributes(dims, new int[]{64, 64}, blk, DataType.FLOAT32);
+		assertTrue(gson.toJsonTree(sharded).getAsJsonObject().has(DatasetAttributes.CODEC_KEY));
+		assertTrue(sharded.asMap().containsKey(DatasetAttributes.CODEC_KEY));
+
+		// neither can more than one data codec
+		final DatasetAttributes chained = new DatasetAttributes(dims, blk, DataType.FLOAT32,
+				new GzipCompression(5), new GzipCompression(9));
+		final JsonObject chainedJson = gson.toJsonTree(chained).getAsJsonObject();
+		assertTrue(chainedJson.has(DatasetAttributes.CODEC_KEY));
+		assertArrayEquals(chained.getDataCodecInfos(), gson.fromJson(chainedJson, DatasetAttributes.class).getDataCodecInfos());
+
+		// dataset codecs inside of shards require the codecs key
+		final DatasetAttributes shardedQuantized = new DatasetAttributes(dims, new int[]{64, 64}, DataType.FLOAT32,
+				new DefaultShardCodecInfo(
+						blk,
+						new DatasetCodecInfo[]{quantize},
+						new N5BlockCodecInfo(),
+						new DataCodecInfo[]{new GzipCompression(5)},
+						new RawBlockCodecInfo(),
+						new DataCodecInfo[]{},
+						IndexLocation.END));
+		final JsonObject shardedJson = gson.toJsonTree(shardedQuantized).getAsJsonObject();
+		assertTrue(shardedJson.has(DatasetAttributes.CODEC_KEY));
+		final DatasetAttributes shardedDeserialized = gson.fromJson(shardedJson, DatasetAttributes.class);
+		assertArrayEquals(new int[]{64, 64}, shardedDeserialized.getBlockSize());
+		assertArrayEquals(blk, shardedDeserialized.getChunkSize());
+		assertTrue(shardedDeserialized.isSharded());
+	}
 }
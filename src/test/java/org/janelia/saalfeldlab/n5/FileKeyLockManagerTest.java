@@ -161,6 +161,69 @@ public class FileKeyLockManagerTest {
 		assertEquals("Reader should see written content", writtenContent, readContent.get());
 	}
 
+	@Test
+	public void testLockFairness() throws Exception {
+
+		final Path testFile = tempDir.resolve("fairness.txt");
+		Files.write(testFile, "fairness".getBytes());
+
+		for (final LockFairness fairness : LockFairness.values()) {
+			final FileKeyLockManager manager = FileKeyLockManager.forPolicy(LockingPolicy.UNSAFE, fairness);
+			final LockedFileChannel firstRead = manager.lockForReading(testFile);
+
+			// a writer waits for the reader that holds the lock
+			final AtomicInteger order = new AtomicInteger();
+			final AtomicInteger writeOrder = new AtomicInteger();
+			final AtomicInteger secondReadOrder = new AtomicInteger();
+			final Thread writer = new Thread(() -> {
+				try (final LockedFileChannel lock = manager.lockForWriting(testFile)) {
+					writeOrder.set(order.incrementAndGet());
+				} catch (final IOException e) {
+					e.printStackTrace();
+				}
+			});
+			writer.start();
+			awaitWaiting(writer);
+
+			// another reader joins the reader, or waits for the writer
+			final Thread reader = new Thread(() -> {
+				try (final LockedFileChannel lock = manager.lockForReading(testFile)) {
+					secondReadOrder.set(order.incrementAndGet());
+				} catch (final IOException e) {
+					e.printStackTrace();
+				}
+			});
+			reader.start();
+			if (fairness == LockFairness.WRITER_PREFERRING) {
+				awaitWaiting(reader);
+				assertEquals(0, secondReadOrder.get());
+			} else {
+				reader.join();
+				assertEquals(1, secondReadOrder.get());
+			}
+
+			firstRead.close();
+			writer.join();
+			reader.join();
+			if (fairness == LockFairness.WRITER_PREFERRING) {
+				assertEquals(1, writeOrder.get());
+				assertEquals(2, secondReadOrder.get());
+			} else
+				assertEquals(2, writeOrder.get());
+		}
+	}
+
+	/**
+	 * Waits until {@code thread} waits for a lock.
+	 */
+	private static void awaitWaiting(final Thread thread) throws InterruptedException {
+
+		while (thread.getState() != Thread.State.WAITING) {
+			assertTrue(thread.isAlive());
+			Thread.sleep(1);
+		}
+	}
+
 	private class CleanUpHelper implements Closeable {
 
 		private final Path path;
@@ -204,4 +204,31 @@ public class FsLockTest {
         Files.delete(path);
         exec.shutdownNow();
     }
+
+    @Test
+    public void testLockAcrossPolicies() throws IOException, ExecutionException, InterruptedException, TimeoutException {
+
+        final Path path = Paths.get(tempPathName(), "lock");
+        final ExecutorService exec = Executors.newSingleThreadExecutor();
+
+        // locks with different policies exclude each other in the same JVM
+        final LockedFileChannel lock = FileKeyLockManager.forPolicy(LockingPolicy.STRICT).lockForWriting(path);
+        final Future<Void> future = exec.submit(() -> {
+            FileKeyLockManager.forPolicy(LockingPolicy.PERMISSIVE).lockForReading(path).close();
+            return null;
+        });
+
+        try {
+            future.get(200, TimeUnit.MILLISECONDS);
+            fail("Lock broken!");
+        } catch (final TimeoutException e) {
+            // expected
+        } finally {
+            lock.close();
+        }
+
+        future.get(3, TimeUnit.SECONDS);
+        Files.delete(path);
+        exec.shutdownNow();
+    }
 }
@@ -0,0 +1,64 @@
+package org.janelia.saalfeldlab.n5;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonSyntaxException;
+
+public class GsonUtilsTest {
+
+	private static final Gson gson = new GsonBuilder().create();
+
+	private static final String json = "{"
+			+ "\"a\": 1,"
+			+ "\"b\": {\"c\": [1, 2, {\"d\": \"e\"}], \"f\": null},"
+			+ "\"g/h\": true,"
+			+ "\"[0]\": \"not an array\","
+			+ "\"large\": [[0, 1, 2], [3, 4, 5], {\"x\": {\"y\": []}}],"
+			+ "\"z\": \"last\""
+			+ "}";
+
+	@Test
+	public void testStreamingReadAttribute() throws IOException {
+
+		final JsonElement root = GsonUtils.readAttributes(new StringReader(json), gson);
+		final String[] paths = {
+				"/", "a", "/a", "b", "b/c", "b/c/[0]", "b/c/[2]/d", "b/c/[3]", "b/c/[-1]", "b/f", "b/f/x",
+				"g\\/h", "[0]", "large/[2]/x/y", "z", "missing", "a/b", "b/c/d", "z/[0]"};
+
+		for (final String path : paths) {
+			final String normalPath = N5URI.normalizeAttributePath(path);
+			assertEquals(
+					path,
+					GsonUtils.getAttribute(root, normalPath),
+					GsonUtils.readAttribute(new StringReader(json), normalPath, gson));
+		}
+	}
+
+	@Test
+	public void testStreamingReadAttributeEmpty() throws IOException {
+
+		assertNull(GsonUtils.readAttribute(new StringReader(""), "a", gson));
+		assertNull(GsonUtils.readAttribute(new StringReader(""), "/", gson));
+		assertNull(GsonUtils.readAttribute(new StringReader("[]"), "a", gson));
+		assertNull(GsonUtils.readAttribute(new StringReader("1"), "a", gson));
+	}
+
+	@Test
+	public void testStreamingReadAttributeMalformed() {
+
+		for (final String malformed : new String[]{"{\"a\": }", "{\"a\": {\"b\": 1", "}"}) {
+			assertThrows(JsonSyntaxException.class, () -> GsonUtils.readAttributes(new StringReader(malformed), gson));
+			assertThrows(JsonSyntaxException.class, () -> GsonUtils.readAttribute(new StringReader(malformed), "a/c", gson));
+		}
+	}
+}
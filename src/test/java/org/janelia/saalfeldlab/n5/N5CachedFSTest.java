@@ -1,23 +1,33 @@
 package org.janelia.saalfeldlab.n5;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.janelia.saalfeldlab.n5.cache.N5JsonCache;
+import org.janelia.saalfeldlab.n5.readdata.VolatileReadData;
 import org.junit.Test;
 
 import com.google.gson.GsonBuilder;
@@ -134,10 +144,329 @@ public class N5CachedFSTest extends N5FSTest {
 			assertNotNull(w1.getDatasetAttributes(datasetName));
 			assertNull(w2.getDatasetAttributes(datasetName));
 
+			// in containers where datasets are not groups, createDatasets does
+			// not make groups on existing datasets, like createDataset
+			final DatasetAttributes attributes = new DatasetAttributes(dimensions, blockSize, DataType.UINT8, new RawCompression());
+			try (final N5KeyValueWriter w3 = new N5KeyValueWriter(new FileSystemKeyValueAccess(), tmpLocation, new GsonBuilder(), true) {
+
+				@Override
+				public boolean isGroupFromAttributes(final String normalCacheKey, final JsonElement attributes) {
+
+					return createDatasetAttributes(attributes) == null;
+				}
+
+				@Override
+				public boolean isDatasetFromAttributes(final String normalCacheKey, final JsonElement attributes) {
+
+					return createDatasetAttributes(attributes) != null;
+				}
+			}) {
+				w3.createDataset(datasetName, attributes);
+				assertThrows(N5Exception.class, () -> w3.createDataset(datasetName, attributes));
+				assertThrows(N5Exception.class, () -> w3.createDatasets(Collections.singletonMap(datasetName, attributes)));
+			}
+
 			w1.remove();
 		}
 	}
 
+	@Test
+	public void cacheDatasetAttributesTest() throws IOException, URISyntaxException {
+
+		final String datasetName = "dd";
+		try (N5Writer n5 = createN5Writer()) {
+
+			n5.createDataset(datasetName, dimensions, blockSize, DataType.UINT8, new RawCompression());
+			final DatasetAttributes attributes = n5.getDatasetAttributes(datasetName);
+			assertNotNull(attributes);
+			assertSame(attributes, n5.getDatasetAttributes(datasetName));
+
+			// unrelated attribute changes invalidate the cached instance
+			n5.setAttribute(datasetName, "foo", "bar");
+			final DatasetAttributes updated = n5.getDatasetAttributes(datasetName);
+			assertNotSame(attributes, updated);
+			assertArrayEquals(attributes.getDimensions(), updated.getDimensions());
+			assertSame(updated, n5.getDatasetAttributes(datasetName));
+
+			// re-creating the dataset invalidates the cached instance
+			final long[] newDimensions = {dimensions[0] * 2, dimensions[1], dimensions[2]};
+			n5.createDataset(datasetName, newDimensions, blockSize, DataType.UINT16, new RawCompression());
+			final DatasetAttributes recreated = n5.getDatasetAttributes(datasetName);
+			assertArrayEquals(newDimensions, recreated.getDimensions());
+			assertEquals(DataType.UINT16, recreated.getDataType());
+
+			// removing the dataset removes the cached instance
+			n5.remove(datasetName);
+			assertNull(n5.getDatasetAttributes(datasetName));
+		}
+	}
+
+	@Test
+	public void cacheRevalidationTest() throws IOException, URISyntaxException, InterruptedException {
+
+		final String loc = tempN5Location();
+		try (final N5Writer writer = new N5FSWriter(loc, false);
+				final N5Reader reader = new N5FSReader(loc, true) {
+
+					@Override
+					public N5JsonCache newCache() {
+
+						return new N5JsonCache(this, Long.MAX_VALUE, 0);
+					}
+				}) {
+
+			writer.createGroup("g");
+			writer.setAttribute("g", "a", "1");
+			assertEquals("1", reader.getAttribute("g", "a", String.class));
+			assertArrayEquals(new String[0], reader.list("g"));
+
+			// changes made by another writer are picked up
+			writer.setAttribute("g", "a", "22");
+			assertEquals("22", reader.getAttribute("g", "a", String.class));
+
+			writer.createGroup("g/c");
+			assertArrayEquals(new String[]{"c"}, reader.list("g"));
+			assertTrue(reader.exists("g/c"));
+			writer.remove("g/c");
+			assertFalse(reader.exists("g/c"));
+
+			writer.remove();
+		}
+	}
+
+	@Test
+	public void cacheRevalidationAfterWriteTest() throws IOException, URISyntaxException {
+
+		final String loc = tempN5Location();
+		try (final N5FSWriter writer = new N5FSWriter(loc, true) {
+
+					@Override
+					public N5JsonCache newCache() {
+
+						return new N5JsonCache(this, Long.MAX_VALUE, 0);
+					}
+				}) {
+
+			// nodes created or written by the writer are not reloaded on revalidation
+			writer.createGroup("g");
+			writer.setAttribute("g", "a", "1");
+			final long misses = writer.getCache().getMissCount();
+			assertEquals("1", writer.getAttribute("g", "a", String.class));
+			assertTrue(writer.exists("g"));
+			assertEquals(misses, writer.getCache().getMissCount());
+
+			writer.remove();
+		}
+	}
+
+	@Test
+	public void consolidatedMetadataTest() throws IOException, URISyntaxException {
+
+		final String loc = tempN5Location();
+		try (final N5KeyValueWriter writer = new N5FSWriter(loc, true)) {
+
+			writer.createGroup("a/b");
+			writer.setAttribute("a", "foo", "bar");
+			writer.createDataset("a/d", dimensions, blockSize, DataType.UINT8, new RawCompression());
+			writer.consolidateMetadata();
+
+			try (final N5KeyValueReader reader = new N5KeyValueReader(new FileSystemKeyValueAccess(), loc, new GsonBuilder(), true, false, true)) {
+
+				// the whole hierarchy is read from the consolidated metadata
+				assertArrayEquals(new String[]{"a"}, reader.list("/"));
+				assertArrayEquals(new String[]{"b", "d"}, reader.list("a"));
+				assertEquals("bar", reader.getAttribute("a", "foo", String.class));
+				assertTrue(reader.groupExists("a/b"));
+				assertTrue(reader.datasetExists("a/d"));
+				assertArrayEquals(dimensions, reader.getDatasetAttributes("a/d").getDimensions());
+				assertEquals(0, reader.getCache().getMissCount());
+			}
+
+			// consolidated metadata are opt-in
+			try (final N5FSReader reader = new N5FSReader(loc, true)) {
+				assertArrayEquals(new String[]{"b", "d"}, reader.list("a"));
+				assertTrue(reader.getCache().getMissCount() > 0);
+			}
+
+			// changes delete outdated consolidated metadata
+			final Path consolidated = Paths.get(URI.create(loc).getPath(), N5KeyValueReader.CONSOLIDATED_JSON);
+			assertTrue(Files.exists(consolidated));
+			writer.setAttribute("a", "foo", "baz");
+			assertFalse(Files.exists(consolidated));
+			try (final N5KeyValueReader reader = new N5KeyValueReader(new FileSystemKeyValueAccess(), loc, new GsonBuilder(), true, false, true)) {
+				assertEquals("baz", reader.getAttribute("a", "foo", String.class));
+			}
+			for (final Runnable change : new Runnable[]{
+					() -> writer.createGroup("a/e"),
+					() -> writer.remove("a/e"),
+					() -> writer.createDataset("a/f", dimensions, blockSize, DataType.UINT8, new RawCompression()),
+					() -> writer.removeAttribute("a", "foo")}) {
+				writer.consolidateMetadata();
+				assertTrue(Files.exists(consolidated));
+				change.run();
+				assertFalse(Files.exists(consolidated));
+			}
+
+			// also if they were written by another writer
+			try (final N5KeyValueWriter other = new N5FSWriter(loc, true)) {
+				other.consolidateMetadata();
+			}
+			assertTrue(Files.exists(consolidated));
+			writer.createGroup("a/g");
+			assertFalse(Files.exists(consolidated));
+
+			writer.remove();
+		}
+	}
+
+	@Test
+	public void attributeTransactionTest() throws IOException, URISyntaxException {
+
+		final String loc = tempN5Location();
+		try (final N5TrackingStorage n5 = new N5TrackingStorage(new FileSystemKeyValueAccess(), loc,
+				new GsonBuilder(), true)) {
+
+			n5.createGroup("a");
+			n5.createGroup("b");
+			n5.setAttribute("a", "old", "x");
+
+			final int writeCount = n5.getWriteAttrCallCount();
+			final int attrCount = n5.getAttrCallCount();
+			n5.applyAttributes(new AttributeTransaction()
+					.setAttribute("a", "foo", "bar")
+					.setAttribute("b", "foo", "baz")
+					.setAttribute("a", "x/y", 1)
+					.removeAttribute("a", "old")
+					.removeAttribute("b", "missing"));
+
+			// one write per group, attributes are read from the cache
+			assertEquals(writeCount + 2, n5.getWriteAttrCallCount());
+			assertEquals(attrCount, n5.getAttrCallCount());
+			assertEquals("bar", n5.getAttribute("a", "foo", String.class));
+			assertEquals((Integer)1, n5.getAttribute("a", "x/y", Integer.class));
+			assertNull(n5.getAttribute("a", "old", String.class));
+			assertEquals("baz", n5.getAttribute("b", "foo", String.class));
+
+			// nothing is written if nothing changes
+			n5.applyAttributes(new AttributeTransaction().removeAttribute("a", "missing"));
+			assertEquals(writeCount + 2, n5.getWriteAttrCallCount());
+
+			n5.remove();
+		}
+	}
+
+	@Test
+	public void openContainerTest() throws IOException, URISyntaxException, InterruptedException {
+
+		final String loc = tempN5Location();
+		try (final N5Writer writer = createN5Writer(loc, false)) {
+
+			writer.createGroup("g");
+			writer.setAttribute("g", "a", "b");
+
+			// the root attributes are read once, and answer all checks
+			for (final boolean cache : new boolean[]{false, true}) {
+				final CountingKeyValueAccess kva = new CountingKeyValueAccess();
+				try (final N5KeyValueReader reader = new N5KeyValueReader(kva, loc, new GsonBuilder(), cache)) {
+					assertEquals(1, kva.attributeReads);
+					assertEquals(0, kva.probes);
+					assertEquals(writer.getVersion(), reader.getVersion());
+					if (cache)
+						assertEquals(1, kva.attributeReads);
+				}
+			}
+
+			// trusted readers do not access the container when opening it
+			final CountingKeyValueAccess kva = new CountingKeyValueAccess();
+			try (final N5KeyValueReader reader = new N5KeyValueReader(kva, loc, new GsonBuilder(), true, true)) {
+				assertEquals(0, kva.attributeReads + kva.probes);
+				assertEquals("b", reader.getAttribute("g", "a", String.class));
+				assertEquals(2, kva.attributeReads);
+			}
+
+			// and fail on first access if the container is not valid
+			final String missing = URI.create(loc).resolve("missing").toString();
+			try (final N5FSReader reader = new N5FSReader(missing, new GsonBuilder(), false, true)) {
+				assertThrows(N5Exception.N5IOException.class, () -> reader.getAttribute("/", "a", String.class));
+				assertThrows(N5Exception.N5IOException.class, () -> reader.exists("g"));
+			}
+			assertThrows(N5Exception.N5IOException.class, () -> new N5FSReader(missing, new GsonBuilder(), false, false));
+
+			// overridden versions are checked when opening
+			final N5Reader.Version incompatible = new N5Reader.Version(N5Reader.VERSION.getMajor() + 1, 0, 0);
+			assertThrows(N5Exception.N5IOException.class, () -> new N5KeyValueReader(new FileSystemKeyValueAccess(), loc, new GsonBuilder(), false) {
+
+				@Override
+				public Version getVersion() {
+
+					return incompatible;
+				}
+			});
+
+			writer.setAttribute("/", N5Reader.VERSION_KEY, incompatible.toString());
+			try (final N5FSReader reader = new N5FSReader(loc, new GsonBuilder(), true, true)) {
+				assertThrows(N5Exception.N5IOException.class, () -> reader.list("/"));
+			}
+
+			// no thread uses a trusted container before it was validated
+			try (final N5FSReader reader = new N5FSReader(loc, new GsonBuilder(), false, true)) {
+				final List<Thread> threads = new ArrayList<>();
+				final AtomicInteger failures = new AtomicInteger();
+				for (int i = 0; i < 4; ++i) {
+					final Thread thread = new Thread(() -> {
+						try {
+							reader.exists("g");
+						} catch (final N5Exception.N5IOException e) {
+							failures.incrementAndGet();
+						}
+					});
+					threads.add(thread);
+					thread.start();
+				}
+				for (final Thread thread : threads)
+					thread.join();
+				assertEquals(4, failures.get());
+			}
+
+			writer.remove();
+		}
+	}
+
+	private static class CountingKeyValueAccess extends FileSystemKeyValueAccess {
+
+		int attributeReads = 0;
+		int probes = 0;
+
+		@Override
+		public VolatileReadData createReadData(final String normalPath) {
+
+			if (normalPath.endsWith(N5KeyValueReader.ATTRIBUTES_JSON))
+				attributeReads++;
+			return super.createReadData(normalPath);
+		}
+
+		@Override
+		public boolean isDirectory(final String normalPath) {
+
+			probes++;
+			return super.isDirectory(normalPath);
+		}
+
+		@Override
+		public boolean isFile(final String normalPath) {
+
+			probes++;
+			return super.isFile(normalPath);
+		}
+
+		@Override
+		public boolean exists(final String normalPath) {
+
+			probes++;
+			return super.exists(normalPath);
+		}
+	}
+
 	@Test
 	public void cacheBehaviorTest() throws IOException, URISyntaxException {
 
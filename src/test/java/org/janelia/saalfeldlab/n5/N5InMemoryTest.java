@@ -0,0 +1,36 @@
+package org.janelia.saalfeldlab.n5;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Initiates testing of the in-memory N5 implementation.
+ */
+public class N5InMemoryTest extends AbstractN5Test {
+
+	private static final InMemoryKeyValueAccess keyValueAccess = new InMemoryKeyValueAccess();
+
+	@Override
+	protected String tempN5Location() throws URISyntaxException {
+
+		return createTempUri("n5-test-", null, null).toString();
+	}
+
+	@Override
+	protected N5Writer createN5Writer(
+			final String location,
+			final GsonBuilder gson) throws IOException, URISyntaxException {
+
+		return new N5KeyValueWriter(keyValueAccess, location, gson, false);
+	}
+
+	@Override
+	protected N5Reader createN5Reader(
+			final String location,
+			final GsonBuilder gson) throws IOException, URISyntaxException {
+
+		return new N5KeyValueReader(keyValueAccess, location, gson, false);
+	}
+}
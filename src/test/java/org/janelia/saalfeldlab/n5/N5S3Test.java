@@ -0,0 +1,56 @@
+package org.janelia.saalfeldlab.n5;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+import org.janelia.saalfeldlab.n5.kva.S3StandInServer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Initiates testing of the N5 implementation on an S3 compatible object
+ * store, served by an in-process stand-in server.
+ */
+public class N5S3Test extends AbstractN5Test {
+
+	private static S3StandInServer server;
+
+	private static S3KeyValueAccess keyValueAccess;
+
+	@BeforeClass
+	public static void startServer() throws IOException {
+
+		server = new S3StandInServer();
+		keyValueAccess = server.newKeyValueAccess();
+	}
+
+	@AfterClass
+	public static void stopServer() {
+
+		server.close();
+	}
+
+	@Override
+	protected String tempN5Location() throws URISyntaxException {
+
+		return createTempUri("n5-test-", null, null).toString();
+	}
+
+	@Override
+	protected N5Writer createN5Writer(
+			final String location,
+			final GsonBuilder gson) throws IOException, URISyntaxException {
+
+		return new N5KeyValueWriter(keyValueAccess, location, gson, false);
+	}
+
+	@Override
+	protected N5Reader createN5Reader(
+			final String location,
+			final GsonBuilder gson) throws IOException, URISyntaxException {
+
+		return new N5KeyValueReader(keyValueAccess, location, gson, false);
+	}
+}
@@ -3,6 +3,10 @@ package org.janelia.saalfeldlab.n5;
 import org.junit.Test;
 
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -121,4 +125,51 @@ public class N5URITest {
 				"s3://janelia-cosem-datasets/jrc_hela-3/jrc_hela-3.n5#f/g",
 				new N5URI("s3://janelia-cosem-datasets/jrc_hela-3/jrc_hela-3.n5").resolve("#f/g").toString());
 	}
+
+	@Test
+	public void testNormalizationShortCircuits() {
+
+		/* the previous pattern based test for attribute paths that may need normalization */
+		final Pattern multiPartAttribute = Pattern.compile(".*((?<!\\\\)(/|\\[[0-9]+])).*");
+
+		final char[] alphabet = {'a', '.', '/', '\\', '[', '0', ']', '\n'};
+		final List<String> paths = new ArrayList<>();
+		paths.add("");
+		for (int length = 1; length <= 5; ++length) {
+			final int[] digits = new int[length];
+			final StringBuilder path = new StringBuilder();
+			for (int n = (int)Math.pow(alphabet.length, length); n > 0; --n) {
+				path.setLength(0);
+				for (final int digit : digits)
+					path.append(alphabet[digit]);
+				paths.add(path.toString());
+				for (int i = 0; i < length && ++digits[i] == alphabet.length; ++i)
+					digits[i] = 0;
+			}
+		}
+
+		for (final String path : paths) {
+
+			final String expectedAttributePath = multiPartAttribute.matcher(path).matches()
+					? N5URI.normalizeMultiPartAttributePath(path)
+					: path;
+			// normalize twice to test the cached path
+			assertEquals(path, expectedAttributePath, N5URI.normalizeAttributePath(path));
+			assertEquals(path, expectedAttributePath, N5URI.normalizeAttributePath(path));
+
+			final String expectedGroupPath = normalizeGroupPathOrError(
+					() -> N5URI.normalizePath(path.startsWith("/") || path.startsWith("\\") ? path.substring(1) : path));
+			assertEquals(path, expectedGroupPath, normalizeGroupPathOrError(() -> N5URI.normalizeGroupPath(path)));
+			assertEquals(path, expectedGroupPath, normalizeGroupPathOrError(() -> N5URI.normalizeGroupPath(path)));
+		}
+	}
+
+	private static String normalizeGroupPathOrError(final Supplier<String> normalize) {
+
+		try {
+			return normalize.get();
+		} catch (final RuntimeException e) {
+			return e.getClass().getName();
+		}
+	}
 }
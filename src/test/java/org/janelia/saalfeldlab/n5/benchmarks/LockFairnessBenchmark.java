@@ -0,0 +1,103 @@
+package org.janelia.saalfeldlab.n5.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.janelia.saalfeldlab.n5.FileSystemKeyValueAccess;
+import org.janelia.saalfeldlab.n5.LockFairness;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.janelia.saalfeldlab.n5.readdata.VolatileReadData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Many readers and one writer on the same key, as when a viewer reads a shard
+ * that a background job updates. The sampled times of {@code write} include
+ * the time the writer waits for its lock, compare their p99 for each
+ * {@link LockFairness}.
+ */
+@State(Scope.Group)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class LockFairnessBenchmark {
+
+	@Param(value = {"READER_PREFERRING", "WRITER_PREFERRING"})
+	protected LockFairness fairness;
+
+	private FileSystemKeyValueAccess kva;
+
+	private Path dir;
+
+	private String key;
+
+	private final ReadData data = ReadData.from(new byte[4096]);
+
+	public static void main(final String... args) throws RunnerException {
+
+		final Options options = new OptionsBuilder().include(LockFairnessBenchmark.class.getSimpleName() + "\\.")
+				.build();
+
+		new Runner(options).run();
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+
+		kva = new FileSystemKeyValueAccess(
+				FileSystemKeyValueAccess.WriteMode.LOCKED,
+				FileSystemKeyValueAccess.Durability.NONE,
+				fairness);
+		dir = Files.createTempDirectory("n5-lock-fairness-");
+		key = kva.compose(dir.toUri(), "shard");
+		kva.write(key, data);
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() {
+
+		kva.delete(dir.toString());
+	}
+
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(8)
+	public void read(final Blackhole hole) throws InterruptedException {
+
+		try (final VolatileReadData readData = kva.createReadData(key)) {
+			hole.consume(readData.allBytes());
+			Thread.sleep(1);
+		}
+	}
+
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(1)
+	public void write() throws InterruptedException {
+
+		kva.write(key, data);
+		Thread.sleep(5);
+	}
+}
@@ -13,6 +13,7 @@ import org.janelia.saalfeldlab.n5.DataType;
 import org.janelia.saalfeldlab.n5.DatasetAttributes;
 import org.janelia.saalfeldlab.n5.FileSystemKeyValueAccess;
 import org.janelia.saalfeldlab.n5.GzipCompression;
+import org.janelia.saalfeldlab.n5.InMemoryKeyValueAccess;
 import org.janelia.saalfeldlab.n5.N5KeyValueWriter;
 import org.janelia.saalfeldlab.n5.N5Writer;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -65,6 +66,9 @@ public class N5BlockWriteBenchmarks {
 	@Param( value = { "5" } )
 	protected int numBlocks;
 
+	@Param( value = { "fs", "memory" } )
+	protected String backend;
+
 	public static void main( String[] args ) throws RunnerException {
 
 		final Options options = new OptionsBuilder().include( N5BlockWriteBenchmarks.class.getSimpleName() + "\\." ).build();
@@ -73,19 +77,22 @@ public class N5BlockWriteBenchmarks {
 
 	@TearDown(Level.Trial)
 	public void teardown() {
-		File d = new File(n5.getURI());
 		n5.remove();
-		d.delete();
+		if (backend.equals("fs"))
+			new File(n5.getURI()).delete();
 	}
 
 	@Setup(Level.Trial)
 	public void setup() {
 
-		File tmpDir;
 		try {
-			tmpDir = Files.createTempDirectory("n5-blockWriteBenchmark-").toFile();
-			FileSystemKeyValueAccess kva = new FileSystemKeyValueAccess();
-			n5 = new N5KeyValueWriter(kva, tmpDir.getAbsolutePath(), new GsonBuilder(), true);
+			if (backend.equals("memory"))
+				n5 = new N5KeyValueWriter(new InMemoryKeyValueAccess(), "/n5-blockWriteBenchmark", new GsonBuilder(), true);
+			else {
+				File tmpDir = Files.createTempDirectory("n5-blockWriteBenchmark-").toFile();
+				FileSystemKeyValueAccess kva = new FileSystemKeyValueAccess();
+				n5 = new N5KeyValueWriter(kva, tmpDir.getAbsolutePath(), new GsonBuilder(), true);
+			}
 
 			int[] blockSize = new int[numDimensions];
 			Arrays.fill(blockSize, blockDim);
@@ -0,0 +1,95 @@
+package org.janelia.saalfeldlab.n5.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.janelia.saalfeldlab.n5.N5URI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Normalization of typical group and attribute paths, as done by most
+ * {@link org.janelia.saalfeldlab.n5.N5Reader} methods before accessing the
+ * container.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class N5URIBenchmarks {
+
+	/* already normal, the common case */
+	private static final String[] normalGroupPaths = {
+			"",
+			"volumes/raw",
+			"volumes/labels/neuron_ids/s0",
+			"c0/s3"};
+
+	private static final String[] groupPaths = {
+			"/",
+			"/volumes/raw/",
+			"volumes//labels/./neuron_ids/s0",
+			"c0/s3/../s4"};
+
+	/* already normal, the common case */
+	private static final String[] normalAttributePaths = {
+			"/",
+			"dimensions",
+			"multiscales/datasets",
+			"/pixelResolution/unit"};
+
+	private static final String[] attributePaths = {
+			"multiscales[0]/datasets[2]/path",
+			"/a/b/c/",
+			"transform/./scale/../translate",
+			"escaped\\/key"};
+
+	public static void main(final String... args) throws RunnerException {
+
+		final Options options = new OptionsBuilder().include(N5URIBenchmarks.class.getSimpleName() + "\\.")
+				.build();
+
+		new Runner(options).run();
+	}
+
+	@Benchmark
+	public void normalizeNormalGroupPaths(final Blackhole hole) {
+
+		for (final String path : normalGroupPaths)
+			hole.consume(N5URI.normalizeGroupPath(path));
+	}
+
+	@Benchmark
+	public void normalizeGroupPaths(final Blackhole hole) {
+
+		for (final String path : groupPaths)
+			hole.consume(N5URI.normalizeGroupPath(path));
+	}
+
+	@Benchmark
+	public void normalizeNormalAttributePaths(final Blackhole hole) {
+
+		for (final String path : normalAttributePaths)
+			hole.consume(N5URI.normalizeAttributePath(path));
+	}
+
+	@Benchmark
+	public void normalizeAttributePaths(final Blackhole hole) {
+
+		for (final String path : attributePaths)
+			hole.consume(N5URI.normalizeAttributePath(path));
+	}
+}
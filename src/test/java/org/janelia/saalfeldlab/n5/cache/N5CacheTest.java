@@ -2,6 +2,7 @@ package org.janelia.saalfeldlab.n5.cache;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -266,6 +267,194 @@ public class N5CacheTest {
 		assertEquals("2", cache.getAttributes("path", "key").getAsJsonObject().get("version").getAsString());
 	}
 
+	@Test
+	public void testHitMissCounters() {
+
+		final N5JsonCache cache = new N5JsonCache(new DummyBackingStorage());
+		cache.exists("a", null);
+		cache.exists("a", null);
+		cache.isGroup("a", null);
+		cache.exists("b", null);
+
+		assertEquals(2, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(0, cache.getEvictionCount());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testEvictionOfLeaves() {
+
+		final N5JsonCache cache = new N5JsonCache(new DummyBackingStorage(), 10);
+		cache.exists("g", null);
+		for (int i = 0; i < 9; ++i)
+			cache.exists("g/" + i, null);
+		assertEquals(10, cache.size());
+		assertEquals(0, cache.getEvictionCount());
+
+		// touch g/0, giving it a second chance
+		cache.exists("g/0", null);
+
+		// exceeding the bound evicts down to 90%
+		cache.exists("g/9", null);
+		assertEquals(9, cache.size());
+		assertEquals(2, cache.getEvictionCount());
+
+		// the parent is not a leaf, g/0 was used and g/9 was added last
+		assertNotNull(cache.getCacheInfo("g"));
+		assertNotNull(cache.getCacheInfo("g/0"));
+		assertNotNull(cache.getCacheInfo("g/9"));
+
+		int numCached = 0;
+		for (int i = 1; i < 9; ++i)
+			numCached += cache.getCacheInfo("g/" + i) == null ? 0 : 1;
+		assertEquals(6, numCached);
+
+		// evicted nodes are read from the container again
+		final long misses = cache.getMissCount();
+		for (int i = 1; i < 9; ++i) {
+			if (cache.getCacheInfo("g/" + i) == null) {
+				cache.exists("g/" + i, null);
+				assertEquals(misses + 1, cache.getMissCount());
+				break;
+			}
+		}
+	}
+
+	@Test
+	public void testConcurrentBoundedAccess() throws InterruptedException {
+
+		final int maxEntries = 100;
+		final int numThreads = 8;
+		final N5JsonCache cache = new N5JsonCache(new DummyBackingStorage(), maxEntries);
+		final CountDownLatch done = new CountDownLatch(numThreads);
+		final AtomicInteger failures = new AtomicInteger();
+		for (int t = 0; t < numThreads; ++t) {
+			final int seed = t;
+			new Thread(() -> {
+				try {
+					for (int i = 0; i < 2000; ++i) {
+						final String path = "g" + (i % 10) + "/" + ((i * 31 + seed) % 50);
+						if (!cache.exists(path, "key") || cache.getAttributes(path, "key") == null)
+							failures.incrementAndGet();
+					}
+				} catch (final Throwable e) {
+					failures.incrementAndGet();
+				} finally {
+					done.countDown();
+				}
+			}).start();
+		}
+		done.await();
+
+		assertEquals(0, failures.get());
+		assertTrue(cache.size() <= maxEntries);
+		assertTrue(cache.getEvictionCount() > 0);
+		assertEquals(numThreads * 2000 * 2, cache.getHitCount() + cache.getMissCount());
+	}
+
+	@Test
+	public void testRevalidation() {
+
+		final VersionedBackingStorage backingStorage = new VersionedBackingStorage();
+		final N5JsonCache cache = new N5JsonCache(backingStorage, Long.MAX_VALUE, 0);
+
+		assertEquals("value0", cache.getAttributes("a", "key").getAsJsonObject().get("key").getAsString());
+		assertEquals(1, backingStorage.attrCallCount);
+
+		// unchanged version, only the version is queried
+		assertEquals("value0", cache.getAttributes("a", "key").getAsJsonObject().get("key").getAsString());
+		assertEquals(1, backingStorage.attrCallCount);
+		assertEquals(2, backingStorage.versionCallCount);
+
+		// changed version, the node is reloaded
+		backingStorage.version++;
+		assertEquals("value1", cache.getAttributes("a", "key").getAsJsonObject().get("key").getAsString());
+		assertEquals(2, backingStorage.attrCallCount);
+
+		// non-existence is revalidated as well
+		backingStorage.exists = false;
+		backingStorage.version++;
+		assertFalse(cache.exists("a", "key"));
+		backingStorage.exists = true;
+		assertFalse(cache.exists("a", "key"));
+		backingStorage.version++;
+		assertTrue(cache.exists("a", "key"));
+
+		// without revalidation, changes are not seen
+		final N5JsonCache neverRevalidated = new N5JsonCache(backingStorage, Long.MAX_VALUE, -1);
+		final String version = "value" + backingStorage.version;
+		assertEquals(version, neverRevalidated.getAttributes("a", "key").getAsJsonObject().get("key").getAsString());
+		backingStorage.version++;
+		assertEquals(version, neverRevalidated.getAttributes("a", "key").getAsJsonObject().get("key").getAsString());
+		assertEquals(-1, neverRevalidated.getRevalidateAfterMillis());
+	}
+
+	@Test
+	public void testRevalidationAfterWrite() {
+
+		final VersionedBackingStorage backingStorage = new VersionedBackingStorage();
+		final N5JsonCache cache = new N5JsonCache(backingStorage, Long.MAX_VALUE, 0);
+
+		// nodes written through the cache record their version
+		final JsonObject attributes = new JsonObject();
+		attributes.addProperty("key", "written");
+		cache.initializeNonemptyCache("a", "key");
+		cache.updateCacheInfo("a", "key", attributes);
+		assertEquals(1, backingStorage.versionCallCount);
+
+		// and are not reloaded when revalidated, with one conditional request
+		assertEquals("written", cache.getAttributes("a", "key").getAsJsonObject().get("key").getAsString());
+		assertEquals(0, backingStorage.attrCallCount);
+		assertEquals(2, backingStorage.versionCallCount);
+		assertEquals("0", backingStorage.knownVersion);
+
+		// changes by others are still picked up
+		backingStorage.version++;
+		assertEquals("value1", cache.getAttributes("a", "key").getAsJsonObject().get("key").getAsString());
+		assertEquals(1, backingStorage.attrCallCount);
+
+		// children are kept while the node does not change
+		cache.list("a");
+		cache.list("a");
+		assertEquals(1, backingStorage.listCallCount);
+		assertEquals(1, backingStorage.attrCallCount);
+	}
+
+	@Test
+	public void testLazyVersions() {
+
+		final VersionedBackingStorage backingStorage = new VersionedBackingStorage();
+		final N5JsonCache cache = new N5JsonCache(backingStorage, Long.MAX_VALUE, 60000);
+
+		// versions are not requested when nodes are loaded or written
+		cache.getAttributes("a", "key");
+		final JsonObject attributes = new JsonObject();
+		attributes.addProperty("key", "written");
+		cache.initializeNonemptyCache("b", "key");
+		cache.updateCacheInfo("b", "key", attributes);
+		assertEquals("written", cache.getAttributes("b", "key").getAsJsonObject().get("key").getAsString());
+		assertEquals(1, backingStorage.attrCallCount);
+		assertEquals(0, backingStorage.versionCallCount);
+	}
+
+	@Test
+	public void testRevalidationWithoutVersions() {
+
+		// a container that can not detect changes is reloaded on every revalidation
+		final DummyBackingStorage backingStorage = new DummyBackingStorage();
+		final N5JsonCache cache = new N5JsonCache(backingStorage, Long.MAX_VALUE, 0);
+		cache.getAttributes("a", "key");
+		cache.getAttributes("a", "key");
+		assertEquals(2, backingStorage.attrCallCount);
+
+		// but not before the node is older than the revalidation time
+		final N5JsonCache ttlCache = new N5JsonCache(backingStorage, Long.MAX_VALUE, 60000);
+		ttlCache.getAttributes("a", "key");
+		ttlCache.getAttributes("a", "key");
+		assertEquals(3, backingStorage.attrCallCount);
+	}
+
 	protected static class DummyBackingStorage implements N5JsonCacheableContainer {
 
 		int attrCallCount = 0;
@@ -319,6 +508,44 @@ public class N5CacheTest {
 		}
 	}
 
+	protected static class VersionedBackingStorage extends DummyBackingStorage {
+
+		int version = 0;
+		boolean exists = true;
+		int versionCallCount = 0;
+
+		@Override
+		public JsonElement getAttributesFromContainer(final String path, final String cacheKey) {
+			attrCallCount++;
+			if (!exists)
+				return null;
+
+			final JsonObject obj = new JsonObject();
+			obj.addProperty("key", "value" + version);
+			return obj;
+		}
+
+		@Override
+		public boolean existsFromContainer(final String path, final String cacheKey) {
+			existsCallCount++;
+			return exists;
+		}
+
+		String knownVersion = null;
+
+		@Override
+		public String getVersionFromContainer(final String path) {
+			versionCallCount++;
+			return Integer.toString(version);
+		}
+
+		@Override
+		public String getVersionFromContainer(final String path, final String knownVersion) {
+			this.knownVersion = knownVersion;
+			return getVersionFromContainer(path);
+		}
+	}
+
 	// Helper class for non-existent paths
 	protected static class DummyNonExistentBackingStorage extends DummyBackingStorage {
 
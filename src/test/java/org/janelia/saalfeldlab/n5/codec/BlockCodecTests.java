@@ -2,6 +2,7 @@ package org.janelia.saalfeldlab.n5.codec;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import java.nio.ByteOrder;
@@ -20,9 +21,11 @@ import org.janelia.saalfeldlab.n5.LongArrayDataBlock;
 import org.janelia.saalfeldlab.n5.RawCompression;
 import org.janelia.saalfeldlab.n5.ShortArrayDataBlock;
 import org.janelia.saalfeldlab.n5.codec.BytesCodecTests.BitShiftBytesCodec;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
 import org.janelia.saalfeldlab.n5.shard.DatasetAccess;
 import org.janelia.saalfeldlab.n5.shard.PositionValueAccess;
 import org.janelia.saalfeldlab.n5.shard.TestPositionValueAccess;
+import org.janelia.saalfeldlab.n5.util.SubArrayCopy;
 import org.junit.Test;
 
 public class BlockCodecTests {
@@ -178,6 +181,66 @@ public class BlockCodecTests {
 //		assertEquals("Raw actual encoded size should equal estimated size", rawEncodedSize, rawEncodedDataBlock.length());
 	}
 
+	@Test
+	public void testDecodeSubBox() throws Exception {
+
+		final long[] gridPosition = {3, 2, 1};
+		final int[][][] subBoxes = {
+				{{0, 0, 2}, {11, 7, 1}}, // one XY plane
+				{{0, 3, 1}, {11, 2, 3}}, // contiguous XY rows
+				{{3, 2, 1}, {5, 1, 3}}, // partial X runs
+				{{10, 6, 4}, {1, 1, 1}}, // single element
+				{{0, 0, 0}, {11, 7, 5}}, // full block
+				{{2, 2, 2}, {0, 3, 3}} // empty
+		};
+		// DatasetCodec that does not change the block, to test the default sub-box decode
+		final DatasetCodec<Object, Object> identity = new DatasetCodec<Object, Object>() {
+
+			@Override
+			public DataBlock<Object> encode(final DataBlock<Object> block) {
+				return block;
+			}
+
+			@Override
+			public DataBlock<Object> decode(final DataBlock<Object> dataBlock) {
+				return dataBlock;
+			}
+		};
+		final BlockCodecInfo[] blockCodecInfos = {new N5BlockCodecInfo(), new RawBlockCodecInfo(ByteOrder.LITTLE_ENDIAN)};
+		for (BlockCodecInfo blockCodecInfo : blockCodecInfos) {
+			for (DataType dataType : dataTypes) {
+				for (DataCodecInfo[] codecInfos : dataCodecInfos) {
+					for (boolean concatenate : new boolean[]{false, true}) {
+
+						final BlockCodec<Object> blockCodec = blockCodecInfo.create(dataType, blockSize, codecInfos);
+						final BlockCodec<Object> codec = concatenate ? DatasetCodec.concatenate(identity, blockCodec) : blockCodec;
+						@SuppressWarnings("unchecked")
+						final DataBlock<Object> block = (DataBlock<Object>)createRandomDataBlock(dataType, blockSize, gridPosition);
+						final ReadData encoded = codec.encode(block).materialize();
+						final int[] subBoxBlockSize = codec.subBoxBlockSize(encoded);
+						if (subBoxBlockSize != null)
+							assertArrayEquals(blockSize, subBoxBlockSize);
+
+						for (int[][] subBox : subBoxes) {
+							final int[] min = subBox[0];
+							final int[] size = subBox[1];
+
+							final DataBlock<?> expected = dataType.createDataBlock(size, gridPosition);
+							SubArrayCopy.copy(block.getData(), blockSize, min, expected.getData(), size, new int[3], size);
+
+							final DataBlock<Object> decoded = codec.decode(encoded, gridPosition, min, size);
+							assertArrayEquals(size, decoded.getSize());
+							assertArrayEquals(gridPosition, decoded.getGridPosition());
+							assertDataEquals(expected, decoded);
+						}
+
+						assertThrows(IndexOutOfBoundsException.class, () -> codec.decode(encoded, gridPosition, new int[]{5, 0, 0}, new int[]{7, 1, 1}));
+					}
+				}
+			}
+		}
+	}
+
 	private static DataBlock<?> createRandomDataBlock(DataType dataType, int[] blockSize, long[] gridPosition) {
 		final int numElements = Arrays.stream(blockSize).reduce(1, (a, b) -> a * b);
 
@@ -294,6 +357,12 @@ public class BlockCodecTests {
 			super(dimensions, outerBlockSize, dataType, blockCodecInfo, dataCodecInfos);
 		}
 
+		public TestDatasetAttributes(long[] dimensions, int[] outerBlockSize, DataType dataType, BlockCodecInfo blockCodecInfo,
+				DatasetCodecInfo[] datasetCodecInfos, DataCodecInfo... dataCodecInfos) {
+
+			super(dimensions, outerBlockSize, dataType, blockCodecInfo, datasetCodecInfos, dataCodecInfos);
+		}
+
 		@Override // to make this accessible for the test
 		protected <T> DatasetAccess<T> getDatasetAccess() {
 			return super.getDatasetAccess();
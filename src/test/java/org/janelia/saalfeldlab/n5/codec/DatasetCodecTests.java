@@ -1,9 +1,26 @@
 package org.janelia.saalfeldlab.n5.codec;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 
+import java.util.Random;
+
+import org.janelia.saalfeldlab.n5.DataBlock;
+import org.janelia.saalfeldlab.n5.DataType;
+import org.janelia.saalfeldlab.n5.DoubleArrayDataBlock;
+import org.janelia.saalfeldlab.n5.FloatArrayDataBlock;
+import org.janelia.saalfeldlab.n5.GzipCompression;
+import org.janelia.saalfeldlab.n5.N5Exception;
+import org.janelia.saalfeldlab.n5.codec.BlockCodecTests.TestDatasetAttributes;
+import org.janelia.saalfeldlab.n5.codec.quantize.QuantizeCodecInfo;
 import org.janelia.saalfeldlab.n5.codec.transpose.TransposeCodecInfo;
+import org.janelia.saalfeldlab.n5.shard.DatasetAccess;
+import org.janelia.saalfeldlab.n5.shard.DefaultShardCodecInfo;
+import org.janelia.saalfeldlab.n5.shard.PositionValueAccess;
+import org.janelia.saalfeldlab.n5.shard.ShardIndex.IndexLocation;
+import org.janelia.saalfeldlab.n5.shard.TestPositionValueAccess;
 import org.junit.Test;
 
 public class DatasetCodecTests {
@@ -45,4 +62,88 @@ public class DatasetCodecTests {
 		assertEquals(t201, TransposeCodecInfo.concatenate(new TransposeCodecInfo[]{t021, t102}));
 		assertEquals(t120, TransposeCodecInfo.concatenate(new TransposeCodecInfo[]{t102, t021}));
 	}
+
+	@Test
+	public void testQuantizeCodec() {
+
+		final Random random = new Random(7);
+		final int[] blockSize = {16, 8};
+		final long[] gridPosition = {1, 2};
+		final PositionValueAccess store = new TestPositionValueAccess();
+
+		// probabilities in [0, 1] as uint8
+		final double precision = 1.0 / 255;
+		final TestDatasetAttributes floatAttributes = new TestDatasetAttributes(
+				new long[]{64, 64},
+				blockSize,
+				DataType.FLOAT32,
+				new N5BlockCodecInfo(),
+				new DatasetCodecInfo[]{new QuantizeCodecInfo(precision, DataType.UINT8)},
+				new GzipCompression());
+
+		final float[] probabilities = new float[16 * 8];
+		for (int i = 0; i < probabilities.length; i++)
+			probabilities[i] = random.nextFloat();
+		probabilities[0] = 1f;
+		probabilities[1] = 0f;
+		probabilities[2] = 2f; // out of range, clamped
+
+		final DatasetAccess<float[]> floatAccess = floatAttributes.getDatasetAccess();
+		floatAccess.writeChunk(store, new FloatArrayDataBlock(blockSize, gridPosition, probabilities));
+		final float[] decodedProbabilities = floatAccess.readChunk(store, gridPosition).getData();
+		assertEquals(1f, decodedProbabilities[2], 1e-6);
+		for (int i = 3; i < probabilities.length; i++)
+			assertEquals(probabilities[i], decodedProbabilities[i], precision / 2 + 1e-6);
+
+		// signed fixed point with offset as int16
+		final TestDatasetAttributes doubleAttributes = new TestDatasetAttributes(
+				new long[]{64, 64},
+				blockSize,
+				DataType.FLOAT64,
+				new N5BlockCodecInfo(),
+				new DatasetCodecInfo[]{new QuantizeCodecInfo(0.01, 100, DataType.INT16)});
+
+		final double[] values = new double[16 * 8];
+		for (int i = 0; i < values.length; i++)
+			values[i] = 100 + (random.nextDouble() - 0.5) * 600;
+
+		final DatasetAccess<double[]> doubleAccess = doubleAttributes.getDatasetAccess();
+		doubleAccess.writeChunk(store, new DoubleArrayDataBlock(blockSize, gridPosition, values));
+		final DataBlock<double[]> decoded = doubleAccess.readChunk(store, gridPosition);
+		assertArrayEquals(values, decoded.getData(), 0.005 + 1e-9);
+
+		// quantized inside of shards, the inner chunks are encoded as uint8
+		final TestDatasetAttributes shardedAttributes = new TestDatasetAttributes(
+				new long[]{64, 64},
+				new int[]{32, 16},
+				DataType.FLOAT32,
+				new DefaultShardCodecInfo(
+						blockSize,
+						new DatasetCodecInfo[]{new QuantizeCodecInfo(precision, DataType.UINT8)},
+						new N5BlockCodecInfo(),
+						new DataCodecInfo[]{new GzipCompression()},
+						new RawBlockCodecInfo(),
+						new DataCodecInfo[]{},
+						IndexLocation.END));
+
+		final PositionValueAccess shardStore = new TestPositionValueAccess();
+		final DatasetAccess<float[]> shardedAccess = shardedAttributes.getDatasetAccess();
+		shardedAccess.writeChunk(shardStore, new FloatArrayDataBlock(blockSize, gridPosition, probabilities));
+		final float[] decodedFromShard = shardedAccess.readChunk(shardStore, gridPosition).getData();
+		assertEquals(1f, decodedFromShard[2], 1e-6);
+		for (int i = 3; i < probabilities.length; i++)
+			assertEquals(probabilities[i], decodedFromShard[i], precision / 2 + 1e-6);
+	}
+
+	@Test
+	public void testQuantizeCodecValidation() {
+
+		final int[] blockSize = {8};
+		assertThrows(N5Exception.class, () -> new TestDatasetAttributes(new long[]{8}, blockSize, DataType.UINT16,
+				new N5BlockCodecInfo(), new DatasetCodecInfo[]{new QuantizeCodecInfo(0.1, DataType.UINT8)}));
+		assertThrows(N5Exception.class, () -> new TestDatasetAttributes(new long[]{8}, blockSize, DataType.FLOAT32,
+				new N5BlockCodecInfo(), new DatasetCodecInfo[]{new QuantizeCodecInfo(0.1, DataType.FLOAT32)}));
+		assertThrows(N5Exception.class, () -> new TestDatasetAttributes(new long[]{8}, blockSize, DataType.FLOAT32,
+				new N5BlockCodecInfo(), new DatasetCodecInfo[]{new QuantizeCodecInfo(0, DataType.INT32)}));
+	}
 }
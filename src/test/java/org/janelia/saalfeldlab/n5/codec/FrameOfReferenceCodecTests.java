@@ -0,0 +1,185 @@
+package org.janelia.saalfeldlab.n5.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.janelia.saalfeldlab.n5.DataBlock;
+import org.janelia.saalfeldlab.n5.DataType;
+import org.janelia.saalfeldlab.n5.GzipCompression;
+import org.janelia.saalfeldlab.n5.LongArrayDataBlock;
+import org.janelia.saalfeldlab.n5.N5Exception;
+import org.janelia.saalfeldlab.n5.NameConfigAdapter;
+import org.janelia.saalfeldlab.n5.codec.BlockCodecTests.TestDatasetAttributes;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.janelia.saalfeldlab.n5.shard.DatasetAccess;
+import org.janelia.saalfeldlab.n5.shard.PositionValueAccess;
+import org.janelia.saalfeldlab.n5.shard.TestPositionValueAccess;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+
+public class FrameOfReferenceCodecTests {
+
+	private static final Random random = new Random(4321);
+
+	/**
+	 * Label-like data: long runs of few, large, distinct values.
+	 */
+	private static long[] labels(final int n) {
+
+		final long[] labels = new long[n];
+		long label = 1L << 40;
+		for (int i = 0; i < n; ++i) {
+			if (random.nextInt(50) == 0)
+				label = (1L << 40) + random.nextInt(1000);
+			labels[i] = label;
+		}
+		return labels;
+	}
+
+	private static byte[] toBytes(final long[] values, final int elementSize, final ByteOrder byteOrder) {
+
+		final ByteBuffer buf = ByteBuffer.allocate(values.length * elementSize).order(byteOrder);
+		for (final long v : values) {
+			switch (elementSize) {
+			case 1:
+				buf.put((byte)v);
+				break;
+			case 2:
+				buf.putShort((short)v);
+				break;
+			case 4:
+				buf.putInt((int)v);
+				break;
+			default:
+				buf.putLong(v);
+			}
+		}
+		return buf.array();
+	}
+
+	@Test
+	public void testRoundTrip() {
+
+		final int[] elementSizes = {1, 2, 4, 8};
+		final ByteOrder[] byteOrders = {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN};
+		final int[] lengths = {0, 1, 127, 128, 129, 1000};
+		for (final int elementSize : elementSizes) {
+			for (final ByteOrder byteOrder : byteOrders) {
+				for (final boolean delta : new boolean[]{true, false}) {
+					for (final int n : lengths) {
+						final long[] values = new long[n];
+						for (int i = 0; i < n; ++i)
+							values[i] = random.nextLong();
+						final byte[] data = toBytes(values, elementSize, byteOrder);
+
+						final FrameOfReferenceCodec codec = new FrameOfReferenceCodec(elementSize, byteOrder, delta, 128);
+						final ReadData encoded = codec.encode(ReadData.from(data));
+						assertEquals(n, FrameOfReferenceCodec.numElements(encoded));
+						assertArrayEquals(data, codec.decode(encoded).allBytes());
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testDecodeIntoLongArray() {
+
+		final long[] labels = labels(4096);
+		final FrameOfReferenceCodec codec = new FrameOfReferenceCodec(8);
+		final byte[] encoded = codec.encode(ReadData.from(toBytes(labels, 8, ByteOrder.BIG_ENDIAN))).allBytes();
+
+		// runs of equal labels pack into very few bits
+		assertTrue(encoded.length < labels.length);
+
+		final long[] decoded = new long[labels.length + 3];
+		assertEquals(labels.length, codec.decode(encoded, 0, decoded));
+		for (int i = 0; i < labels.length; ++i)
+			assertEquals(labels[i], decoded[i]);
+
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(encoded, 0, new long[10]));
+
+		final byte[] truncated = new byte[encoded.length / 2];
+		System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+		assertThrows(N5Exception.class, () -> codec.decode(truncated, 0, decoded));
+	}
+
+	@Test
+	public void testDecodeZeroExtends() {
+
+		final long[] values = {-1, 0, 255, 128, 127};
+		final FrameOfReferenceCodec codec = new FrameOfReferenceCodec(1);
+		final ReadData encoded = codec.encode(ReadData.from(toBytes(values, 1, ByteOrder.BIG_ENDIAN)));
+
+		final long[] decoded = new long[values.length];
+		codec.decode(encoded, decoded);
+		assertArrayEquals(new long[]{255, 0, 255, 128, 127}, decoded);
+	}
+
+	@Test
+	public void testInvalidParameters() {
+
+		assertThrows(N5Exception.class, () -> new FrameOfReferenceCodec(3).create());
+		assertThrows(N5Exception.class, () -> new FrameOfReferenceCodec(8, ByteOrder.BIG_ENDIAN, true, 0).create());
+	}
+
+	@Test
+	public void testSerialization() {
+
+		final GsonBuilder gsonBuilder = new GsonBuilder();
+		gsonBuilder.registerTypeHierarchyAdapter(DataCodecInfo.class, NameConfigAdapter.getJsonAdapter(DataCodecInfo.class));
+		final Gson gson = gsonBuilder.create();
+
+		final FrameOfReferenceCodec codec = new FrameOfReferenceCodec(4, ByteOrder.LITTLE_ENDIAN, false, 64);
+		final JsonElement json = gson.toJsonTree(codec, DataCodecInfo.class);
+		final JsonElement expected = gson.fromJson(
+				"{\"name\":\"n5-frame-of-reference\",\"configuration\":{\"elementSize\":4,\"endian\":\"little\",\"delta\":false,\"frameSize\":64}}",
+				JsonElement.class);
+		assertEquals(expected, json);
+		assertEquals(codec, gson.fromJson(json, DataCodecInfo.class));
+
+		final FrameOfReferenceCodec defaults = (FrameOfReferenceCodec)gson.fromJson(
+				"{\"name\":\"n5-frame-of-reference\",\"configuration\":{\"elementSize\":2}}",
+				DataCodecInfo.class);
+		assertEquals(new FrameOfReferenceCodec(2), defaults);
+	}
+
+	@Test
+	public void testWithCompression() {
+
+		final int[] blockSize = {16, 16, 8};
+		final long[] gridPosition = {1, 0, 2};
+		final TestDatasetAttributes attributes = new TestDatasetAttributes(
+				new long[]{64, 64, 64},
+				blockSize,
+				DataType.UINT64,
+				new N5BlockCodecInfo(),
+				new FrameOfReferenceCodec(8),
+				new GzipCompression());
+
+		final long[] labels = labels(16 * 16 * 8);
+		final PositionValueAccess store = new TestPositionValueAccess();
+		final DatasetAccess<long[]> access = attributes.getDatasetAccess();
+		access.writeChunk(store, new LongArrayDataBlock(blockSize, gridPosition, labels));
+
+		final DataBlock<long[]> decoded = access.readChunk(store, gridPosition);
+		assertArrayEquals(labels, decoded.getData());
+	}
+
+	@Test
+	public void testMaxEncodedSize() {
+
+		assertEquals(4 + 2 * 9 + 200 * 8, FrameOfReferenceCodec.maxEncodedSize(200, 128));
+		// 8 bytes per element overflow int for large blocks
+		assertThrows(N5Exception.class, () -> FrameOfReferenceCodec.maxEncodedSize(Integer.MAX_VALUE / 4, 128));
+	}
+}
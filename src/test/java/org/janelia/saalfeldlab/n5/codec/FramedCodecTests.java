@@ -0,0 +1,91 @@
+package org.janelia.saalfeldlab.n5.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.janelia.saalfeldlab.n5.GzipCompression;
+import org.janelia.saalfeldlab.n5.N5Exception;
+import org.janelia.saalfeldlab.n5.NameConfigAdapter;
+import org.janelia.saalfeldlab.n5.codec.framed.FramedCodec;
+import org.janelia.saalfeldlab.n5.codec.framed.FramedCodecInfo;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+
+public class FramedCodecTests {
+
+	private static byte[] data(final int n) {
+
+		final Random random = new Random(n);
+		final byte[] data = new byte[n];
+		// compressible, but not trivially
+		for (int i = 0; i < n; i++)
+			data[i] = (byte)(random.nextInt(8) + (i / 1000));
+		return data;
+	}
+
+	@Test
+	public void testRoundTrip() {
+
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (final int n : new int[]{0, 1, 999, 1000, 1001, 10_000}) {
+				final byte[] data = data(n);
+				final FramedCodec codec = new FramedCodecInfo(new GzipCompression(), 1000, pool).create();
+
+				final ReadData encoded = codec.encode(ReadData.from(data)).materialize();
+				assertEquals(n, FramedCodec.decodedLength(encoded));
+				assertArrayEquals(data, codec.decode(encoded).allBytes());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testPartialDecode() {
+
+		final byte[] data = data(10_000);
+		final FramedCodec codec = new FramedCodecInfo(new GzipCompression(), 1000).create();
+		final ReadData encoded = codec.encode(ReadData.from(data)).materialize();
+
+		final int[][] ranges = {{0, 10}, {990, 20}, {2500, 3000}, {9999, 1}, {0, 10_000}, {5000, 0}};
+		for (final int[] range : ranges) {
+			final byte[] decoded = codec.decode(encoded, range[0], range[1]).allBytes();
+			assertArrayEquals(Arrays.copyOfRange(data, range[0], range[0] + range[1]), decoded);
+		}
+
+		assertThrows(IndexOutOfBoundsException.class, () -> codec.decode(encoded, 9999, 2));
+	}
+
+	@Test
+	public void testSerialization() {
+
+		final GsonBuilder gsonBuilder = new GsonBuilder();
+		gsonBuilder.registerTypeHierarchyAdapter(CodecInfo.class, NameConfigAdapter.getJsonAdapter(CodecInfo.class));
+		final Gson gson = gsonBuilder.create();
+
+		final FramedCodecInfo info = new FramedCodecInfo(new GzipCompression(3), 1 << 20);
+		final JsonElement json = gson.toJsonTree(info, CodecInfo.class);
+		final JsonElement expected = gson.fromJson(
+				"{\"name\":\"n5-framed\",\"configuration\":{\"codec\":{\"name\":\"gzip\",\"configuration\":{\"level\":3}},\"frameSize\":1048576}}",
+				JsonElement.class);
+		assertEquals(expected, json);
+		assertEquals(info, gson.fromJson(json, CodecInfo.class));
+	}
+
+	@Test
+	public void testInvalid() {
+
+		assertThrows(N5Exception.class, () -> new FramedCodecInfo(new GzipCompression(), 0).create());
+		assertThrows(N5Exception.class, () -> new FramedCodecInfo(null).create());
+	}
+}
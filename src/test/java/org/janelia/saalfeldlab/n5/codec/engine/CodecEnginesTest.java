@@ -0,0 +1,136 @@
+package org.janelia.saalfeldlab.n5.codec.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Checksum;
+
+import org.janelia.saalfeldlab.n5.N5Exception;
+import org.janelia.saalfeldlab.n5.codec.checksum.Crc32cChecksumCodec;
+import org.junit.Test;
+
+public class CodecEnginesTest {
+
+	@Test
+	public void testDiscovery() {
+
+		final List<CodecEngine> gzip = CodecEngines.list(GzipEngine.CODEC_NAME);
+		assertTrue(gzip.stream().anyMatch(CommonsGzipEngine.class::isInstance));
+		assertTrue(gzip.stream().anyMatch(JdkGzipEngine.class::isInstance));
+
+		final List<CodecEngine> crc32c = CodecEngines.list(Crc32cChecksumCodec.TYPE);
+		assertTrue(crc32c.stream().anyMatch(PureJavaCrc32cEngine.class::isInstance));
+		assertTrue(crc32c.stream().anyMatch(JdkCrc32cEngine.class::isInstance));
+
+		// default gzip engine is unchanged
+		assertEquals(CommonsGzipEngine.NAME, CodecEngines.get(GzipEngine.CODEC_NAME, GzipEngine.class).getName());
+	}
+
+	@Test
+	public void testSelect() {
+
+		final List<CodecEngine> engines = Arrays.asList(new PureJavaCrc32cEngine(), new JdkCrc32cEngine());
+
+		// on Java 8, the engine requiring Java 9 is never selected
+		assertEquals(PureJavaCrc32cEngine.NAME, CodecEngines.select(engines, ChecksumEngine.class, null, 8).getName());
+		assertEquals(PureJavaCrc32cEngine.NAME, CodecEngines.select(engines, ChecksumEngine.class, JdkCrc32cEngine.NAME, 8).getName());
+
+		if (new JdkCrc32cEngine().isAvailable()) {
+			// highest priority wins, unless another engine is preferred
+			assertEquals(JdkCrc32cEngine.NAME, CodecEngines.select(engines, ChecksumEngine.class, null, 11).getName());
+			assertEquals(PureJavaCrc32cEngine.NAME, CodecEngines.select(engines, ChecksumEngine.class, PureJavaCrc32cEngine.NAME, 11).getName());
+		}
+
+		// unknown preferred engine falls back to priority
+		assertEquals(CommonsGzipEngine.NAME,
+				CodecEngines.select(Arrays.asList(new JdkGzipEngine(), new CommonsGzipEngine()), GzipEngine.class, "unknown", 8).getName());
+
+		assertThrows(N5Exception.class, () -> CodecEngines.select(engines, GzipEngine.class, null, 8));
+	}
+
+	@Test
+	public void testRegister() {
+
+		final ChecksumEngine engine = new ChecksumEngine() {
+
+			@Override
+			public String getCodecName() {
+
+				return "test-checksum";
+			}
+
+			@Override
+			public String getName() {
+
+				return "test";
+			}
+
+			@Override
+			public Checksum createChecksum() {
+
+				return new PureJavaCrc32cEngine().createChecksum();
+			}
+		};
+		CodecEngines.register(engine);
+		assertSame(engine, CodecEngines.get("test-checksum", ChecksumEngine.class));
+		assertThrows(N5Exception.class, () -> CodecEngines.get("test-checksum", GzipEngine.class));
+	}
+
+	@Test
+	public void testCrc32cEnginesAgree() {
+
+		final byte[] data = new byte[100000];
+		new Random(42).nextBytes(data);
+
+		for (final CodecEngine engine : CodecEngines.list(Crc32cChecksumCodec.TYPE)) {
+			if (!engine.isAvailable())
+				continue;
+
+			final Checksum checksum = ((ChecksumEngine)engine).createChecksum();
+			checksum.update(data, 0, data.length);
+			final Checksum reference = new PureJavaCrc32cEngine().createChecksum();
+			reference.update(data, 0, data.length);
+			assertEquals(engine.getName(), reference.getValue(), checksum.getValue());
+		}
+	}
+
+	@Test
+	public void testGzipEnginesInteroperate() throws IOException {
+
+		final byte[] data = new byte[100000];
+		final Random random = new Random(42);
+		for (int i = 0; i < data.length; ++i)
+			data[i] = (byte)random.nextInt(16);
+
+		final GzipEngine[] engines = {new CommonsGzipEngine(), new JdkGzipEngine()};
+		for (final GzipEngine encoder : engines) {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (final OutputStream out = encoder.compress(bytes, 6)) {
+				out.write(data);
+			}
+			final byte[] compressed = bytes.toByteArray();
+			assertTrue(compressed.length < data.length);
+
+			for (final GzipEngine decoder : engines) {
+				try (final InputStream in = decoder.decompress(new ByteArrayInputStream(compressed))) {
+					final ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+					final byte[] buffer = new byte[4096];
+					for (int n; (n = in.read(buffer)) >= 0;)
+						decompressed.write(buffer, 0, n);
+					assertArrayEquals(encoder.getName() + " -> " + decoder.getName(), data, decompressed.toByteArray());
+				}
+			}
+		}
+	}
+}
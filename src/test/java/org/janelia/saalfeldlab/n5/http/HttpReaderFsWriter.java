@@ -16,6 +16,7 @@ import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -232,6 +233,11 @@ public class HttpReaderFsWriter implements GsonKeyValueN5Writer {
 		return writer.remove(groupPath);
 	}
 
+	@Override public boolean remove(String groupPath, ExecutorService exec, boolean exclusive) throws N5Exception, InterruptedException, ExecutionException {
+
+		return writer.remove(groupPath, exec, exclusive);
+	}
+
 	@Override public boolean remove() throws N5Exception {
 
 		return writer.remove();
@@ -244,6 +250,21 @@ public class HttpReaderFsWriter implements GsonKeyValueN5Writer {
 		return convertedDatasetAttributes;
 	}
 
+	@Override public Map<String, DatasetAttributes> createDatasets(Map<String, DatasetAttributes> datasets) throws N5Exception {
+
+		return writer.createDatasets(datasets);
+	}
+
+	@Override public Map<String, DatasetAttributes> createDatasets(Map<String, DatasetAttributes> datasets, ExecutorService exec) throws N5Exception, InterruptedException, ExecutionException {
+
+		return writer.createDatasets(datasets, exec);
+	}
+
+	@Override public void createGroups(Collection<String> normalGroupPaths) throws N5Exception {
+
+		writer.createGroups(normalGroupPaths);
+	}
+
 	@Override public <T> void writeChunk(String datasetPath, DatasetAttributes datasetAttributes, DataBlock<T> chunk) throws N5Exception {
 		writer.writeChunk(datasetPath, getConvertedDatasetAttributes(datasetAttributes), chunk);
 	}
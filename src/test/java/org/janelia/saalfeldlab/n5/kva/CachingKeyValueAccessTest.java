@@ -0,0 +1,180 @@
+package org.janelia.saalfeldlab.n5.kva;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.janelia.saalfeldlab.n5.CachingKeyValueAccess;
+import org.janelia.saalfeldlab.n5.InMemoryKeyValueAccess;
+import org.janelia.saalfeldlab.n5.KeyValueAccess;
+import org.janelia.saalfeldlab.n5.N5Exception.N5NoSuchKeyException;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.janelia.saalfeldlab.n5.readdata.VolatileReadData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingKeyValueAccessTest {
+
+	private InMemoryKeyValueAccess storage;
+
+	private TrackingKeyValueAccess remote;
+
+	private Path cacheDirectory;
+
+	private int numVersionCalls;
+
+	@Before
+	public void setup() throws IOException {
+
+		storage = new InMemoryKeyValueAccess();
+		storage.write("/a/0", ReadData.from(new byte[]{0, 1, 2, 3, 4, 5, 6, 7}));
+		storage.write("/a/1", ReadData.from(new byte[]{8, 9}));
+		remote = new TrackingKeyValueAccess(storage) {
+
+			@Override
+			public String version(final String normalPath) {
+
+				numVersionCalls++;
+				return kva.version(normalPath);
+			}
+		};
+		cacheDirectory = Files.createTempDirectory("n5-caching-kva-test-");
+	}
+
+	@After
+	public void cleanup() throws IOException {
+
+		try (final Stream<Path> files = Files.list(cacheDirectory)) {
+			files.forEach(file -> file.toFile().delete());
+		}
+		Files.delete(cacheDirectory);
+	}
+
+	private static byte[] read(final KeyValueAccess kva, final String key) {
+
+		try (final VolatileReadData readData = kva.createReadData(key)) {
+			return readData.allBytes();
+		}
+	}
+
+	private static byte[] read(final KeyValueAccess kva, final String key, final long offset, final long length) {
+
+		try (final VolatileReadData readData = kva.createReadData(key)) {
+			return readData.slice(offset, length).allBytes();
+		}
+	}
+
+	@Test
+	public void testReadThrough() {
+
+		try (final CachingKeyValueAccess kva = new CachingKeyValueAccess(remote, cacheDirectory, 1024, false)) {
+			assertArrayEquals(new byte[]{2, 3}, read(kva, "/a/0", 2, 2));
+			assertArrayEquals(new byte[]{2, 3}, read(kva, "/a/0", 2, 2));
+			assertEquals(1, remote.numMaterializeCalls);
+
+			assertArrayEquals(new byte[]{0, 1, 2, 3, 4, 5, 6, 7}, read(kva, "/a/0"));
+			assertArrayEquals(new byte[]{0, 1, 2, 3, 4, 5, 6, 7}, read(kva, "/a/0"));
+			// ranges are served from the whole key
+			assertArrayEquals(new byte[]{5, 6}, read(kva, "/a/0", 5, 2));
+			assertEquals(2, remote.numMaterializeCalls);
+			assertEquals(3, kva.getHitCount());
+			assertEquals(2, kva.getMissCount());
+			assertEquals(10, kva.getUsedBytes());
+
+			assertThrows(N5NoSuchKeyException.class, () -> read(kva, "/a/2"));
+		}
+
+		// the cache persists, cached keys need no remote access at all
+		remote.numMaterializeCalls = 0;
+		remote.numIsFileCalls = 0;
+		try (final CachingKeyValueAccess kva = new CachingKeyValueAccess(remote, cacheDirectory, 1024, false)) {
+			assertEquals(10, kva.getUsedBytes());
+			assertTrue(kva.isFile("/a/0"));
+			assertEquals(8, kva.size("/a/0"));
+			assertArrayEquals(new byte[]{0, 1, 2, 3, 4, 5, 6, 7}, read(kva, "/a/0"));
+			assertArrayEquals(new byte[]{2, 3}, read(kva, "/a/0", 2, 2));
+			assertEquals(0, remote.numMaterializeCalls);
+			assertEquals(0, remote.numIsFileCalls);
+
+			// cached keys exist until invalidated, even if deleted on the remote
+			storage.delete("/a/0");
+			assertTrue(kva.exists("/a/0"));
+			kva.invalidate("/a/0");
+			assertFalse(kva.exists("/a/0"));
+		}
+		assertEquals(0, numVersionCalls);
+	}
+
+	@Test
+	public void testRevalidate() {
+
+		try (final CachingKeyValueAccess kva = new CachingKeyValueAccess(remote, cacheDirectory, 1024, true)) {
+			assertArrayEquals(new byte[]{8, 9}, read(kva, "/a/1"));
+			assertArrayEquals(new byte[]{8, 9}, read(kva, "/a/1"));
+			assertEquals(1, remote.numMaterializeCalls);
+
+			storage.write("/a/1", ReadData.from(new byte[]{10}));
+			assertArrayEquals(new byte[]{10}, read(kva, "/a/1"));
+			assertEquals(2, remote.numMaterializeCalls);
+			assertEquals(1, kva.getUsedBytes());
+
+			storage.delete("/a/1");
+			assertThrows(N5NoSuchKeyException.class, () -> read(kva, "/a/1"));
+			assertEquals(0, kva.getUsedBytes());
+		}
+
+		// without revalidation, outdated keys are served from the cache
+		try (final CachingKeyValueAccess kva = new CachingKeyValueAccess(remote, cacheDirectory, 1024, false)) {
+			assertArrayEquals(new byte[]{0, 1}, read(kva, "/a/0", 0, 2));
+			storage.write("/a/0", ReadData.from(new byte[]{7, 7}));
+			assertArrayEquals(new byte[]{0, 1}, read(kva, "/a/0", 0, 2));
+
+			// but writes through the cache discard cached ranges
+			kva.write("/a/0", ReadData.from(new byte[]{6, 6}));
+			assertArrayEquals(new byte[]{6, 6}, read(kva, "/a/0", 0, 2));
+
+			kva.delete("/a");
+			assertFalse(kva.exists("/a/0"));
+			assertEquals(0, kva.getUsedBytes());
+		}
+	}
+
+	@Test
+	public void testEviction() throws IOException {
+
+		storage.write("/b", ReadData.from(new byte[20]));
+		storage.write("/c", ReadData.from(new byte[2]));
+		try (final CachingKeyValueAccess kva = new CachingKeyValueAccess(remote, cacheDirectory, 10, false)) {
+			read(kva, "/a/0");
+			read(kva, "/a/1");
+			read(kva, "/a/0", 0, 2);
+			assertEquals(10, kva.getUsedBytes());
+			assertEquals(2, remote.numMaterializeCalls);
+
+			// the least recently used key is evicted
+			read(kva, "/c");
+			assertEquals(10, kva.getUsedBytes());
+			read(kva, "/a/0");
+			assertEquals(3, remote.numMaterializeCalls);
+			read(kva, "/a/1");
+			assertEquals(4, remote.numMaterializeCalls);
+
+			// keys exceeding the budget are not cached
+			read(kva, "/b");
+			read(kva, "/b");
+			assertEquals(6, remote.numMaterializeCalls);
+			assertEquals(10, kva.getUsedBytes());
+		}
+		try (final Stream<Path> files = Files.list(cacheDirectory)) {
+			assertEquals(3, files.count());
+		}
+	}
+}
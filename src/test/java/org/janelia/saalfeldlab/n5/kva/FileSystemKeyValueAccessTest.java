@@ -2,6 +2,9 @@ package org.janelia.saalfeldlab.n5.kva;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
@@ -11,10 +14,16 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.janelia.saalfeldlab.n5.FileSystemKeyValueAccess;
 import org.janelia.saalfeldlab.n5.KeyValueAccess;
+import org.janelia.saalfeldlab.n5.N5Exception.N5NoSuchKeyException;
 import org.janelia.saalfeldlab.n5.N5URI;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.janelia.saalfeldlab.n5.readdata.VolatileReadData;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -180,4 +189,116 @@ public class FileSystemKeyValueAccessTest extends AbstractKeyValueAccessTest {
 		 * Because of that, there is no valid file URI with an empty path (it's just an empty string, which is invalid, or `file://` which is invalid. */
 		super.testComposeWithPathEmpty();
 	}
+
+	@Test
+	public void testWriteCreatesParentDirectories() throws IOException {
+
+		final Path base = Files.createTempDirectory("n5-kva-test-");
+		try {
+			final String key = fileSystemKva.compose(base.toUri(), "a", "b", "0");
+			fileSystemKva.write(key, ReadData.from(new byte[]{1, 2, 3}));
+			assertTrue(fileSystemKva.isDirectory(fileSystemKva.compose(base.toUri(), "a", "b")));
+			assertArrayEquals(new byte[]{1, 2, 3}, read(key));
+
+			// writing into an existing directory, and after it was removed
+			fileSystemKva.write(key, ReadData.from(new byte[]{4}));
+			assertArrayEquals(new byte[]{4}, read(key));
+			fileSystemKva.delete(fileSystemKva.compose(base.toUri(), "a"));
+			fileSystemKva.write(key, ReadData.from(new byte[]{5}));
+			assertArrayEquals(new byte[]{5}, read(key));
+		} finally {
+			fileSystemKva.delete(base.toString());
+		}
+	}
+
+	@Test
+	public void testRenameWriteMode() throws IOException {
+
+		final FileSystemKeyValueAccess kva = new FileSystemKeyValueAccess(FileSystemKeyValueAccess.WriteMode.RENAME, FileSystemKeyValueAccess.Durability.WRITE);
+		final Path base = Files.createTempDirectory("n5-kva-test-");
+		try {
+			final String key = kva.compose(base.toUri(), "a", "0");
+			kva.write(key, ReadData.from(new byte[]{1, 2, 3}));
+			assertArrayEquals(new byte[]{1, 2, 3}, read(kva, key));
+
+			// an open reader keeps reading the file it opened
+			try (final VolatileReadData readData = kva.createReadData(key)) {
+				kva.write(key, ReadData.from(new byte[]{4, 5}));
+				assertArrayEquals(new byte[]{1, 2, 3}, readData.allBytes());
+			}
+			assertArrayEquals(new byte[]{4, 5}, read(kva, key));
+
+			// no temporary files are left
+			try (final Stream<Path> files = Files.list(base.resolve("a"))) {
+				assertEquals(Arrays.asList(base.resolve("a").resolve("0")), files.collect(Collectors.toList()));
+			}
+
+			kva.delete(key);
+			assertFalse(kva.exists(key));
+			assertThrows(N5NoSuchKeyException.class, () -> read(kva, key));
+		} finally {
+			kva.delete(base.toString());
+		}
+	}
+
+	@Test
+	public void testDurability() throws IOException {
+
+		for (final FileSystemKeyValueAccess.WriteMode writeMode : FileSystemKeyValueAccess.WriteMode.values()) {
+			for (final FileSystemKeyValueAccess.Durability durability : FileSystemKeyValueAccess.Durability.values()) {
+				final FileSystemKeyValueAccess kva = new FileSystemKeyValueAccess(writeMode, durability);
+				final Path base = Files.createTempDirectory("n5-kva-test-");
+				try {
+					final String key = kva.compose(base.toUri(), "a", "0");
+					final String nestedKey = kva.compose(base.toUri(), "c", "d", "e", "0");
+					final String directory = kva.compose(base.toUri(), "c", "f", "g");
+					final String deletedKey = kva.compose(base.toUri(), "b", "0");
+					kva.write(key, ReadData.from(new byte[]{1, 2, 3}));
+					kva.write(nestedKey, ReadData.from(new byte[]{5}));
+					kva.createDirectories(directory);
+					kva.write(deletedKey, ReadData.from(new byte[]{4}));
+					kva.delete(kva.compose(base.toUri(), "b"));
+
+					// flushing tolerates files and directories deleted since they were written
+					kva.flush();
+					kva.flush();
+
+					assertArrayEquals(new byte[]{1, 2, 3}, read(kva, key));
+					assertArrayEquals(new byte[]{5}, read(kva, nestedKey));
+					assertTrue(kva.isDirectory(directory));
+					assertFalse(kva.exists(deletedKey));
+				} finally {
+					kva.delete(base.toString());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLockMetrics() throws IOException {
+
+		final FileSystemKeyValueAccess kva = new FileSystemKeyValueAccess(FileSystemKeyValueAccess.WriteMode.LOCKED, FileSystemKeyValueAccess.Durability.NONE);
+		final Path base = Files.createTempDirectory("n5-kva-test-");
+		try {
+			final String key = kva.compose(base.toUri(), "0");
+			kva.write(key, ReadData.from(new byte[]{1, 2, 3}));
+			assertArrayEquals(new byte[]{1, 2, 3}, read(kva, key));
+			assertEquals(2, kva.getLockCount());
+			assertTrue(kva.getLockWaitNanos() > 0);
+		} finally {
+			kva.delete(base.toString());
+		}
+	}
+
+	private static byte[] read(final String key) {
+
+		return read(fileSystemKva, key);
+	}
+
+	private static byte[] read(final KeyValueAccess kva, final String key) {
+
+		try (final VolatileReadData readData = kva.createReadData(key)) {
+			return readData.allBytes();
+		}
+	}
 }
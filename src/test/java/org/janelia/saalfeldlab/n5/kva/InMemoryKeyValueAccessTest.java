@@ -0,0 +1,127 @@
+package org.janelia.saalfeldlab.n5.kva;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+
+import org.janelia.saalfeldlab.n5.InMemoryKeyValueAccess;
+import org.janelia.saalfeldlab.n5.KeyValueAccess;
+import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
+import org.janelia.saalfeldlab.n5.N5Exception.N5NoSuchKeyException;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.janelia.saalfeldlab.n5.readdata.VolatileReadData;
+import org.junit.Test;
+
+public class InMemoryKeyValueAccessTest extends AbstractKeyValueAccessTest {
+
+	private static final InMemoryKeyValueAccess inMemoryKva = new InMemoryKeyValueAccess();
+
+	@Override
+	protected KeyValueAccess newKeyValueAccess(final URI root) {
+
+		return inMemoryKva;
+	}
+
+	@Override
+	protected URI tempUri() {
+
+		return URI.create("/n5-in-memory-kva-test/");
+	}
+
+	private static byte[] read(final KeyValueAccess kva, final String key) {
+
+		try (final VolatileReadData readData = kva.createReadData(key)) {
+			return readData.allBytes();
+		}
+	}
+
+	@Test
+	public void testReadWrite() {
+
+		for (final boolean offHeap : new boolean[]{false, true}) {
+			final InMemoryKeyValueAccess kva = new InMemoryKeyValueAccess(offHeap, Long.MAX_VALUE);
+
+			final byte[] data = {1, 2, 3};
+			kva.write("/a/b/0", ReadData.from(data));
+			data[0] = 9;
+			kva.write("/a/1", ReadData.from(new byte[]{4}));
+			kva.createDirectories("/a/c");
+
+			assertTrue(kva.isDirectory("/"));
+			assertTrue(kva.isDirectory("/a"));
+			assertTrue(kva.isDirectory("/a/b/"));
+			assertTrue(kva.isFile("/a/b/0"));
+			assertFalse(kva.isDirectory("/a/b/0"));
+			assertFalse(kva.exists("/b"));
+			assertEquals(3, kva.size("/a/b/0"));
+			assertEquals(4, kva.getUsedBytes());
+
+			// written data is copied
+			assertArrayEquals(new byte[]{1, 2, 3}, read(kva, "/a/b/0"));
+			try (final VolatileReadData readData = kva.createReadData("/a/b/0")) {
+				assertArrayEquals(new byte[]{2, 3}, readData.slice(1, 2).allBytes());
+			}
+
+			assertArrayEquals(new String[]{"1", "b", "c"}, kva.list("/a"));
+			assertArrayEquals(new String[]{"b", "c"}, kva.listDirectories("/a"));
+			assertArrayEquals(new String[]{"a"}, kva.list("/"));
+			assertArrayEquals(new String[0], kva.list("/a/c"));
+			assertThrows(N5NoSuchKeyException.class, () -> kva.list("/b"));
+			assertThrows(N5IOException.class, () -> kva.write("/a/b", ReadData.from(data)));
+			assertThrows(N5IOException.class, () -> kva.createDirectories("/a/1/d"));
+
+			// an open reader keeps reading the value it opened
+			final String version = kva.version("/a/b/0");
+			try (final VolatileReadData readData = kva.createReadData("/a/b/0")) {
+				kva.write("/a/b/0", ReadData.from(new byte[]{5, 6}));
+				assertArrayEquals(new byte[]{1, 2, 3}, readData.allBytes());
+			}
+			assertArrayEquals(new byte[]{5, 6}, read(kva, "/a/b/0"));
+			assertNotEquals(version, kva.version("/a/b/0"));
+			assertEquals(3, kva.getUsedBytes());
+
+			// directories remain when their children are deleted
+			kva.delete("/a/b/0");
+			assertTrue(kva.isDirectory("/a/b"));
+			assertThrows(N5NoSuchKeyException.class, () -> read(kva, "/a/b/0"));
+			assertEquals("", kva.version("/a/b/0"));
+
+			// directories are versioned, too
+			final String directoryVersion = kva.version("/a/c");
+			assertNotEquals("", directoryVersion);
+			assertEquals(directoryVersion, kva.version("/a/c"));
+			kva.delete("/a/c");
+			assertEquals("", kva.version("/a/c"));
+			kva.createDirectories("/a/c");
+			assertNotEquals(directoryVersion, kva.version("/a/c"));
+
+			kva.delete("/a");
+			assertFalse(kva.exists("/a"));
+			assertFalse(kva.exists("/a/1"));
+			assertArrayEquals(new String[0], kva.list("/"));
+			assertEquals(0, kva.getUsedBytes());
+		}
+	}
+
+	@Test
+	public void testBudget() {
+
+		final InMemoryKeyValueAccess kva = new InMemoryKeyValueAccess(true, 10);
+		kva.write("/a", ReadData.from(new byte[6]));
+		assertThrows(N5IOException.class, () -> kva.write("/b", ReadData.from(new byte[6])));
+		assertFalse(kva.exists("/b"));
+		assertEquals(6, kva.getUsedBytes());
+
+		kva.write("/b", ReadData.from(new byte[4]));
+		assertEquals(10, kva.getUsedBytes());
+
+		kva.delete("/a");
+		kva.write("/b", ReadData.from(new byte[6]));
+		assertEquals(6, kva.getUsedBytes());
+	}
+}
@@ -0,0 +1,400 @@
+package org.janelia.saalfeldlab.n5.kva;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.janelia.saalfeldlab.n5.S3KeyValueAccess;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A minimal in-memory stand-in for an S3 compatible object store with a single
+ * bucket, supporting the requests sent by {@link S3KeyValueAccess}. Requests
+ * must carry an {@code Authorization} header for the access key, signatures
+ * are not verified.
+ */
+public class S3StandInServer implements Closeable {
+
+	public static final String BUCKET = "test-bucket";
+	public static final String ACCESS_KEY = "test-access-key";
+	public static final String SECRET_KEY = "test-secret-key";
+
+	private static final Pattern KEY = Pattern.compile("<Key>(.*?)</Key>");
+	private static final Pattern PART = Pattern.compile("<PartNumber>(\\d+)</PartNumber>");
+
+	private final HttpServer server;
+
+	private final ExecutorService exec = Executors.newCachedThreadPool();
+
+	private final TreeMap<String, byte[]> objects = new TreeMap<>();
+
+	private final Map<String, String> etags = new HashMap<>();
+
+	private final Map<String, TreeMap<Integer, byte[]>> uploads = new HashMap<>();
+
+	public final AtomicInteger numRangedGets = new AtomicInteger();
+
+	public final AtomicInteger numPutObjects = new AtomicInteger();
+
+	public final AtomicInteger numPartUploads = new AtomicInteger();
+
+	public final AtomicInteger numDeleteBatches = new AtomicInteger();
+
+	public S3StandInServer() throws IOException {
+
+		/* avoid delayed ACK stalls of responses written in multiple packets */
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", this::handle);
+		server.setExecutor(exec);
+		server.start();
+	}
+
+	public URI getEndpoint() {
+
+		return URI.create("http://localhost:" + server.getAddress().getPort());
+	}
+
+	public S3KeyValueAccess newKeyValueAccess() {
+
+		return new S3KeyValueAccess(getEndpoint(), BUCKET, "us-east-1", ACCESS_KEY, SECRET_KEY);
+	}
+
+	public synchronized void put(final String key, final byte[] data) {
+
+		objects.put(key, data);
+		etags.put(key, etag(data));
+	}
+
+	public synchronized byte[] get(final String key) {
+
+		return objects.get(key);
+	}
+
+	public synchronized int size() {
+
+		return objects.size();
+	}
+
+	@Override
+	public void close() {
+
+		server.stop(0);
+		exec.shutdownNow();
+	}
+
+	private static String decode(final String value) {
+
+		try {
+			return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+		} catch (final UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String md5(final byte[] data) {
+
+		try {
+			final StringBuilder hex = new StringBuilder();
+			for (final byte b : MessageDigest.getInstance("MD5").digest(data))
+				hex.append(String.format("%02x", b));
+			return hex.toString();
+		} catch (final NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String etag(final byte[] data) {
+
+		return "\"" + md5(data) + "\"";
+	}
+
+	private static String escape(final String text) {
+
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+	private static String unescape(final String text) {
+
+		return text.replace("&quot;", "\"").replace("&apos;", "'").replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+	}
+
+	private static void respond(final HttpExchange exchange, final int code, final byte[] body) throws IOException {
+
+		if (exchange.getRequestMethod().equals("HEAD") || body == null) {
+			exchange.sendResponseHeaders(code, -1);
+		} else {
+			exchange.sendResponseHeaders(code, body.length);
+			try (final OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		}
+		exchange.close();
+	}
+
+	private static void respond(final HttpExchange exchange, final int code, final String xml) throws IOException {
+
+		exchange.getResponseHeaders().set("Content-Type", "application/xml");
+		respond(exchange, code, xml.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void handle(final HttpExchange exchange) throws IOException {
+
+		try {
+			final String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+			if (authorization == null || !authorization.startsWith("AWS4-HMAC-SHA256 Credential=" + ACCESS_KEY + "/")) {
+				respond(exchange, 403, "<Error><Code>AccessDenied</Code></Error>");
+				return;
+			}
+
+			final String path = exchange.getRequestURI().getRawPath();
+			final String bucketPrefix = "/" + BUCKET;
+			if (!path.startsWith(bucketPrefix)) {
+				respond(exchange, 404, "<Error><Code>NoSuchBucket</Code></Error>");
+				return;
+			}
+			final String key = decode(path.substring(bucketPrefix.length()).replaceFirst("^/", ""));
+
+			final Map<String, String> query = new HashMap<>();
+			final String rawQuery = exchange.getRequestURI().getRawQuery();
+			if (rawQuery != null) {
+				for (final String parameter : rawQuery.split("&")) {
+					final int eq = parameter.indexOf('=');
+					query.put(decode(eq < 0 ? parameter : parameter.substring(0, eq)), eq < 0 ? "" : decode(parameter.substring(eq + 1)));
+				}
+			}
+			final byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+
+			synchronized (this) {
+				switch (exchange.getRequestMethod()) {
+				case "HEAD":
+				case "GET":
+					if (key.isEmpty())
+						list(exchange, query);
+					else
+						get(exchange, key);
+					break;
+				case "PUT":
+					if (query.containsKey("uploadId"))
+						uploadPart(exchange, query, body);
+					else
+						putObject(exchange, key, body);
+					break;
+				case "POST":
+					if (query.containsKey("delete"))
+						deleteObjects(exchange, body);
+					else if (query.containsKey("uploads"))
+						initiateUpload(exchange);
+					else
+						completeUpload(exchange, key, query, body);
+					break;
+				case "DELETE":
+					if (query.containsKey("uploadId"))
+						uploads.remove(query.get("uploadId"));
+					else {
+						objects.remove(key);
+						etags.remove(key);
+					}
+					respond(exchange, 204, (byte[])null);
+					break;
+				default:
+					respond(exchange, 405, (byte[])null);
+				}
+			}
+		} catch (final RuntimeException e) {
+			respond(exchange, 500, "<Error><Code>InternalError</Code><Message>" + escape(e.toString()) + "</Message></Error>");
+		}
+	}
+
+	/**
+	 * @return whether the conditions of the request are met
+	 */
+	private boolean checkConditions(final HttpExchange exchange, final String key) throws IOException {
+
+		final String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+		final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+		if ((ifMatch != null && !ifMatch.equals(etags.get(key))) || ("*".equals(ifNoneMatch) && objects.containsKey(key))) {
+			respond(exchange, 412, "<Error><Code>PreconditionFailed</Code></Error>");
+			return false;
+		}
+		if (ifNoneMatch != null && ifNoneMatch.equals(etags.get(key)) && (exchange.getRequestMethod().equals("GET") || exchange.getRequestMethod().equals("HEAD"))) {
+			exchange.getResponseHeaders().set("ETag", ifNoneMatch);
+			respond(exchange, 304, (byte[])null);
+			return false;
+		}
+		return true;
+	}
+
+	private void get(final HttpExchange exchange, final String key) throws IOException {
+
+		final byte[] data = objects.get(key);
+		if (data == null) {
+			respond(exchange, 404, "<Error><Code>NoSuchKey</Code></Error>");
+			return;
+		}
+		if (!checkConditions(exchange, key))
+			return;
+
+		exchange.getResponseHeaders().set("ETag", etags.get(key));
+		final String range = exchange.getRequestHeaders().getFirst("Range");
+		if (range == null) {
+			if (exchange.getRequestMethod().equals("HEAD"))
+				exchange.getResponseHeaders().set("Content-Length", Integer.toString(data.length));
+			respond(exchange, 200, data);
+			return;
+		}
+
+		numRangedGets.incrementAndGet();
+		final String[] bounds = range.substring("bytes=".length()).split("-", -1);
+		final int first = Integer.parseInt(bounds[0]);
+		final int last = bounds[1].isEmpty() ? data.length - 1 : Math.min(Integer.parseInt(bounds[1]), data.length - 1);
+		if (first >= data.length) {
+			respond(exchange, 416, "<Error><Code>InvalidRange</Code></Error>");
+			return;
+		}
+		final byte[] slice = new byte[last - first + 1];
+		System.arraycopy(data, first, slice, 0, slice.length);
+		exchange.getResponseHeaders().set("Content-Range", "bytes " + first + "-" + last + "/" + data.length);
+		respond(exchange, 206, slice);
+	}
+
+	private void list(final HttpExchange exchange, final Map<String, String> query) throws IOException {
+
+		final String prefix = query.getOrDefault("prefix", "");
+		final String delimiter = query.get("delimiter");
+		final int maxKeys = Integer.parseInt(query.getOrDefault("max-keys", "1000"));
+		/* the last key or common prefix of the previous page */
+		final String after = query.get("continuation-token");
+
+		final StringBuilder contents = new StringBuilder();
+		String last = null;
+		int count = 0;
+		boolean truncated = false;
+		for (final String key : objects.tailMap(prefix, true).keySet()) {
+			if (!key.startsWith(prefix))
+				break;
+			if (after != null && (key.compareTo(after) <= 0 || (delimiter != null && after.endsWith(delimiter) && key.startsWith(after))))
+				continue;
+			final int d = delimiter == null ? -1 : key.indexOf(delimiter, prefix.length());
+			final String commonPrefix = d < 0 ? null : key.substring(0, d + delimiter.length());
+			if (commonPrefix != null && commonPrefix.equals(last))
+				continue;
+			if (count == maxKeys) {
+				truncated = true;
+				break;
+			}
+			if (commonPrefix != null) {
+				contents.append("<CommonPrefixes><Prefix>").append(escape(commonPrefix)).append("</Prefix></CommonPrefixes>");
+				last = commonPrefix;
+			} else {
+				contents.append("<Contents><Key>").append(escape(key)).append("</Key><Size>").append(objects.get(key).length).append("</Size></Contents>");
+				last = key;
+			}
+			++count;
+		}
+
+		final StringBuilder xml = new StringBuilder("<ListBucketResult>");
+		xml.append("<KeyCount>").append(count).append("</KeyCount>");
+		xml.append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+		if (truncated)
+			xml.append("<NextContinuationToken>").append(escape(last)).append("</NextContinuationToken>");
+		xml.append(contents).append("</ListBucketResult>");
+		respond(exchange, 200, xml.toString());
+	}
+
+	private void putObject(final HttpExchange exchange, final String key, final byte[] body) throws IOException {
+
+		numPutObjects.incrementAndGet();
+		if (!checkConditions(exchange, key))
+			return;
+		put(key, body);
+		exchange.getResponseHeaders().set("ETag", etags.get(key));
+		respond(exchange, 200, (byte[])null);
+	}
+
+	private void deleteObjects(final HttpExchange exchange, final byte[] body) throws IOException {
+
+		if (exchange.getRequestHeaders().getFirst("Content-MD5") == null) {
+			respond(exchange, 400, "<Error><Code>MissingContentMD5</Code></Error>");
+			return;
+		}
+		numDeleteBatches.incrementAndGet();
+		final Matcher matcher = KEY.matcher(new String(body, StandardCharsets.UTF_8));
+		while (matcher.find()) {
+			final String key = unescape(matcher.group(1));
+			objects.remove(key);
+			etags.remove(key);
+		}
+		respond(exchange, 200, "<DeleteResult></DeleteResult>");
+	}
+
+	private void initiateUpload(final HttpExchange exchange) throws IOException {
+
+		final String uploadId = UUID.randomUUID().toString();
+		uploads.put(uploadId, new TreeMap<>());
+		respond(exchange, 200, "<InitiateMultipartUploadResult><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+	}
+
+	private void uploadPart(final HttpExchange exchange, final Map<String, String> query, final byte[] body) throws IOException {
+
+		final TreeMap<Integer, byte[]> parts = uploads.get(query.get("uploadId"));
+		if (parts == null) {
+			respond(exchange, 404, "<Error><Code>NoSuchUpload</Code></Error>");
+			return;
+		}
+		numPartUploads.incrementAndGet();
+		parts.put(Integer.parseInt(query.get("partNumber")), body);
+		exchange.getResponseHeaders().set("ETag", etag(body));
+		respond(exchange, 200, (byte[])null);
+	}
+
+	private void completeUpload(final HttpExchange exchange, final String key, final Map<String, String> query, final byte[] body) throws IOException {
+
+		final TreeMap<Integer, byte[]> parts = uploads.get(query.get("uploadId"));
+		if (parts == null) {
+			respond(exchange, 404, "<Error><Code>NoSuchUpload</Code></Error>");
+			return;
+		}
+		if (!checkConditions(exchange, key))
+			return;
+
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		final Matcher matcher = PART.matcher(new String(body, StandardCharsets.UTF_8));
+		int numParts = 0;
+		while (matcher.find()) {
+			final byte[] part = parts.get(Integer.parseInt(matcher.group(1)));
+			if (part == null) {
+				respond(exchange, 400, "<Error><Code>InvalidPart</Code></Error>");
+				return;
+			}
+			data.write(part);
+			++numParts;
+		}
+		uploads.remove(query.get("uploadId"));
+		final byte[] object = data.toByteArray();
+		objects.put(key, object);
+		final String etag = "\"" + md5(object) + "-" + numParts + "\"";
+		etags.put(key, etag);
+		respond(exchange, 200, "<CompleteMultipartUploadResult><Key>" + escape(key) + "</Key><ETag>" + escape(etag) + "</ETag></CompleteMultipartUploadResult>");
+	}
+}
@@ -0,0 +1,267 @@
+package org.janelia.saalfeldlab.n5.kva;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.janelia.saalfeldlab.n5.DataType;
+import org.janelia.saalfeldlab.n5.DatasetAttributes;
+import org.janelia.saalfeldlab.n5.IntArrayDataBlock;
+import org.janelia.saalfeldlab.n5.KeyValueAccess;
+import org.janelia.saalfeldlab.n5.N5Exception.N5IOException;
+import org.janelia.saalfeldlab.n5.N5Exception.N5NoSuchKeyException;
+import org.janelia.saalfeldlab.n5.N5KeyValueReader;
+import org.janelia.saalfeldlab.n5.N5KeyValueWriter;
+import org.janelia.saalfeldlab.n5.N5Reader;
+import org.janelia.saalfeldlab.n5.N5Writer;
+import org.janelia.saalfeldlab.n5.ZipKeyValueAccess;
+import org.janelia.saalfeldlab.n5.readdata.ReadData;
+import org.janelia.saalfeldlab.n5.readdata.VolatileReadData;
+import org.junit.Test;
+
+import com.google.gson.GsonBuilder;
+
+public class ZipKeyValueAccessTest extends AbstractKeyValueAccessTest {
+
+	private static final ZipKeyValueAccess zipKva = new ZipKeyValueAccess(tempZipFile(), true, false);
+
+	private static Path tempZipFile() {
+
+		try {
+			final Path zipFile = Files.createTempFile("n5-zip-kva-test-", ".zip");
+			Files.delete(zipFile);
+			zipFile.toFile().deleteOnExit();
+			return zipFile;
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	protected KeyValueAccess newKeyValueAccess(final URI root) {
+
+		return zipKva;
+	}
+
+	@Override
+	protected URI tempUri() {
+
+		return URI.create("/n5-zip-kva-test/");
+	}
+
+	private static byte[] read(final KeyValueAccess kva, final String key) {
+
+		try (final VolatileReadData readData = kva.createReadData(key)) {
+			return readData.allBytes();
+		}
+	}
+
+	@Test
+	public void testReadWrite() throws IOException {
+
+		final Path zipFile = tempZipFile();
+		try (final ZipKeyValueAccess kva = new ZipKeyValueAccess(zipFile, true, false)) {
+
+			kva.createDirectories("/a/b");
+			kva.write("/a/0", ReadData.from(new byte[]{1, 2, 3}));
+			kva.write("/a/c/0", ReadData.from(new byte[]{4}));
+			kva.write("/a/d/0", ReadData.from(new byte[]{5}));
+
+			assertTrue(kva.isDirectory("/"));
+			assertTrue(kva.isDirectory("/a"));
+			assertTrue(kva.isDirectory("/a/b/"));
+			assertTrue(kva.isDirectory("/a/c"));
+			assertFalse(kva.isDirectory("/a/0"));
+			assertTrue(kva.isFile("/a/0"));
+			assertFalse(kva.exists("/b"));
+			assertEquals(3, kva.size("/a/0"));
+			assertEquals("", kva.version("/b"));
+
+			assertArrayEquals(new String[]{"0", "b", "c", "d"}, kva.list("/a"));
+			assertArrayEquals(new String[]{"b", "c", "d"}, kva.listDirectories("/a"));
+			assertArrayEquals(new String[]{"a"}, kva.list("/"));
+			assertArrayEquals(new String[0], kva.list("/a/b"));
+			assertThrows(N5NoSuchKeyException.class, () -> kva.list("/b"));
+
+			// an open reader keeps reading the entry it opened
+			final String version = kva.version("/a/0");
+			try (final VolatileReadData readData = kva.createReadData("/a/0")) {
+				kva.write("/a/0", ReadData.from(new byte[]{6, 7}));
+				assertArrayEquals(new byte[]{1, 2, 3}, readData.allBytes());
+			}
+			assertArrayEquals(new byte[]{6, 7}, read(kva, "/a/0"));
+			assertNotEquals(version, kva.version("/a/0"));
+
+			kva.delete("/a/c");
+			assertFalse(kva.exists("/a/c"));
+			assertFalse(kva.exists("/a/c/0"));
+			assertThrows(N5NoSuchKeyException.class, () -> read(kva, "/a/c/0"));
+			assertArrayEquals(new String[]{"0", "b", "d"}, kva.list("/a"));
+		}
+
+		// the archive is readable by other implementations
+		try (final ZipFile zip = new ZipFile(zipFile.toFile())) {
+			final ZipEntry entry = zip.getEntry("a/0");
+			try (final InputStream in = zip.getInputStream(entry)) {
+				final byte[] data = new byte[2];
+				assertEquals(2, in.read(data));
+				assertArrayEquals(new byte[]{6, 7}, data);
+			}
+			assertEquals(null, zip.getEntry("a/c/0"));
+			assertEquals(3, zip.size());
+		}
+
+		// reopen and append
+		try (final ZipKeyValueAccess kva = new ZipKeyValueAccess(zipFile, true, false)) {
+			assertArrayEquals(new byte[]{6, 7}, read(kva, "/a/0"));
+			kva.write("/a/e", ReadData.from(new byte[]{8}));
+		}
+
+		for (final boolean memoryMapped : new boolean[]{false, true}) {
+			try (final ZipKeyValueAccess kva = new ZipKeyValueAccess(zipFile, false, memoryMapped)) {
+				assertArrayEquals(new byte[]{6, 7}, read(kva, "/a/0"));
+				assertArrayEquals(new byte[]{5}, read(kva, "/a/d/0"));
+				assertArrayEquals(new byte[]{8}, read(kva, "/a/e"));
+				try (final VolatileReadData readData = kva.createReadData("/a/0")) {
+					assertArrayEquals(new byte[]{7}, readData.slice(1, 1).allBytes());
+				}
+				assertThrows(N5IOException.class, () -> kva.write("/a/f", ReadData.from(new byte[]{9})));
+			}
+		}
+		Files.delete(zipFile);
+	}
+
+	@Test
+	public void testZip64() throws IOException {
+
+		final Path zipFile = tempZipFile();
+		final int numEntries = 0x10010;
+		try (final ZipKeyValueAccess kva = new ZipKeyValueAccess(zipFile, true, false)) {
+			for (int i = 0; i < numEntries; ++i)
+				kva.write("/" + i, ReadData.from(new byte[]{(byte)i}));
+		}
+		try (final ZipKeyValueAccess kva = new ZipKeyValueAccess(zipFile)) {
+			assertEquals(numEntries, kva.numEntries());
+			assertArrayEquals(new byte[]{(byte)(numEntries - 1)}, read(kva, "/" + (numEntries - 1)));
+		}
+		try (final ZipFile zip = new ZipFile(zipFile.toFile())) {
+			assertEquals(numEntries, zip.size());
+		}
+		Files.delete(zipFile);
+	}
+
+	@Test
+	public void testAppendKeepsCentralDirectory() throws IOException {
+
+		final Path zipFile = tempZipFile();
+		try (final ZipKeyValueAccess kva = new ZipKeyValueAccess(zipFile, true, false)) {
+			kva.write("/a", ReadData.from(new byte[]{1}));
+		}
+
+		// larger than the comment that may follow the end of central directory record
+		final byte[] data = new byte[100000];
+		Arrays.fill(data, (byte)2);
+		final Path crashedFile = tempZipFile();
+		try (final ZipKeyValueAccess kva = new ZipKeyValueAccess(zipFile, true, false)) {
+			kva.write("/b", ReadData.from(data));
+			kva.delete("/a");
+
+			// a copy of the archive before flush, as if the writer crashed
+			Files.copy(zipFile, crashedFile);
+		}
+
+		try (final ZipKeyValueAccess kva = new ZipKeyValueAccess(crashedFile)) {
+			assertArrayEquals(new String[]{"a"}, kva.list("/"));
+			assertArrayEquals(new byte[]{1}, read(kva, "/a"));
+		}
+		try (final ZipKeyValueAccess kva = new ZipKeyValueAccess(zipFile)) {
+			assertArrayEquals(new String[]{"b"}, kva.list("/"));
+			assertArrayEquals(data, read(kva, "/b"));
+		}
+		try (final ZipFile zip = new ZipFile(zipFile.toFile())) {
+			assertEquals(1, zip.size());
+		}
+		Files.delete(crashedFile);
+		Files.delete(zipFile);
+	}
+
+	@Test
+	public void testKeepCompressedEntries() throws IOException {
+
+		final Path zipFile = tempZipFile();
+		final byte[] data = new byte[1000];
+		Arrays.fill(data, (byte)7);
+		try (final ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+			out.putNextEntry(new ZipEntry("deflated"));
+			out.write(data);
+			out.closeEntry();
+		}
+
+		try (final ZipKeyValueAccess kva = new ZipKeyValueAccess(zipFile, true, false)) {
+			assertEquals(data.length, kva.size("/deflated"));
+			assertThrows(N5IOException.class, () -> read(kva, "/deflated"));
+			kva.write("/stored", ReadData.from(new byte[]{1}));
+		}
+
+		// the compressed entry is still readable by other implementations
+		try (final ZipFile zip = new ZipFile(zipFile.toFile())) {
+			final ZipEntry entry = zip.getEntry("deflated");
+			assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+			try (final InputStream in = zip.getInputStream(entry)) {
+				final byte[] readData = new byte[data.length];
+				int n = 0;
+				for (int i; n < data.length && (i = in.read(readData, n, data.length - n)) > 0;)
+					n += i;
+				assertEquals(data.length, n);
+				assertArrayEquals(data, readData);
+			}
+			assertEquals(2, zip.size());
+		}
+		Files.delete(zipFile);
+	}
+
+	@Test
+	public void testN5RoundTrip() throws IOException {
+
+		final Path zipFile = tempZipFile();
+		final DatasetAttributes attributes = new DatasetAttributes(new long[]{8, 8}, new int[]{4, 4}, DataType.INT32);
+		final int[] data = new int[16];
+		Arrays.setAll(data, i -> i);
+
+		try (final ZipKeyValueAccess kva = new ZipKeyValueAccess(zipFile, true, false)) {
+			final N5Writer n5 = new N5KeyValueWriter(kva, "/", new GsonBuilder(), true);
+			n5.createGroup("/group");
+			n5.setAttribute("/group", "key", "value");
+			n5.createDataset("/group/dataset", attributes);
+			n5.writeBlock("/group/dataset", attributes, new IntArrayDataBlock(new int[]{4, 4}, new long[]{1, 1}, data));
+			n5.close();
+		}
+
+		for (final boolean memoryMapped : new boolean[]{false, true}) {
+			try (final ZipKeyValueAccess kva = new ZipKeyValueAccess(zipFile, false, memoryMapped)) {
+				final N5Reader n5 = new N5KeyValueReader(kva, "/", new GsonBuilder(), true);
+				assertEquals("value", n5.getAttribute("/group", "key", String.class));
+				assertArrayEquals(new String[]{"dataset"}, n5.list("/group"));
+				assertTrue(n5.datasetExists("/group/dataset"));
+				final DatasetAttributes readAttributes = n5.getDatasetAttributes("/group/dataset");
+				assertArrayEquals(data, (int[])n5.readBlock("/group/dataset", readAttributes, 1, 1).getData());
+				assertEquals(null, n5.readBlock("/group/dataset", readAttributes, 0, 0));
+			}
+		}
+		Files.delete(zipFile);
+	}
+}